@@ -0,0 +1,76 @@
+package com.distributed.bench;
+
+import com.distributed.bitonic.BitonicSortService;
+import com.distributed.common.PrimitiveUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken to sort a batch of small random arrays with a single
+ * call to {@link BitonicSortService#sortBatch(int[][])}, compared with sorting
+ * each array of the batch with its own call to {@link BitonicSortService#sort(int[])}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class BatchSortBenchmark {
+
+    private static final long SEED = 464;
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    @Param({"64", "1024"})
+    public int count;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private int[][] mSource;
+    private int[][] mData;
+    private BitonicSortService mService;
+
+    @Setup(Level.Trial)
+    public void createService() {
+        final Random random = new Random(SEED);
+        mSource = new int[count][];
+        mData = new int[count][size];
+        for (int i = 0; i < count; i++) {
+            mSource[i] = PrimitiveUtils.randomArray(random, size);
+        }
+        mService = new BitonicSortService(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownService() throws InterruptedException {
+        mService.shutdown();
+        mService.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetData() {
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(mSource[i], 0, mData[i], 0, size);
+        }
+    }
+
+    @Benchmark
+    public int[][] batch() {
+        mService.sortBatch(mData);
+        return mData;
+    }
+
+    @Benchmark
+    public int[][] oneByOne() {
+        for (int[] data : mData) {
+            mService.sort(data);
+        }
+        return mData;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.distributed.bench;
+
+import com.distributed.bitonic.BitonicExecutor;
+import com.distributed.bitonic.BlockBitonicExecutor;
+import com.distributed.bitonic.CacheBudget;
+import com.distributed.bitonic.ForkJoinBitonicExecutor;
+import com.distributed.bitonic.GrainSize;
+import com.distributed.bitonic.PhaserBitonicExecutor;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+/**
+ * Provides utilities that are shared between benchmarks.
+ */
+class Benchmarks {
+
+    static final String EVENT_ENGINE = "event";
+    static final String FORK_JOIN_ENGINE = "forkjoin";
+    static final String PHASER_ENGINE = "phaser";
+    static final String PHASER_L1_ENGINE = "phaser-l1";
+    static final String BLOCK_ENGINE = "block";
+
+    /**
+     * Creates the sorting engine with the provided name.
+     *
+     * @param name       One of the engine names defined by this class.
+     * @param numThreads The number of threads that the engine should use.
+     * @param data       The data to sort.
+     * @param polarity   The desired {@link Polarity} of the result.
+     * @return A {@link Runnable} that sorts the data when run.
+     * @throws IllegalArgumentException if the name is not recognized.
+     */
+    static Runnable engineOf(String name, int numThreads, int[] data, Polarity polarity) {
+        switch (name) {
+            case EVENT_ENGINE:
+                return new BitonicExecutor(numThreads, data, polarity);
+            case FORK_JOIN_ENGINE:
+                return new ForkJoinBitonicExecutor(numThreads, data, polarity);
+            case PHASER_ENGINE:
+                return new PhaserBitonicExecutor(numThreads, data, polarity);
+            case PHASER_L1_ENGINE:
+                return new PhaserBitonicExecutor(numThreads, new IntSortData(data), 0, data.length, polarity,
+                        GrainSize.CACHE_LINE_INTS, CacheBudget.L1);
+            case BLOCK_ENGINE:
+                return new BlockBitonicExecutor(numThreads, data, polarity);
+            default:
+                final String message = "Unknown engine: " + name;
+                throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Converts the name of a {@link Polarity} into the matching object, as
+     * JMH parameters can only be provided as {@link String} values.
+     *
+     * @param name Either {@code "ASCENDING"} or {@code "DESCENDING"}.
+     * @return The matching {@link Polarity}.
+     * @throws IllegalArgumentException if the name is not recognized.
+     */
+    static Polarity polarityOf(String name) {
+        switch (name) {
+            case "ASCENDING":
+                return Polarity.ASCENDING;
+            case "DESCENDING":
+                return Polarity.DESCENDING;
+            default:
+                final String message = "Unknown polarity: " + name;
+                throw new IllegalArgumentException(message);
+        }
+    }
+
+}
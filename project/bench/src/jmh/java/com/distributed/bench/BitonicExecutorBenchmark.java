@@ -0,0 +1,73 @@
+package com.distributed.bench;
+
+import com.distributed.bitonic.BitonicExecutor;
+import com.distributed.bitonic.ForkJoinBitonicExecutor;
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.sorting.Polarity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end time taken by {@link BitonicExecutor#run()} to sort
+ * a random array, across a range of data sizes, thread counts and
+ * {@link Polarity} values.
+ * <p>
+ * The {@code engine} parameter selects the implementation that performs the
+ * sort, so that alternative engines such as the {@link ForkJoinBitonicExecutor}
+ * can be compared side by side with the original.
+ * </p>
+ * <p>
+ * The unsorted source data is generated once per trial from a fixed seed, and
+ * copied into a working array before each invocation so that every invocation
+ * sorts identical input.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class BitonicExecutorBenchmark {
+
+    private static final long SEED = 464;
+
+    @Param({"1024", "16384", "65536"})
+    public int size;
+
+    @Param({"1", "2", "4", "8", "20"})
+    public int threads;
+
+    @Param({"ASCENDING", "DESCENDING"})
+    public String polarity;
+
+    @Param({Benchmarks.EVENT_ENGINE, Benchmarks.FORK_JOIN_ENGINE, Benchmarks.PHASER_ENGINE,
+            Benchmarks.PHASER_L1_ENGINE, Benchmarks.BLOCK_ENGINE})
+    public String engine;
+
+    private int[] mSource;
+    private int[] mData;
+    private Polarity mPolarity;
+
+    @Setup(Level.Trial)
+    public void createSource() {
+        mSource = PrimitiveUtils.randomArray(new Random(SEED), size);
+        mData = new int[size];
+        mPolarity = Benchmarks.polarityOf(polarity);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetData() {
+        System.arraycopy(mSource, 0, mData, 0, size);
+    }
+
+    @Benchmark
+    public int[] bitonicExecutor() {
+        final Runnable executor = Benchmarks.engineOf(engine, threads, mData, mPolarity);
+        executor.run();
+        return mData;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.distributed.bench;
+
+import com.distributed.bitonic.BitonicSortService;
+import com.distributed.bitonic.ForkJoinBitonicExecutor;
+import com.distributed.bitonic.PooledSortService;
+import com.distributed.common.PrimitiveUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken to sort a small random array with a long-lived
+ * {@link BitonicSortService}, compared with creating a new
+ * {@link ForkJoinBitonicExecutor} (and with it a new thread pool) for
+ * every sort. A long-lived {@link PooledSortService}, which does not allocate
+ * once it has warmed up, is measured alongside them.
+ * <p>
+ * The services are created once per trial, so the measured time only includes
+ * the sort itself, while the executor pays for thread startup on every
+ * invocation.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class BitonicSortServiceBenchmark {
+
+    private static final long SEED = 464;
+
+    @Param({"1", "16", "1024", "16384"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private int[] mSource;
+    private int[] mData;
+    private BitonicSortService mService;
+    private PooledSortService mPooledService;
+
+    @Setup(Level.Trial)
+    public void createService() {
+        mSource = PrimitiveUtils.randomArray(new Random(SEED), size);
+        mData = new int[size];
+        mService = new BitonicSortService(threads);
+        mPooledService = new PooledSortService(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownService() throws InterruptedException {
+        mService.shutdown();
+        mService.awaitTermination(1, TimeUnit.MINUTES);
+        mPooledService.shutdown();
+        mPooledService.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetData() {
+        System.arraycopy(mSource, 0, mData, 0, size);
+    }
+
+    @Benchmark
+    public int[] sharedService() {
+        mService.sort(mData);
+        return mData;
+    }
+
+    @Benchmark
+    public int[] pooledService() {
+        mPooledService.sort(mData);
+        return mData;
+    }
+
+    @Benchmark
+    public int[] executorPerSort() {
+        new ForkJoinBitonicExecutor(threads, mData).run();
+        return mData;
+    }
+
+}
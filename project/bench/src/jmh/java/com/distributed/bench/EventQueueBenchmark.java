@@ -0,0 +1,102 @@
+package com.distributed.bench;
+
+import com.distributed.events.EventNotifier;
+import com.distributed.events.EventQueue;
+import com.distributed.events.IEventNotifier;
+import com.distributed.events.LockFreeEventQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Measures the time taken to pass a fixed number of events from a number of
+ * producer threads to a single consumer through an {@link EventQueue}, compared
+ * with a {@link LockFreeEventQueue}, which is the pattern of the event engine.
+ * <p>
+ * Each producer signals its share of the events through its own
+ * {@link EventNotifier}, while the benchmark thread reads every event. The
+ * producer threads are started once per trial, so the measured time only
+ * includes handing the events over.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class EventQueueBenchmark {
+
+    private static final int NUM_EVENTS = 1 << 16;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int producers;
+
+    private ExecutorService mProducers;
+
+    @Setup(Level.Trial)
+    public void startProducers() {
+        mProducers = Executors.newFixedThreadPool(producers);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopProducers() throws InterruptedException {
+        mProducers.shutdown();
+        mProducers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public long eventQueue() throws ExecutionException, InterruptedException {
+        final EventQueue<Integer> queue = new EventQueue<>();
+        return transfer(queue::registerNotifier, queue::get);
+    }
+
+    @Benchmark
+    public long lockFreeEventQueue() throws ExecutionException, InterruptedException {
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        return transfer(queue::registerNotifier, queue::get);
+    }
+
+    /**
+     * Passes every event from the producers to the current thread.
+     *
+     * @param register Registers an {@link IEventNotifier} with the queue.
+     * @param get      Reads a single event from the queue.
+     * @return The sum of the events, so that reading them cannot be removed.
+     * @throws ExecutionException   if a producer failed.
+     * @throws InterruptedException if the current thread was interrupted.
+     */
+    private long transfer(Consumer<IEventNotifier<Integer>> register, Supplier<Integer> get)
+            throws ExecutionException, InterruptedException {
+        final int perProducer = NUM_EVENTS / producers;
+
+        final List<Future<?>> results = new ArrayList<>(producers);
+        for (int producer = 0; producer < producers; producer++) {
+            final EventNotifier<Integer> notifier = new EventNotifier<>(perProducer);
+            register.accept(notifier);
+            results.add(mProducers.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    notifier.signal(i);
+                }
+            }));
+        }
+
+        long sum = 0;
+        for (int i = 0; i < perProducer * producers; i++) {
+            sum += get.get();
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        return sum;
+    }
+
+}
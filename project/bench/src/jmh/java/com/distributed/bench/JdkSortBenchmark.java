@@ -0,0 +1,89 @@
+package com.distributed.bench;
+
+import com.distributed.common.PrimitiveUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Arrays#sort(int[])} and {@link Arrays#parallelSort(int[])}
+ * on the same input as {@link BitonicExecutorBenchmark}, in order to provide a
+ * baseline that the bitonic sort can be compared against.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class JdkSortBenchmark {
+
+    private static final long SEED = 464;
+
+    /**
+     * Represents the data that is sorted by each invocation.
+     */
+    @State(Scope.Thread)
+    public static class SortState {
+
+        @Param({"1024", "16384", "65536"})
+        public int size;
+
+        int[] mSource;
+        int[] mData;
+
+        @Setup(Level.Trial)
+        public void createSource() {
+            mSource = PrimitiveUtils.randomArray(new Random(SEED), size);
+            mData = new int[size];
+        }
+
+        @Setup(Level.Invocation)
+        public void resetData() {
+            System.arraycopy(mSource, 0, mData, 0, size);
+        }
+
+    }
+
+    /**
+     * Represents the data that is sorted by each invocation, along with a
+     * dedicated {@link ForkJoinPool} so that {@link Arrays#parallelSort(int[])}
+     * uses the requested number of threads rather than the common pool.
+     */
+    @State(Scope.Thread)
+    public static class ParallelSortState extends SortState {
+
+        @Param({"1", "2", "4", "8", "20"})
+        public int threads;
+
+        ForkJoinPool mPool;
+
+        @Setup(Level.Trial)
+        public void createPool() {
+            mPool = new ForkJoinPool(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdownPool() {
+            mPool.shutdown();
+        }
+
+    }
+
+    @Benchmark
+    public int[] arraysSort(SortState state) {
+        Arrays.sort(state.mData);
+        return state.mData;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort(ParallelSortState state) throws ExecutionException, InterruptedException {
+        final int[] data = state.mData;
+        state.mPool.submit(() -> Arrays.parallelSort(data)).get();
+        return data;
+    }
+
+}
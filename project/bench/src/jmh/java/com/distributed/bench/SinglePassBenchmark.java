@@ -0,0 +1,66 @@
+package com.distributed.bench;
+
+import com.distributed.bitonic.SinglePassElementSwapper;
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.sorting.ISwapDecision;
+import com.distributed.sorting.Polarity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single pass of the {@link SinglePassElementSwapper} over random
+ * data, which is the innermost loop of every sorting engine.
+ * <p>
+ * The {@code decision} parameter selects either one of the {@link Polarity}
+ * objects, which use the specialized kernels, or {@code GENERIC}, which wraps
+ * {@link Polarity#ASCENDING} in another {@link ISwapDecision} so that the
+ * generic path is used for the same comparisons. Each invocation restores the
+ * random source data before the pass, so that the cost of the copy is shared
+ * equally by every variant.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class SinglePassBenchmark {
+
+    private static final long SEED = 464;
+    private static final String GENERIC = "GENERIC";
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    @Param({"ASCENDING", "DESCENDING", GENERIC})
+    public String decision;
+
+    private int[] mSource;
+    private int[] mData;
+    private SinglePassElementSwapper mSwapper;
+
+    @Setup(Level.Trial)
+    public void createSource() {
+        mSource = PrimitiveUtils.randomArray(new Random(SEED), size);
+        mData = new int[size];
+
+        final ISwapDecision swapDecision;
+        if (GENERIC.equals(decision)) {
+            swapDecision = Polarity.ASCENDING::shouldSwap;
+        } else {
+            swapDecision = Benchmarks.polarityOf(decision);
+        }
+        mSwapper = new SinglePassElementSwapper(mData, swapDecision);
+    }
+
+    @Benchmark
+    public int[] singlePass() {
+        System.arraycopy(mSource, 0, mData, 0, size);
+        mSwapper.execute();
+        return mData;
+    }
+
+}
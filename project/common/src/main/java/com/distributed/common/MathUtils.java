@@ -16,6 +16,17 @@ public class MathUtils {
         return num > 0 && (num & (num - 1)) == 0;
     }
 
+    /**
+     * Finds the greatest power of 2 that is strictly less than a number.
+     *
+     * @param num The {@link Integer} to compare against. Must be greater than 1.
+     * @return The greatest power of 2 that is less than {@code num}.
+     */
+    public static int greatestPowerOfTwoLessThan(int num) {
+        assert num > 1;
+        return Integer.highestOneBit(num - 1);
+    }
+
     /**
      * Performs integer division where the result is rounded up rather than
      * down in the case that {@code numerator % denominator != 0}. Avoids
@@ -6,6 +6,10 @@ import ast, pathlib
 This script assumes that you have created an 'out#' folder and have
 created a file in it called 'source' that contains the raw array
 dumps from the Java code.
+
+Rather than adding dumps to the Java code by hand, sort with
+'--trace trace.bin' and convert the trace into the source file with
+'java -cp bitonic-sort.jar com.distributed.tracing.TraceConverter trace.bin out1/source'.
 """
 
 OUTPUT = 1
@@ -0,0 +1,79 @@
+package com.distributed.jfr;
+
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.ISortProfiler;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Represents an {@link ISortProfiler} implementation that records sorts as
+ * Java Flight Recorder events, in the {@value #CATEGORY} category.
+ * <p>
+ * Each event is only filled in and started when Flight Recorder has enabled
+ * it. Otherwise {@link IProfilerEvent#NONE} is returned, and the event that was
+ * created to ask is never used, so the JIT can remove its allocation.
+ * </p>
+ */
+public class JfrSortProfiler implements ISortProfiler {
+
+    static final String CATEGORY = "Bitonic Sort";
+
+    @Override
+    public boolean isSupported() {
+        return FlightRecorder.isAvailable();
+    }
+
+    @Override
+    public IProfilerEvent beginSort(String engine, int length, int numThreads) {
+        final SortEvent event = new SortEvent();
+        if (!event.isEnabled()) {
+            return IProfilerEvent.NONE;
+        }
+
+        event.engine = engine;
+        event.length = length;
+        event.threads = numThreads;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public IProfilerEvent beginRound(int round, long groupSize, int windowCount) {
+        final RoundEvent event = new RoundEvent();
+        if (!event.isEnabled()) {
+            return IProfilerEvent.NONE;
+        }
+
+        event.round = round;
+        event.groupSize = groupSize;
+        event.windowCount = windowCount;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public IProfilerEvent beginSwap(int start, int length, boolean sortWindow) {
+        final SwapEvent event = new SwapEvent();
+        if (!event.isEnabled()) {
+            return IProfilerEvent.NONE;
+        }
+
+        event.start = start;
+        event.length = length;
+        event.sortWindow = sortWindow;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public IProfilerEvent beginStall(int poolSize) {
+        final StallEvent event = new StallEvent();
+        if (!event.isEnabled()) {
+            return IProfilerEvent.NONE;
+        }
+
+        event.poolSize = poolSize;
+        event.begin();
+        return event;
+    }
+
+}
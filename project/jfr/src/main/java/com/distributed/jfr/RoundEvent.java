@@ -0,0 +1,34 @@
+package com.distributed.jfr;
+
+import com.distributed.profiling.IProfilerEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents a Flight Recorder event that covers a single round of a sort.
+ */
+@Name(RoundEvent.NAME)
+@Label("Sort Round")
+@Description("A single round of a sort, in which groups of a single size are merged")
+@Category(JfrSortProfiler.CATEGORY)
+@StackTrace(false)
+class RoundEvent extends jdk.jfr.Event implements IProfilerEvent {
+
+    static final String NAME = "com.distributed.SortRound";
+
+    @Label("Round")
+    @Description("The index of the round within the sort")
+    int round;
+
+    @Label("Group Size")
+    @Description("The size of the groups that are merged by the round")
+    long groupSize;
+
+    @Label("Windows")
+    @Description("The number of windows that the round starts with")
+    int windowCount;
+
+}
@@ -0,0 +1,34 @@
+package com.distributed.jfr;
+
+import com.distributed.profiling.IProfilerEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents a Flight Recorder event that covers a whole sort.
+ */
+@Name(SortEvent.NAME)
+@Label("Sort")
+@Description("A whole sort, from the first round to the last")
+@Category(JfrSortProfiler.CATEGORY)
+@StackTrace(false)
+class SortEvent extends jdk.jfr.Event implements IProfilerEvent {
+
+    static final String NAME = "com.distributed.Sort";
+
+    @Label("Engine")
+    @Description("The name of the engine performing the sort")
+    String engine;
+
+    @Label("Length")
+    @Description("The number of elements being sorted")
+    int length;
+
+    @Label("Threads")
+    @Description("The number of threads performing the sort")
+    int threads;
+
+}
@@ -0,0 +1,26 @@
+package com.distributed.jfr;
+
+import com.distributed.profiling.IProfilerEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Represents a Flight Recorder event that covers the time a caller was blocked
+ * waiting for a free worker of an executor. The stack trace is kept, so the
+ * caller that was held back can be found.
+ */
+@Name(StallEvent.NAME)
+@Label("Executor Stall")
+@Description("A caller blocked waiting for a free worker of an executor")
+@Category(JfrSortProfiler.CATEGORY)
+class StallEvent extends jdk.jfr.Event implements IProfilerEvent {
+
+    static final String NAME = "com.distributed.ExecutorStall";
+
+    @Label("Pool Size")
+    @Description("The number of workers in the pool")
+    int poolSize;
+
+}
@@ -0,0 +1,37 @@
+package com.distributed.jfr;
+
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents a Flight Recorder event that covers a single swapper. Only swappers
+ * with a window of at least {@link SortProfilers#getSwapThreshold()} elements are
+ * recorded, as there are far too many small ones.
+ */
+@Name(SwapEvent.NAME)
+@Label("Sort Swapper")
+@Description("A swapper that performs a pass over a large window of a sort")
+@Category(JfrSortProfiler.CATEGORY)
+@StackTrace(false)
+class SwapEvent extends jdk.jfr.Event implements IProfilerEvent {
+
+    static final String NAME = "com.distributed.SortSwapper";
+
+    @Label("Start")
+    @Description("The inclusive start of the window")
+    int start;
+
+    @Label("Length")
+    @Description("The number of elements in the window")
+    int length;
+
+    @Label("Sort Window")
+    @Description("Whether the swapper fully sorts the window rather than merging it")
+    boolean sortWindow;
+
+}
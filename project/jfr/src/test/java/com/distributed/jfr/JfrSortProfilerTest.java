@@ -0,0 +1,168 @@
+package com.distributed.jfr;
+
+import com.distributed.bitonic.BitonicExecutor;
+import com.distributed.bitonic.ForkJoinBitonicExecutor;
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
+import com.distributed.threading.BlockingExecutorService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class JfrSortProfilerTest {
+
+    private static final int NUM_THREADS = 4;
+    private static final int LENGTH = 1 << 18;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSelected() {
+        assertTrue(SortProfilers.get() instanceof JfrSortProfiler);
+    }
+
+    @Test
+    public void testDisabled() {
+        final JfrSortProfiler profiler = new JfrSortProfiler();
+
+        // Nothing is started while no recording has enabled the events.
+        assertSame(IProfilerEvent.NONE, profiler.beginSort("test", LENGTH, 1));
+        assertSame(IProfilerEvent.NONE, profiler.beginStall(1));
+    }
+
+    @Test
+    public void testSortEvents() throws IOException {
+        final List<RecordedEvent> events = record(() -> {
+            new BitonicExecutor(NUM_THREADS, PrimitiveUtils.randomArray(mRandom, LENGTH)).run();
+            new ForkJoinBitonicExecutor(NUM_THREADS, PrimitiveUtils.randomArray(mRandom, LENGTH)).run();
+        });
+
+        final List<RecordedEvent> sorts = named(events, SortEvent.NAME);
+        assertEquals(2, sorts.size());
+        for (RecordedEvent sort : sorts) {
+            assertEquals(LENGTH, sort.getInt("length"));
+            assertEquals(NUM_THREADS, sort.getInt("threads"));
+        }
+
+        // Both engines merge the same groups, and the last round merges the whole array.
+        final List<RecordedEvent> rounds = named(events, RoundEvent.NAME);
+        assertEquals(0, rounds.size() % 2);
+        assertTrue(rounds.stream().anyMatch(round -> round.getLong("groupSize") == LENGTH));
+
+        final List<RecordedEvent> swaps = named(events, SwapEvent.NAME);
+        assertFalse(swaps.isEmpty());
+        for (RecordedEvent swap : swaps) {
+            assertTrue(swap.getInt("length") >= SortProfilers.getSwapThreshold());
+        }
+    }
+
+    @Test
+    public void testStallEvents() throws IOException {
+        final List<RecordedEvent> events = record(() -> {
+            final BlockingExecutorService service = new BlockingExecutorService(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            service.execute(() -> await(release));
+
+            // The only worker is busy, so the second task is held back until the first is released.
+            final Thread releaser = new Thread(() -> {
+                sleep(10);
+                release.countDown();
+            });
+            releaser.start();
+            service.execute(() -> {
+            });
+
+            service.shutdown();
+            assertTrue(awaitTermination(service));
+        });
+
+        final List<RecordedEvent> stalls = named(events, StallEvent.NAME);
+        assertEquals(1, stalls.size());
+        assertEquals(1, stalls.get(0).getInt("poolSize"));
+        assertTrue(stalls.get(0).getDuration().toNanos() > 0);
+    }
+
+    /**
+     * Runs a task while every event of the profiler is being recorded.
+     *
+     * @param task The task to run.
+     * @return The events that were recorded.
+     * @throws IOException if the recording could not be read.
+     */
+    private static List<RecordedEvent> record(Runnable task) throws IOException {
+        final Path file = Files.createTempFile("sort", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{SortEvent.NAME, RoundEvent.NAME, SwapEvent.NAME, StallEvent.NAME}) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            task.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * @param events The recorded events.
+     * @param name   The name of the event type to keep.
+     * @return The events of the type.
+     */
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param service The service to wait for.
+     * @return {@code true} if the service terminated, {@code false} otherwise.
+     */
+    private static boolean awaitTermination(BlockingExecutorService service) {
+        try {
+            return service.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @param millis The number of milliseconds to sleep for.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param latch The {@link CountDownLatch} to wait for.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents a {@link RecursiveAction} that sorts a batch of {@link ISortData}
+ * objects that all have the same length, by running every one of them through
+ * each stage of a single {@link BitonicPlan} together.
+ * <p>
+ * The work items of a stage are numbered across the whole batch, so that item
+ * {@code i} is item {@code i % size} of the data at index {@code i / size}. The
+ * numbered items are then divided between tasks regardless of which data they
+ * belong to, so a batch of many small inputs is spread across the pool just as
+ * well as a single large input, and each task mostly touches a single input.
+ * </p>
+ */
+class BatchSortTask extends RecursiveAction {
+
+    /**
+     * Represents a {@link RecursiveAction} that performs a run of the numbered
+     * work items of a single stage, splitting the run in half until it is small
+     * enough for a single task.
+     */
+    private class StageAction extends RecursiveAction {
+
+        /**
+         * Create a new {@link StageAction} object.
+         *
+         * @param stage The index of the stage of the {@link BitonicPlan} to perform.
+         * @param first The inclusive number of the first work item.
+         * @param end   The exclusive number of the last work item.
+         */
+        StageAction(int stage, long first, long end) {
+            mStage = stage;
+            mFirst = first;
+            mEnd = end;
+        }
+
+        private final int mStage;
+        private final long mFirst;
+        private final long mEnd;
+
+        @Override
+        protected void compute() {
+            if (mEnd - mFirst > mPlan.getItemsPerTask(mStage)) {
+                final long center = (mFirst + mEnd) >>> 1;
+                invokeAll(new StageAction(mStage, mFirst, center), new StageAction(mStage, center, mEnd));
+                return;
+            }
+
+            final long size = mPlan.getStageSize(mStage);
+            long item = mFirst;
+            while (item < mEnd) {
+
+                // Each run of work items stops at the end of the data that it belongs to.
+                final int index = (int) (item / size);
+                final long stop = Math.min(mEnd, (index + 1) * size);
+                final long first = item - index * size;
+
+                mPlan.execute(mStage, mData[index], 0, first, first + (stop - item));
+                item = stop;
+            }
+        }
+
+    }
+
+    /**
+     * Create a new {@link BatchSortTask} object.
+     *
+     * @param data      The {@link ISortData} objects to sort, which must all have
+     *                  the same length.
+     * @param polarity  The desired {@link Polarity} of each result.
+     * @param grainSize The window size at or below which all remaining passes
+     *                  of a window are run sequentially by a single task.
+     */
+    BatchSortTask(ISortData[] data, Polarity polarity, int grainSize) {
+        assert data != null;
+        assert polarity != null;
+        assert GrainSize.isValid(grainSize);
+
+        final int length = data.length == 0 ? 0 : data[0].length();
+        for (ISortData element : data) {
+            assert element.length() == length;
+        }
+
+        mData = data;
+        mPlan = BitonicPlan.get(length, polarity, grainSize);
+    }
+
+    private final ISortData[] mData;
+    private final BitonicPlan mPlan;
+
+    @Override
+    protected void compute() {
+
+        // Each stage must be finished for the whole batch before the next stage begins.
+        for (int stage = 0; stage < mPlan.getStageCount(); stage++) {
+            final long count = mPlan.getStageSize(stage) * mData.length;
+            if (count > 0) {
+                new StageAction(stage, 0, count).invoke();
+            }
+        }
+    }
+
+}
@@ -1,13 +1,13 @@
 package com.distributed.bitonic;
 
 import com.distributed.common.MathUtils;
-import com.distributed.sorting.ISwapDecision;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
 import com.distributed.sorting.Polarity;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.function.Supplier;
 
 
 /**
@@ -21,58 +21,31 @@ import java.util.function.Supplier;
  * processing of the window stops when the window size reaches 1.
  * </p>
  * <p>
- * Additionally, each window has a polarity opposite to the previous, where there are an equal
- * number of each polarity in each recursive step of the algorithm. Recursive halves keep the
- * polarity of their parent halves.
+ * The windows of each step form a tree, where the whole range is sorted by sorting its first
+ * part in the opposite polarity, sorting its second part in the same polarity, and merging
+ * the result. Each part of a window is split at the greatest power of 2 that is less than the
+ * size of the window, so the windows of each step are the consecutive ranges of the step's
+ * window size, with the final window being cut short by the end of the range. Recursive halves
+ * keep the polarity of their parent halves.
+ * </p>
+ * <p>
+ * This allows a range of any length to be sorted. It is equivalent to padding the range to the
+ * next power of 2 and skipping every comparison that would involve a padding element, but no
+ * padding is ever allocated.
+ * </p>
+ * <p>
+ * Every round with a window size within the grain size operates on windows that
+ * are independent of one another until the window size exceeds the grain size.
+ * These rounds are therefore combined into a single initial round, in which each
+ * grain-sized window is fully sorted by a single swapper.
  * </p>
  *
  * @see <a href="http://www.inf.fh-flensburg.de/lang/algorithmen/sortieren/bitonic/bitonicen.htm">this resource</a>
+ * @see <a href="http://www.inf.fh-flensburg.de/lang/algorithmen/sortieren/bitonic/oddn.htm">arbitrary n</a>
  */
 @SuppressWarnings("WeakerAccess")
 public class BitonicCoordinator implements Iterator<Collection<RecursiveElementSwapper>> {
 
-    /**
-     * Represents a {@link Supplier} that provides the next {@link Polarity} in
-     * the bitonic sort algorithm.
-     */
-    private static class PolarityProvider implements Supplier<ISwapDecision> {
-
-        /**
-         * Create a new {@link Polarity} object.
-         *
-         * @param polarity The initial {@link Polarity} to provide. In the
-         *                 bitonic sorting algorithm, the first {@link Polarity}
-         *                 dictates the {@link Polarity} of the result.
-         */
-        PolarityProvider(Polarity polarity) {
-            /*
-             * We flip the polarity here as the first call to #get()
-             * will flip it again, resulting in the original value.
-             */
-            if (polarity == Polarity.ASCENDING) {
-                mCurrent = Polarity.DESCENDING;
-            } else {
-                mCurrent = Polarity.ASCENDING;
-            }
-        }
-
-        private ISwapDecision mCurrent;
-
-        @Override
-        public ISwapDecision get() {
-            final ISwapDecision newDecision;
-            if (mCurrent == Polarity.ASCENDING) {
-                newDecision = Polarity.DESCENDING;
-            } else {
-                newDecision = Polarity.ASCENDING;
-            }
-
-            mCurrent = newDecision;
-            return newDecision;
-        }
-
-    }
-
     /**
      * Create a new {@link BitonicCoordinator} object.
      *
@@ -85,32 +58,93 @@ public class BitonicCoordinator implements Iterator<Collection<RecursiveElementS
     /**
      * Create a new {@link BitonicCoordinator} object.
      *
-     * @param data     The data to sort. Must have a length that is a
-     *                 power of 2, and must not be {@code null}.
+     * @param data     The data to sort. Must not be {@code null}.
      * @param polarity The desired {@link Polarity} of the result. Must
      *                 not be {@code null}.
      */
     public BitonicCoordinator(int[] data, Polarity polarity) {
+        this(data, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link BitonicCoordinator} object.
+     *
+     * @param data      The data to sort. Must not be {@code null}.
+     * @param polarity  The desired {@link Polarity} of the result. Must
+     *                  not be {@code null}.
+     * @param grainSize The window size at or below which swappers run all
+     *                  of their remaining passes sequentially. Must be valid
+     *                  according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicCoordinator(int[] data, Polarity polarity, int grainSize) {
+        this(data, 0, data.length, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link BitonicCoordinator} object.
+     *
+     * @param data      The data to sort. Must not be {@code null}.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the result. Must
+     *                  not be {@code null}.
+     * @param grainSize The window size at or below which swappers run all
+     *                  of their remaining passes sequentially. Must be valid
+     *                  according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicCoordinator(int[] data, int fromIndex, int toIndex, Polarity polarity, int grainSize) {
+        this(new IntSortData(data), fromIndex, toIndex, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link BitonicCoordinator} object.
+     *
+     * @param data      The {@link ISortData} to sort. Must not be {@code null}.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the result. Must
+     *                  not be {@code null}.
+     * @param grainSize The window size at or below which swappers run all
+     *                  of their remaining passes sequentially. Must be valid
+     *                  according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicCoordinator(ISortData data, int fromIndex, int toIndex, Polarity polarity, int grainSize) {
         assert data != null;
-        assert MathUtils.isPowerOfTwo(data.length);
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length();
         mData = data;
+        mFromIndex = fromIndex;
+        mToIndex = toIndex;
 
         assert polarity != null;
-        mPolarityProvider = new PolarityProvider(polarity);
+
+        assert GrainSize.isValid(grainSize);
+        mGrainSize = grainSize;
+
+        // The windows and their polarities only depend on the length, so they are shared between sorts.
+        mPlan = BitonicPlan.get(toIndex - fromIndex, polarity, grainSize);
+        mCurrentRound = 0;
     }
 
-    private final int[] mData;
-    private final Supplier<ISwapDecision> mPolarityProvider;
+    private final ISortData mData;
+    private final int mFromIndex;
+    private final int mToIndex;
+    private final int mGrainSize;
+    private final BitonicPlan mPlan;
 
-    /*
-     * Group sizes start at 2 and double until they reach
-     * the length of the array.
-     */
-    private int mCurrentGroupSize = 2;
+    private int mCurrentRound;
 
     @Override
     public boolean hasNext() {
-        return mCurrentGroupSize <= mData.length;
+        return mCurrentRound < mPlan.getRoundCount();
+    }
+
+    /**
+     * @return The group size of the round that was most recently returned by
+     * {@link #next()}.
+     */
+    long getGroupSize() {
+        assert mCurrentRound > 0;
+        return mPlan.getGroupSize(mCurrentRound - 1);
     }
 
     /**
@@ -119,17 +153,63 @@ public class BitonicCoordinator implements Iterator<Collection<RecursiveElementS
     @Override
     public Collection<RecursiveElementSwapper> next() {
 
-        final ArrayList<RecursiveElementSwapper> result = new ArrayList<>();
-        for (int start = 0; start < mData.length; start += mCurrentGroupSize) {
+        // The first round fully sorts each window, rather than merging it.
+        final boolean sortWindows = mCurrentRound == 0;
+        final long groupSize = mPlan.getGroupSize(mCurrentRound);
 
-            final int stop = start + mCurrentGroupSize;
-            final ISwapDecision polarity = mPolarityProvider.get();
-
-            final RecursiveElementSwapper swapper = new RecursiveElementSwapper(mData, start, stop, polarity);
+        /*
+         * A final window that is no more than half of the group size belongs to
+         * an earlier round, and has already been merged, so the plan leaves it out
+         * of every round but the first, where it is sorted.
+         */
+        final int windowCount = mPlan.getWindowCount(mCurrentRound);
+        final ArrayList<RecursiveElementSwapper> result = new ArrayList<>(windowCount);
+        for (int window = 0; window < windowCount; window++) {
+            final long start = mFromIndex + window * groupSize;
+            final int stop = (int) Math.min(start + groupSize, mToIndex);
+
+            final Polarity polarity = mPlan.getWindowPolarity(mCurrentRound, window);
+            final RecursiveElementSwapper swapper = new RecursiveElementSwapper(
+                    mData, (int) start, stop, polarity, mGrainSize, sortWindows
+            );
             result.add(swapper);
         }
 
-        mCurrentGroupSize *= 2;
+        mCurrentRound++;
+        return result;
+    }
+
+    /**
+     * Determines the {@link Polarity} of a window in the tree of windows that
+     * sorts a range, by walking down the tree from the window covering the
+     * whole range. Each time the walk enters the first part of a window the
+     * {@link Polarity} is reversed, and each time it enters the second part the
+     * {@link Polarity} is kept.
+     *
+     * @param fromIndex   The inclusive start of the range being sorted.
+     * @param toIndex     The exclusive end of the range being sorted.
+     * @param polarity    The desired {@link Polarity} of the whole range.
+     * @param windowStart The inclusive start of the window, which must be
+     *                    {@code fromIndex} plus a multiple of the group size.
+     * @param groupSize   The group size of the round that the window is in.
+     * @return The {@link Polarity} of the window.
+     */
+    static Polarity polarityOf(int fromIndex, int toIndex, Polarity polarity, int windowStart, long groupSize) {
+        int start = fromIndex;
+        int stop = toIndex;
+        Polarity result = polarity;
+
+        while (stop - start > groupSize) {
+            final int center = start + MathUtils.greatestPowerOfTwoLessThan(stop - start);
+            if (windowStart < center) {
+                stop = center;
+                result = result.reverse();
+            } else {
+                start = center;
+            }
+        }
+
+        assert start == windowStart;
         return result;
     }
 
@@ -1,13 +1,18 @@
 package com.distributed.bitonic;
 
-import com.distributed.common.MathUtils;
 import com.distributed.events.EventQueue;
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.ISortProfiler;
+import com.distributed.profiling.SortProfilers;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
 import com.distributed.sorting.Polarity;
 import com.distributed.threading.BlockingExecutorService;
+import com.distributed.tracing.SortTracer;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -19,14 +24,14 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings("WeakerAccess")
 public class BitonicExecutor implements Runnable {
 
+    private static final String PROFILER_NAME = "event";
     private static final int TIMEOUT_AMOUNT = 1;
     private static final TimeUnit TIMEOUT_UNITS = TimeUnit.MINUTES;
 
     /**
      * Create a new {@link BitonicExecutor} object.
      *
-     * @param data The data to sort. Must have a length that is a
-     *             power of 2, and must not be {@code null}.
+     * @param data The data to sort. Must not be {@code null}.
      */
     public BitonicExecutor(int[] data) {
         this(1, data);
@@ -36,8 +41,7 @@ public class BitonicExecutor implements Runnable {
      * Create a new {@link BitonicExecutor} object.
      *
      * @param numThreads The number of threads to create in the thread pool.
-     * @param data       The data to sort. Must have a length that is a
-     *                   power of 2, and must not be {@code null}.
+     * @param data       The data to sort. Must not be {@code null}.
      */
     public BitonicExecutor(int numThreads, int[] data) {
         this(numThreads, data, Polarity.ASCENDING);
@@ -47,47 +51,196 @@ public class BitonicExecutor implements Runnable {
      * Create a new {@link BitonicExecutor} object.
      *
      * @param numThreads The number of threads to create in the thread pool.
-     * @param data       The data to sort. Must have a length that is a
-     *                   power of 2, and must not be {@code null}.
+     * @param data       The data to sort. Must not be {@code null}.
      * @param polarity   The desired {@link Polarity} of the result. Must
      *                   not be {@code null}.
      */
     public BitonicExecutor(int numThreads, int[] data, Polarity polarity) {
+        this(numThreads, data, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link BitonicExecutor} object.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicExecutor(int numThreads, int[] data, Polarity polarity, int grainSize) {
+        this(numThreads, data, 0, data == null ? 0 : data.length, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link BitonicExecutor} object that sorts a range of an array,
+     * leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     */
+    public BitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex, Polarity polarity) {
+        this(numThreads, data, fromIndex, toIndex, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link BitonicExecutor} object that sorts a range of an array,
+     * leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex,
+                           Polarity polarity, int grainSize) {
+        this(numThreads, new IntSortData(data), fromIndex, toIndex, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link BitonicExecutor} object that sorts a range of an array,
+     * leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The {@link ISortData} to sort. Must not be
+     *                   {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicExecutor(int numThreads, ISortData data, int fromIndex, int toIndex,
+                           Polarity polarity, int grainSize) {
+        this(numThreads, data, fromIndex, toIndex, polarity, grainSize, null);
+    }
+
+    /**
+     * Create a new {@link BitonicExecutor} object that sorts a range of an array,
+     * leaving the elements outside of the range untouched, and records the
+     * statistics of every stage of the sort.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The {@link ISortData} to sort. Must not be
+     *                   {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     * @param stats      The {@link SortStats} to record the sort in, or
+     *                   {@code null} to not record anything.
+     */
+    public BitonicExecutor(int numThreads, ISortData data, int fromIndex, int toIndex,
+                           Polarity polarity, int grainSize, SortStats stats) {
+        this(numThreads, data, fromIndex, toIndex, polarity, grainSize, stats, null);
+    }
+
+    /**
+     * Create a new {@link BitonicExecutor} object that sorts a range of an array,
+     * leaving the elements outside of the range untouched, and records the
+     * statistics of every stage of the sort and a snapshot of the range before
+     * the first round and after every round.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The {@link ISortData} to sort. Must not be
+     *                   {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     * @param stats      The {@link SortStats} to record the sort in, or
+     *                   {@code null} to not record anything.
+     * @param tracer     The {@link SortTracer} to take the snapshots with, or
+     *                   {@code null} to not take any. Each snapshot is labelled
+     *                   with the number of rounds that have finished. The data
+     *                   must be supported according to {@link SortTracer#canTrace(ISortData)}.
+     */
+    public BitonicExecutor(int numThreads, ISortData data, int fromIndex, int toIndex,
+                           Polarity polarity, int grainSize, SortStats stats, SortTracer tracer) {
         assert numThreads > 0;
         mThreadPool = new BlockingExecutorService(numThreads);
+        mNumThreads = numThreads;
 
         assert data != null;
-        assert MathUtils.isPowerOfTwo(data.length);
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length();
         assert polarity != null;
-        mCoordinator = new BitonicCoordinator(data, polarity);
+        assert GrainSize.isValid(grainSize);
+        assert tracer == null || SortTracer.canTrace(data);
+        mTracer = tracer;
+        mData = data;
+        mFromIndex = fromIndex;
+        mToIndex = toIndex;
+
+        // Passes are only counted when statistics are recorded, so the kernel is used otherwise.
+        mStats = stats;
+        mCountingData = stats == null ? null : new CountingSortData(data);
+        mCoordinator = new BitonicCoordinator(
+                stats == null ? data : mCountingData, fromIndex, toIndex, polarity, grainSize
+        );
     }
 
     private final ExecutorService mThreadPool;
-    private final Iterator<Collection<RecursiveElementSwapper>> mCoordinator;
+    private final int mNumThreads;
+    private final BitonicCoordinator mCoordinator;
+    private final SortStats mStats;
+    private final CountingSortData mCountingData;
+    private final SortTracer mTracer;
+    private final ISortData mData;
+    private final int mFromIndex;
+    private final int mToIndex;
 
     @Override
     public void run() {
+        final ISortProfiler profiler = SortProfilers.get();
+        final IProfilerEvent sortEvent = profiler.beginSort(PROFILER_NAME, mToIndex - mFromIndex, mNumThreads);
+        if (mTracer != null) {
+            mTracer.snapshot(0, mData, mFromIndex, mToIndex);
+        }
 
-        while (mCoordinator.hasNext()) {
+        for (int round = 0; mCoordinator.hasNext(); round++) {
 
-            final Collection<Future> results = new ArrayList<>();
+            final List<Future> results = new ArrayList<>();
+            final List<StageStats> stages = new ArrayList<>();
 
             // Represents the initial round of swappers for the recursive step.
             final Collection<RecursiveElementSwapper> initial = mCoordinator.next();
+            final long groupSize = mCoordinator.getGroupSize();
+            final IProfilerEvent roundEvent = profiler.beginRound(round, groupSize, initial.size());
 
             final EventQueue<RecursiveElementSwapper> queue = new EventQueue<>();
             for (RecursiveElementSwapper swapper : initial) {
                 queue.registerNotifier(swapper.getEventNotifier());
-                final Future result = mThreadPool.submit(swapper::execute);
-                results.add(result);
+                results.add(submit(swapper, groupSize, stages));
             }
 
             // All recursive operations are signalled to the queue by the initial swappers.
             while (queue.hasRemaining()) {
+                final long waitStart = mStats == null ? 0 : System.nanoTime();
                 final RecursiveElementSwapper swapper = queue.get();
                 queue.registerNotifier(swapper.getEventNotifier());
-                final Future result = mThreadPool.submit(swapper::execute);
-                results.add(result);
+                results.add(submit(swapper, groupSize, stages));
+                if (mStats != null) {
+                    stages.get(stages.size() - 1).addQueueWait(System.nanoTime() - waitStart);
+                }
             }
 
             /*
@@ -102,15 +255,26 @@ public class BitonicExecutor implements Runnable {
              * execution has completed, and in order to cancel execution of this method by
              * throwing any exceptions that have occur asynchronously.
              */
-            for (Future result : results) {
+            for (int i = 0; i < results.size(); i++) {
+                final long waitStart = mStats == null ? 0 : System.nanoTime();
                 try {
-                    result.get();
+                    results.get(i).get();
                 } catch (Throwable e) {
                     throw new RuntimeException(e);
                 }
+                if (mStats != null) {
+                    stages.get(i).addFutureWait(System.nanoTime() - waitStart);
+                }
             }
 
+            roundEvent.commit();
+
+            // Every task of the round has finished, so the snapshot sees a consistent state.
+            if (mTracer != null) {
+                mTracer.snapshot(round + 1, mData, mFromIndex, mToIndex);
+            }
         }
+        sortEvent.commit();
 
         // Events that have already been submitted will not be cancelled.
         mThreadPool.shutdown();
@@ -131,4 +295,33 @@ public class BitonicExecutor implements Runnable {
 
     }
 
+    /**
+     * Submits a swapper to the thread pool. When statistics are being recorded,
+     * the task also records its time and passes in the stage that it belongs to.
+     *
+     * @param swapper   The {@link RecursiveElementSwapper} to execute.
+     * @param groupSize The group size of the current round.
+     * @param stages    The list to add the {@link StageStats} of the task to,
+     *                  which is only used when statistics are being recorded.
+     * @return The {@link Future} of the task.
+     */
+    private Future submit(RecursiveElementSwapper swapper, long groupSize, List<StageStats> stages) {
+        if (mStats == null) {
+            return mThreadPool.submit(swapper::execute);
+        }
+
+        final StageStats stage = mStats.stageOf(groupSize, swapper.getWindowSize());
+        stages.add(stage);
+        return mThreadPool.submit(() -> {
+            final long start = System.nanoTime();
+            mCountingData.setStage(stage);
+            try {
+                swapper.execute();
+            } finally {
+                mCountingData.setStage(null);
+                stage.addTask(start, System.nanoTime());
+            }
+        });
+    }
+
 }
@@ -0,0 +1,408 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.Polarity;
+
+/**
+ * Represents the compiled schedule of the bitonic sorting algorithm for a range
+ * of a given length, which is made up of recursive rounds and the stages that
+ * perform them.
+ * <p>
+ * The schedule only depends on the length of the range, the desired
+ * {@link Polarity}, the grain size and the block size, so a plan is built once
+ * and can then be used to sort any range of that length, in any
+ * {@link ISortData}, by any engine. Plans are immutable, and are shared between
+ * sorts through {@link #get(int, Polarity, int, int)}.
+ * </p>
+ * <p>
+ * The block size is the window size at or below which all remaining passes of
+ * a window are run back to back as a single work item, so that the window stays
+ * in the cache of one worker. It is usually the grain size, but may be larger
+ * when a cache budget is given, in which case the grain size only determines
+ * how many comparators of a larger window make up a task.
+ * </p>
+ * <p>
+ * Each round has a group size, which starts at the block size and doubles from
+ * one round to the next, and the end of the part of the range that it merges.
+ * The direction of every window of every round is worked out when the plan is
+ * built and stored as a single bit, so looking up the {@link Polarity} of a
+ * window does not need to walk the tree of windows.
+ * </p>
+ * <p>
+ * Each stage is made up of a fixed number of independent work items, so the
+ * items of a stage may be divided between any number of threads, provided that
+ * a stage does not begin until every item of the previous stage is done:
+ * </p>
+ * <ul>
+ * <li>The first stage fully sorts each block-sized window.</li>
+ * <li>Each later round has a stage for every pass with a compare distance of
+ * at least the block size, where each item is a single comparator, followed by
+ * a stage that merges each block-sized window.</li>
+ * </ul>
+ */
+class BitonicPlan {
+
+    // The capacity of the cache of shared plans.
+    private static final int CACHE_CAPACITY = 64;
+
+    private static final PlanCache CACHE = new PlanCache(CACHE_CAPACITY);
+
+    /**
+     * Create a new {@link BitonicPlan} object.
+     *
+     * @param length    The length of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range. Must not
+     *                  be {@code null}.
+     * @param grainSize The window size at or below which all remaining passes
+     *                  of a window are run as a single work item. Must be valid
+     *                  according to {@link GrainSize#isValid(int)}.
+     */
+    BitonicPlan(int length, Polarity polarity, int grainSize) {
+        this(length, polarity, grainSize, grainSize);
+    }
+
+    /**
+     * Create a new {@link BitonicPlan} object.
+     *
+     * @param length    The length of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range. Must not
+     *                  be {@code null}.
+     * @param grainSize The number of comparators that make up a task. Must be
+     *                  valid according to {@link GrainSize#isValid(int)}, or 1
+     *                  along with the block size for a plan of every pass.
+     * @param blockSize The window size at or below which all remaining passes
+     *                  of a window are run as a single work item. Must be a
+     *                  power of 2 that is at least the grain size.
+     */
+    BitonicPlan(int length, Polarity polarity, int grainSize, int blockSize) {
+        assert length >= 0;
+        assert polarity != null;
+        assert (grainSize == 1 && blockSize == 1)
+                || (GrainSize.isValid(grainSize) && GrainSize.isValid(blockSize) && blockSize >= grainSize);
+
+        mLength = length;
+        mPolarity = polarity;
+        mGrainSize = grainSize;
+        mBlockSize = blockSize;
+
+        // A range of 0 or 1 elements is already sorted, so it has no rounds.
+        int rounds = 0;
+        int stages = 0;
+        for (long groupSize = blockSize; length > 1 && (groupSize == blockSize || groupSize / 2 < length);
+             groupSize *= 2) {
+            rounds++;
+            stages += Long.numberOfTrailingZeros(groupSize / blockSize) + 1;
+        }
+
+        mGroupSizes = new long[rounds];
+        mMergeStops = new int[rounds];
+        mDirectionOffsets = new long[rounds];
+        mStageRounds = new int[stages];
+        mStageDistances = new int[stages];
+        mStageSizes = new long[stages];
+
+        long directionBits = 0;
+        int stage = 0;
+        for (int round = 0; round < rounds; round++) {
+            final long groupSize = (long) blockSize << round;
+            final int stop = round == 0 ? length : mergeStop(length, groupSize);
+            mGroupSizes[round] = groupSize;
+            mMergeStops[round] = stop;
+            mDirectionOffsets[round] = directionBits;
+            directionBits += windowCount(stop, groupSize);
+
+            // The passes with a distance of at least the block size, and then the merge of each window.
+            for (long distance = groupSize / 2; round > 0 && distance >= blockSize; distance /= 2) {
+                final long span = 2 * distance;
+                mStageRounds[stage] = round;
+                mStageDistances[stage] = (int) distance;
+                mStageSizes[stage] = (stop / span) * distance + Math.max(0, stop % span - distance);
+                stage++;
+            }
+            mStageRounds[stage] = round;
+            mStageSizes[stage] = windowCount(stop, blockSize);
+            stage++;
+        }
+
+        // Every window that is sorted in the opposite order to the whole range has its bit set.
+        mDirections = new long[(int) ((directionBits + Long.SIZE - 1) / Long.SIZE)];
+        for (int round = 0; round < rounds; round++) {
+            final long groupSize = mGroupSizes[round];
+            for (long window = 0; window < windowCount(mMergeStops[round], groupSize); window++) {
+                final int windowStart = (int) (window * groupSize);
+                if (BitonicCoordinator.polarityOf(0, length, polarity, windowStart, groupSize) != polarity) {
+                    final long bit = mDirectionOffsets[round] + window;
+                    mDirections[(int) (bit / Long.SIZE)] |= 1L << bit;
+                }
+            }
+        }
+    }
+
+    private final int mLength;
+    private final Polarity mPolarity;
+    private final int mGrainSize;
+    private final int mBlockSize;
+
+    // The group size, the end of the merged part and the first direction bit of each round.
+    private final long[] mGroupSizes;
+    private final int[] mMergeStops;
+    private final long[] mDirectionOffsets;
+    private final long[] mDirections;
+
+    /*
+     * The round, compare distance and number of work items of each stage. A
+     * distance of 0 marks a stage that sorts (in the first round) or merges
+     * (in later rounds) each block-sized window.
+     */
+    private final int[] mStageRounds;
+    private final int[] mStageDistances;
+    private final long[] mStageSizes;
+
+    /**
+     * Retrieves a shared plan from a bounded cache, building it if it has not
+     * been built or has since been evicted. Retrieving a cached plan does not
+     * allocate any memory.
+     *
+     * @param length    The length of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range. Must not
+     *                  be {@code null}.
+     * @param grainSize The window size at or below which all remaining passes
+     *                  of a window are run as a single work item. Must be valid
+     *                  according to {@link GrainSize#isValid(int)}.
+     * @return The {@link BitonicPlan} for the arguments.
+     */
+    static BitonicPlan get(int length, Polarity polarity, int grainSize) {
+        return CACHE.get(length, polarity, grainSize, grainSize);
+    }
+
+    /**
+     * Retrieves a shared plan from a bounded cache, building it if it has not
+     * been built or has since been evicted. Retrieving a cached plan does not
+     * allocate any memory.
+     *
+     * @param length    The length of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range. Must not
+     *                  be {@code null}.
+     * @param grainSize The number of comparators that make up a task. Must be
+     *                  valid according to {@link GrainSize#isValid(int)}.
+     * @param blockSize The window size at or below which all remaining passes
+     *                  of a window are run as a single work item. Must be a
+     *                  power of 2 that is at least the grain size.
+     * @return The {@link BitonicPlan} for the arguments.
+     */
+    static BitonicPlan get(int length, Polarity polarity, int grainSize, int blockSize) {
+        return CACHE.get(length, polarity, grainSize, blockSize);
+    }
+
+    /**
+     * @param length    The length of a range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @param grainSize The grain size of the sort.
+     * @param blockSize The block size of the sort.
+     * @return {@code true} if this plan sorts the range, {@code false} otherwise.
+     */
+    boolean matches(int length, Polarity polarity, int grainSize, int blockSize) {
+        return mLength == length && mPolarity == polarity && mGrainSize == grainSize && mBlockSize == blockSize;
+    }
+
+    /**
+     * @return The length of the range that the plan sorts.
+     */
+    int getLength() {
+        return mLength;
+    }
+
+    /**
+     * @return The number of recursive rounds.
+     */
+    int getRoundCount() {
+        return mGroupSizes.length;
+    }
+
+    /**
+     * @param round The index of a round.
+     * @return The group size of the round.
+     */
+    long getGroupSize(int round) {
+        return mGroupSizes[round];
+    }
+
+    /**
+     * @param round The index of a round.
+     * @return The number of windows that the round sorts or merges. A final
+     * window that is no more than half of the group size has already been
+     * merged by an earlier round, and is left out.
+     */
+    int getWindowCount(int round) {
+        return (int) windowCount(mMergeStops[round], mGroupSizes[round]);
+    }
+
+    /**
+     * @param round  The index of a round.
+     * @param window The index of a window of the round.
+     * @return The {@link Polarity} of the window.
+     */
+    Polarity getWindowPolarity(int round, long window) {
+        final long bit = mDirectionOffsets[round] + window;
+        final boolean reversed = (mDirections[(int) (bit / Long.SIZE)] & (1L << bit)) != 0;
+        return reversed ? mPolarity.reverse() : mPolarity;
+    }
+
+    /**
+     * @param round The index of a round.
+     * @return The exclusive end of the part of the range that the round sorts
+     * or merges.
+     */
+    int getMergeStop(int round) {
+        return mMergeStops[round];
+    }
+
+    /**
+     * @return The number of stages.
+     */
+    int getStageCount() {
+        return mStageSizes.length;
+    }
+
+    /**
+     * @param stage The index of a stage.
+     * @return The index of the round that the stage belongs to.
+     */
+    int getStageRound(int stage) {
+        return mStageRounds[stage];
+    }
+
+    /**
+     * @param stage The index of a stage.
+     * @return The compare distance of the stage, or 0 if the stage sorts or
+     * merges whole windows.
+     */
+    int getStageDistance(int stage) {
+        return mStageDistances[stage];
+    }
+
+    /**
+     * @param stage The index of a stage.
+     * @return The number of work items in the stage.
+     */
+    long getStageSize(int stage) {
+        return mStageSizes[stage];
+    }
+
+    /**
+     * @param stage The index of a stage.
+     * @return The number of work items that make up a reasonable amount of work
+     * for a single task. A window is at least a grain's worth of work by itself,
+     * while a comparator is a single operation.
+     */
+    long getItemsPerTask(int stage) {
+        return mStageDistances[stage] == 0 ? 1 : mGrainSize;
+    }
+
+    /**
+     * Performs a run of consecutive work items of a stage.
+     *
+     * @param stage     The index of the stage.
+     * @param data      The {@link ISortData} containing the range being sorted.
+     * @param fromIndex The inclusive start of the range being sorted.
+     * @param first     The inclusive index of the first work item.
+     * @param end       The exclusive index of the last work item.
+     */
+    void execute(int stage, ISortData data, int fromIndex, long first, long end) {
+        assert 0 <= first && first <= end && end <= mStageSizes[stage];
+
+        final int round = mStageRounds[stage];
+        final int distance = mStageDistances[stage];
+        if (distance != 0) {
+            compare(round, distance, data, fromIndex, first, end);
+        } else {
+            processWindows(round, data, fromIndex, first, end);
+        }
+    }
+
+    /**
+     * Performs a run of the comparators of a pass. Comparator {@code k} compares
+     * the element at offset {@code 2 * distance * (k / distance) + k % distance}
+     * with the element that is {@code distance} after it. Only comparators where
+     * both elements are within the merged part of the range exist, and as the
+     * offsets increase with {@code k}, these are the first comparators.
+     *
+     * @param round     The index of the round that the pass belongs to.
+     * @param distance  The distance between the compared elements.
+     * @param data      The {@link ISortData} containing the range being sorted.
+     * @param fromIndex The inclusive start of the range being sorted.
+     * @param first     The inclusive index of the first comparator.
+     * @param end       The exclusive index of the last comparator.
+     */
+    private void compare(int round, int distance, ISortData data, int fromIndex, long first, long end) {
+        final long blockSize = 2L * distance;
+        final long groupSize = mGroupSizes[round];
+
+        long comparator = first;
+        while (comparator < end) {
+
+            // Each run of consecutive comparators stops at the end of its block.
+            final int offset = (int) (comparator % distance);
+            final int run = (int) Math.min(distance - offset, end - comparator);
+            final int start = (int) ((comparator / distance) * blockSize) + offset;
+
+            data.compareExchange(fromIndex + start, run, distance, getWindowPolarity(round, start / groupSize));
+            comparator += run;
+        }
+    }
+
+    /**
+     * Sorts (in the first round) or merges (in later rounds) a run of the
+     * block-sized windows.
+     *
+     * @param round     The index of the round.
+     * @param data      The {@link ISortData} containing the range being sorted.
+     * @param fromIndex The inclusive start of the range being sorted.
+     * @param first     The inclusive index of the first window.
+     * @param end       The exclusive index of the last window.
+     */
+    private void processWindows(int round, ISortData data, int fromIndex, long first, long end) {
+        final long groupSize = mGroupSizes[round];
+        final int stop = mMergeStops[round];
+
+        for (long window = first; window < end; window++) {
+            final int start = (int) (window * mBlockSize);
+            final int windowStop = (int) Math.min(start + (long) mBlockSize, stop);
+            final Polarity polarity = getWindowPolarity(round, start / groupSize);
+
+            if (round == 0) {
+                RecursiveElementSwapper.sortSequentially(data, fromIndex + start, fromIndex + windowStop, polarity);
+            } else {
+                RecursiveElementSwapper.mergeSequentially(data, fromIndex + start, fromIndex + windowStop, polarity);
+            }
+        }
+    }
+
+    /**
+     * @param stop       The exclusive end of the part of the range to divide.
+     * @param windowSize The size of each window.
+     * @return The number of windows needed to cover the part of the range,
+     * where the final window may be cut short.
+     */
+    private static long windowCount(int stop, long windowSize) {
+        return (stop + windowSize - 1) / windowSize;
+    }
+
+    /**
+     * Determines the end of the part of the range that is merged by a recursive
+     * round. A final window that is no more than half of the group size has already
+     * been merged by an earlier round, and is left out.
+     *
+     * @param length    The length of the range being sorted.
+     * @param groupSize The group size of the recursive round.
+     * @return The exclusive end of the part of the range to merge.
+     */
+    private static int mergeStop(int length, long groupSize) {
+        final long remainder = length % groupSize;
+        if (remainder != 0 && remainder <= groupSize / 2) {
+            return length - (int) remainder;
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,510 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.DoubleSortData;
+import com.distributed.sorting.FloatSortData;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.LongSortData;
+import com.distributed.sorting.Permutations;
+import com.distributed.sorting.Polarity;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Provides methods that sort arrays, or ranges of arrays, in the same
+ * style as {@link Arrays#sort(int[])} and {@link Arrays#sort(int[], int, int)}.
+ * <p>
+ * The arrays may have any length, and the sorting is performed by a
+ * {@link BitonicSortService} that is shared by every caller and runs on the
+ * common {@link ForkJoinPool}, so no threads are created for each sort.
+ * </p>
+ * <p>
+ * Arrays of {@link Double} and {@link Float} primitives are sorted using the
+ * same total ordering as {@link Double#compare(double, double)} and
+ * {@link Float#compare(float, float)}, so {@code -0.0} is placed before
+ * {@code 0.0}, and {@code NaN} values are placed after positive infinity.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class BitonicSort {
+
+    private static final BitonicSortService SHARED_SERVICE = new BitonicSortService(
+            ForkJoinPool.commonPool(), GrainSize.DEFAULT
+    );
+
+    /**
+     * Sorts an array into ascending order.
+     *
+     * @param data The array to sort.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static void sort(int[] data) {
+        sort(data, 0, data.length);
+    }
+
+    /**
+     * Sorts a range of an array into ascending order. The range extends from
+     * {@code fromIndex}, inclusive, to {@code toIndex}, exclusive. If the two
+     * indices are equal then the range is empty. Elements outside of the range
+     * are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @throws NullPointerException           if the array is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(int[] data, int fromIndex, int toIndex) {
+        sort(data, fromIndex, toIndex, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts a range of an array into the order specified by a {@link Polarity}.
+     * The range extends from {@code fromIndex}, inclusive, to {@code toIndex},
+     * exclusive. If the two indices are equal then the range is empty. Elements
+     * outside of the range are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the array or {@link Polarity}
+     *                                        is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(int[] data, int fromIndex, int toIndex, Polarity polarity) {
+        rangeCheck(data.length, fromIndex, toIndex);
+        sort(new IntSortData(data), fromIndex, toIndex, polarity);
+    }
+
+    /**
+     * Sorts an array into ascending order.
+     *
+     * @param data The array to sort.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static void sort(long[] data) {
+        sort(data, 0, data.length);
+    }
+
+    /**
+     * Sorts a range of an array into ascending order. The range extends from
+     * {@code fromIndex}, inclusive, to {@code toIndex}, exclusive. If the two
+     * indices are equal then the range is empty. Elements outside of the range
+     * are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @throws NullPointerException           if the array is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(long[] data, int fromIndex, int toIndex) {
+        sort(data, fromIndex, toIndex, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts a range of an array into the order specified by a {@link Polarity}.
+     * The range extends from {@code fromIndex}, inclusive, to {@code toIndex},
+     * exclusive. If the two indices are equal then the range is empty. Elements
+     * outside of the range are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the array or {@link Polarity}
+     *                                        is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(long[] data, int fromIndex, int toIndex, Polarity polarity) {
+        rangeCheck(data.length, fromIndex, toIndex);
+        sort(new LongSortData(data), fromIndex, toIndex, polarity);
+    }
+
+    /**
+     * Sorts an array into ascending order.
+     *
+     * @param data The array to sort.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static void sort(double[] data) {
+        sort(data, 0, data.length);
+    }
+
+    /**
+     * Sorts a range of an array into ascending order. The range extends from
+     * {@code fromIndex}, inclusive, to {@code toIndex}, exclusive. If the two
+     * indices are equal then the range is empty. Elements outside of the range
+     * are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @throws NullPointerException           if the array is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(double[] data, int fromIndex, int toIndex) {
+        sort(data, fromIndex, toIndex, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts a range of an array into the order specified by a {@link Polarity}.
+     * The range extends from {@code fromIndex}, inclusive, to {@code toIndex},
+     * exclusive. If the two indices are equal then the range is empty. Elements
+     * outside of the range are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the array or {@link Polarity}
+     *                                        is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(double[] data, int fromIndex, int toIndex, Polarity polarity) {
+        rangeCheck(data.length, fromIndex, toIndex);
+        sort(new DoubleSortData(data), fromIndex, toIndex, polarity);
+    }
+
+    /**
+     * Sorts an array into ascending order.
+     *
+     * @param data The array to sort.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static void sort(float[] data) {
+        sort(data, 0, data.length);
+    }
+
+    /**
+     * Sorts a range of an array into ascending order. The range extends from
+     * {@code fromIndex}, inclusive, to {@code toIndex}, exclusive. If the two
+     * indices are equal then the range is empty. Elements outside of the range
+     * are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @throws NullPointerException           if the array is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(float[] data, int fromIndex, int toIndex) {
+        sort(data, fromIndex, toIndex, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts a range of an array into the order specified by a {@link Polarity}.
+     * The range extends from {@code fromIndex}, inclusive, to {@code toIndex},
+     * exclusive. If the two indices are equal then the range is empty. Elements
+     * outside of the range are not modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the array or {@link Polarity}
+     *                                        is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     */
+    public static void sort(float[] data, int fromIndex, int toIndex, Polarity polarity) {
+        rangeCheck(data.length, fromIndex, toIndex);
+        sort(new FloatSortData(data), fromIndex, toIndex, polarity);
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Integer} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(int[] keys, int[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new IntSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Long} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(int[] keys, long[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new IntSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into ascending order,
+     * without modifying the keys.
+     *
+     * @param keys The array of keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static int[] argsort(int[] keys) {
+        return argsort(keys, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into the order
+     * specified by a {@link Polarity}, without modifying the keys.
+     *
+     * @param keys     The array of keys.
+     * @param polarity The desired {@link Polarity} of the sorted keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array or {@link Polarity} is {@code null}.
+     */
+    public static int[] argsort(int[] keys, Polarity polarity) {
+        final int[] permutation = Permutations.identity(keys.length);
+        sort(new IntSortData(Arrays.copyOf(keys, keys.length), permutation), 0, keys.length, polarity);
+        return permutation;
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Integer} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(long[] keys, int[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new LongSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Long} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(long[] keys, long[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new LongSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into ascending order,
+     * without modifying the keys.
+     *
+     * @param keys The array of keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static int[] argsort(long[] keys) {
+        return argsort(keys, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into the order
+     * specified by a {@link Polarity}, without modifying the keys.
+     *
+     * @param keys     The array of keys.
+     * @param polarity The desired {@link Polarity} of the sorted keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array or {@link Polarity} is {@code null}.
+     */
+    public static int[] argsort(long[] keys, Polarity polarity) {
+        final int[] permutation = Permutations.identity(keys.length);
+        sort(new LongSortData(Arrays.copyOf(keys, keys.length), permutation), 0, keys.length, polarity);
+        return permutation;
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Integer} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(double[] keys, int[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new DoubleSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Long} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(double[] keys, long[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new DoubleSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into ascending order,
+     * without modifying the keys.
+     *
+     * @param keys The array of keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static int[] argsort(double[] keys) {
+        return argsort(keys, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into the order
+     * specified by a {@link Polarity}, without modifying the keys.
+     *
+     * @param keys     The array of keys.
+     * @param polarity The desired {@link Polarity} of the sorted keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array or {@link Polarity} is {@code null}.
+     */
+    public static int[] argsort(double[] keys, Polarity polarity) {
+        final int[] permutation = Permutations.identity(keys.length);
+        sort(new DoubleSortData(Arrays.copyOf(keys, keys.length), permutation), 0, keys.length, polarity);
+        return permutation;
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Integer} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(float[] keys, int[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new FloatSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts an array of keys into ascending order, and moves each element of a payload
+     * array along with the key at the same index.
+     *
+     * @param keys    The array of keys to sort.
+     * @param payload The array of {@link Long} primitives to move along with the keys.
+     * @throws NullPointerException     if either array is {@code null}.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public static void sort(float[] keys, long[] payload) {
+        payloadCheck(keys.length, payload.length);
+        sort(new FloatSortData(keys, payload), 0, keys.length, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into ascending order,
+     * without modifying the keys.
+     *
+     * @param keys The array of keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array is {@code null}.
+     */
+    public static int[] argsort(float[] keys) {
+        return argsort(keys, Polarity.ASCENDING);
+    }
+
+    /**
+     * Determines the permutation that sorts an array of keys into the order
+     * specified by a {@link Polarity}, without modifying the keys.
+     *
+     * @param keys     The array of keys.
+     * @param polarity The desired {@link Polarity} of the sorted keys.
+     * @return The permutation, where {@code keys[result[i]]} is the element that
+     * would be at index {@code i} if the keys were sorted.
+     * @throws NullPointerException if the array or {@link Polarity} is {@code null}.
+     */
+    public static int[] argsort(float[] keys, Polarity polarity) {
+        final int[] permutation = Permutations.identity(keys.length);
+        sort(new FloatSortData(Arrays.copyOf(keys, keys.length), permutation), 0, keys.length, polarity);
+        return permutation;
+    }
+
+    /**
+     * Sorts a range of an {@link ISortData} into the order specified by a {@link Polarity}.
+     *
+     * @param data      The {@link ISortData} containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     */
+    private static void sort(ISortData data, int fromIndex, int toIndex, Polarity polarity) {
+        SHARED_SERVICE.sort(data, fromIndex, toIndex, polarity);
+    }
+
+    /**
+     * Checks that a payload array is parallel to an array of keys.
+     *
+     * @param keysLength    The length of the keys.
+     * @param payloadLength The length of the payload.
+     * @throws IllegalArgumentException if the lengths are not the same.
+     */
+    static void payloadCheck(int keysLength, int payloadLength) {
+        if (keysLength != payloadLength) {
+            final String message = String.format("payload length(%d) != keys length(%d)", payloadLength, keysLength);
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Checks that a range is valid for an array of the provided length, using
+     * the same rules as {@link Arrays#sort(int[], int, int)}.
+     *
+     * @param length    The length of the array.
+     * @param fromIndex The inclusive start of the range.
+     * @param toIndex   The exclusive end of the range.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > length}.
+     */
+    static void rangeCheck(int length, int fromIndex, int toIndex) {
+        if (fromIndex > toIndex) {
+            final String message = String.format("fromIndex(%d) > toIndex(%d)", fromIndex, toIndex);
+            throw new IllegalArgumentException(message);
+        }
+        if (fromIndex < 0) {
+            throw new ArrayIndexOutOfBoundsException(fromIndex);
+        }
+        if (toIndex > length) {
+            throw new ArrayIndexOutOfBoundsException(toIndex);
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a long-lived service that sorts any number of arrays using the
+ * bitonic sorting algorithm on a single shared {@link ForkJoinPool}.
+ * <p>
+ * Unlike the executors, which are bound to a single array and create a new
+ * thread pool for every sort, the pool of a service is created once and its
+ * workers are shared by every sort. This object is thread-safe, so any number
+ * of callers may sort concurrently, either waiting for the result with
+ * {@link #sort(int[])} or continuing with {@link #sortAsync(int[])}.
+ * </p>
+ * <p>
+ * The service must be shut down with {@link #shutdown()} once it is no longer
+ * needed, after which any further sorts are rejected.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class BitonicSortService {
+
+    /**
+     * Create a new {@link BitonicSortService} object, with a worker for each
+     * available processor.
+     */
+    public BitonicSortService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new {@link BitonicSortService} object.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     */
+    public BitonicSortService(int numThreads) {
+        this(numThreads, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link BitonicSortService} object.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public BitonicSortService(int numThreads, int grainSize) {
+        this(createPool(numThreads), grainSize);
+    }
+
+    /**
+     * Create a new {@link BitonicSortService} object that sorts on an existing
+     * {@link ForkJoinPool}.
+     *
+     * @param threadPool The {@link ForkJoinPool} to sort on.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    BitonicSortService(ForkJoinPool threadPool, int grainSize) {
+        assert threadPool != null;
+        mThreadPool = threadPool;
+
+        assert GrainSize.isValid(grainSize);
+        mGrainSize = grainSize;
+    }
+
+    private final ForkJoinPool mThreadPool;
+    private final int mGrainSize;
+
+    /**
+     * Sorts an array into ascending order, and waits for the sort to finish.
+     *
+     * @param data The array to sort.
+     * @throws NullPointerException       if the array is {@code null}.
+     * @throws RejectedExecutionException if the service has been shut down.
+     */
+    public void sort(int[] data) {
+        sort(data, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts an array into the order specified by a {@link Polarity}, and waits
+     * for the sort to finish.
+     *
+     * @param data     The array to sort.
+     * @param polarity The desired {@link Polarity} of the array.
+     * @throws NullPointerException       if the array or {@link Polarity} is {@code null}.
+     * @throws RejectedExecutionException if the service has been shut down.
+     */
+    public void sort(int[] data, Polarity polarity) {
+        sort(data, 0, data.length, polarity);
+    }
+
+    /**
+     * Sorts a range of an array into the order specified by a {@link Polarity},
+     * and waits for the sort to finish. Elements outside of the range are not
+     * modified.
+     *
+     * @param data      The array containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the array or {@link Polarity}
+     *                                        is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length}.
+     * @throws RejectedExecutionException     if the service has been shut down.
+     */
+    public void sort(int[] data, int fromIndex, int toIndex, Polarity polarity) {
+        BitonicSort.rangeCheck(data.length, fromIndex, toIndex);
+        sort(new IntSortData(data), fromIndex, toIndex, polarity);
+    }
+
+    /**
+     * Sorts a range of an {@link ISortData} into the order specified by a
+     * {@link Polarity}, and waits for the sort to finish.
+     *
+     * @param data      The {@link ISortData} containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the {@link ISortData} or
+     *                                        {@link Polarity} is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length()}.
+     * @throws RejectedExecutionException     if the service has been shut down.
+     */
+    public void sort(ISortData data, int fromIndex, int toIndex, Polarity polarity) {
+        mThreadPool.invoke(createTask(data, fromIndex, toIndex, polarity, data));
+    }
+
+    /**
+     * Starts sorting an array into ascending order, without waiting for the sort
+     * to finish.
+     *
+     * @param data The array to sort. Must not be modified until the sort is done.
+     * @return A {@link Future} that produces the array once it has been sorted.
+     * @throws NullPointerException       if the array is {@code null}.
+     * @throws RejectedExecutionException if the service has been shut down.
+     */
+    public Future<int[]> sortAsync(int[] data) {
+        return sortAsync(data, Polarity.ASCENDING);
+    }
+
+    /**
+     * Starts sorting an array into the order specified by a {@link Polarity},
+     * without waiting for the sort to finish.
+     *
+     * @param data     The array to sort. Must not be modified until the sort is done.
+     * @param polarity The desired {@link Polarity} of the array.
+     * @return A {@link Future} that produces the array once it has been sorted.
+     * @throws NullPointerException       if the array or {@link Polarity} is {@code null}.
+     * @throws RejectedExecutionException if the service has been shut down.
+     */
+    public Future<int[]> sortAsync(int[] data, Polarity polarity) {
+        return mThreadPool.submit(createTask(new IntSortData(data), 0, data.length, polarity, data));
+    }
+
+    /**
+     * Starts sorting a range of an {@link ISortData} into the order specified by
+     * a {@link Polarity}, without waiting for the sort to finish.
+     *
+     * @param data      The {@link ISortData} containing the range to sort. Must
+     *                  not be modified until the sort is done.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @param <T>       The type of the {@link ISortData}.
+     * @return A {@link Future} that produces the {@link ISortData} once the range
+     * has been sorted.
+     * @throws NullPointerException           if the {@link ISortData} or
+     *                                        {@link Polarity} is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length()}.
+     * @throws RejectedExecutionException     if the service has been shut down.
+     */
+    public <T extends ISortData> Future<T> sortAsync(T data, int fromIndex, int toIndex, Polarity polarity) {
+        return mThreadPool.submit(createTask(data, fromIndex, toIndex, polarity, data));
+    }
+
+    /**
+     * Sorts a batch of arrays that all have the same length into ascending order,
+     * and waits for every sort to finish.
+     *
+     * @param batch The arrays to sort.
+     * @throws NullPointerException       if the batch or any of its arrays is {@code null}.
+     * @throws IllegalArgumentException   if the arrays do not all have the same length.
+     * @throws RejectedExecutionException if the service has been shut down.
+     * @see #sortBatch(int[][], Polarity)
+     */
+    public void sortBatch(int[][] batch) {
+        sortBatch(batch, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts a batch of arrays that all have the same length into the order
+     * specified by a {@link Polarity}, and waits for every sort to finish.
+     * <p>
+     * Every array is run through each stage of the algorithm together, and the
+     * work of a stage is divided across both the arrays and the comparators
+     * within them. This keeps every worker busy even when each array is far too
+     * small to be worth sorting in parallel by itself.
+     * </p>
+     *
+     * @param batch    The arrays to sort.
+     * @param polarity The desired {@link Polarity} of each array.
+     * @throws NullPointerException       if the batch, any of its arrays or the
+     *                                    {@link Polarity} is {@code null}.
+     * @throws IllegalArgumentException   if the arrays do not all have the same length.
+     * @throws RejectedExecutionException if the service has been shut down.
+     */
+    public void sortBatch(int[][] batch, Polarity polarity) {
+        final ISortData[] data = new ISortData[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            data[i] = new IntSortData(batch[i]);
+        }
+        sortBatch(data, polarity);
+    }
+
+    /**
+     * Sorts a batch of arrays that all have the same length into the order
+     * specified by a {@link Polarity}, and waits for every sort to finish.
+     *
+     * @param batch    The arrays to sort.
+     * @param polarity The desired {@link Polarity} of each array.
+     * @throws NullPointerException       if the batch, any of its arrays or the
+     *                                    {@link Polarity} is {@code null}.
+     * @throws IllegalArgumentException   if the arrays do not all have the same length.
+     * @throws RejectedExecutionException if the service has been shut down.
+     * @see #sortBatch(int[][], Polarity)
+     */
+    public void sortBatch(List<int[]> batch, Polarity polarity) {
+        sortBatch(batch.toArray(new int[batch.size()][]), polarity);
+    }
+
+    /**
+     * Sorts a batch of {@link ISortData} objects that all have the same length
+     * into the order specified by a {@link Polarity}, and waits for every sort
+     * to finish.
+     *
+     * @param batch    The {@link ISortData} objects to sort.
+     * @param polarity The desired {@link Polarity} of each {@link ISortData}.
+     * @throws NullPointerException       if the batch, any of its elements or the
+     *                                    {@link Polarity} is {@code null}.
+     * @throws IllegalArgumentException   if the elements do not all have the same length.
+     * @throws RejectedExecutionException if the service has been shut down.
+     * @see #sortBatch(int[][], Polarity)
+     */
+    public void sortBatch(ISortData[] batch, Polarity polarity) {
+        for (ISortData data : batch) {
+            if (data.length() != batch[0].length()) {
+                final String message = "Every element of a batch must have the same length.";
+                throw new IllegalArgumentException(message);
+            }
+        }
+        if (polarity == null) {
+            final String message = "Polarity must not be null.";
+            throw new NullPointerException(message);
+        }
+
+        mThreadPool.invoke(new BatchSortTask(batch, polarity, mGrainSize));
+    }
+
+    /**
+     * Stops the service from accepting new sorts. Sorts that have already been
+     * started will still finish.
+     */
+    public void shutdown() {
+        mThreadPool.shutdown();
+    }
+
+    /**
+     * Waits for every sort to finish after the service has been shut down.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return {@code true} if every sort finished, {@code false} if the timeout
+     * elapsed first.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return mThreadPool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Validates the arguments of a sort, and creates the task that performs it.
+     *
+     * @param data      The {@link ISortData} containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @param result    The result to produce once the sort is done.
+     * @param <T>       The type of the result.
+     * @return The task that performs the sort.
+     */
+    private <T> ForkJoinSortTask<T> createTask(ISortData data, int fromIndex, int toIndex,
+                                              Polarity polarity, T result) {
+        BitonicSort.rangeCheck(data.length(), fromIndex, toIndex);
+        if (polarity == null) {
+            final String message = "Polarity must not be null.";
+            throw new NullPointerException(message);
+        }
+
+        return new ForkJoinSortTask<>(
+                data, fromIndex, toIndex, polarity, mGrainSize, result, mThreadPool.getParallelism()
+        );
+    }
+
+    /**
+     * @param numThreads The number of threads to create in the thread pool.
+     * @return The {@link ForkJoinPool} for a new service.
+     */
+    private static ForkJoinPool createPool(int numThreads) {
+        assert numThreads > 0;
+        return new ForkJoinPool(numThreads);
+    }
+
+}
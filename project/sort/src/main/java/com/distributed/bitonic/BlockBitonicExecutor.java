@@ -0,0 +1,434 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
+import com.distributed.sorting.Polarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a {@link Runnable} that sorts an array by dividing it into a
+ * number of blocks, sorting each block locally with {@link Arrays#sort(int[])},
+ * and then running the bitonic sorting network with whole blocks as its
+ * elements.
+ * <p>
+ * Each compare-exchange of the network becomes a merge-split, in which two
+ * sorted blocks are merged and the lower block keeps the first half of the
+ * result while the upper block keeps the second half. As every block stays
+ * sorted, a network that sorts elements also sorts blocks, so once the final
+ * stage is done the whole range is sorted. Only the number of blocks is
+ * bitonic, so a range of {@code n} elements in {@code p} blocks takes
+ * {@code O(log(p)^2)} linear stages on top of the local sorts, rather than
+ * {@code O(log(n)^2)} stages of single comparisons.
+ * </p>
+ * <p>
+ * The stages and the polarity of every window are those of a
+ * {@link BitonicPlan} for a range that is as long as the number of blocks,
+ * which are the same as those of the {@link BitonicCoordinator}. Every block is
+ * the same size, except for the final block, which holds whatever is left. The
+ * final block is always the upper block of its merge-splits, so it keeps the
+ * last of the merged elements, as if it were padded to the full size.
+ * </p>
+ * <p>
+ * Each worker owns a fixed slice of the blocks and computes its own half of
+ * each of their merge-splits, so both halves of a merge-split are computed at
+ * the same time by different workers. The halves are written to a second
+ * buffer, which swaps roles with the first after every stage, and the workers
+ * only synchronize with a {@link Phaser} between stages.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class BlockBitonicExecutor implements Runnable {
+
+    private static final String PROFILER_NAME = "block";
+    private static final int TIMEOUT_AMOUNT = 1;
+    private static final TimeUnit TIMEOUT_UNITS = TimeUnit.MINUTES;
+
+    /**
+     * Represents one of the long-lived workers, which sorts its own slice of
+     * the blocks, performs its half of every merge-split of those blocks, and
+     * then waits for all other workers to finish the stage.
+     */
+    private class Worker implements Runnable {
+
+        /**
+         * Create a new {@link Worker} object.
+         *
+         * @param index   The index of the worker, which determines its slice of the blocks.
+         * @param phaser  The {@link Phaser} that all of the workers are registered with.
+         * @param plan    The {@link BitonicPlan} of the network between the blocks.
+         * @param scratch The second buffer, which is as long as the range being sorted.
+         */
+        Worker(int index, Phaser phaser, BitonicPlan plan, int[] scratch) {
+            mIndex = index;
+            mPhaser = phaser;
+            mPlan = plan;
+            mScratch = scratch;
+        }
+
+        private final int mIndex;
+        private final Phaser mPhaser;
+        private final BitonicPlan mPlan;
+        private final int[] mScratch;
+
+        @Override
+        public void run() {
+            try {
+                sort();
+            } catch (RuntimeException | Error e) {
+
+                // Release the other workers, as this worker will never arrive.
+                mPhaser.forceTermination();
+                throw e;
+            }
+        }
+
+        /**
+         * Sorts this worker's slice of the blocks, and then performs its half of
+         * every stage of the network.
+         */
+        private void sort() {
+            final int firstBlock = sliceStart(mIndex);
+            final int endBlock = sliceStart(mIndex + 1);
+
+            for (int block = firstBlock; block < endBlock; block++) {
+                final int start = mFromIndex + blockStart(block);
+                final int stop = mFromIndex + blockStart(block + 1);
+                Arrays.sort(mData, start, stop);
+                if (mPolarity == Polarity.DESCENDING) {
+                    reverse(mData, start, stop);
+                }
+            }
+            if (!await()) {
+                return;
+            }
+
+            // Each stage reads from one buffer and writes to the other.
+            int[] source = mData;
+            int sourceOffset = mFromIndex;
+            int[] target = mScratch;
+            int targetOffset = 0;
+
+            for (int stage = 0; stage < mPlan.getStageCount(); stage++) {
+                final int distance = mPlan.getStageDistance(stage);
+
+                // The blocks are already sorted, so the stages that sort or merge windows of a single block do nothing.
+                if (distance == 0) {
+                    continue;
+                }
+
+                for (int block = firstBlock; block < endBlock; block++) {
+                    split(stage, distance, block, source, sourceOffset, target, targetOffset);
+                }
+                if (!await()) {
+                    return;
+                }
+
+                final int[] buffer = source;
+                source = target;
+                target = buffer;
+                final int offset = sourceOffset;
+                sourceOffset = targetOffset;
+                targetOffset = offset;
+            }
+
+            // The final stage may have left this worker's blocks in the second buffer.
+            if (source != mData) {
+                final int start = blockStart(firstBlock);
+                System.arraycopy(source, sourceOffset + start, mData, mFromIndex + start, blockStart(endBlock) - start);
+            }
+        }
+
+        /**
+         * Writes one block's half of its merge-split for a stage to the target
+         * buffer. A block that has no partner in the stage is copied as it is.
+         *
+         * @param stage        The index of the stage.
+         * @param distance     The compare distance of the stage, in blocks.
+         * @param block        The index of the block.
+         * @param source       The buffer that holds the result of the previous stage.
+         * @param sourceOffset The index in the source buffer of the first element of the range.
+         * @param target       The buffer to write the result of this stage to.
+         * @param targetOffset The index in the target buffer of the first element of the range.
+         */
+        private void split(int stage, int distance, int block, int[] source, int sourceOffset,
+                           int[] target, int targetOffset) {
+            final int round = mPlan.getStageRound(stage);
+            final int stop = mPlan.getMergeStop(round);
+            final int partner = block ^ distance;
+
+            final int start = blockStart(block);
+            final int length = blockStart(block + 1) - start;
+            if (block >= stop || partner >= stop) {
+                System.arraycopy(source, sourceOffset + start, target, targetOffset + start, length);
+                return;
+            }
+
+            final int lower = Math.min(block, partner);
+            final int upper = Math.max(block, partner);
+            final int lowerStart = sourceOffset + blockStart(lower);
+            final int upperStart = sourceOffset + blockStart(upper);
+            final int lowerLength = blockStart(lower + 1) - blockStart(lower);
+            final int upperLength = blockStart(upper + 1) - blockStart(upper);
+
+            // A window in the same order as the range keeps the first of the merged elements in its lower block.
+            final boolean ascending = mPolarity == Polarity.ASCENDING;
+            final boolean lowerFirst = mPlan.getWindowPolarity(round, lower / mPlan.getGroupSize(round)) == mPolarity;
+            final boolean keepFirst = (block == lower) == lowerFirst;
+
+            // Blocks that are already in the right order keep their own elements.
+            final int first = lowerFirst ? lowerStart : upperStart;
+            final int second = lowerFirst ? upperStart : lowerStart;
+            final int firstLast = first + (lowerFirst ? lowerLength : upperLength) - 1;
+            if (ascending ? source[firstLast] <= source[second] : source[firstLast] >= source[second]) {
+                System.arraycopy(source, sourceOffset + start, target, targetOffset + start, length);
+            } else if (keepFirst) {
+                mergeFirst(source, lowerStart, lowerLength, upperStart, upperLength,
+                        target, targetOffset + start, length, ascending);
+            } else {
+                mergeLast(source, lowerStart, lowerLength, upperStart, upperLength,
+                        target, targetOffset + start, length, ascending);
+            }
+        }
+
+        /**
+         * Waits for every other worker to finish the current stage.
+         *
+         * @return {@code true} if the next stage can begin, {@code false} if
+         * another worker has failed and the sort has been abandoned.
+         */
+        private boolean await() {
+            return mPhaser.arriveAndAwaitAdvance() >= 0;
+        }
+
+        /**
+         * @param index The index of a worker.
+         * @return The index of the first block of the worker's slice, which is
+         * also the exclusive end of the slice of the previous worker.
+         */
+        private int sliceStart(int index) {
+            return (int) ((long) mNumBlocks * index / mNumThreads);
+        }
+
+    }
+
+    /**
+     * Create a new {@link BlockBitonicExecutor} object.
+     *
+     * @param data The data to sort. Must not be {@code null}.
+     */
+    public BlockBitonicExecutor(int[] data) {
+        this(1, data);
+    }
+
+    /**
+     * Create a new {@link BlockBitonicExecutor} object.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     */
+    public BlockBitonicExecutor(int numThreads, int[] data) {
+        this(numThreads, data, Polarity.ASCENDING);
+    }
+
+    /**
+     * Create a new {@link BlockBitonicExecutor} object, which divides the data
+     * into one block for each worker.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     */
+    public BlockBitonicExecutor(int numThreads, int[] data, Polarity polarity) {
+        this(numThreads, data, 0, data == null ? 0 : data.length, polarity, numThreads);
+    }
+
+    /**
+     * Create a new {@link BlockBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param numBlocks  The number of blocks to divide the range into. Must
+     *                   be positive. The range is divided into fewer blocks
+     *                   if there are not enough elements to fill them.
+     */
+    public BlockBitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex,
+                                Polarity polarity, int numBlocks) {
+        assert numThreads > 0;
+        mThreadPool = Executors.newFixedThreadPool(numThreads);
+
+        assert data != null;
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length;
+        mData = data;
+        mFromIndex = fromIndex;
+        mToIndex = toIndex;
+
+        assert polarity != null;
+        mPolarity = polarity;
+
+        // Every block but the last is full, so there may be fewer blocks than requested.
+        assert numBlocks > 0;
+        final int length = toIndex - fromIndex;
+        mBlockSize = Math.max(1, MathUtils.ceilingDivide(length, numBlocks));
+        mNumBlocks = Math.max(1, MathUtils.ceilingDivide(length, mBlockSize));
+        mNumThreads = Math.min(numThreads, mNumBlocks);
+    }
+
+    private final ExecutorService mThreadPool;
+    private final int mNumThreads;
+    private final int[] mData;
+    private final int mFromIndex;
+    private final int mToIndex;
+    private final Polarity mPolarity;
+    private final int mBlockSize;
+    private final int mNumBlocks;
+
+    @Override
+    public void run() {
+
+        // A range of 0 or 1 elements is already sorted.
+        if (mToIndex - mFromIndex > 1) {
+
+            final int length = mToIndex - mFromIndex;
+            final IProfilerEvent event = SortProfilers.get().beginSort(PROFILER_NAME, length, mNumThreads);
+            final BitonicPlan plan = BitonicPlan.get(mNumBlocks, mPolarity, 1, 1);
+            final int[] scratch = new int[length];
+            final Phaser phaser = new Phaser(mNumThreads);
+            final Collection<Future> results = new ArrayList<>();
+            for (int index = 0; index < mNumThreads; index++) {
+                final Future result = mThreadPool.submit(new Worker(index, phaser, plan, scratch));
+                results.add(result);
+            }
+
+            // Any exception that was thrown by a worker is rethrown here.
+            for (Future result : results) {
+                try {
+                    result.get();
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            event.commit();
+        }
+
+        mThreadPool.shutdown();
+
+        // Ensure that all tasks have finished before returning.
+        boolean success = false;
+        while (!success) {
+            try {
+                if (!mThreadPool.awaitTermination(TIMEOUT_AMOUNT, TIMEOUT_UNITS)) {
+                    final String message = "Sort did not finish in a reasonable amount of time.";
+                    throw new RuntimeException(message);
+                }
+                success = true;
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+
+    }
+
+    /**
+     * @param block The index of a block, or the number of blocks for the end
+     *              of the final block.
+     * @return The offset of the first element of the block from the start of
+     * the range.
+     */
+    private int blockStart(int block) {
+        return (int) Math.min((long) block * mBlockSize, mToIndex - mFromIndex);
+    }
+
+    /**
+     * Merges two sorted runs from the front, writing only the first elements of
+     * the merged result.
+     *
+     * @param source     The buffer that holds both runs.
+     * @param aStart     The index of the first element of the first run.
+     * @param aLength    The length of the first run.
+     * @param bStart     The index of the first element of the second run.
+     * @param bLength    The length of the second run.
+     * @param target     The buffer to write the merged elements to.
+     * @param start      The index in the target buffer to write the first merged element to.
+     * @param count      The number of merged elements to write.
+     * @param ascending  {@code true} if the runs are in ascending order,
+     *                   {@code false} if they are in descending order.
+     */
+    static void mergeFirst(int[] source, int aStart, int aLength, int bStart, int bLength,
+                           int[] target, int start, int count, boolean ascending) {
+        assert count <= aLength + bLength;
+
+        int a = aStart;
+        int b = bStart;
+        final int aStop = aStart + aLength;
+        final int bStop = bStart + bLength;
+        for (int i = start; i < start + count; i++) {
+            if (b == bStop || (a < aStop && (ascending ? source[a] <= source[b] : source[a] >= source[b]))) {
+                target[i] = source[a++];
+            } else {
+                target[i] = source[b++];
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted runs from the back, writing only the last elements of
+     * the merged result.
+     *
+     * @param source     The buffer that holds both runs.
+     * @param aStart     The index of the first element of the first run.
+     * @param aLength    The length of the first run.
+     * @param bStart     The index of the first element of the second run.
+     * @param bLength    The length of the second run.
+     * @param target     The buffer to write the merged elements to.
+     * @param start      The index in the target buffer to write the first of
+     *                   the written elements to.
+     * @param count      The number of merged elements to write.
+     * @param ascending  {@code true} if the runs are in ascending order,
+     *                   {@code false} if they are in descending order.
+     */
+    static void mergeLast(int[] source, int aStart, int aLength, int bStart, int bLength,
+                          int[] target, int start, int count, boolean ascending) {
+        assert count <= aLength + bLength;
+
+        int a = aStart + aLength - 1;
+        int b = bStart + bLength - 1;
+        for (int i = start + count - 1; i >= start; i--) {
+            if (b < bStart || (a >= aStart && (ascending ? source[a] > source[b] : source[a] < source[b]))) {
+                target[i] = source[a--];
+            } else {
+                target[i] = source[b--];
+            }
+        }
+    }
+
+    /**
+     * Reverses the order of a range of an array.
+     *
+     * @param data      The array containing the range.
+     * @param fromIndex The inclusive start of the range.
+     * @param toIndex   The exclusive end of the range.
+     */
+    private static void reverse(int[] data, int fromIndex, int toIndex) {
+        for (int i = fromIndex, j = toIndex - 1; i < j; i++, j--) {
+            final int temp = data[i];
+            data[i] = data[j];
+            data[j] = temp;
+        }
+    }
+
+}
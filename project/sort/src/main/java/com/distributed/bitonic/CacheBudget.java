@@ -0,0 +1,71 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+import com.distributed.sorting.ISortData;
+
+/**
+ * Provides the constants and conversions for cache budgets, which specify how
+ * many bytes of a window may be worked on by a single worker so that the window
+ * stays in its cache until every remaining pass of the window is done.
+ * <p>
+ * A window that fits in the budget is sorted or merged back to back by one
+ * worker, rather than having each of its passes divided between the workers.
+ * Each element of the window is then read from memory once per round, rather
+ * than once per pass. The budget is separate from the grain size, which still
+ * determines how finely the passes of larger windows are divided.
+ * </p>
+ *
+ * @see GrainSize
+ */
+@SuppressWarnings("WeakerAccess")
+public class CacheBudget {
+
+    /**
+     * A budget that is smaller than any window, so that only windows that are
+     * no larger than the grain size are finished by a single worker.
+     */
+    public static final int NONE = 1;
+
+    /**
+     * A budget that matches a typical 32 KiB L1 data cache.
+     */
+    public static final int L1 = 32 * 1024;
+
+    /**
+     * A budget that matches a typical 256 KiB L2 cache.
+     */
+    public static final int L2 = 256 * 1024;
+
+    /**
+     * Checks whether or not a cache budget can be used.
+     *
+     * @param cacheBudget The cache budget to check, in bytes.
+     * @return {@code true} if the cache budget is positive, {@code false} otherwise.
+     */
+    public static boolean isValid(int cacheBudget) {
+        return cacheBudget > 0;
+    }
+
+    /**
+     * Determines the size of the windows that fit in a cache budget.
+     *
+     * @param cacheBudget The cache budget, in bytes. Must be valid according to
+     *                    {@link #isValid(int)}.
+     * @param data        The {@link ISortData} being sorted.
+     * @param grainSize   The grain size of the sort, which is the smallest window
+     *                    size that is returned.
+     * @return The greatest power of 2 number of elements that fits in the budget,
+     * or the grain size if that is larger.
+     */
+    public static int windowSize(int cacheBudget, ISortData data, int grainSize) {
+        assert isValid(cacheBudget);
+        assert GrainSize.isValid(grainSize);
+
+        final int elements = cacheBudget / data.bytesPerElement();
+        if (elements <= grainSize) {
+            return grainSize;
+        }
+        return MathUtils.isPowerOfTwo(elements) ? elements : MathUtils.greatestPowerOfTwoLessThan(elements);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.ISwapDecision;
+import com.distributed.sorting.IntBufferSortData;
+import com.distributed.sorting.IntSortData;
+
+/**
+ * Represents an {@link ISortData} wrapper that adds the comparisons and swaps
+ * of every pass to the {@link StageStats} of the task running on the current
+ * thread.
+ * <p>
+ * Comparisons are counted from the size of each pass, which costs nothing. For
+ * data of {@link Integer} primitives, swaps are counted by running each pass
+ * through an {@link ISwapDecision} that counts every pair it swaps, rather than
+ * through the kernel. A swap of two equal elements changes nothing, so it is not
+ * counted. Other data is passed straight through, and has no swaps counted.
+ * </p>
+ */
+class CountingSortData implements ISortData {
+
+    /**
+     * Create a new {@link CountingSortData} object.
+     *
+     * @param data The {@link ISortData} to operate on. Must not be {@code null}.
+     */
+    CountingSortData(ISortData data) {
+        assert data != null;
+        mData = data;
+        mCountSwaps = data instanceof IntSortData || data instanceof IntBufferSortData;
+    }
+
+    private final ISortData mData;
+    private final boolean mCountSwaps;
+    private final ThreadLocal<StageStats> mStage = new ThreadLocal<>();
+
+    /**
+     * Sets the stage that the passes on the current thread belong to.
+     *
+     * @param stage The {@link StageStats} of the stage, or {@code null} once
+     *              the task has finished.
+     */
+    void setStage(StageStats stage) {
+        mStage.set(stage);
+    }
+
+    @Override
+    public int length() {
+        return mData.length();
+    }
+
+    @Override
+    public int bytesPerElement() {
+        return mData.bytesPerElement();
+    }
+
+    @Override
+    public void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+        final StageStats stage = mStage.get();
+        if (stage == null) {
+            mData.compareExchange(start, comparisons, distance, swapDecision);
+            return;
+        }
+
+        if (!mCountSwaps) {
+            mData.compareExchange(start, comparisons, distance, swapDecision);
+            stage.addPass(comparisons, 0);
+            return;
+        }
+
+        final SwapCounter counter = new SwapCounter(swapDecision);
+        mData.compareExchange(start, comparisons, distance, counter);
+        stage.addPass(comparisons, counter.mSwaps);
+    }
+
+    /**
+     * Represents an {@link ISwapDecision} that counts the pairs of different
+     * elements that it decides to swap. Each instance is only used by a single
+     * pass on a single thread.
+     */
+    private static class SwapCounter implements ISwapDecision {
+
+        /**
+         * Create a new {@link SwapCounter} object.
+         *
+         * @param swapDecision The {@link ISwapDecision} that makes every decision.
+         */
+        SwapCounter(ISwapDecision swapDecision) {
+            mSwapDecision = swapDecision;
+        }
+
+        private final ISwapDecision mSwapDecision;
+
+        private long mSwaps = 0;
+
+        @Override
+        public boolean shouldSwap(int left, int right) {
+            final boolean swap = mSwapDecision.shouldSwap(left, right);
+            if (swap && left != right) {
+                mSwaps++;
+            }
+            return swap;
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a {@link Runnable} that sorts an array using a {@link ForkJoinPool}
+ * and the bitonic sorting algorithm.
+ * <p>
+ * Unlike the {@link BitonicExecutor}, there is no coordinating thread that
+ * dispatches each recursive step. Every {@link ForkJoinElementSwapper} forks
+ * its own recursive halves, and idle workers steal outstanding steps from busy
+ * ones. The only synchronization that remains is between recursive rounds,
+ * where a round cannot begin until all steps of the previous round are done.
+ * </p>
+ * <p>
+ * A new {@link ForkJoinPool} is created for each executor. The
+ * {@link BitonicSortService} should be used instead when many arrays are
+ * sorted, so that the pool is only created once.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class ForkJoinBitonicExecutor implements Runnable {
+
+    private static final int TIMEOUT_AMOUNT = 1;
+    private static final TimeUnit TIMEOUT_UNITS = TimeUnit.MINUTES;
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object.
+     *
+     * @param data The data to sort. Must not be {@code null}.
+     */
+    public ForkJoinBitonicExecutor(int[] data) {
+        this(1, data);
+    }
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     */
+    public ForkJoinBitonicExecutor(int numThreads, int[] data) {
+        this(numThreads, data, Polarity.ASCENDING);
+    }
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     */
+    public ForkJoinBitonicExecutor(int numThreads, int[] data, Polarity polarity) {
+        this(numThreads, data, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public ForkJoinBitonicExecutor(int numThreads, int[] data, Polarity polarity, int grainSize) {
+        this(numThreads, data, 0, data == null ? 0 : data.length, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     */
+    public ForkJoinBitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex, Polarity polarity) {
+        this(numThreads, data, fromIndex, toIndex, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public ForkJoinBitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex,
+                                   Polarity polarity, int grainSize) {
+        this(numThreads, new IntSortData(data), fromIndex, toIndex, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link ForkJoinBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of threads to create in the thread pool.
+     * @param data       The {@link ISortData} to sort. Must not be
+     *                   {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public ForkJoinBitonicExecutor(int numThreads, ISortData data, int fromIndex, int toIndex,
+                                   Polarity polarity, int grainSize) {
+        assert numThreads > 0;
+        mThreadPool = new ForkJoinPool(numThreads);
+
+        assert data != null;
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length();
+        mData = data;
+        mFromIndex = fromIndex;
+        mToIndex = toIndex;
+
+        assert polarity != null;
+        mPolarity = polarity;
+
+        assert GrainSize.isValid(grainSize);
+        mGrainSize = grainSize;
+    }
+
+    private final ForkJoinPool mThreadPool;
+    private final ISortData mData;
+    private final int mFromIndex;
+    private final int mToIndex;
+    private final Polarity mPolarity;
+    private final int mGrainSize;
+
+    @Override
+    public void run() {
+
+        /*
+         * The call to #invoke() does not return until every round of the sort
+         * has completed. Any exception thrown by a step is rethrown here.
+         */
+        mThreadPool.invoke(new ForkJoinSortTask<>(
+                mData, mFromIndex, mToIndex, mPolarity, mGrainSize, null, mThreadPool.getParallelism()
+        ));
+
+        mThreadPool.shutdown();
+
+        // Ensure that all tasks have finished before returning.
+        boolean success = false;
+        while (!success) {
+            try {
+                if (!mThreadPool.awaitTermination(TIMEOUT_AMOUNT, TIMEOUT_UNITS)) {
+                    final String message = "Sort did not finish in a reasonable amount of time.";
+                    throw new RuntimeException(message);
+                }
+                success = true;
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
+import com.distributed.sorting.IElementSwapper;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.ISwapDecision;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents a {@link RecursiveAction} that performs a single pass on the
+ * data, and then forks its 2 recursive halves directly onto the current
+ * {@link ForkJoinPool}.
+ * <p>
+ * This performs the same work as a {@link RecursiveElementSwapper}, however
+ * rather than signalling each recursive step to a coordinating thread, the
+ * recursive steps are dispatched by the worker that produced them and may be
+ * stolen by any idle worker in the pool.
+ * </p>
+ * <p>
+ * Windows that do not have a size that is a power of 2 are split in the same
+ * way as a {@link RecursiveElementSwapper}. Windows that are no larger than
+ * the grain size are not split further,
+ * and instead run all of their remaining passes on the current thread.
+ * </p>
+ *
+ * @see GrainSize
+ */
+@SuppressWarnings("WeakerAccess")
+public class ForkJoinElementSwapper extends RecursiveAction {
+
+    /**
+     * Create a new {@link ForkJoinElementSwapper}.
+     *
+     * @param data         The array of {@link Integer} primitives to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param stop         The exclusive start of the range to be operated on.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     */
+    public ForkJoinElementSwapper(int[] data, int start, int stop, ISwapDecision swapDecision) {
+        this(data, start, stop, swapDecision, 2);
+    }
+
+    /**
+     * Create a new {@link ForkJoinElementSwapper}.
+     *
+     * @param data         The array of {@link Integer} primitives to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param stop         The exclusive start of the range to be operated on.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     * @param grainSize    The window size at or below which all remaining passes
+     *                     are run sequentially rather than being forked. Must be
+     *                     a power of 2. A value of 2 disables the sequential cutoff.
+     */
+    public ForkJoinElementSwapper(int[] data, int start, int stop, ISwapDecision swapDecision, int grainSize) {
+        this(new IntSortData(data), start, stop, swapDecision, grainSize, false);
+    }
+
+    /**
+     * Create a new {@link ForkJoinElementSwapper}.
+     *
+     * @param data         The {@link ISortData} to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param stop         The exclusive start of the range to be operated on.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     * @param grainSize    The window size at or below which all remaining passes
+     *                     are run sequentially rather than being forked. Must be
+     *                     a power of 2.
+     * @param sortWindow   {@code true} if the window holds unsorted data that should
+     *                     be fully sorted rather than a bitonic sequence that should
+     *                     be merged. The window must be no larger than the grain
+     *                     size, and the decision must be a {@link Polarity}.
+     */
+    ForkJoinElementSwapper(ISortData data, int start, int stop, ISwapDecision swapDecision,
+                           int grainSize, boolean sortWindow) {
+        mExecutor = new SinglePassElementSwapper(data, start, stop, swapDecision);
+
+        final int diff = stop - start;
+
+        assert grainSize >= 2;
+        assert MathUtils.isPowerOfTwo(grainSize);
+        assert !sortWindow || (diff <= grainSize && swapDecision instanceof Polarity);
+
+        mData = data;
+        mStart = start;
+        mStop = stop;
+        mSwapDecision = swapDecision;
+        mGrainSize = grainSize;
+        mSortWindow = sortWindow;
+    }
+
+    private final IElementSwapper mExecutor;
+
+    private final ISortData mData;
+    private final int mStart;
+    private final int mStop;
+    private final ISwapDecision mSwapDecision;
+    private final int mGrainSize;
+    private final boolean mSortWindow;
+
+    @Override
+    protected void compute() {
+        final int currentWindowSize = mStop - mStart;
+        if (currentWindowSize < SortProfilers.getSwapThreshold()) {
+            swap();
+            return;
+        }
+
+        final IProfilerEvent event = SortProfilers.get().beginSwap(mStart, currentWindowSize, mSortWindow);
+        try {
+            swap();
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Performs the work of this object, and waits for its recursion steps.
+     */
+    private void swap() {
+        final int currentWindowSize = mStop - mStart;
+
+        if (mSortWindow) {
+            RecursiveElementSwapper.sortSequentially(mData, mStart, mStop, (Polarity) mSwapDecision);
+            return;
+        }
+
+        if (currentWindowSize <= mGrainSize) {
+            RecursiveElementSwapper.mergeSequentially(mData, mStart, mStop, mSwapDecision);
+            return;
+        }
+
+        // Perform the single pass associated with this object.
+        mExecutor.execute();
+
+        /*
+         * Recursing when 1 element will be in each group is
+         * pointless, as a list of 1 element is already sorted.
+         */
+        if (currentWindowSize > 2) {
+            final int nextWindowSize = MathUtils.greatestPowerOfTwoLessThan(currentWindowSize);
+            final int windowCenter = mStart + nextWindowSize;
+
+            final ForkJoinElementSwapper firstHalf = new ForkJoinElementSwapper(
+                    mData, mStart, windowCenter, mSwapDecision, mGrainSize, false
+            );
+            final ForkJoinElementSwapper secondHalf = new ForkJoinElementSwapper(
+                    mData, windowCenter, mStop, mSwapDecision, mGrainSize, false
+            );
+            invokeAll(firstHalf, secondHalf);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.distributed.bitonic;
+
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.ISortProfiler;
+import com.distributed.profiling.SortProfilers;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Represents a {@link RecursiveTask} that performs every recursive round of
+ * the bitonic sorting algorithm on a range of an {@link ISortData}, using
+ * {@link ForkJoinElementSwapper} objects for each round.
+ * <p>
+ * The whole sort is a single task, so it can be submitted to a long-lived
+ * {@link ForkJoinPool} alongside any number of other sorts, and the thread
+ * that waits for it does not need to take part in the pool.
+ * </p>
+ *
+ * @param <T> The type of the result that is produced once the sort is done.
+ */
+class ForkJoinSortTask<T> extends RecursiveTask<T> {
+
+    private static final String PROFILER_NAME = "forkjoin";
+
+    /**
+     * Create a new {@link ForkJoinSortTask} object.
+     *
+     * @param data       The {@link ISortData} to sort.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single task.
+     * @param result     The result to produce once the sort is done.
+     * @param numThreads The number of threads in the pool that runs the task,
+     *                   which is only reported to the profiler.
+     */
+    ForkJoinSortTask(ISortData data, int fromIndex, int toIndex, Polarity polarity, int grainSize, T result,
+                     int numThreads) {
+        assert data != null;
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length();
+        assert polarity != null;
+        assert GrainSize.isValid(grainSize);
+
+        mData = data;
+        mFromIndex = fromIndex;
+        mToIndex = toIndex;
+        mPolarity = polarity;
+        mGrainSize = grainSize;
+        mResult = result;
+        mNumThreads = numThreads;
+    }
+
+    private final ISortData mData;
+    private final int mFromIndex;
+    private final int mToIndex;
+    private final Polarity mPolarity;
+    private final int mGrainSize;
+    private final T mResult;
+    private final int mNumThreads;
+
+    @Override
+    protected T compute() {
+        final ISortProfiler profiler = SortProfilers.get();
+        final int length = mToIndex - mFromIndex;
+        final IProfilerEvent sortEvent = profiler.beginSort(PROFILER_NAME, length, mNumThreads);
+
+        /*
+         * Windows within the grain size are independent of one another until the
+         * window size exceeds the grain size, so the first round fully sorts each
+         * grain-sized window rather than performing each of those rounds separately.
+         */
+        final BitonicPlan plan = BitonicPlan.get(length, mPolarity, mGrainSize);
+        for (int round = 0; round < plan.getRoundCount(); round++) {
+
+            final boolean sortWindows = round == 0;
+            final long groupSize = plan.getGroupSize(round);
+
+            // A short final window has already been merged by an earlier round, and is left out.
+            final int windowCount = plan.getWindowCount(round);
+            final Collection<ForkJoinElementSwapper> initial = new ArrayList<>(windowCount);
+            for (int window = 0; window < windowCount; window++) {
+                final long start = mFromIndex + window * groupSize;
+                final int stop = (int) Math.min(start + groupSize, mToIndex);
+
+                final Polarity polarity = plan.getWindowPolarity(round, window);
+                initial.add(new ForkJoinElementSwapper(mData, (int) start, stop, polarity, mGrainSize, sortWindows));
+            }
+
+            /*
+             * The call to #invokeAll() does not return until every recursive step
+             * forked by the round has completed, so rounds cannot overlap. Any
+             * exception thrown by a step is rethrown here.
+             */
+            final IProfilerEvent roundEvent = profiler.beginRound(round, groupSize, windowCount);
+            invokeAll(initial);
+            roundEvent.commit();
+        }
+
+        sortEvent.commit();
+        return mResult;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+
+/**
+ * Provides the constants and validation for grain sizes, which specify the
+ * window size at or below which a recursive swapper stops producing new tasks
+ * and instead runs all of its remaining passes sequentially on the current
+ * thread.
+ * <p>
+ * Grain sizes must be a power of 2 that is at least the number of elements in
+ * a cache line. Since every window starts at a multiple of its own size, this
+ * guarantees that the boundaries between separately scheduled windows always
+ * fall on a cache line boundary relative to the start of the array, so two
+ * windows that run concurrently never write to the same cache line.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class GrainSize {
+
+    /**
+     * The number of {@link Integer} primitives that fit in a 64 byte cache line.
+     */
+    public static final int CACHE_LINE_INTS = 16;
+
+    /**
+     * The grain size that is used when one is not provided. When sorting 262144
+     * elements, the time taken by both engines fell steeply as the grain size
+     * grew from 16 elements to around 1024, and levelled off between 1024 and
+     * 4096. 2048 elements (8 KiB) sits in that range, fits comfortably in an L1
+     * data cache, and keeps smaller grains available for larger thread counts.
+     */
+    public static final int DEFAULT = 2048;
+
+    /**
+     * Checks whether or not a grain size can be used.
+     *
+     * @param grainSize The grain size to check.
+     * @return {@code true} if the grain size is a power of 2 that is at least
+     * {@link #CACHE_LINE_INTS}, {@code false} otherwise.
+     */
+    public static boolean isValid(int grainSize) {
+        return grainSize >= CACHE_LINE_INTS && MathUtils.isPowerOfTwo(grainSize);
+    }
+
+}
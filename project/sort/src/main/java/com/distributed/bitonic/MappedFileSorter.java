@@ -0,0 +1,84 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.IntBufferSortData;
+import com.distributed.sorting.Polarity;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Provides methods that sort a binary file of {@link Integer} primitives in
+ * place, by mapping it into memory and running a {@link PhaserBitonicExecutor}
+ * directly on the mapped regions.
+ * <p>
+ * The file is never copied onto the heap, so files that are far larger than
+ * the heap can be sorted, and the sort creates no garbage for each element.
+ * Each worker performs a contiguous slice of every stage, so it works on
+ * contiguous pages of the file, and the operating system is left to page the
+ * regions in and out as needed.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class MappedFileSorter {
+
+    /**
+     * The {@link ByteOrder} of the elements when one is not provided, which
+     * matches a dump of an array from a little-endian machine.
+     */
+    public static final ByteOrder DEFAULT_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Sorts a file of little-endian {@link Integer} primitives in place.
+     *
+     * @param file       The {@link Path} of the file to sort.
+     * @param numThreads The number of workers to sort the file with.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @throws IOException if the file could not be read, written or mapped.
+     */
+    public static void sort(Path file, int numThreads, Polarity polarity) throws IOException {
+        sort(file, numThreads, polarity, DEFAULT_ORDER, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Sorts a file of {@link Integer} primitives in place.
+     *
+     * @param file       The {@link Path} of the file to sort.
+     * @param numThreads The number of workers to sort the file with.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param order      The {@link ByteOrder} of the elements in the file.
+     *                   Must not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single worker. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     * @throws IOException              if the file could not be read, written or mapped.
+     * @throws IllegalArgumentException if the size of the file is not a whole number
+     *                                  of elements, or it holds too many elements.
+     */
+    public static void sort(Path file, int numThreads, Polarity polarity, ByteOrder order, int grainSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = channel.size();
+            if (size % Integer.BYTES != 0) {
+                final String message = "File size " + size + " is not a multiple of " + Integer.BYTES + " bytes.";
+                throw new IllegalArgumentException(message);
+            }
+            if (size / Integer.BYTES > Integer.MAX_VALUE) {
+                final String message = "File holds more than " + Integer.MAX_VALUE + " elements.";
+                throw new IllegalArgumentException(message);
+            }
+
+            final int length = (int) (size / Integer.BYTES);
+            final IntBufferSortData data = IntBufferSortData.map(
+                    channel, 0, length, order, IntBufferSortData.DEFAULT_REGION_SIZE
+            );
+            new PhaserBitonicExecutor(numThreads, data, 0, length, polarity, grainSize).run();
+            data.force();
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.distributed.bitonic;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Provides the blocking reads and writes of the messages that are sent between
+ * a {@link NetworkSortCoordinator} and its {@link NetworkSortWorker} processes.
+ * <p>
+ * Every message is a sequence of big-endian {@link Integer} primitives, where
+ * a block of elements is sent straight from the direct buffer that holds it,
+ * and a string is sent as its length followed by its UTF-8 bytes.
+ * </p>
+ */
+class NetworkChannels {
+
+    /**
+     * Reads from a channel until a buffer is full.
+     *
+     * @param channel The channel to read from, which must be in blocking mode.
+     * @param buffer  The buffer to fill.
+     * @throws IOException if the channel could not be read, or it ended before
+     *                     the buffer was full.
+     */
+    static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                final String message = "Connection closed part of the way through a message.";
+                throw new EOFException(message);
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to a channel.
+     *
+     * @param channel The channel to write to, which must be in blocking mode.
+     * @param buffer  The buffer to write.
+     * @throws IOException if the channel could not be written.
+     */
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @param channel The channel to read from, which must be in blocking mode.
+     * @return The next {@link Integer} primitive in the channel.
+     * @throws IOException if the channel could not be read.
+     */
+    static int readInt(ReadableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, buffer);
+        buffer.flip();
+        return buffer.getInt();
+    }
+
+    /**
+     * @param channel The channel to write to, which must be in blocking mode.
+     * @param value   The {@link Integer} primitive to write.
+     * @throws IOException if the channel could not be written.
+     */
+    static void writeInt(WritableByteChannel channel, int value) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        buffer.putInt(value);
+        buffer.flip();
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Reads a message that was written with {@link #writeMessage(WritableByteChannel, ByteBuffer)}.
+     *
+     * @param channel The channel to read from, which must be in blocking mode.
+     * @return A buffer holding the body of the message, ready to be read.
+     * @throws IOException if the channel could not be read.
+     */
+    static ByteBuffer readMessage(ReadableByteChannel channel) throws IOException {
+        final int length = readInt(channel);
+        if (length < 0) {
+            final String message = "Invalid message length " + length + ".";
+            throw new IOException(message);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer, preceded by their length.
+     *
+     * @param channel The channel to write to, which must be in blocking mode.
+     * @param body    The body of the message.
+     * @throws IOException if the channel could not be written.
+     */
+    static void writeMessage(WritableByteChannel channel, ByteBuffer body) throws IOException {
+        writeInt(channel, body.remaining());
+        writeFully(channel, body);
+    }
+
+    /**
+     * @param buffer The buffer to read from.
+     * @return The next string in the buffer.
+     */
+    static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param buffer The buffer to write to.
+     * @param value  The string to write.
+     */
+    static void putString(ByteBuffer buffer, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * @param value A string.
+     * @return The number of bytes that the string is written as.
+     */
+    static int sizeOf(String value) {
+        return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * @param length The number of elements in a block.
+     * @return A new direct buffer that can hold the block, with its limit set
+     * to the size of the block.
+     */
+    static ByteBuffer allocateBlock(int length) {
+        return ByteBuffer.allocateDirect(length * Integer.BYTES);
+    }
+
+    /**
+     * @param block A buffer holding a block of elements.
+     * @return A view of the elements of the block, from the start of the buffer
+     * up to its limit.
+     */
+    static IntBuffer elementsOf(ByteBuffer block) {
+        final ByteBuffer whole = block.duplicate();
+        whole.position(0);
+        return whole.asIntBuffer();
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+import com.distributed.sorting.Polarity;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Represents the coordinator of a bitonic sort that is spread across several
+ * processes, each of which runs a {@link NetworkSortWorker}.
+ * <p>
+ * The data is divided into one block for each worker in the same way as by
+ * the {@link BlockBitonicExecutor}. Once every worker has connected, each one
+ * is sent its rank, the layout of the blocks, the address of every other
+ * worker and its own block. The workers then sort their blocks and run the
+ * merge-split stages of the block network directly with each other, so none
+ * of the exchanges pass through the coordinator, which only collects the
+ * sorted blocks at the end.
+ * </p>
+ * <p>
+ * Each worker takes part in a single sort, so a sort waits for a new set of
+ * workers to connect. The workers may run on other machines, as long as the
+ * coordinator is bound to an address that they can reach.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class NetworkSortCoordinator implements Closeable {
+
+    /**
+     * Create a new {@link NetworkSortCoordinator} object, which listens for
+     * workers on an ephemeral port of the loopback address.
+     *
+     * @param numWorkers The number of workers that take part in each sort.
+     * @throws IOException if the port could not be bound.
+     */
+    public NetworkSortCoordinator(int numWorkers) throws IOException {
+        this(numWorkers, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Create a new {@link NetworkSortCoordinator} object.
+     *
+     * @param numWorkers The number of workers that take part in each sort.
+     * @param address    The address to listen for workers on. Must not be
+     *                   {@code null}.
+     * @throws IOException if the address could not be bound.
+     */
+    public NetworkSortCoordinator(int numWorkers, InetSocketAddress address) throws IOException {
+        assert numWorkers > 0;
+        mNumWorkers = numWorkers;
+
+        assert address != null;
+        mServer = ServerSocketChannel.open();
+        mServer.bind(address);
+    }
+
+    private final int mNumWorkers;
+    private final ServerSocketChannel mServer;
+
+    /**
+     * @return The address that workers should connect to.
+     * @throws IOException if the address could not be determined.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) mServer.getLocalAddress();
+    }
+
+    /**
+     * Sorts an array with a new set of workers, waiting for every worker to
+     * connect first.
+     *
+     * @param data     The data to sort. Must not be {@code null}.
+     * @param polarity The desired {@link Polarity} of the result. Must not
+     *                 be {@code null}.
+     * @throws IOException if the workers could not be reached, or a worker failed.
+     */
+    public void sort(int[] data, Polarity polarity) throws IOException {
+        sort(data, 0, data.length, polarity);
+    }
+
+    /**
+     * Sorts a range of an array with a new set of workers, waiting for every
+     * worker to connect first. The elements outside of the range are untouched.
+     *
+     * @param data      The data to sort. Must not be {@code null}.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the result. Must not
+     *                  be {@code null}.
+     * @throws IOException if the workers could not be reached, or a worker failed.
+     */
+    public void sort(int[] data, int fromIndex, int toIndex, Polarity polarity) throws IOException {
+        assert data != null;
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length;
+        assert polarity != null;
+
+        final int length = toIndex - fromIndex;
+        final int blockSize = blockSizeOf(length, mNumWorkers);
+        final SocketChannel[] workers = new SocketChannel[mNumWorkers];
+        try {
+
+            // Each worker introduces itself with the port that the other workers can reach it on.
+            final String[] hosts = new String[mNumWorkers];
+            final int[] ports = new int[mNumWorkers];
+            int headerSize = 5 * Integer.BYTES;
+            for (int rank = 0; rank < mNumWorkers; rank++) {
+                workers[rank] = mServer.accept();
+                workers[rank].setOption(StandardSocketOptions.TCP_NODELAY, true);
+                hosts[rank] = ((InetSocketAddress) workers[rank].getRemoteAddress()).getAddress().getHostAddress();
+                ports[rank] = NetworkChannels.readInt(workers[rank]);
+                headerSize += NetworkChannels.sizeOf(hosts[rank]) + Integer.BYTES;
+            }
+
+            for (int rank = 0; rank < mNumWorkers; rank++) {
+                final ByteBuffer header = ByteBuffer.allocate(headerSize);
+                header.putInt(rank);
+                header.putInt(mNumWorkers);
+                header.putInt(length);
+                header.putInt(blockSize);
+                header.putInt(polarity == Polarity.ASCENDING ? 1 : 0);
+                for (int peer = 0; peer < mNumWorkers; peer++) {
+                    NetworkChannels.putString(header, hosts[peer]);
+                    header.putInt(ports[peer]);
+                }
+                header.flip();
+                NetworkChannels.writeMessage(workers[rank], header);
+
+                final int start = blockStart(rank, blockSize, length);
+                final int blockLength = blockStart(rank + 1, blockSize, length) - start;
+                final ByteBuffer block = NetworkChannels.allocateBlock(blockLength);
+                block.asIntBuffer().put(data, fromIndex + start, blockLength);
+                NetworkChannels.writeFully(workers[rank], block);
+            }
+
+            // Each worker sends back its block once the final stage is done.
+            for (int rank = 0; rank < mNumWorkers; rank++) {
+                final int start = blockStart(rank, blockSize, length);
+                final int blockLength = blockStart(rank + 1, blockSize, length) - start;
+                final ByteBuffer block = NetworkChannels.allocateBlock(blockLength);
+                NetworkChannels.readFully(workers[rank], block);
+                NetworkChannels.elementsOf(block).get(data, fromIndex + start, blockLength);
+            }
+        } finally {
+            for (SocketChannel worker : workers) {
+                if (worker != null) {
+                    worker.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mServer.close();
+    }
+
+    /**
+     * @param length     The length of the range being sorted.
+     * @param numWorkers The number of workers that the range is divided between.
+     * @return The number of elements in every block but the last.
+     */
+    static int blockSizeOf(int length, int numWorkers) {
+        return Math.max(1, MathUtils.ceilingDivide(length, numWorkers));
+    }
+
+    /**
+     * @param length    The length of the range being sorted.
+     * @param blockSize The number of elements in every block but the last.
+     * @return The number of blocks that hold any elements, which is at least 1.
+     */
+    static int blockCountOf(int length, int blockSize) {
+        return Math.max(1, MathUtils.ceilingDivide(length, blockSize));
+    }
+
+    /**
+     * @param block     The index of a block, which is also the rank of its worker.
+     * @param blockSize The number of elements in every block but the last.
+     * @param length    The length of the range being sorted.
+     * @return The offset of the first element of the block from the start of the
+     * range. Workers past the final block have an empty block at the end.
+     */
+    static int blockStart(int block, int blockSize, int length) {
+        return (int) Math.min((long) block * blockSize, length);
+    }
+
+}
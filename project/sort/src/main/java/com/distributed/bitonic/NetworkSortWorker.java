@@ -0,0 +1,326 @@
+package com.distributed.bitonic;
+
+import com.distributed.sorting.Polarity;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents a single process of a bitonic sort that is spread across several
+ * processes, which owns one block of the data and exchanges it with the other
+ * workers of a {@link NetworkSortCoordinator}.
+ * <p>
+ * Once it has received its block, the worker sorts it locally, and then runs
+ * the stages of a {@link BitonicPlan} for a range that is as long as the number
+ * of blocks, just like the {@link BlockBitonicExecutor}. In each stage, the
+ * worker sends its whole block to its partner while receiving the partner's
+ * block, and then keeps its own half of the merge-split of the two blocks. The
+ * lower of two workers connects to the higher one the first time that they are
+ * partners, and the connection is kept for every later stage.
+ * </p>
+ * <p>
+ * Blocks are held in direct buffers, so they are written to and read from the
+ * sockets without being copied to or from the heap, and the merge-split of
+ * every stage reads both blocks in place. The only copy is made by the local
+ * sort at the start, which copies the block into a heap array for
+ * {@link Arrays#sort(int[])} and back, as a sort in place on the buffer would
+ * need {@code O(n log(n)^2)} bitonic comparisons instead. The send and the
+ * receive of each exchange are driven by a {@link Selector}, so neither worker
+ * can block the other by filling its socket buffer.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class NetworkSortWorker {
+
+    /**
+     * Runs a worker in its own process.
+     *
+     * @param args The host and port of the coordinator.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: NetworkSortWorker <host> <port>");
+            System.exit(2);
+        }
+
+        try {
+            new NetworkSortWorker(new InetSocketAddress(args[0], Integer.parseInt(args[1]))).run();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Create a new {@link NetworkSortWorker} object.
+     *
+     * @param coordinator The address of the {@link NetworkSortCoordinator}. Must
+     *                    not be {@code null}.
+     */
+    public NetworkSortWorker(InetSocketAddress coordinator) {
+        assert coordinator != null;
+        mCoordinator = coordinator;
+    }
+
+    private final InetSocketAddress mCoordinator;
+
+    /**
+     * Connects to the coordinator, and takes part in a single sort.
+     *
+     * @throws IOException if the coordinator or another worker could not be
+     *                     reached, or another worker failed.
+     */
+    public void run() throws IOException {
+        final Map<Integer, SocketChannel> peers = new HashMap<>();
+        try (SocketChannel coordinator = SocketChannel.open(mCoordinator);
+             ServerSocketChannel server = ServerSocketChannel.open();
+             Selector selector = Selector.open()) {
+
+            // Other workers reach this one on the same interface that it reaches the coordinator from.
+            server.bind(new InetSocketAddress(((InetSocketAddress) coordinator.getLocalAddress()).getAddress(), 0));
+            NetworkChannels.writeInt(coordinator, ((InetSocketAddress) server.getLocalAddress()).getPort());
+
+            final ByteBuffer header = NetworkChannels.readMessage(coordinator);
+            final int rank = header.getInt();
+            final int numWorkers = header.getInt();
+            final int length = header.getInt();
+            final int blockSize = header.getInt();
+            final Polarity polarity = header.getInt() == 1 ? Polarity.ASCENDING : Polarity.DESCENDING;
+            final InetSocketAddress[] addresses = new InetSocketAddress[numWorkers];
+            for (int peer = 0; peer < numWorkers; peer++) {
+                final String host = NetworkChannels.getString(header);
+                addresses[peer] = new InetSocketAddress(host, header.getInt());
+            }
+
+            final int numBlocks = NetworkSortCoordinator.blockCountOf(length, blockSize);
+            final int blockLength = lengthOf(rank, blockSize, length);
+            ByteBuffer block = NetworkChannels.allocateBlock(blockLength);
+            NetworkChannels.readFully(coordinator, block);
+            sortLocally(block, polarity);
+
+            if (rank < numBlocks && numBlocks > 1) {
+                final BitonicPlan plan = BitonicPlan.get(numBlocks, polarity, 1, 1);
+                final ByteBuffer received = NetworkChannels.allocateBlock(blockSize);
+                ByteBuffer merged = NetworkChannels.allocateBlock(blockLength);
+
+                for (int stage = 0; stage < plan.getStageCount(); stage++) {
+                    final int distance = plan.getStageDistance(stage);
+                    final int round = plan.getStageRound(stage);
+                    final int partner = rank ^ distance;
+
+                    // The blocks are already sorted, and a block without a partner keeps its elements.
+                    if (distance == 0 || rank >= plan.getMergeStop(round) || partner >= plan.getMergeStop(round)) {
+                        continue;
+                    }
+
+                    final SocketChannel channel = connect(partner, rank, addresses, server, selector, peers);
+                    final ByteBuffer outgoing = block.duplicate();
+                    outgoing.clear();
+                    received.clear();
+                    received.limit(lengthOf(partner, blockSize, length) * Integer.BYTES);
+                    exchange(channel, selector, outgoing, received);
+
+                    // A window in the same order as the range keeps the first of the merged elements in its lower block.
+                    final int lower = Math.min(rank, partner);
+                    final boolean lowerFirst = plan.getWindowPolarity(round, lower / plan.getGroupSize(round)) == polarity;
+                    final boolean keepFirst = (rank == lower) == lowerFirst;
+                    final IntBuffer own = NetworkChannels.elementsOf(block);
+                    final IntBuffer other = NetworkChannels.elementsOf(received);
+                    final IntBuffer target = NetworkChannels.elementsOf(merged);
+                    if (keepFirst) {
+                        mergeFirst(own, other, target, polarity == Polarity.ASCENDING);
+                    } else {
+                        mergeLast(own, other, target, polarity == Polarity.ASCENDING);
+                    }
+
+                    final ByteBuffer buffer = block;
+                    block = merged;
+                    merged = buffer;
+                }
+            }
+
+            block.clear();
+            NetworkChannels.writeFully(coordinator, block);
+        } finally {
+            for (SocketChannel peer : peers.values()) {
+                peer.close();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the connection to a partner, connecting to it if this worker is
+     * the lower of the two, or waiting for it to connect otherwise.
+     *
+     * @param partner   The rank of the partner.
+     * @param rank      The rank of this worker.
+     * @param addresses The address of every worker.
+     * @param server    The channel that other workers connect to.
+     * @param selector  The {@link Selector} that every connection is registered with.
+     * @param peers     The connections that have already been made, by rank.
+     * @return The connection to the partner.
+     * @throws IOException if the partner could not be reached.
+     */
+    private static SocketChannel connect(int partner, int rank, InetSocketAddress[] addresses,
+                                         ServerSocketChannel server, Selector selector,
+                                         Map<Integer, SocketChannel> peers) throws IOException {
+        if (!peers.containsKey(partner) && partner > rank) {
+            final SocketChannel channel = SocketChannel.open(addresses[partner]);
+            NetworkChannels.writeInt(channel, rank);
+            register(channel, selector);
+            peers.put(partner, channel);
+        }
+
+        // Workers that will be partners later may connect first, and are kept until then.
+        while (!peers.containsKey(partner)) {
+            final SocketChannel channel = server.accept();
+            final int peer = NetworkChannels.readInt(channel);
+            register(channel, selector);
+            peers.put(peer, channel);
+        }
+        return peers.get(partner);
+    }
+
+    /**
+     * @param channel  A new connection to another worker, in blocking mode.
+     * @param selector The {@link Selector} to register the connection with.
+     * @throws IOException if the connection could not be configured.
+     */
+    private static void register(SocketChannel channel, Selector selector) throws IOException {
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+        channel.register(selector, 0);
+    }
+
+    /**
+     * Sends a block to a partner while receiving the partner's block.
+     *
+     * @param channel  The connection to the partner.
+     * @param selector The {@link Selector} that the connection is registered with.
+     * @param outgoing The block to send.
+     * @param incoming The buffer to receive the partner's block into, with its
+     *                 limit set to the size of the partner's block.
+     * @throws IOException if the partner could not be reached.
+     */
+    private static void exchange(SocketChannel channel, Selector selector, ByteBuffer outgoing, ByteBuffer incoming)
+            throws IOException {
+        final SelectionKey key = channel.keyFor(selector);
+        while (outgoing.hasRemaining() || incoming.hasRemaining()) {
+            key.interestOps((outgoing.hasRemaining() ? SelectionKey.OP_WRITE : 0)
+                    | (incoming.hasRemaining() ? SelectionKey.OP_READ : 0));
+            selector.select();
+            selector.selectedKeys().clear();
+
+            if (outgoing.hasRemaining()) {
+                channel.write(outgoing);
+            }
+            if (incoming.hasRemaining() && channel.read(incoming) < 0) {
+                final String message = "Partner closed the connection part of the way through an exchange.";
+                throw new EOFException(message);
+            }
+        }
+        key.interestOps(0);
+    }
+
+    /**
+     * Sorts a block in the desired order, by copying it through a heap array.
+     *
+     * @param block    The buffer holding the block.
+     * @param polarity The desired {@link Polarity} of the block.
+     */
+    private static void sortLocally(ByteBuffer block, Polarity polarity) {
+        final IntBuffer elements = NetworkChannels.elementsOf(block);
+        final int[] data = new int[elements.remaining()];
+        elements.get(data);
+        Arrays.sort(data);
+
+        elements.clear();
+        if (polarity == Polarity.ASCENDING) {
+            elements.put(data);
+        } else {
+            for (int i = data.length - 1; i >= 0; i--) {
+                elements.put(data[i]);
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted blocks from the front, filling the target with the first
+     * of the merged elements.
+     * <p>
+     * This is the merge-split of {@link BlockBitonicExecutor} over direct
+     * buffers. The block engine keeps its own loops over arrays, so that its
+     * hot path never goes through an {@link IntBuffer}, and the two are checked
+     * against each other by the tests.
+     * </p>
+     *
+     * @param first     A sorted block, from the start of the buffer up to its limit.
+     * @param second    Another sorted block, from the start of the buffer up to its limit.
+     * @param target    The buffer to write the merged elements to, up to its limit.
+     * @param ascending {@code true} if the blocks are in ascending order,
+     *                  {@code false} if they are in descending order.
+     */
+    static void mergeFirst(IntBuffer first, IntBuffer second, IntBuffer target, boolean ascending) {
+        final int aStop = first.limit();
+        final int bStop = second.limit();
+        assert target.limit() <= aStop + bStop;
+
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < target.limit(); i++) {
+            if (b == bStop || (a < aStop && (ascending ? first.get(a) <= second.get(b)
+                    : first.get(a) >= second.get(b)))) {
+                target.put(i, first.get(a++));
+            } else {
+                target.put(i, second.get(b++));
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted blocks from the back, filling the target with the last
+     * of the merged elements.
+     *
+     * @param first     A sorted block, from the start of the buffer up to its limit.
+     * @param second    Another sorted block, from the start of the buffer up to its limit.
+     * @param target    The buffer to write the merged elements to, up to its limit.
+     * @param ascending {@code true} if the blocks are in ascending order,
+     *                  {@code false} if they are in descending order.
+     */
+    static void mergeLast(IntBuffer first, IntBuffer second, IntBuffer target, boolean ascending) {
+        assert target.limit() <= first.limit() + second.limit();
+
+        int a = first.limit() - 1;
+        int b = second.limit() - 1;
+        for (int i = target.limit() - 1; i >= 0; i--) {
+            if (b < 0 || (a >= 0 && (ascending ? first.get(a) > second.get(b) : first.get(a) < second.get(b)))) {
+                target.put(i, first.get(a--));
+            } else {
+                target.put(i, second.get(b--));
+            }
+        }
+    }
+
+    /**
+     * @param block     The index of a block.
+     * @param blockSize The number of elements in every block but the last.
+     * @param length    The length of the range being sorted.
+     * @return The number of elements in the block.
+     */
+    private static int lengthOf(int block, int blockSize, int length) {
+        return NetworkSortCoordinator.blockStart(block + 1, blockSize, length)
+                - NetworkSortCoordinator.blockStart(block, blockSize, length);
+    }
+
+}
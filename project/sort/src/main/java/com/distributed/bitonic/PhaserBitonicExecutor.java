@@ -0,0 +1,332 @@
+package com.distributed.bitonic;
+
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a {@link Runnable} that sorts an array using a fixed set of
+ * long-lived workers, which only synchronize with a {@link Phaser} between
+ * the stages of the bitonic sorting algorithm.
+ * <p>
+ * Each stage of the algorithm is a set of independent compare-exchange
+ * operations. Rather than creating a task for each window of a stage, the
+ * comparators of a stage are numbered in the order of their left element,
+ * and worker {@code w} of {@code n} always performs the {@code w}-th
+ * {@code 1/n} of them. Nothing is allocated or queued once the sort has
+ * started, and the only synchronization is the barrier between stages.
+ * </p>
+ * <p>
+ * When the compare distance of a stage is smaller than a slice, every
+ * comparator of a slice falls within the same region of the array, so each
+ * worker keeps touching the same memory from one stage to the next.
+ * </p>
+ * <p>
+ * The stages are those of a {@link BitonicPlan}, which are the same as those
+ * performed by the {@link BitonicCoordinator}, so lengths that are not a power
+ * of 2 and ranges are supported. The passes of windows that are no larger than
+ * the grain size form a single stage, in which each worker sorts or merges its
+ * own slice of the grain-sized windows.
+ * </p>
+ * <p>
+ * When a cache budget is given, every window that fits in the budget is sorted
+ * or merged by a single worker, which finishes all of the passes of the window
+ * while it is still in that worker's cache, and only the passes with a larger
+ * compare distance are divided between the workers a grain at a time.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class PhaserBitonicExecutor implements Runnable {
+
+    private static final String PROFILER_NAME = "phaser";
+    private static final int TIMEOUT_AMOUNT = 1;
+    private static final TimeUnit TIMEOUT_UNITS = TimeUnit.MINUTES;
+
+    /**
+     * Represents one of the long-lived workers, which performs its own slice of
+     * every stage, and then waits for all other workers to finish the stage.
+     */
+    private class Worker implements Runnable {
+
+        /**
+         * Create a new {@link Worker} object.
+         *
+         * @param index  The index of the worker, which determines its slice of each stage.
+         * @param phaser The {@link Phaser} that all of the workers are registered with.
+         * @param plan   The {@link BitonicPlan} that holds the stages of the sort.
+         */
+        Worker(int index, Phaser phaser, BitonicPlan plan) {
+            mIndex = index;
+            mPhaser = phaser;
+            mPlan = plan;
+        }
+
+        private final int mIndex;
+        private final Phaser mPhaser;
+        private final BitonicPlan mPlan;
+
+        @Override
+        public void run() {
+            try {
+                sort();
+            } catch (RuntimeException | Error e) {
+
+                // Release the other workers, as this worker will never arrive.
+                mPhaser.forceTermination();
+                throw e;
+            }
+        }
+
+        /**
+         * Performs this worker's slice of every stage.
+         */
+        private void sort() {
+            for (int stage = 0; stage < mPlan.getStageCount(); stage++) {
+                final long count = mPlan.getStageSize(stage);
+                mPlan.execute(stage, mData, mFromIndex, sliceStart(count), sliceStart(count, mIndex + 1));
+                if (!await()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Waits for every other worker to finish the current stage.
+         *
+         * @return {@code true} if the next stage can begin, {@code false} if
+         * another worker has failed and the sort has been abandoned.
+         */
+        private boolean await() {
+            return mPhaser.arriveAndAwaitAdvance() >= 0;
+        }
+
+        /**
+         * @param count The number of items to divide between the workers.
+         * @return The inclusive start of this worker's slice of the items.
+         */
+        private long sliceStart(long count) {
+            return sliceStart(count, mIndex);
+        }
+
+        /**
+         * @param count The number of items to divide between the workers.
+         * @param index The index of a worker.
+         * @return The inclusive start of the slice of the items for the worker,
+         * which is also the exclusive end of the slice of the previous worker.
+         */
+        private long sliceStart(long count, int index) {
+            return count * index / mNumThreads;
+        }
+
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object.
+     *
+     * @param data The data to sort. Must not be {@code null}.
+     */
+    public PhaserBitonicExecutor(int[] data) {
+        this(1, data);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     */
+    public PhaserBitonicExecutor(int numThreads, int[] data) {
+        this(numThreads, data, Polarity.ASCENDING);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     */
+    public PhaserBitonicExecutor(int numThreads, int[] data, Polarity polarity) {
+        this(numThreads, data, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single worker. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public PhaserBitonicExecutor(int numThreads, int[] data, Polarity polarity, int grainSize) {
+        this(numThreads, data, 0, data == null ? 0 : data.length, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     */
+    public PhaserBitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex, Polarity polarity) {
+        this(numThreads, data, fromIndex, toIndex, polarity, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The data to sort. Must not be {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single worker. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public PhaserBitonicExecutor(int numThreads, int[] data, int fromIndex, int toIndex,
+                                 Polarity polarity, int grainSize) {
+        this(numThreads, new IntSortData(data), fromIndex, toIndex, polarity, grainSize);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object that sorts a range of
+     * an array, leaving the elements outside of the range untouched.
+     *
+     * @param numThreads The number of workers to create.
+     * @param data       The {@link ISortData} to sort. Must not be
+     *                   {@code null}.
+     * @param fromIndex  The inclusive start of the range to sort.
+     * @param toIndex    The exclusive end of the range to sort.
+     * @param polarity   The desired {@link Polarity} of the result. Must
+     *                   not be {@code null}.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single worker. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public PhaserBitonicExecutor(int numThreads, ISortData data, int fromIndex, int toIndex,
+                                 Polarity polarity, int grainSize) {
+        this(numThreads, data, fromIndex, toIndex, polarity, grainSize, CacheBudget.NONE);
+    }
+
+    /**
+     * Create a new {@link PhaserBitonicExecutor} object that sorts a range of
+     * an array, finishing every window that fits in a cache budget on a single
+     * worker.
+     *
+     * @param numThreads  The number of workers to create.
+     * @param data        The {@link ISortData} to sort. Must not be
+     *                    {@code null}.
+     * @param fromIndex   The inclusive start of the range to sort.
+     * @param toIndex     The exclusive end of the range to sort.
+     * @param polarity    The desired {@link Polarity} of the result. Must
+     *                    not be {@code null}.
+     * @param grainSize   The number of comparators of a larger window that a
+     *                    worker performs at a time. Must be valid according to
+     *                    {@link GrainSize#isValid(int)}.
+     * @param cacheBudget The number of bytes of a window that a single worker
+     *                    may keep in its cache, such as {@link CacheBudget#L1}.
+     *                    Must be valid according to {@link CacheBudget#isValid(int)}.
+     */
+    public PhaserBitonicExecutor(int numThreads, ISortData data, int fromIndex, int toIndex,
+                                 Polarity polarity, int grainSize, int cacheBudget) {
+        assert numThreads > 0;
+        mThreadPool = Executors.newFixedThreadPool(numThreads);
+        mNumThreads = numThreads;
+
+        assert data != null;
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length();
+        mData = data;
+        mFromIndex = fromIndex;
+        mToIndex = toIndex;
+
+        assert polarity != null;
+        mPolarity = polarity;
+
+        assert GrainSize.isValid(grainSize);
+        mGrainSize = grainSize;
+
+        assert CacheBudget.isValid(cacheBudget);
+        mBlockSize = CacheBudget.windowSize(cacheBudget, data, grainSize);
+    }
+
+    private final ExecutorService mThreadPool;
+    private final int mNumThreads;
+    private final ISortData mData;
+    private final int mFromIndex;
+    private final int mToIndex;
+    private final Polarity mPolarity;
+    private final int mGrainSize;
+    private final int mBlockSize;
+
+    @Override
+    public void run() {
+
+        // A range of 0 or 1 elements is already sorted.
+        if (mToIndex - mFromIndex > 1) {
+
+            final int length = mToIndex - mFromIndex;
+            final IProfilerEvent event = SortProfilers.get().beginSort(PROFILER_NAME, length, mNumThreads);
+            final BitonicPlan plan = BitonicPlan.get(length, mPolarity, mGrainSize, mBlockSize);
+            final Phaser phaser = new Phaser(mNumThreads);
+            final Collection<Future> results = new ArrayList<>();
+            for (int index = 0; index < mNumThreads; index++) {
+                final Future result = mThreadPool.submit(new Worker(index, phaser, plan));
+                results.add(result);
+            }
+
+            /*
+             * The workers synchronize among themselves between stages, so their
+             * results only need to be collected once, after the final stage. Any
+             * exception that was thrown by a worker is rethrown here.
+             */
+            for (Future result : results) {
+                try {
+                    result.get();
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            event.commit();
+        }
+
+        mThreadPool.shutdown();
+
+        // Ensure that all tasks have finished before returning.
+        boolean success = false;
+        while (!success) {
+            try {
+                if (!mThreadPool.awaitTermination(TIMEOUT_AMOUNT, TIMEOUT_UNITS)) {
+                    final String message = "Sort did not finish in a reasonable amount of time.";
+                    throw new RuntimeException(message);
+                }
+                success = true;
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+
+    }
+
+}
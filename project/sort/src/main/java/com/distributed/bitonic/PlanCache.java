@@ -0,0 +1,75 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+import com.distributed.sorting.Polarity;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Represents a bounded cache of {@link BitonicPlan} objects, keyed by the
+ * length, {@link Polarity}, grain size and block size of the sort.
+ * <p>
+ * The cache is a fixed number of slots, where each key can only be stored in
+ * the slot that it hashes to, and a new plan replaces whichever plan was in its
+ * slot. Plans are immutable, so the slots are read and written without locking,
+ * and a lookup that finds its plan does not allocate any memory. Two threads
+ * that miss on the same key at the same time may both build the plan, which is
+ * harmless, as the plans are equal.
+ * </p>
+ */
+class PlanCache {
+
+    // Spreads the bits of a key across the slots.
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * Create a new {@link PlanCache} object.
+     *
+     * @param capacity The number of plans that the cache can hold. Must be a
+     *                 power of 2.
+     */
+    PlanCache(int capacity) {
+        assert capacity > 0 && MathUtils.isPowerOfTwo(capacity);
+        mSlots = new AtomicReferenceArray<>(capacity);
+    }
+
+    private final AtomicReferenceArray<BitonicPlan> mSlots;
+
+    /**
+     * Retrieves the plan for a sort, building and storing it if it is not
+     * already in the cache.
+     *
+     * @param length    The length of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @param grainSize The grain size of the sort.
+     * @param blockSize The block size of the sort.
+     * @return The {@link BitonicPlan} for the sort.
+     */
+    BitonicPlan get(int length, Polarity polarity, int grainSize, int blockSize) {
+        final int slot = slotOf(length, polarity, grainSize, blockSize);
+
+        BitonicPlan plan = mSlots.get(slot);
+        if (plan == null || !plan.matches(length, polarity, grainSize, blockSize)) {
+            plan = new BitonicPlan(length, polarity, grainSize, blockSize);
+            mSlots.set(slot, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * @param length    The length of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @param grainSize The grain size of the sort.
+     * @param blockSize The block size of the sort.
+     * @return The index of the only slot that may hold the plan for the sort.
+     */
+    private int slotOf(int length, Polarity polarity, int grainSize, int blockSize) {
+        int hash = length;
+        hash = 31 * hash + (polarity == Polarity.ASCENDING ? 1 : 0);
+        hash = 31 * hash + grainSize;
+        hash = 31 * hash + blockSize;
+        hash *= HASH_MULTIPLIER;
+        return (hash ^ (hash >>> 16)) & (mSlots.length() - 1);
+    }
+
+}
@@ -0,0 +1,484 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.MathUtils;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a long-lived service that sorts arrays using the recursive steps
+ * of the bitonic sorting algorithm. Once it has warmed up, a sort of an
+ * {@link ISortData} with {@link #sort(ISortData, int, int, Polarity)} does not
+ * allocate any objects, while the overloads for arrays only allocate the
+ * {@link IntSortData} that wraps the array.
+ * <p>
+ * The other engines create a {@link RecursiveElementSwapper} (along with its
+ * {@link SinglePassElementSwapper} and notifier) for every recursive step, and
+ * the {@link BitonicExecutor} also keeps a {@link java.util.concurrent.Future}
+ * for every step in order to wait for the round to finish. Here, each step is a
+ * flyweight that is packed into a single {@code long}, holding the start and
+ * length of its window along with its direction, and the only objects involved
+ * are the workers themselves, which are created once and reused by every sort:
+ * </p>
+ * <ul>
+ * <li>Steps are queued in a ring buffer of {@code long} values, which only grows
+ * the first time that a longer range is sorted.</li>
+ * <li>A worker that takes a step performs its pass, queues the second half and
+ * carries straight on with the first half, so most steps never touch the
+ * queue.</li>
+ * <li>The completion of a round is tracked with a single counter of the steps
+ * that are still pending, rather than a result for each step.</li>
+ * <li>The workers wait for steps on one monitor and the caller waits for the end
+ * of the round on another, so that waking a worker can never wake the caller
+ * instead. Neither monitor allocates.</li>
+ * </ul>
+ * <p>
+ * The windows and polarities of each round come from a cached {@link BitonicPlan},
+ * so repeated sorts of the same length do not allocate on the planning side either.
+ * Sorts share a single queue, so concurrent callers take turns. The service must
+ * be shut down with {@link #shutdown()} once it is no longer needed.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class PooledSortService {
+
+    // The bits of a step that hold its flags, and the bits that hold its length.
+    private static final int FLAG_BITS = 2;
+    private static final int LENGTH_BITS = 31;
+
+    private static final long ASCENDING_FLAG = 1L;
+    private static final long SORT_FLAG = 2L;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+
+    // The number of steps that the queue can initially hold.
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Represents one of the long-lived workers, which takes steps from the queue
+     * until the service is shut down.
+     */
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            long step;
+            while ((step = take()) != -1) {
+                try {
+                    process(step);
+                    complete(0);
+                } catch (RuntimeException | Error e) {
+                    fail(e);
+                }
+            }
+        }
+
+        /**
+         * Performs a step and all of its recursion steps, keeping the first half
+         * of each window for itself and queuing the second half.
+         *
+         * @param step The packed step to perform.
+         */
+        private void process(long step) {
+            final ISortData data = mData;
+            int start = startOf(step);
+            int stop = start + lengthOf(step);
+            final Polarity polarity = (step & ASCENDING_FLAG) != 0 ? Polarity.ASCENDING : Polarity.DESCENDING;
+
+            if ((step & SORT_FLAG) != 0) {
+                RecursiveElementSwapper.sortSequentially(data, start, stop, polarity);
+                return;
+            }
+
+            while (stop - start > mGrainSize) {
+                final int distance = MathUtils.greatestPowerOfTwoLessThan(stop - start);
+                data.compareExchange(start, stop - start - distance, distance, polarity);
+
+                // The halves are independent, so the second half can be run by any worker.
+                final int center = start + distance;
+                offer(pack(center, stop, polarity, false));
+                stop = center;
+            }
+            RecursiveElementSwapper.mergeSequentially(data, start, stop, polarity);
+        }
+
+    }
+
+    /**
+     * Create a new {@link PooledSortService} object, with a worker for each
+     * available processor.
+     */
+    public PooledSortService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new {@link PooledSortService} object.
+     *
+     * @param numThreads The number of workers to create.
+     */
+    public PooledSortService(int numThreads) {
+        this(numThreads, GrainSize.DEFAULT);
+    }
+
+    /**
+     * Create a new {@link PooledSortService} object.
+     *
+     * @param numThreads The number of workers to create.
+     * @param grainSize  The window size at or below which all remaining passes
+     *                   of a window are run sequentially by a single worker. Must
+     *                   be valid according to {@link GrainSize#isValid(int)}.
+     */
+    public PooledSortService(int numThreads, int grainSize) {
+        assert numThreads > 0;
+        assert GrainSize.isValid(grainSize);
+        mGrainSize = grainSize;
+
+        mLock = new Object();
+        mRoundLock = new Object();
+        mSortLock = new Object();
+        mSteps = new long[INITIAL_CAPACITY];
+
+        mWorkers = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            mWorkers[i] = new Thread(new Worker(), "pooled-sort-" + i);
+            mWorkers[i].setDaemon(true);
+            mWorkers[i].start();
+        }
+    }
+
+    private final int mGrainSize;
+    private final Thread[] mWorkers;
+
+    // Guards every field below, and is only waited on by the workers.
+    private final Object mLock;
+
+    // Is waited on by the caller until the pending steps of the round reach zero.
+    private final Object mRoundLock;
+
+    // Ensures that only a single sort uses the queue at a time.
+    private final Object mSortLock;
+
+    private long[] mSteps;
+    private int mHead;
+    private int mCount;
+    private int mPending;
+    private ISortData mData;
+    private Throwable mFailure;
+    private boolean mSorting;
+    private boolean mShutdown;
+
+    /**
+     * Sorts an array into ascending order, and waits for the sort to finish.
+     * Like {@link #sort(int[], Polarity)}, this allocates a wrapper for the array.
+     *
+     * @param data The array to sort.
+     * @throws NullPointerException  if the array is {@code null}.
+     * @throws IllegalStateException if the service has been shut down.
+     */
+    public void sort(int[] data) {
+        sort(data, Polarity.ASCENDING);
+    }
+
+    /**
+     * Sorts an array into the order specified by a {@link Polarity}, and waits
+     * for the sort to finish.
+     * <p>
+     * Wraps the array in a new {@link IntSortData}, so a caller that must not
+     * allocate should reuse its own {@link ISortData} instead.
+     * </p>
+     *
+     * @param data     The array to sort.
+     * @param polarity The desired {@link Polarity} of the array.
+     * @throws NullPointerException  if the array or {@link Polarity} is {@code null}.
+     * @throws IllegalStateException if the service has been shut down.
+     */
+    public void sort(int[] data, Polarity polarity) {
+        sort(new IntSortData(data), 0, data.length, polarity);
+    }
+
+    /**
+     * Sorts a range of an {@link ISortData} into the order specified by a
+     * {@link Polarity}, and waits for the sort to finish.
+     *
+     * @param data      The {@link ISortData} containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     * @param polarity  The desired {@link Polarity} of the range.
+     * @throws NullPointerException           if the {@link ISortData} or
+     *                                        {@link Polarity} is {@code null}.
+     * @throws IllegalArgumentException       if {@code fromIndex > toIndex}.
+     * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or
+     *                                        {@code toIndex > data.length()}.
+     * @throws IllegalStateException          if the service has been shut down.
+     */
+    public void sort(ISortData data, int fromIndex, int toIndex, Polarity polarity) {
+        BitonicSort.rangeCheck(data.length(), fromIndex, toIndex);
+        if (polarity == null) {
+            final String message = "Polarity must not be null.";
+            throw new NullPointerException(message);
+        }
+
+        final BitonicPlan plan = BitonicPlan.get(toIndex - fromIndex, polarity, mGrainSize);
+        synchronized (mSortLock) {
+            synchronized (mLock) {
+                if (mShutdown) {
+                    final String message = "The service has been shut down.";
+                    throw new IllegalStateException(message);
+                }
+                mSorting = true;
+            }
+
+            try {
+                for (int round = 0; round < plan.getRoundCount(); round++) {
+                    runRound(plan, round, data, fromIndex, toIndex);
+                }
+            } finally {
+                synchronized (mLock) {
+                    mSorting = false;
+                    mLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the workers once they have finished the current sort, if there is
+     * one. Any further sorts are rejected.
+     */
+    public void shutdown() {
+        synchronized (mLock) {
+            mShutdown = true;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for every worker to stop after the service has been shut down.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The {@link TimeUnit} of the timeout.
+     * @return {@code true} if every worker stopped, {@code false} if the timeout
+     * elapsed first.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : mWorkers) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+            }
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queues the windows of a round, and waits for every step of the round to
+     * finish, which is when the count of pending steps reaches zero.
+     *
+     * @param plan      The {@link BitonicPlan} of the sort.
+     * @param round     The index of the round.
+     * @param data      The {@link ISortData} containing the range to sort.
+     * @param fromIndex The inclusive start of the range to sort.
+     * @param toIndex   The exclusive end of the range to sort.
+     */
+    private void runRound(BitonicPlan plan, int round, ISortData data, int fromIndex, int toIndex) {
+        final long groupSize = plan.getGroupSize(round);
+        final int windowCount = plan.getWindowCount(round);
+
+        synchronized (mLock) {
+            mData = data;
+            for (int window = 0; window < windowCount; window++) {
+                final long start = fromIndex + window * groupSize;
+                final int stop = (int) Math.min(start + groupSize, toIndex);
+                enqueue(pack((int) start, stop, plan.getWindowPolarity(round, window), round == 0));
+            }
+            mPending = windowCount;
+            mLock.notifyAll();
+        }
+
+        /*
+         * The pending count is checked while holding the round lock, which the
+         * last step also holds to wake the caller, so the wakeup cannot be missed.
+         */
+        boolean interrupted = false;
+        synchronized (mRoundLock) {
+            while (isPending()) {
+                try {
+                    mRoundLock.wait();
+                } catch (InterruptedException e) {
+
+                    // The round must finish before the data can be handed back.
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (mLock) {
+            mData = null;
+
+            if (mFailure != null) {
+                final Throwable failure = mFailure;
+                mFailure = null;
+                throw new RuntimeException(failure);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if any step of the current round has not finished,
+     * {@code false} otherwise.
+     */
+    private boolean isPending() {
+        synchronized (mLock) {
+            return mPending > 0;
+        }
+    }
+
+    /**
+     * Waits for a step to be available, and removes it from the queue.
+     *
+     * @return The packed step, or {@code -1} if the service has been shut down.
+     */
+    private long take() {
+        synchronized (mLock) {
+            while (mCount == 0) {
+
+                // A sort that has already started is always allowed to finish.
+                if (mShutdown && !mSorting) {
+                    return -1;
+                }
+                try {
+                    mLock.wait();
+                } catch (InterruptedException e) {
+
+                    // Workers are only stopped by shutting down the service.
+                }
+            }
+
+            final long step = mSteps[mHead];
+            mHead = (mHead + 1) & (mSteps.length - 1);
+            mCount--;
+            return step;
+        }
+    }
+
+    /**
+     * Queues a recursion step that was produced by a worker.
+     *
+     * @param step The packed step to queue.
+     */
+    private void offer(long step) {
+        synchronized (mLock) {
+            enqueue(step);
+            mPending++;
+            mLock.notify();
+        }
+    }
+
+    /**
+     * Marks a step taken from the queue as finished, waking the caller if it
+     * was the last pending step of the round.
+     *
+     * @param dropped The number of queued steps that were dropped along with it.
+     */
+    private void complete(int dropped) {
+        final boolean finished;
+        synchronized (mLock) {
+            mPending -= 1 + dropped;
+            finished = mPending == 0;
+        }
+
+        if (finished) {
+            synchronized (mRoundLock) {
+                mRoundLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Records the failure of a step, and abandons every step that is still
+     * queued so that the round can finish.
+     *
+     * @param failure The exception that was thrown by the step.
+     */
+    private void fail(Throwable failure) {
+        final int dropped;
+        synchronized (mLock) {
+            if (mFailure == null) {
+                mFailure = failure;
+            }
+            dropped = mCount;
+            mCount = 0;
+        }
+        complete(dropped);
+    }
+
+    /**
+     * Adds a step to the queue, growing the queue if it is full. Must be called
+     * while holding the lock.
+     *
+     * @param step The packed step to add.
+     */
+    private void enqueue(long step) {
+        if (mCount == mSteps.length) {
+            final long[] steps = new long[mSteps.length * 2];
+            for (int i = 0; i < mCount; i++) {
+                steps[i] = mSteps[(mHead + i) & (mSteps.length - 1)];
+            }
+            mSteps = steps;
+            mHead = 0;
+        }
+        mSteps[(mHead + mCount) & (mSteps.length - 1)] = step;
+        mCount++;
+    }
+
+    /**
+     * Packs a step into a single {@code long}, which holds the start of the window
+     * in the upper 31 bits, the length of the window in the next 31 bits, and the
+     * flags in the lowest 2 bits.
+     *
+     * @param start    The inclusive start of the window.
+     * @param stop     The exclusive end of the window.
+     * @param polarity The {@link Polarity} of the window.
+     * @param sort     {@code true} if the window should be fully sorted rather
+     *                 than merged.
+     * @return The packed step.
+     */
+    private static long pack(int start, int stop, Polarity polarity, boolean sort) {
+        long step = ((long) start << (LENGTH_BITS + FLAG_BITS)) | ((long) (stop - start) << FLAG_BITS);
+        if (polarity == Polarity.ASCENDING) {
+            step |= ASCENDING_FLAG;
+        }
+        if (sort) {
+            step |= SORT_FLAG;
+        }
+        return step;
+    }
+
+    /**
+     * @param step A packed step.
+     * @return The inclusive start of the window of the step.
+     */
+    private static int startOf(long step) {
+        return (int) (step >>> (LENGTH_BITS + FLAG_BITS));
+    }
+
+    /**
+     * @param step A packed step.
+     * @return The length of the window of the step.
+     */
+    private static int lengthOf(long step) {
+        return (int) ((step >>> FLAG_BITS) & LENGTH_MASK);
+    }
+
+}
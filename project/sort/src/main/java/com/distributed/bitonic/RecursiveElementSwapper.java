@@ -3,8 +3,12 @@ package com.distributed.bitonic;
 import com.distributed.common.MathUtils;
 import com.distributed.events.EventNotifier;
 import com.distributed.events.IEventNotifier;
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
 import com.distributed.sorting.IElementSwapper;
+import com.distributed.sorting.ISortData;
 import com.distributed.sorting.ISwapDecision;
+import com.distributed.sorting.IntSortData;
 import com.distributed.sorting.Polarity;
 
 /**
@@ -16,6 +20,21 @@ import com.distributed.sorting.Polarity;
  * performs a single pass on each half of the window. One the window
  * reaches a size of 1 element, the recursion stops.
  * </p>
+ * <p>
+ * Windows do not need to have a size that is a power of 2. Such a window
+ * is split at the greatest power of 2 that is less than its size, which
+ * is equivalent to padding the window to the next power of 2 and skipping
+ * every comparison that would involve a padding element.
+ * </p>
+ * <p>
+ * Once a window is no larger than the configured grain size, creating
+ * a separate step for each half costs far more than the passes being
+ * performed. At that point all of the remaining passes of the window are
+ * run sequentially during {@link #execute()}, and no further recursion
+ * steps are signalled.
+ * </p>
+ *
+ * @see GrainSize
  */
 @SuppressWarnings("WeakerAccess")
 public class RecursiveElementSwapper implements IElementSwapper {
@@ -50,17 +69,59 @@ public class RecursiveElementSwapper implements IElementSwapper {
      *                     whether or not the compared elements should be swapped.
      */
     public RecursiveElementSwapper(int[] data, int start, int stop, ISwapDecision swapDecision) {
+        this(data, start, stop, swapDecision, 2);
+    }
+
+    /**
+     * Create a new {@link RecursiveElementSwapper}.
+     *
+     * @param data         The array of {@link Integer} primitives to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param stop         The exclusive start of the range to be operated on.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     * @param grainSize    The window size at or below which all remaining passes
+     *                     are run sequentially rather than signalled as recursion
+     *                     steps. Must be a power of 2. A value of 2 disables the
+     *                     sequential cutoff.
+     */
+    public RecursiveElementSwapper(int[] data, int start, int stop, ISwapDecision swapDecision, int grainSize) {
+        this(new IntSortData(data), start, stop, swapDecision, grainSize, false);
+    }
+
+    /**
+     * Create a new {@link RecursiveElementSwapper}.
+     *
+     * @param data         The {@link ISortData} to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param stop         The exclusive start of the range to be operated on.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     * @param grainSize    The window size at or below which all remaining passes
+     *                     are run sequentially rather than signalled as recursion
+     *                     steps. Must be a power of 2.
+     * @param sortWindow   {@code true} if the window holds unsorted data that should
+     *                     be fully sorted rather than a bitonic sequence that should
+     *                     be merged. The window must be no larger than the grain
+     *                     size, and the decision must be a {@link Polarity}.
+     */
+    RecursiveElementSwapper(ISortData data, int start, int stop, ISwapDecision swapDecision,
+                            int grainSize, boolean sortWindow) {
         mExecutor = new SinglePassElementSwapper(data, start, stop, swapDecision);
 
         final int diff = stop - start;
-        // 1 is a valid power of 2, and would result in 0 comparisons.
-        assert MathUtils.isPowerOfTwo(diff);
+
+        assert grainSize >= 2;
+        assert MathUtils.isPowerOfTwo(grainSize);
+        assert !sortWindow || (diff <= grainSize && swapDecision instanceof Polarity);
 
         /*
          * Recursing when 1 element will be in each group is
          * pointless, as a list of 1 element is already sorted.
+         * Windows within the grain size also do not recurse, as
+         * they perform all of their passes in a single step.
          */
-        if (diff > 2) {
+        if (diff > 2 && diff > grainSize) {
             mEventNotifier = new EventNotifier<>(2);
         } else {
             mEventNotifier = new EventNotifier<>(0);
@@ -77,15 +138,19 @@ public class RecursiveElementSwapper implements IElementSwapper {
         mStart = start;
         mStop = stop;
         mSwapDecision = swapDecision;
+        mGrainSize = grainSize;
+        mSortWindow = sortWindow;
     }
 
     private final IElementSwapper mExecutor;
     private final EventNotifier<RecursiveElementSwapper> mEventNotifier;
 
-    private final int[] mData;
+    private final ISortData mData;
     private final int mStart;
     private final int mStop;
     private final ISwapDecision mSwapDecision;
+    private final int mGrainSize;
+    private final boolean mSortWindow;
 
     /**
      * @return The {@link IEventNotifier} that will be notified when new
@@ -95,27 +160,137 @@ public class RecursiveElementSwapper implements IElementSwapper {
         return mEventNotifier;
     }
 
+    /**
+     * @return The size of the window that the first pass of this object operates
+     * on when its range is treated as though it were padded to a power of 2,
+     * which is twice the distance between the compared elements.
+     */
+    long getWindowSize() {
+        final int diff = mStop - mStart;
+        return diff <= 1 ? 1 : 2L * MathUtils.greatestPowerOfTwoLessThan(diff);
+    }
+
     @Override
     public void execute() {
+        final int currentWindowSize = mStop - mStart;
+        if (currentWindowSize < SortProfilers.getSwapThreshold()) {
+            swap();
+            return;
+        }
+
+        final IProfilerEvent event = SortProfilers.get().beginSwap(mStart, currentWindowSize, mSortWindow);
+        try {
+            swap();
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Performs the work of this object, and signals its recursion steps.
+     */
+    private void swap() {
+        final int currentWindowSize = mStop - mStart;
+
+        if (mSortWindow) {
+            sortSequentially(mData, mStart, mStop, (Polarity) mSwapDecision);
+            return;
+        }
+
+        if (currentWindowSize <= mGrainSize) {
+            mergeSequentially(mData, mStart, mStop, mSwapDecision);
+            return;
+        }
+
         // Perform the single pass associated with this object.
         mExecutor.execute();
 
         // If there are recursion steps are available, notify listeners.
         if (mEventNotifier.getExpected() != 0) {
-            final int currentWindowSize = mStop - mStart;
-            final int nextWindowSize = currentWindowSize / 2;
+            final int nextWindowSize = MathUtils.greatestPowerOfTwoLessThan(currentWindowSize);
             final int windowCenter = mStart + nextWindowSize;
 
             final RecursiveElementSwapper firstHalf = new RecursiveElementSwapper(
-                    mData, mStart, windowCenter, mSwapDecision
+                    mData, mStart, windowCenter, mSwapDecision, mGrainSize, false
             );
             mEventNotifier.signal(firstHalf);
 
             final RecursiveElementSwapper secondHalf = new RecursiveElementSwapper(
-                    mData, windowCenter, mStop, mSwapDecision
+                    mData, windowCenter, mStop, mSwapDecision, mGrainSize, false
             );
             mEventNotifier.signal(secondHalf);
         }
     }
 
+    /**
+     * Performs every pass of a window on the current thread, which has the
+     * same result as executing a {@link RecursiveElementSwapper} and all of
+     * its recursion steps.
+     *
+     * @param data         The {@link ISortData} to operate on.
+     * @param start        The inclusive start of the window.
+     * @param stop         The exclusive end of the window.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     */
+    static void mergeSequentially(ISortData data, int start, int stop, ISwapDecision swapDecision) {
+        final int diff = stop - start;
+
+        // Windows with a size that is a power of 2 can be processed one level at a time.
+        if (MathUtils.isPowerOfTwo(diff)) {
+            for (int windowSize = diff; windowSize >= 2; windowSize /= 2) {
+                data.compareExchangeBlocks(start, stop, windowSize / 2, swapDecision);
+            }
+            return;
+        }
+
+        if (diff < 2) {
+            return;
+        }
+
+        final int distance = MathUtils.greatestPowerOfTwoLessThan(diff);
+        data.compareExchange(start, diff - distance, distance, swapDecision);
+        mergeSequentially(data, start, start + distance, swapDecision);
+        mergeSequentially(data, start + distance, stop, swapDecision);
+    }
+
+    /**
+     * Fully sorts a window on the current thread by performing every round of
+     * the bitonic sorting algorithm within it.
+     *
+     * @param data     The {@link ISortData} to operate on.
+     * @param start    The inclusive start of the window.
+     * @param stop     The exclusive end of the window.
+     * @param polarity The desired {@link Polarity} of the window.
+     */
+    static void sortSequentially(ISortData data, int start, int stop, Polarity polarity) {
+        final int diff = stop - start;
+
+        // Windows with a size that is a power of 2 can be processed one round at a time.
+        if (MathUtils.isPowerOfTwo(diff)) {
+            final Polarity opposite = polarity.reverse();
+            for (int groupSize = 2; groupSize <= diff; groupSize *= 2) {
+                boolean flip = false;
+                for (int groupStart = start; groupStart < stop; groupStart += groupSize) {
+                    mergeSequentially(data, groupStart, groupStart + groupSize, flip ? opposite : polarity);
+                    flip = !flip;
+                }
+            }
+            return;
+        }
+
+        if (diff < 2) {
+            return;
+        }
+
+        /*
+         * The merge of a window that is not a power of 2 requires the first
+         * part to be sorted in the opposite order to the second part.
+         */
+        final int distance = MathUtils.greatestPowerOfTwoLessThan(diff);
+        sortSequentially(data, start, start + distance, polarity.reverse());
+        sortSequentially(data, start + distance, stop, polarity);
+        mergeSequentially(data, start, stop, polarity);
+    }
+
 }
@@ -1,15 +1,30 @@
 package com.distributed.bitonic;
 
 import com.distributed.common.MathUtils;
+import com.distributed.sorting.ISortData;
 import com.distributed.sorting.ISwapDecision;
 import com.distributed.sorting.IElementSwapper;
+import com.distributed.sorting.IntSortData;
 import com.distributed.sorting.Polarity;
-import org.apache.commons.lang3.ArrayUtils;
 
 /**
  * Represents an {@link IElementSwapper} implementation that takes a single
  * pass over the data and performs a swapping operation based on a provided
  * range and {@link ISwapDecision}.
+ * <p>
+ * Each element in the first part of the range is compared with the element
+ * that is a fixed distance after it, where the distance is the greatest power
+ * of 2 that is less than the size of the range. When the size of the range is
+ * a power of 2, this compares each element in the first half of the range with
+ * the matching element in the second half. For any other size, the range is
+ * treated as though it were padded to the next power of 2, and comparisons
+ * that would involve a padding element are skipped. Nothing is allocated for
+ * the padding.
+ * </p>
+ * <p>
+ * The pass itself is performed by the {@link ISortData}, which uses a loop
+ * that is specialized for the type of the underlying array.
+ * </p>
  */
 @SuppressWarnings("WeakerAccess")
 public class SinglePassElementSwapper implements IElementSwapper {
@@ -44,44 +59,51 @@ public class SinglePassElementSwapper implements IElementSwapper {
      *                     whether or not the compared elements should be swapped.
      */
     public SinglePassElementSwapper(int[] data, int start, int stop, ISwapDecision swapDecision) {
+        this(new IntSortData(data), start, stop, swapDecision);
+    }
+
+    /**
+     * Create a new {@link SinglePassElementSwapper}.
+     *
+     * @param data         The {@link ISortData} to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param stop         The exclusive start of the range to be operated on.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     */
+    public SinglePassElementSwapper(ISortData data, int start, int stop, ISwapDecision swapDecision) {
         assert data != null;
         mData = data;
 
         assert start >= 0;
         assert start < stop;
+        assert stop <= data.length();
 
         final int diff = stop - start;
-        // 1 is a valid power of 2, and would result in 0 comparisons.
-        assert MathUtils.isPowerOfTwo(diff);
-
         mStart = start;
-        mComparisons = diff / 2;
+
+        // A range of 1 element results in 0 comparisons.
+        if (diff > 1) {
+            mDistance = MathUtils.greatestPowerOfTwoLessThan(diff);
+            mComparisons = diff - mDistance;
+        } else {
+            mDistance = 0;
+            mComparisons = 0;
+        }
 
         assert swapDecision != null;
         mSwapDecision = swapDecision;
     }
 
-    private final int[] mData;
+    private final ISortData mData;
     private final int mStart;
     private final int mComparisons;
+    private final int mDistance;
     private final ISwapDecision mSwapDecision;
 
     @Override
     public void execute() {
-
-        for (int i = mStart; i < mStart + mComparisons; i++) {
-
-            //noinspection UnnecessaryLocalVariable
-            final int index_left = i;
-            final int index_right = i + mComparisons;
-            final int left = mData[index_left];
-            final int right = mData[index_right];
-
-            if (mSwapDecision.shouldSwap(left, right)) {
-                ArrayUtils.swap(mData, index_left, index_right);
-            }
-        }
-
+        mData.compareExchange(mStart, mComparisons, mDistance, mSwapDecision);
     }
 
 }
@@ -0,0 +1,100 @@
+package com.distributed.bitonic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Represents the statistics of a sort, broken down into a {@link StageStats}
+ * for each stage, so a slow sort shows which stages the time was spent in.
+ * <p>
+ * Collecting statistics is opt-in: an engine only records anything when it is
+ * given a {@link SortStats} object, and otherwise runs exactly as before. While
+ * they are being collected, passes are counted through a {@link com.distributed.sorting.ISortData}
+ * wrapper that also counts the swaps, which is slower than the kernel that is
+ * normally used, so the timings describe the shape of a sort rather than its
+ * best speed.
+ * </p>
+ * <p>
+ * This object is thread-safe, and can be read while a sort is still running.
+ * The same object may be passed to several sorts, in which case the statistics
+ * of every sort are added together.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class SortStats {
+
+    // Stages are listed from the first group size to the last, and from the largest window to the smallest.
+    private static final Comparator<StageStats> STAGE_ORDER = Comparator
+            .comparingLong(StageStats::getGroupSize)
+            .thenComparing(Comparator.comparingLong(StageStats::getWindowSize).reversed());
+
+    /**
+     * Create a new {@link SortStats} object, without any stages.
+     */
+    public SortStats() {
+        mStages = new ConcurrentHashMap<>();
+    }
+
+    private final ConcurrentMap<Long, StageStats> mStages;
+
+    /**
+     * @return The {@link StageStats} of every stage that has started, in the
+     * order that the stages run in.
+     */
+    public List<StageStats> getStages() {
+        final List<StageStats> result = new ArrayList<>(mStages.values());
+        result.sort(STAGE_ORDER);
+        return result;
+    }
+
+    /**
+     * @return The number of tasks that were run by every stage.
+     */
+    public long getTaskCount() {
+        return mStages.values().stream().mapToLong(StageStats::getTaskCount).sum();
+    }
+
+    /**
+     * @return The number of pairs of elements that were compared by every stage.
+     */
+    public long getComparisons() {
+        return mStages.values().stream().mapToLong(StageStats::getComparisons).sum();
+    }
+
+    /**
+     * @return The number of pairs of different elements that were swapped by
+     * every stage.
+     */
+    public long getSwaps() {
+        return mStages.values().stream().mapToLong(StageStats::getSwaps).sum();
+    }
+
+    /**
+     * Retrieves the statistics of a stage, creating them if the stage has not
+     * started yet.
+     *
+     * @param groupSize  The size of the groups that are merged by the stage.
+     * @param windowSize The size of the windows that each pass of the stage
+     *                   operates on.
+     * @return The {@link StageStats} of the stage.
+     */
+    StageStats stageOf(long groupSize, long windowSize) {
+        assert 0 < windowSize && windowSize <= groupSize && groupSize <= 1L << 31;
+        final long key = groupSize << 32 | windowSize;
+        final StageStats stage = mStages.get(key);
+        return stage != null ? stage : mStages.computeIfAbsent(key, k -> new StageStats(groupSize, windowSize));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("SortStats{");
+        for (StageStats stage : getStages()) {
+            builder.append(System.lineSeparator()).append("  ").append(stage);
+        }
+        return builder.append(System.lineSeparator()).append('}').toString();
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.distributed.bitonic;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents the statistics of a single stage of a sort, which is every pass
+ * with the same group size and window size.
+ * <p>
+ * Every counter is a {@link LongAdder} or {@link LongAccumulator}, which keep a
+ * separate cell for each contending thread and only combine the cells when the
+ * counter is read. Workers that record their tasks at the same time therefore
+ * do not contend on a single memory location, and recording a task costs
+ * little more than reading the clock.
+ * </p>
+ *
+ * @see SortStats
+ */
+@SuppressWarnings("WeakerAccess")
+public class StageStats {
+
+    /**
+     * Create a new {@link StageStats} object, with every counter at zero.
+     *
+     * @param groupSize  The size of the groups that are merged by the stage.
+     * @param windowSize The size of the windows that each pass of the stage
+     *                   operates on.
+     */
+    StageStats(long groupSize, long windowSize) {
+        mGroupSize = groupSize;
+        mWindowSize = windowSize;
+    }
+
+    private final long mGroupSize;
+    private final long mWindowSize;
+
+    private final LongAdder mTasks = new LongAdder();
+    private final LongAdder mBusyNanos = new LongAdder();
+    private final LongAdder mComparisons = new LongAdder();
+    private final LongAdder mSwaps = new LongAdder();
+    private final LongAdder mQueueWaitNanos = new LongAdder();
+    private final LongAdder mFutureWaitNanos = new LongAdder();
+    private final LongAccumulator mFirstStart = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator mLastStop = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * @return The size of the groups that are merged by the stage.
+     */
+    public long getGroupSize() {
+        return mGroupSize;
+    }
+
+    /**
+     * @return The size of the windows that each pass of the stage operates on.
+     */
+    public long getWindowSize() {
+        return mWindowSize;
+    }
+
+    /**
+     * @return The number of nanoseconds from the start of the first task of
+     * the stage to the end of the last one, or 0 if no task has finished.
+     */
+    public long getWallTimeNanos() {
+        final long stop = mLastStop.get();
+        return stop == Long.MIN_VALUE ? 0 : stop - mFirstStart.get();
+    }
+
+    /**
+     * @return The total number of nanoseconds that the tasks of the stage ran
+     * for, summed over every thread.
+     */
+    public long getBusyTimeNanos() {
+        return mBusyNanos.sum();
+    }
+
+    /**
+     * @return The number of tasks that were run by the stage.
+     */
+    public long getTaskCount() {
+        return mTasks.sum();
+    }
+
+    /**
+     * @return The number of pairs of elements that were compared.
+     */
+    public long getComparisons() {
+        return mComparisons.sum();
+    }
+
+    /**
+     * @return The number of pairs of different elements that were swapped, or 0
+     * if the data does not support counting swaps.
+     */
+    public long getSwaps() {
+        return mSwaps.sum();
+    }
+
+    /**
+     * @return The number of nanoseconds that the coordinating thread spent
+     * waiting for the tasks of the stage to be signalled.
+     */
+    public long getQueueWaitNanos() {
+        return mQueueWaitNanos.sum();
+    }
+
+    /**
+     * @return The number of nanoseconds that the coordinating thread spent
+     * waiting for the tasks of the stage to finish once every task had been
+     * submitted.
+     */
+    public long getFutureWaitNanos() {
+        return mFutureWaitNanos.sum();
+    }
+
+    /**
+     * Records a task of the stage that has finished.
+     *
+     * @param start The value of {@link System#nanoTime()} when the task started.
+     * @param stop  The value of {@link System#nanoTime()} when the task finished.
+     */
+    void addTask(long start, long stop) {
+        mTasks.increment();
+        mBusyNanos.add(stop - start);
+        mFirstStart.accumulate(start);
+        mLastStop.accumulate(stop);
+    }
+
+    /**
+     * @param comparisons The number of pairs of elements that were compared by a pass.
+     * @param swaps       The number of pairs of different elements that were swapped by the pass.
+     */
+    void addPass(long comparisons, long swaps) {
+        mComparisons.add(comparisons);
+        mSwaps.add(swaps);
+    }
+
+    /**
+     * @param nanos The number of nanoseconds spent waiting for a task to be signalled.
+     */
+    void addQueueWait(long nanos) {
+        mQueueWaitNanos.add(nanos);
+    }
+
+    /**
+     * @param nanos The number of nanoseconds spent waiting for a task to finish.
+     */
+    void addFutureWait(long nanos) {
+        mFutureWaitNanos.add(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "StageStats{groupSize=" + mGroupSize
+                + ", windowSize=" + mWindowSize
+                + ", wallTimeNanos=" + getWallTimeNanos()
+                + ", busyTimeNanos=" + getBusyTimeNanos()
+                + ", tasks=" + getTaskCount()
+                + ", comparisons=" + getComparisons()
+                + ", swaps=" + getSwaps()
+                + ", queueWaitNanos=" + getQueueWaitNanos()
+                + ", futureWaitNanos=" + getFutureWaitNanos()
+                + "}";
+    }
+
+}
@@ -0,0 +1,322 @@
+package com.distributed.events;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Represents a collection of events that have occurred from one or
+ * many {@link IEventNotifier} objects, which behaves in the same way as an
+ * {@link EventQueue} without taking any locks.
+ * <p>
+ * The number of expected events and the number of events that have not been
+ * read are packed into a single {@link AtomicLong}, so that both can be checked
+ * and changed together with a single compare-and-set. Getters are admitted or
+ * rejected on this count in exactly the same way as by an {@link EventQueue},
+ * so a getter is only admitted when an event is guaranteed to arrive for it.
+ * </p>
+ * <p>
+ * Events are stored in a chain of fixed-size arrays. Each event and each
+ * admitted getter takes the next index of its own sequence with a single
+ * fetch-and-add, so the {@code n}th getter reads the {@code n}th event. A
+ * getter that arrives before its event spins briefly, and then leaves its
+ * thread in the slot and parks until the event replaces it.
+ * </p>
+ *
+ * @param <T> The type of event that this {@link LockFreeEventQueue} tracks.
+ */
+public class LockFreeEventQueue<T> {
+
+    // The number of slots in each array of the chain, which must be a power of 2.
+    private static final int SEGMENT_SIZE = 1024;
+
+    // The number of times that a getter checks its slot before it parks.
+    private static final int SPIN_LIMIT = 128;
+
+    /**
+     * Represents a getter that is parked waiting for an event to arrive in
+     * its slot.
+     */
+    private static class Waiter {
+
+        /**
+         * Create a new {@link Waiter} object for the current thread.
+         */
+        Waiter() {
+            mThread = Thread.currentThread();
+        }
+
+        private final Thread mThread;
+
+    }
+
+    /**
+     * Represents a single array in the chain of slots.
+     */
+    private static class Segment {
+
+        /**
+         * Create a new {@link Segment} object.
+         *
+         * @param start The index of the first slot of the segment.
+         */
+        Segment(long start) {
+            mStart = start;
+        }
+
+        private final long mStart;
+        private final AtomicReferenceArray<Object> mSlots = new AtomicReferenceArray<>(SEGMENT_SIZE);
+        private final AtomicReference<Segment> mNext = new AtomicReference<>();
+        private final AtomicInteger mRead = new AtomicInteger();
+
+    }
+
+    /**
+     * Create a new {@link LockFreeEventQueue} object, which is not expecting
+     * any events.
+     */
+    public LockFreeEventQueue() {
+        mFirst = new AtomicReference<>(new Segment(0));
+    }
+
+    private final AtomicLong mCounts = new AtomicLong();
+    private final AtomicLong mNextWrite = new AtomicLong();
+    private final AtomicLong mNextRead = new AtomicLong();
+    private final AtomicReference<Segment> mFirst;
+    private final Consumer<T> mEventConsumer = this::consumeEvent;
+
+    /**
+     * @param counts The packed counts.
+     * @return The number of events that are still expected to be signalled.
+     */
+    private static int expectedOf(long counts) {
+        return (int) (counts >>> Integer.SIZE);
+    }
+
+    /**
+     * @param counts The packed counts.
+     * @return The number of events that have been signalled but not read,
+     * which is negative while getters are waiting.
+     */
+    private static int eventsOf(long counts) {
+        return (int) counts;
+    }
+
+    /**
+     * @param expected The number of events that are still expected.
+     * @param events   The number of events that have been signalled but not read.
+     * @return The packed counts.
+     */
+    private static long countsOf(int expected, int events) {
+        return (long) expected << Integer.SIZE | events & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Represents a functional {@link Consumer} implementation that accepts
+     * incoming events and stashes them in the next free slot.
+     *
+     * @param event The event to store. Must not be {@code null}.
+     */
+    private void consumeEvent(T event) {
+        if (event == null) {
+            final String message = "Events must not be null.";
+            throw new NullPointerException(message);
+        }
+
+        /*
+         * The expected count is checked and moved to the event count in a
+         * single step, so 2 incoming events can never both take the last
+         * expected event.
+         */
+        while (true) {
+            final long counts = mCounts.get();
+            final int expected = expectedOf(counts);
+            if (expected <= 0) {
+                final String message = "No more events are expected.";
+                throw new IllegalStateException(message);
+            }
+
+            if (mCounts.compareAndSet(counts, countsOf(expected - 1, eventsOf(counts) + 1))) {
+                break;
+            }
+        }
+
+        final long index = mNextWrite.getAndIncrement();
+        final Segment segment = segmentOf(index);
+        final Object previous = segment.mSlots.getAndSet((int) (index - segment.mStart), event);
+        if (previous != null) {
+            LockSupport.unpark(((Waiter) previous).mThread);
+        }
+    }
+
+    /**
+     * Register a new {@link IEventNotifier} with the {@link LockFreeEventQueue},
+     * which will provide event notifications to be stashed.
+     *
+     * @param notifier The {@link IEventNotifier} to attach.
+     */
+    public void registerNotifier(IEventNotifier<T> notifier) {
+
+        // Adding to the upper half of the counts leaves the event count untouched.
+        mCounts.getAndAdd((long) notifier.getExpected() << Integer.SIZE);
+        notifier.registerOutput(mEventConsumer);
+    }
+
+    /**
+     * Determines if the {@link LockFreeEventQueue} has or will have events to
+     * be consumed.
+     * <p>
+     * <strong>Caution:</strong> If this object is used from multiple
+     * threads then the result of this method call is unreliable. A call
+     * to the {@link #get()} call could occur on another thread as soon
+     * as a value of {@code true} is returned from this method.
+     * </p>
+     *
+     * @return {@code true} if there are consumable events, {@code false}
+     * otherwise.
+     */
+    public boolean hasRemaining() {
+        final long counts = mCounts.get();
+        return eventsOf(counts) > 0 || expectedOf(counts) > 0;
+    }
+
+    /**
+     * Returns a single event that has been notified by one of the registered
+     * {@link IEventNotifier} objects.
+     * <p>
+     * <strong>Caution:</strong> This is a blocking call, and will not
+     * return until an event has been received by the {@link LockFreeEventQueue}.
+     * </p>
+     *
+     * @return A single notified event.
+     * @throws IllegalStateException if every event that is expected has
+     *                               already been promised to another getter.
+     */
+    public T get() {
+
+        /*
+         * As with an EventQueue, the event count goes negative while getters
+         * are waiting, and a getter is rejected when every expected event has
+         * already been promised to a getter, so no getter waits forever.
+         */
+        while (true) {
+            final long counts = mCounts.get();
+            final int expected = expectedOf(counts);
+            final int events = eventsOf(counts);
+            if (events + expected <= 0) {
+                final String message = "There are no more events to read.";
+                throw new IllegalStateException(message);
+            }
+
+            if (mCounts.compareAndSet(counts, countsOf(expected, events - 1))) {
+                break;
+            }
+        }
+
+        final long index = mNextRead.getAndIncrement();
+        final Segment segment = segmentOf(index);
+        final T result = await(segment.mSlots, (int) (index - segment.mStart));
+
+        // Once every slot of the first segment has been read, nothing will look at it again.
+        if (segment.mRead.incrementAndGet() == SEGMENT_SIZE) {
+            releaseSegments();
+        }
+
+        //noinspection ConstantConditions
+        assert result != null;
+
+        return result;
+    }
+
+    /**
+     * Waits for an event to arrive in a slot.
+     *
+     * @param slots The slots of the segment.
+     * @param slot  The index of the slot within the segment.
+     * @return The event.
+     */
+    @SuppressWarnings("unchecked")
+    private T await(AtomicReferenceArray<Object> slots, int slot) {
+        for (int i = 0; i < SPIN_LIMIT; i++) {
+            final Object value = slots.get(slot);
+            if (value != null) {
+                return (T) value;
+            }
+        }
+
+        final Waiter waiter = new Waiter();
+        if (!slots.compareAndSet(slot, null, waiter)) {
+
+            // The event arrived after the last check.
+            return (T) slots.get(slot);
+        }
+
+        /*
+         * Interrupts are ignored in the same way as by an EventQueue, as the
+         * event is guaranteed to arrive, but the interrupt is kept for later
+         * so that it does not wake every call to #park().
+         */
+        boolean interrupted = false;
+        Object value;
+        while ((value = slots.get(slot)) == waiter) {
+            LockSupport.park(this);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return (T) value;
+    }
+
+    /**
+     * Finds the segment that holds a slot, adding segments to the end of the
+     * chain until it exists.
+     * <p>
+     * The first segment is only released once every one of its slots has
+     * been read, which means that every one of them has also been written,
+     * so the segment of any slot that is still being written or read has not
+     * been released.
+     * </p>
+     *
+     * @param index The index of the slot.
+     * @return The {@link Segment} that holds the slot.
+     */
+    private Segment segmentOf(long index) {
+        Segment segment = mFirst.get();
+        while (index >= segment.mStart + SEGMENT_SIZE) {
+            Segment next = segment.mNext.get();
+            if (next == null) {
+                final Segment created = new Segment(segment.mStart + SEGMENT_SIZE);
+                next = segment.mNext.compareAndSet(null, created) ? created : segment.mNext.get();
+            }
+            segment = next;
+        }
+        return segment;
+    }
+
+    /**
+     * Moves the start of the chain past every segment that has been fully
+     * read, so that they can be collected.
+     */
+    private void releaseSegments() {
+        Segment first = mFirst.get();
+        while (first.mRead.get() == SEGMENT_SIZE) {
+
+            // The next segment always exists, as the slot after a full segment has been claimed or will be.
+            Segment next = first.mNext.get();
+            if (next == null) {
+                final Segment created = new Segment(first.mStart + SEGMENT_SIZE);
+                next = first.mNext.compareAndSet(null, created) ? created : first.mNext.get();
+            }
+            if (!mFirst.compareAndSet(first, next)) {
+                first = mFirst.get();
+                continue;
+            }
+            first = next;
+        }
+    }
+
+}
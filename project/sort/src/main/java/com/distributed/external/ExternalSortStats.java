@@ -0,0 +1,95 @@
+package com.distributed.external;
+
+/**
+ * Represents the input and output performed by a single external sort, which
+ * is used to tune the memory budget and the temporary directory of an
+ * {@link ExternalSorter}.
+ * <p>
+ * The counts include both the input and output files and every temporary run
+ * file, so a sort that fits in a single run reads and writes the data once,
+ * while every pass of merging adds another read and write of the data.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class ExternalSortStats {
+
+    /**
+     * Create a new {@link ExternalSortStats} object, where nothing has been
+     * counted yet.
+     */
+    ExternalSortStats() {
+        mBytesRead = 0;
+        mBytesWritten = 0;
+        mRunCount = 0;
+        mMergePassCount = 0;
+    }
+
+    private long mBytesRead;
+    private long mBytesWritten;
+    private int mRunCount;
+    private int mMergePassCount;
+
+    /**
+     * @return The number of bytes read from the input file and from temporary files.
+     */
+    public long getBytesRead() {
+        return mBytesRead;
+    }
+
+    /**
+     * @return The number of bytes written to the output file and to temporary files.
+     */
+    public long getBytesWritten() {
+        return mBytesWritten;
+    }
+
+    /**
+     * @return The number of sorted runs that the input was divided into.
+     */
+    public int getRunCount() {
+        return mRunCount;
+    }
+
+    /**
+     * @return The number of passes that were needed to merge the runs, which is
+     * 0 when the input fits in a single run.
+     */
+    public int getMergePassCount() {
+        return mMergePassCount;
+    }
+
+    @Override
+    public String toString() {
+        return "runs=" + mRunCount + ", mergePasses=" + mMergePassCount
+                + ", bytesRead=" + mBytesRead + ", bytesWritten=" + mBytesWritten;
+    }
+
+    /**
+     * @param bytes The number of bytes that were just read.
+     */
+    void addBytesRead(long bytes) {
+        mBytesRead += bytes;
+    }
+
+    /**
+     * @param bytes The number of bytes that were just written.
+     */
+    void addBytesWritten(long bytes) {
+        mBytesWritten += bytes;
+    }
+
+    /**
+     * Counts a sorted run that has been produced from the input.
+     */
+    void addRun() {
+        mRunCount++;
+    }
+
+    /**
+     * Counts a pass of merging runs.
+     */
+    void addMergePass() {
+        mMergePassCount++;
+    }
+
+}
@@ -0,0 +1,325 @@
+package com.distributed.external;
+
+import com.distributed.bitonic.BitonicSortService;
+import com.distributed.bitonic.MappedFileSorter;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a sorter for binary files of {@link Integer} primitives that may be
+ * far larger than the available memory.
+ * <p>
+ * The input is read sequentially in runs that fit in the memory budget. Each
+ * run is sorted in parallel by a {@link BitonicSortService}, and then spilled
+ * to a temporary file. The runs are then combined by a k-way merge, which
+ * reads every run and writes the result through buffers that share the memory
+ * budget, so every read and write is a large sequential transfer. When there
+ * are more runs than can be merged at once with reasonably sized buffers, the
+ * runs are merged in several passes. Input that fits in a single run is sorted
+ * and written straight to the output without any temporary files.
+ * </p>
+ * <p>
+ * Every sort returns the {@link ExternalSortStats} of the input and output that
+ * it performed, so the memory budget and the temporary directory can be tuned.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class ExternalSorter {
+
+    /**
+     * The memory budget that is used when one is not provided, in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 128L * 1024 * 1024;
+
+    /**
+     * The smallest memory budget that can be used, in bytes.
+     */
+    public static final long MIN_MEMORY_BUDGET = 16 * 1024;
+
+    // The largest buffer used for a single file, which is already large enough for sequential transfers.
+    private static final int MAX_IO_BUFFER_SIZE = 1024 * 1024;
+
+    // The smallest buffer that each run may be merged through, which limits the number of runs merged at once.
+    private static final int MIN_MERGE_BUFFER_SIZE = 4 * 1024;
+
+    // The most runs that are merged at once, which limits the number of open files.
+    private static final int MAX_FAN_IN = 256;
+
+    /**
+     * Create a new {@link ExternalSorter} object, which uses the default memory
+     * budget and the default temporary directory.
+     *
+     * @param numThreads The number of threads that sort each run.
+     */
+    public ExternalSorter(int numThreads) {
+        this(numThreads, DEFAULT_MEMORY_BUDGET, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Create a new {@link ExternalSorter} object for files of little-endian
+     * elements.
+     *
+     * @param numThreads    The number of threads that sort each run.
+     * @param memoryBudget  The number of bytes that runs and buffers may use.
+     *                      Must be at least {@link #MIN_MEMORY_BUDGET}.
+     * @param tempDirectory The directory to write the temporary run files to.
+     *                      Must not be {@code null}.
+     */
+    public ExternalSorter(int numThreads, long memoryBudget, Path tempDirectory) {
+        this(numThreads, memoryBudget, tempDirectory, MappedFileSorter.DEFAULT_ORDER);
+    }
+
+    /**
+     * Create a new {@link ExternalSorter} object.
+     *
+     * @param numThreads    The number of threads that sort each run.
+     * @param memoryBudget  The number of bytes that runs and buffers may use.
+     *                      Must be at least {@link #MIN_MEMORY_BUDGET}.
+     * @param tempDirectory The directory to write the temporary run files to.
+     *                      Must not be {@code null}.
+     * @param order         The {@link ByteOrder} of the elements in the files.
+     *                      Must not be {@code null}.
+     */
+    public ExternalSorter(int numThreads, long memoryBudget, Path tempDirectory, ByteOrder order) {
+        assert numThreads > 0;
+        mNumThreads = numThreads;
+
+        assert memoryBudget >= MIN_MEMORY_BUDGET;
+        mMemoryBudget = memoryBudget;
+
+        // Each run is read through one buffer and written through another.
+        mIoBufferSize = bufferSize(Math.min(MAX_IO_BUFFER_SIZE, memoryBudget / 8));
+        mRunLength = (int) Math.min(Integer.MAX_VALUE - 8, (memoryBudget - 2L * mIoBufferSize) / Integer.BYTES);
+        mFanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / MIN_MERGE_BUFFER_SIZE - 1));
+
+        assert tempDirectory != null;
+        mTempDirectory = tempDirectory;
+
+        assert order != null;
+        mOrder = order;
+    }
+
+    private final int mNumThreads;
+    private final long mMemoryBudget;
+    private final int mIoBufferSize;
+    private final int mRunLength;
+    private final int mFanIn;
+    private final Path mTempDirectory;
+    private final ByteOrder mOrder;
+
+    /**
+     * Sorts a file into another file, which may be the same file.
+     *
+     * @param input    The {@link Path} of the file to sort.
+     * @param output   The {@link Path} of the file to write the result to, which
+     *                 is created or replaced.
+     * @param polarity The desired {@link Polarity} of the result. Must not
+     *                 be {@code null}.
+     * @return The {@link ExternalSortStats} of the sort.
+     * @throws IOException if a file could not be read or written, or the input
+     *                     ends part of the way through an element.
+     */
+    public ExternalSortStats sort(Path input, Path output, Polarity polarity) throws IOException {
+        assert polarity != null;
+
+        final ExternalSortStats stats = new ExternalSortStats();
+        final List<Path> runs = new ArrayList<>();
+        try {
+            if (!createRuns(input, output, polarity, runs, stats)) {
+                return stats;
+            }
+
+            // Merge groups of runs until they can all be merged into the output at once.
+            List<Path> current = new ArrayList<>(runs);
+            while (current.size() > mFanIn) {
+                stats.addMergePass();
+                final List<Path> merged = new ArrayList<>();
+                for (int start = 0; start < current.size(); start += mFanIn) {
+                    final List<Path> group = current.subList(start, Math.min(start + mFanIn, current.size()));
+                    final Path run = createTempFile(runs);
+                    merge(group, run, polarity, stats);
+                    merged.add(run);
+                    for (Path path : group) {
+                        Files.delete(path);
+                    }
+                }
+                runs.removeAll(current);
+                current = merged;
+            }
+
+            stats.addMergePass();
+            merge(current, output, polarity, stats);
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Reads the input in runs, sorts each run and spills it to a temporary file.
+     * If the whole input fits in the first run, it is written straight to the
+     * output instead.
+     *
+     * @param input    The {@link Path} of the file to sort.
+     * @param output   The {@link Path} of the file to write the result to.
+     * @param polarity The desired {@link Polarity} of the result.
+     * @param runs     The list to add the {@link Path} of each run to.
+     * @param stats    The {@link ExternalSortStats} of the sort.
+     * @return {@code true} if the runs still need to be merged into the output,
+     * {@code false} if the output has already been written.
+     * @throws IOException if a file could not be read or written.
+     */
+    private boolean createRuns(Path input, Path output, Polarity polarity, List<Path> runs,
+                               ExternalSortStats stats) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             IntChannelReader reader = new IntChannelReader(channel, mOrder, mIoBufferSize, stats)) {
+
+            final int[] run = new int[runLength(input, channel)];
+            int length = reader.read(run, 0, run.length);
+            final boolean single = !reader.hasNext();
+
+            final BitonicSortService service = new BitonicSortService(mNumThreads);
+            try {
+                do {
+                    service.sort(new IntSortData(run), 0, length, polarity);
+                    stats.addRun();
+
+                    final Path target = single ? output : createTempFile(runs);
+                    try (IntChannelWriter writer = openWriter(target, mIoBufferSize, stats)) {
+                        writer.write(run, 0, length);
+                    }
+                    length = reader.read(run, 0, run.length);
+                } while (length > 0);
+            } finally {
+                service.shutdown();
+            }
+
+            return !single;
+        }
+    }
+
+    /**
+     * Determines the length of the runs of an input, which is only as long as
+     * the input when it is a regular file that is smaller than the budget.
+     * <p>
+     * The size of a pipe or any other channel that is not a regular file is
+     * not known up front, and is reported as 0, so it always gets the whole
+     * budget rather than a run that could never hold an element.
+     * </p>
+     *
+     * @param input   The {@link Path} of the file to sort.
+     * @param channel The open channel of the input.
+     * @return The number of elements in each run.
+     * @throws IOException if the size of the input could not be read.
+     */
+    private int runLength(Path input, FileChannel channel) throws IOException {
+        final long size = Files.isRegularFile(input) ? channel.size() : 0;
+        if (size == 0) {
+            return mRunLength;
+        }
+        return (int) Math.min(mRunLength, (size + Integer.BYTES - 1) / Integer.BYTES);
+    }
+
+    /**
+     * Merges sorted runs into a single sorted file.
+     *
+     * @param runs     The {@link Path} of each run to merge.
+     * @param target   The {@link Path} of the file to write the result to.
+     * @param polarity The {@link Polarity} of the runs and of the result.
+     * @param stats    The {@link ExternalSortStats} of the sort.
+     * @throws IOException if a file could not be read or written.
+     */
+    private void merge(List<Path> runs, Path target, Polarity polarity, ExternalSortStats stats)
+            throws IOException {
+        final int bufferSize = bufferSize(Math.min(MAX_IO_BUFFER_SIZE, mMemoryBudget / (runs.size() + 1)));
+        final IntChannelReader[] readers = new IntChannelReader[runs.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                final FileChannel channel = FileChannel.open(runs.get(i), StandardOpenOption.READ);
+                try {
+                    readers[i] = new IntChannelReader(channel, mOrder, bufferSize, stats);
+                } catch (RuntimeException | Error e) {
+
+                    // The reader only owns the channel once it has been created.
+                    channel.close();
+                    throw e;
+                }
+            }
+
+            final MergeHeap heap = new MergeHeap(readers.length, polarity == Polarity.ASCENDING);
+            for (int i = 0; i < readers.length; i++) {
+                if (readers[i].hasNext()) {
+                    heap.add(i, readers[i].next());
+                }
+            }
+
+            try (IntChannelWriter writer = openWriter(target, bufferSize, stats)) {
+                while (!heap.isEmpty()) {
+                    final int run = heap.topRun();
+                    writer.write(heap.topHead());
+                    if (readers[run].hasNext()) {
+                        heap.replaceTop(readers[run].next());
+                    } else {
+                        heap.removeTop();
+                    }
+                }
+            }
+        } finally {
+            for (IntChannelReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a temporary file for a run, and records it so that it is deleted
+     * once the sort is done.
+     *
+     * @param runs The list of temporary files of the sort.
+     * @return The {@link Path} of the new temporary file.
+     * @throws IOException if the file could not be created.
+     */
+    private Path createTempFile(List<Path> runs) throws IOException {
+        final Path run = Files.createTempFile(mTempDirectory, "run", ".bin");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * @param target     The {@link Path} of the file to write to, which is
+     *                   created or replaced.
+     * @param bufferSize The number of bytes to write at a time.
+     * @param stats      The {@link ExternalSortStats} of the sort.
+     * @return An {@link IntChannelWriter} that writes to the file.
+     * @throws IOException if the file could not be opened.
+     */
+    private IntChannelWriter openWriter(Path target, int bufferSize, ExternalSortStats stats) throws IOException {
+        final FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new IntChannelWriter(channel, mOrder, bufferSize, stats);
+    }
+
+    /**
+     * @param bytes The number of bytes that a buffer may use.
+     * @return The largest buffer size that fits, which is a whole number of elements.
+     */
+    private static int bufferSize(long bytes) {
+        final long size = Math.min(Integer.MAX_VALUE, bytes);
+        return (int) Math.max(Integer.BYTES, size - size % Integer.BYTES);
+    }
+
+}
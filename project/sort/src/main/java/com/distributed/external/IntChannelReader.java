@@ -0,0 +1,119 @@
+package com.distributed.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Represents a reader of {@link Integer} primitives from a channel, which only
+ * ever reads from the channel in large sequential chunks of a fixed size.
+ * <p>
+ * The reader takes ownership of the channel, and closes it when it is closed.
+ * </p>
+ */
+class IntChannelReader implements Closeable {
+
+    /**
+     * Create a new {@link IntChannelReader} object.
+     *
+     * @param channel    The channel to read from. Must not be {@code null}.
+     * @param order      The {@link ByteOrder} of the elements in the channel.
+     * @param bufferSize The number of bytes to read from the channel at a time.
+     *                   Must be a positive multiple of {@link Integer#BYTES}.
+     * @param stats      The {@link ExternalSortStats} to count the bytes read in.
+     */
+    IntChannelReader(ReadableByteChannel channel, ByteOrder order, int bufferSize, ExternalSortStats stats) {
+        assert channel != null;
+        assert bufferSize > 0 && bufferSize % Integer.BYTES == 0;
+        mChannel = channel;
+        mBuffer = ByteBuffer.allocateDirect(bufferSize).order(order);
+        mStats = stats;
+
+        // The buffer starts out empty, so the first read fills it.
+        mBuffer.limit(0);
+        mEndOfChannel = false;
+    }
+
+    private final ReadableByteChannel mChannel;
+    private final ByteBuffer mBuffer;
+    private final ExternalSortStats mStats;
+
+    private boolean mEndOfChannel;
+
+    /**
+     * @return {@code true} if there is at least one more element to read,
+     * {@code false} if the end of the channel has been reached.
+     * @throws IOException if the channel could not be read.
+     */
+    boolean hasNext() throws IOException {
+        return mBuffer.remaining() >= Integer.BYTES || fill();
+    }
+
+    /**
+     * Reads the next element. Must only be called when {@link #hasNext()} has
+     * returned {@code true}.
+     *
+     * @return The next element.
+     */
+    int next() {
+        return mBuffer.getInt();
+    }
+
+    /**
+     * Reads elements into an array until either the array is full or the end of
+     * the channel is reached.
+     *
+     * @param data   The array to read into.
+     * @param offset The index of the array to read the first element into.
+     * @param length The greatest number of elements to read.
+     * @return The number of elements that were read, which is only less than the
+     * length at the end of the channel.
+     * @throws IOException if the channel could not be read.
+     */
+    int read(int[] data, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length && hasNext()) {
+            final int available = Math.min(length - count, mBuffer.remaining() / Integer.BYTES);
+            mBuffer.asIntBuffer().get(data, offset + count, available);
+            mBuffer.position(mBuffer.position() + available * Integer.BYTES);
+            count += available;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mChannel.close();
+    }
+
+    /**
+     * Refills the buffer from the channel, keeping any partial element that is
+     * left at the end of the buffer.
+     *
+     * @return {@code true} if at least one whole element is now in the buffer,
+     * {@code false} otherwise.
+     * @throws IOException if the channel could not be read, or it ends part of
+     *                     the way through an element.
+     */
+    private boolean fill() throws IOException {
+        mBuffer.compact();
+        while (!mEndOfChannel && mBuffer.hasRemaining()) {
+            final int read = mChannel.read(mBuffer);
+            if (read < 0) {
+                mEndOfChannel = true;
+            } else {
+                mStats.addBytesRead(read);
+            }
+        }
+        mBuffer.flip();
+
+        if (mEndOfChannel && mBuffer.hasRemaining() && mBuffer.remaining() < Integer.BYTES) {
+            final String message = "Input ends part of the way through an element.";
+            throw new IOException(message);
+        }
+        return mBuffer.remaining() >= Integer.BYTES;
+    }
+
+}
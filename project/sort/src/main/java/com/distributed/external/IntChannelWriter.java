@@ -0,0 +1,96 @@
+package com.distributed.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Represents a writer of {@link Integer} primitives to a channel, which only
+ * ever writes to the channel in large sequential chunks of a fixed size.
+ * <p>
+ * The writer takes ownership of the channel, and flushes and closes it when it
+ * is closed.
+ * </p>
+ */
+class IntChannelWriter implements Closeable {
+
+    /**
+     * Create a new {@link IntChannelWriter} object.
+     *
+     * @param channel    The channel to write to. Must not be {@code null}.
+     * @param order      The {@link ByteOrder} to write the elements in.
+     * @param bufferSize The number of bytes to write to the channel at a time.
+     *                   Must be a positive multiple of {@link Integer#BYTES}.
+     * @param stats      The {@link ExternalSortStats} to count the bytes written in.
+     */
+    IntChannelWriter(WritableByteChannel channel, ByteOrder order, int bufferSize, ExternalSortStats stats) {
+        assert channel != null;
+        assert bufferSize > 0 && bufferSize % Integer.BYTES == 0;
+        mChannel = channel;
+        mBuffer = ByteBuffer.allocateDirect(bufferSize).order(order);
+        mStats = stats;
+    }
+
+    private final WritableByteChannel mChannel;
+    private final ByteBuffer mBuffer;
+    private final ExternalSortStats mStats;
+
+    /**
+     * Writes a single element.
+     *
+     * @param value The element to write.
+     * @throws IOException if the channel could not be written.
+     */
+    void write(int value) throws IOException {
+        if (!mBuffer.hasRemaining()) {
+            flush();
+        }
+        mBuffer.putInt(value);
+    }
+
+    /**
+     * Writes a run of elements from an array.
+     *
+     * @param data   The array to write from.
+     * @param offset The index of the first element to write.
+     * @param length The number of elements to write.
+     * @throws IOException if the channel could not be written.
+     */
+    void write(int[] data, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length) {
+            if (!mBuffer.hasRemaining()) {
+                flush();
+            }
+            final int available = Math.min(length - count, mBuffer.remaining() / Integer.BYTES);
+            mBuffer.asIntBuffer().put(data, offset + count, available);
+            mBuffer.position(mBuffer.position() + available * Integer.BYTES);
+            count += available;
+        }
+    }
+
+    /**
+     * Writes every buffered element to the channel.
+     *
+     * @throws IOException if the channel could not be written.
+     */
+    void flush() throws IOException {
+        mBuffer.flip();
+        while (mBuffer.hasRemaining()) {
+            mStats.addBytesWritten(mChannel.write(mBuffer));
+        }
+        mBuffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            mChannel.close();
+        }
+    }
+
+}
@@ -0,0 +1,364 @@
+package com.distributed.external;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Provides utilities for reading and writing {@link Integer} primitives in the
+ * two file formats that the command line accepts: raw binary elements, and
+ * text with one decimal element on each line.
+ * <p>
+ * Text files are divided into chunks that end on whitespace, and every chunk
+ * is memory-mapped and parsed by its own task, so a large file is parsed by
+ * every thread at once. The chunks are parsed twice: once to count their
+ * elements, so every chunk knows where its elements start in the result, and
+ * once to fill them in, so no element is ever copied. Any whitespace separates
+ * elements, so files with Windows line endings or several elements on each
+ * line are also accepted.
+ * </p>
+ * <p>
+ * Both formats are written through a single direct buffer, so the channel is
+ * only ever written to in large sequential chunks.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class IntFiles {
+
+    // The buffer that files are written through, which is large enough for sequential transfers.
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    // The fewest bytes that are worth parsing on a separate task.
+    private static final int MIN_CHUNK_BYTES = 64 * 1024;
+
+    // The most bytes that are parsed by a single task, which keeps every mapping well below 2 GiB.
+    private static final int MAX_CHUNK_BYTES = 256 * 1024 * 1024;
+
+    // The number of chunks that each thread parses, so a slow chunk does not hold up the others.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // The most bytes that a single element takes up as text, which is the length of Integer.MIN_VALUE.
+    private static final int MAX_TEXT_BYTES = 11;
+
+    /**
+     * Reads every element of a binary file.
+     *
+     * @param file  The {@link Path} of the file to read.
+     * @param order The {@link ByteOrder} of the elements in the file. Must not
+     *              be {@code null}.
+     * @return A new array holding every element of the file.
+     * @throws IOException if the file could not be read, its size is not a
+     *                     multiple of {@link Integer#BYTES}, or it holds more
+     *                     elements than an array can.
+     */
+    public static int[] readBinary(Path file, ByteOrder order) throws IOException {
+        assert order != null;
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try (IntChannelReader reader = new IntChannelReader(channel, order, BUFFER_SIZE, new ExternalSortStats())) {
+            final long size = channel.size();
+            if (size % Integer.BYTES != 0) {
+                final String message = "File size " + size + " is not a multiple of " + Integer.BYTES + " bytes.";
+                throw new IOException(message);
+            }
+            if (size / Integer.BYTES > Integer.MAX_VALUE - 8) {
+                final String message = "File holds more elements than an array can.";
+                throw new IOException(message);
+            }
+
+            final int[] data = new int[(int) (size / Integer.BYTES)];
+            final int length = reader.read(data, 0, data.length);
+            if (length != data.length) {
+                final String message = "File was truncated while it was being read.";
+                throw new IOException(message);
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Writes every element of an array as binary. The channel is not closed.
+     *
+     * @param data    The elements to write. Must not be {@code null}.
+     * @param channel The channel to write to. Must not be {@code null}.
+     * @param order   The {@link ByteOrder} to write the elements in. Must not
+     *                be {@code null}.
+     * @throws IOException if the channel could not be written.
+     */
+    public static void writeBinary(int[] data, WritableByteChannel channel, ByteOrder order) throws IOException {
+        assert data != null;
+        assert order != null;
+
+        // The writer is only flushed, since closing it would close the caller's channel.
+        final IntChannelWriter writer = new IntChannelWriter(channel, order, BUFFER_SIZE, new ExternalSortStats());
+        writer.write(data, 0, data.length);
+        writer.flush();
+    }
+
+    /**
+     * Reads every element of a text file, parsing chunks of the file in parallel.
+     *
+     * @param file       The {@link Path} of the file to read.
+     * @param numThreads The number of threads that parse the file.
+     * @return A new array holding every element of the file, in order.
+     * @throws IOException           if the file could not be read, or it holds
+     *                               more elements than an array can.
+     * @throws NumberFormatException if the file holds anything other than
+     *                               whitespace and decimal {@link Integer}
+     *                               elements.
+     */
+    public static int[] readText(Path file, int numThreads) throws IOException {
+        assert numThreads > 0;
+
+        final ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long[] bounds = chunkBounds(channel, numThreads);
+            final int numChunks = bounds.length - 1;
+
+            // The first pass maps and counts every chunk.
+            final MappedByteBuffer[] chunks = new MappedByteBuffer[numChunks];
+            final List<Future<Integer>> counts = new ArrayList<>();
+            for (int i = 0; i < numChunks; i++) {
+                final int chunk = i;
+                counts.add(threadPool.submit(() -> {
+                    chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            bounds[chunk], bounds[chunk + 1] - bounds[chunk]);
+                    return parse(chunks[chunk], bounds[chunk], null, 0);
+                }));
+            }
+
+            final int[] offsets = new int[numChunks];
+            long total = 0;
+            for (int i = 0; i < numChunks; i++) {
+                offsets[i] = (int) total;
+                total += await(counts.get(i));
+                if (total > Integer.MAX_VALUE - 8) {
+                    final String message = "File holds more elements than an array can.";
+                    throw new IOException(message);
+                }
+            }
+
+            // The second pass parses every chunk straight into its place in the result.
+            final int[] data = new int[(int) total];
+            final List<Future<Integer>> parses = new ArrayList<>();
+            for (int i = 0; i < numChunks; i++) {
+                final int chunk = i;
+                parses.add(threadPool.submit(() -> parse(chunks[chunk], bounds[chunk], data, offsets[chunk])));
+            }
+            for (Future<Integer> parse : parses) {
+                await(parse);
+            }
+            return data;
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes every element of an array as text, with one element on each line.
+     * The channel is not closed.
+     *
+     * @param data    The elements to write. Must not be {@code null}.
+     * @param channel The channel to write to. Must not be {@code null}.
+     * @throws IOException if the channel could not be written.
+     */
+    public static void writeText(int[] data, WritableByteChannel channel) throws IOException {
+        assert data != null;
+        assert channel != null;
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final byte[] digits = new byte[MAX_TEXT_BYTES];
+        for (int value : data) {
+            if (buffer.remaining() < MAX_TEXT_BYTES + 1) {
+                drain(buffer, channel);
+            }
+
+            // The digits are found from the least significant, so they are written backwards.
+            long remaining = Math.abs((long) value);
+            int start = digits.length;
+            do {
+                digits[--start] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+            if (value < 0) {
+                digits[--start] = '-';
+            }
+
+            buffer.put(digits, start, digits.length - start);
+            buffer.put((byte) '\n');
+        }
+        drain(buffer, channel);
+    }
+
+    /**
+     * Divides a text file into chunks, each of which ends just before a
+     * whitespace byte or at the end of the file, so no element is split
+     * between two chunks.
+     *
+     * @param channel    The channel of the file.
+     * @param numThreads The number of threads that parse the file.
+     * @return The offset of the start of each chunk, followed by the size of
+     * the file.
+     * @throws IOException if the file could not be read.
+     */
+    private static long[] chunkBounds(FileChannel channel, int numThreads) throws IOException {
+        final long size = channel.size();
+        final long wanted = Math.max((long) numThreads * CHUNKS_PER_THREAD,
+                (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        final int numChunks = (int) Math.max(1, Math.min(wanted, size / MIN_CHUNK_BYTES));
+
+        final long[] bounds = new long[numChunks + 1];
+        final ByteBuffer probe = ByteBuffer.allocate(MAX_TEXT_BYTES + 1);
+        for (int i = 1; i < numChunks; i++) {
+            long bound = Math.max(bounds[i - 1], size / numChunks * i);
+
+            // An element is never longer than the probe, so an element that straddles the bound ends inside it.
+            while (bound < size) {
+                probe.clear();
+                final int read = channel.read(probe, bound);
+                int index = 0;
+                while (index < read && !isWhitespace(probe.get(index))) {
+                    index++;
+                }
+                bound += index;
+                if (index < read) {
+                    break;
+                }
+            }
+            bounds[i] = bound;
+        }
+        bounds[numChunks] = size;
+        return bounds;
+    }
+
+    /**
+     * Parses the elements of a chunk of a text file.
+     *
+     * @param chunk  The bytes of the chunk, which does not split any element.
+     * @param start  The offset of the chunk in the file, which is only used to
+     *               report the position of invalid text.
+     * @param target The array to write the elements to, or {@code null} to only
+     *               count them.
+     * @param offset The index of the target to write the first element to.
+     * @return The number of elements in the chunk.
+     * @throws NumberFormatException if the chunk holds invalid text.
+     */
+    private static int parse(ByteBuffer chunk, long start, int[] target, int offset) {
+        int count = 0;
+        boolean inElement = false;
+        boolean negative = false;
+        boolean hasDigits = false;
+        long value = 0;
+
+        final int limit = chunk.limit();
+        for (int i = 0; i <= limit; i++) {
+            final byte b = i < limit ? chunk.get(i) : (byte) '\n';
+            if (b >= '0' && b <= '9') {
+                value = 10 * value + (b - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw invalidText("Element is out of range", start + i);
+                }
+                inElement = true;
+                hasDigits = true;
+            } else if ((b == '-' || b == '+') && !inElement) {
+                negative = b == '-';
+                inElement = true;
+            } else if (isWhitespace(b)) {
+                if (!inElement) {
+                    continue;
+                }
+                if (!hasDigits || (!negative && value > Integer.MAX_VALUE)) {
+                    throw invalidText("Invalid element", start + i);
+                }
+                if (target != null) {
+                    target[offset + count] = (int) (negative ? -value : value);
+                }
+                count++;
+                inElement = false;
+                negative = false;
+                hasDigits = false;
+                value = 0;
+            } else {
+                throw invalidText("Unexpected character '" + (char) (b & 0xFF) + "'", start + i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param description A description of the problem.
+     * @param position    The offset in the file that the problem was found at.
+     * @return A {@link NumberFormatException} describing the problem.
+     */
+    private static NumberFormatException invalidText(String description, long position) {
+        final String message = description + " at byte " + position + ".";
+        return new NumberFormatException(message);
+    }
+
+    /**
+     * @param b A byte of text.
+     * @return {@code true} if the byte separates elements, {@code false} otherwise.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == '\n' || b == '\r' || b == ' ' || b == '\t';
+    }
+
+    /**
+     * Writes every byte that has been put into a buffer, and empties it.
+     *
+     * @param buffer  The buffer to write.
+     * @param channel The channel to write to.
+     * @throws IOException if the channel could not be written.
+     */
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Waits for a task to finish, rethrowing anything that it threw.
+     *
+     * @param task The {@link Future} of the task.
+     * @param <T>  The type of the result of the task.
+     * @return The result of the task.
+     * @throws IOException if the task could not read the file, or the thread was
+     *                     interrupted while waiting.
+     */
+    private static <T> T await(Future<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final String message = "Interrupted while waiting for a chunk to be parsed.";
+            throw new InterruptedIOException(message);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+}
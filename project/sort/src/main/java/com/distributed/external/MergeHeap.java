@@ -0,0 +1,133 @@
+package com.distributed.external;
+
+/**
+ * Represents a binary heap of sorted runs for a k-way merge, ordered by the
+ * next element of each run, so the run that holds the next element of the
+ * merged result is always at the top.
+ * <p>
+ * Each run is known by its index, and the heap only holds primitive arrays, so
+ * merging does not allocate any memory for each element.
+ * </p>
+ */
+class MergeHeap {
+
+    /**
+     * Create a new {@link MergeHeap} object, which is empty.
+     *
+     * @param capacity  The number of runs that may be added.
+     * @param ascending {@code true} if the smallest element comes first,
+     *                  {@code false} if the largest element comes first.
+     */
+    MergeHeap(int capacity, boolean ascending) {
+        assert capacity >= 0;
+        mHeads = new int[capacity];
+        mHeap = new int[capacity];
+        mAscending = ascending;
+        mSize = 0;
+    }
+
+    private final int[] mHeads;
+    private final int[] mHeap;
+    private final boolean mAscending;
+
+    private int mSize;
+
+    /**
+     * Adds a run that has at least one element left.
+     *
+     * @param run  The index of the run, which is less than the capacity.
+     * @param head The next element of the run.
+     */
+    void add(int run, int head) {
+        assert mSize < mHeap.length;
+        mHeads[run] = head;
+
+        int child = mSize++;
+        while (child > 0) {
+            final int parent = (child - 1) / 2;
+            if (!before(head, mHeads[mHeap[parent]])) {
+                break;
+            }
+            mHeap[child] = mHeap[parent];
+            child = parent;
+        }
+        mHeap[child] = run;
+    }
+
+    /**
+     * @return {@code true} if every run has been used up, {@code false} otherwise.
+     */
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @return The index of the run that holds the next element of the merged result.
+     */
+    int topRun() {
+        assert mSize > 0;
+        return mHeap[0];
+    }
+
+    /**
+     * @return The next element of the merged result.
+     */
+    int topHead() {
+        assert mSize > 0;
+        return mHeads[mHeap[0]];
+    }
+
+    /**
+     * Replaces the next element of the top run, once its previous element has
+     * been written.
+     *
+     * @param head The new next element of the top run.
+     */
+    void replaceTop(int head) {
+        mHeads[mHeap[0]] = head;
+        siftDown();
+    }
+
+    /**
+     * Removes the top run, once its final element has been written.
+     */
+    void removeTop() {
+        mHeap[0] = mHeap[--mSize];
+        siftDown();
+    }
+
+    /**
+     * Restores the order of the heap, after the top run may have moved past its
+     * children.
+     */
+    private void siftDown() {
+        if (mSize == 0) {
+            return;
+        }
+
+        final int run = mHeap[0];
+        int parent = 0;
+        while (2 * parent + 1 < mSize) {
+            int child = 2 * parent + 1;
+            if (child + 1 < mSize && before(mHeads[mHeap[child + 1]], mHeads[mHeap[child]])) {
+                child++;
+            }
+            if (!before(mHeads[mHeap[child]], mHeads[run])) {
+                break;
+            }
+            mHeap[parent] = mHeap[child];
+            parent = child;
+        }
+        mHeap[parent] = run;
+    }
+
+    /**
+     * @param left  An element.
+     * @param right Another element.
+     * @return {@code true} if the left element must come before the right element.
+     */
+    private boolean before(int left, int right) {
+        return mAscending ? left < right : left > right;
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.distributed.external;
+
+import com.distributed.bitonic.BitonicSortService;
+import com.distributed.bitonic.MappedFileSorter;
+import com.distributed.common.MathUtils;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Represents a sorter for streams of binary {@link Integer} primitives, which
+ * sorts the data that has already arrived while the rest is still being read.
+ * <p>
+ * The stream is read into chunks whose length is a power of two. As soon as a
+ * chunk is full, it is handed to a {@link BitonicSortService} and reading
+ * carries on into the next chunk, so reading and sorting overlap like a double
+ * buffer: one chunk is being filled while the one before it is being sorted.
+ * Before the next chunk is handed over, the sort of the previous one is waited
+ * for, so the pool is never given more than one chunk at a time. Once the
+ * stream ends, the sorted chunks are combined by a k-way merge.
+ * </p>
+ * <p>
+ * When reading is slower than sorting, every chunk but the last has been
+ * sorted by the time the stream ends, so the time to sort the whole stream is
+ * close to the time to read it plus a single merge pass.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class StreamingSorter {
+
+    /**
+     * The number of elements in each chunk when a chunk size is not provided.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    // The buffer that the stream is read through, which is already large enough for sequential transfers.
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Create a new {@link StreamingSorter} object for streams of little-endian
+     * elements, which uses the default chunk size.
+     *
+     * @param service The {@link BitonicSortService} that sorts each chunk. Must
+     *                not be {@code null}, and remains owned by the caller.
+     */
+    public StreamingSorter(BitonicSortService service) {
+        this(service, DEFAULT_CHUNK_SIZE, MappedFileSorter.DEFAULT_ORDER);
+    }
+
+    /**
+     * Create a new {@link StreamingSorter} object.
+     *
+     * @param service   The {@link BitonicSortService} that sorts each chunk. Must
+     *                  not be {@code null}, and remains owned by the caller.
+     * @param chunkSize The number of elements in each chunk. Must be a power
+     *                  of two.
+     * @param order     The {@link ByteOrder} of the elements in the stream.
+     *                  Must not be {@code null}.
+     */
+    public StreamingSorter(BitonicSortService service, int chunkSize, ByteOrder order) {
+        assert service != null;
+        mService = service;
+
+        assert MathUtils.isPowerOfTwo(chunkSize);
+        mChunkSize = chunkSize;
+
+        assert order != null;
+        mOrder = order;
+    }
+
+    private final BitonicSortService mService;
+    private final int mChunkSize;
+    private final ByteOrder mOrder;
+
+    /**
+     * Reads a stream to its end and sorts its elements. The stream is not closed.
+     *
+     * @param input    The {@link InputStream} to read. Must not be {@code null}.
+     * @param polarity The desired {@link Polarity} of the result. Must not
+     *                 be {@code null}.
+     * @return A new array holding every element of the stream, sorted.
+     * @throws IOException if the stream could not be read, or it ends part of
+     *                     the way through an element.
+     */
+    public int[] sort(InputStream input, Polarity polarity) throws IOException {
+        assert input != null;
+        return sort(Channels.newChannel(input), polarity);
+    }
+
+    /**
+     * Reads a channel to its end and sorts its elements. The channel is not closed.
+     *
+     * @param input    The channel to read, which must be in blocking mode.
+     *                 Must not be {@code null}.
+     * @param polarity The desired {@link Polarity} of the result. Must not
+     *                 be {@code null}.
+     * @return A new array holding every element of the channel, sorted.
+     * @throws IOException if the channel could not be read, or it ends part of
+     *                     the way through an element.
+     */
+    public int[] sort(ReadableByteChannel input, Polarity polarity) throws IOException {
+        assert input != null;
+        assert polarity != null;
+
+        // The reader is not closed, since that would close the caller's channel.
+        final IntChannelReader reader = new IntChannelReader(input, mOrder, IO_BUFFER_SIZE, new ExternalSortStats());
+        final List<int[]> chunks = new ArrayList<>();
+        long total = 0;
+        int lastLength = 0;
+        Future<IntSortData> pending = null;
+        try {
+            while (reader.hasNext()) {
+                final int[] chunk = new int[mChunkSize];
+                lastLength = reader.read(chunk, 0, chunk.length);
+                total += lastLength;
+                if (total > Integer.MAX_VALUE - 8) {
+                    final String message = "Stream holds more elements than an array can.";
+                    throw new IOException(message);
+                }
+
+                // The previous chunk was sorted while this one was being read.
+                await(pending);
+                pending = mService.sortAsync(new IntSortData(chunk), 0, lastLength, polarity);
+                chunks.add(chunk);
+            }
+            await(pending);
+            pending = null;
+        } finally {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+        }
+
+        if (chunks.size() == 1) {
+            return lastLength == mChunkSize ? chunks.get(0) : Arrays.copyOf(chunks.get(0), lastLength);
+        }
+        return merge(chunks, lastLength, (int) total, polarity);
+    }
+
+    /**
+     * Merges the sorted chunks into a single sorted array.
+     *
+     * @param chunks     The sorted chunks, which are all full but the last.
+     * @param lastLength The number of elements in the last chunk.
+     * @param total      The number of elements in every chunk.
+     * @param polarity   The {@link Polarity} of the chunks and of the result.
+     * @return A new array holding every element of the chunks, sorted.
+     */
+    private int[] merge(List<int[]> chunks, int lastLength, int total, Polarity polarity) {
+        final int[] result = new int[total];
+        final int[] positions = new int[chunks.size()];
+        final MergeHeap heap = new MergeHeap(chunks.size(), polarity == Polarity.ASCENDING);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (lengthOf(i, chunks.size(), lastLength) > 0) {
+                heap.add(i, chunks.get(i)[positions[i]++]);
+            }
+        }
+
+        int index = 0;
+        while (!heap.isEmpty()) {
+            final int chunk = heap.topRun();
+            result[index++] = heap.topHead();
+            if (positions[chunk] < lengthOf(chunk, chunks.size(), lastLength)) {
+                heap.replaceTop(chunks.get(chunk)[positions[chunk]++]);
+            } else {
+                heap.removeTop();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param chunk      The index of a chunk.
+     * @param numChunks  The number of chunks.
+     * @param lastLength The number of elements in the last chunk.
+     * @return The number of elements in the chunk.
+     */
+    private int lengthOf(int chunk, int numChunks, int lastLength) {
+        return chunk == numChunks - 1 ? lastLength : mChunkSize;
+    }
+
+    /**
+     * Waits for the sort of a chunk to finish.
+     *
+     * @param sort The {@link Future} of the sort, or {@code null} if there is
+     *             no sort to wait for.
+     * @throws IOException if the thread was interrupted while waiting.
+     */
+    private static void await(Future<?> sort) throws IOException {
+        if (sort == null) {
+            return;
+        }
+
+        try {
+            sort.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final String message = "Interrupted while waiting for a chunk to be sorted.";
+            throw new InterruptedIOException(message);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+}
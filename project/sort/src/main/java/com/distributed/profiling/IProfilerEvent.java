@@ -0,0 +1,22 @@
+package com.distributed.profiling;
+
+/**
+ * Represents an event that has been started by an {@link ISortProfiler}, and
+ * that is finished once the work it describes is done.
+ */
+public interface IProfilerEvent {
+
+    /**
+     * The event that is returned when nothing is being recorded, which does
+     * nothing when it is committed.
+     */
+    IProfilerEvent NONE = () -> {
+    };
+
+    /**
+     * Finishes the event, which is recorded with the time since it was started
+     * if the profiler is still recording.
+     */
+    void commit();
+
+}
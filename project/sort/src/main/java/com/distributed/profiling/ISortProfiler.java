@@ -0,0 +1,71 @@
+package com.distributed.profiling;
+
+/**
+ * Represents a profiler that records the progress of sorts, so that the work of
+ * the sort engines can be seen by tools such as Java Flight Recorder.
+ * <p>
+ * Implementations are found at runtime through {@link java.util.ServiceLoader},
+ * so an optional module can record events with an API that is not available to
+ * the Java 8 baseline. {@link SortProfilers#get()} selects the profiler to use,
+ * and falls back to one that records nothing when no other profiler is available.
+ * </p>
+ * <p>
+ * Each method starts an event and returns it, and the caller commits the event
+ * once the work is done. A profiler that is not recording should return
+ * {@link IProfilerEvent#NONE} without allocating anything, as these methods are
+ * called while sorting.
+ * </p>
+ */
+public interface ISortProfiler {
+
+    /**
+     * @return {@code true} if the profiler can be used on the current JVM,
+     * {@code false} otherwise.
+     */
+    boolean isSupported();
+
+    /**
+     * Starts an event that covers a whole sort.
+     *
+     * @param engine     The name of the engine performing the sort.
+     * @param length     The number of elements being sorted.
+     * @param numThreads The number of threads performing the sort.
+     * @return The {@link IProfilerEvent} to commit once the sort is done.
+     */
+    IProfilerEvent beginSort(String engine, int length, int numThreads);
+
+    /**
+     * Starts an event that covers a single round of a sort, in which groups of
+     * a single size are merged.
+     *
+     * @param round       The index of the round within the sort.
+     * @param groupSize   The size of the groups that are merged by the round.
+     * @param windowCount The number of windows that the round starts with.
+     * @return The {@link IProfilerEvent} to commit once the round is done.
+     */
+    IProfilerEvent beginRound(int round, long groupSize, int windowCount);
+
+    /**
+     * Starts an event that covers a single swapper, which performs a pass over
+     * a window and possibly all of the passes below it. Only swappers with a
+     * window of at least {@link SortProfilers#getSwapThreshold()} elements are
+     * recorded.
+     *
+     * @param start      The inclusive start of the window.
+     * @param length     The number of elements in the window.
+     * @param sortWindow {@code true} if the swapper fully sorts the window,
+     *                   {@code false} if it merges it.
+     * @return The {@link IProfilerEvent} to commit once the swapper is done.
+     */
+    IProfilerEvent beginSwap(int start, int length, boolean sortWindow);
+
+    /**
+     * Starts an event that covers the time that a caller is blocked waiting for
+     * a worker of an executor to become free.
+     *
+     * @param poolSize The number of workers in the pool.
+     * @return The {@link IProfilerEvent} to commit once a worker is free.
+     */
+    IProfilerEvent beginStall(int poolSize);
+
+}
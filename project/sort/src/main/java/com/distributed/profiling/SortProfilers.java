@@ -0,0 +1,110 @@
+package com.distributed.profiling;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Selects the {@link ISortProfiler} that records the progress of sorts.
+ * <p>
+ * The first profiler found through {@link ServiceLoader} that reports itself as
+ * supported is used. A profiler that cannot be loaded, such as one that needs a
+ * later version of Java, is skipped. When no other profiler is available, or when
+ * the {@value #PROFILER_PROPERTY} system property is set to {@value #NO_PROFILER},
+ * a profiler that records nothing is used, which costs a call that does nothing
+ * at each point where an event could start.
+ * </p>
+ */
+public class SortProfilers {
+
+    public static final String PROFILER_PROPERTY = "com.distributed.profiling.profiler";
+    public static final String NO_PROFILER = "none";
+
+    public static final String SWAP_THRESHOLD_PROPERTY = "com.distributed.profiling.swapThreshold";
+    public static final int DEFAULT_SWAP_THRESHOLD = 1 << 16;
+
+    /**
+     * Holds the selected profiler, which is only looked up the first time it is needed.
+     */
+    private static class Holder {
+        static final ISortProfiler PROFILER = load();
+        static final int SWAP_THRESHOLD = Integer.getInteger(SWAP_THRESHOLD_PROPERTY, DEFAULT_SWAP_THRESHOLD);
+    }
+
+    /**
+     * Represents an {@link ISortProfiler} that records nothing.
+     */
+    private static class DisabledProfiler implements ISortProfiler {
+
+        @Override
+        public boolean isSupported() {
+            return true;
+        }
+
+        @Override
+        public IProfilerEvent beginSort(String engine, int length, int numThreads) {
+            return IProfilerEvent.NONE;
+        }
+
+        @Override
+        public IProfilerEvent beginRound(int round, long groupSize, int windowCount) {
+            return IProfilerEvent.NONE;
+        }
+
+        @Override
+        public IProfilerEvent beginSwap(int start, int length, boolean sortWindow) {
+            return IProfilerEvent.NONE;
+        }
+
+        @Override
+        public IProfilerEvent beginStall(int poolSize) {
+            return IProfilerEvent.NONE;
+        }
+
+    }
+
+    /**
+     * @return The {@link ISortProfiler} selected for the current JVM.
+     */
+    public static ISortProfiler get() {
+        return Holder.PROFILER;
+    }
+
+    /**
+     * @return The smallest window, in elements, that a swapper must operate on
+     * to be recorded, which is read from the {@value #SWAP_THRESHOLD_PROPERTY}
+     * system property and is {@value #DEFAULT_SWAP_THRESHOLD} by default.
+     */
+    public static int getSwapThreshold() {
+        return Holder.SWAP_THRESHOLD;
+    }
+
+    /**
+     * @return The first supported {@link ISortProfiler} that can be loaded, or
+     * one that records nothing if there is none.
+     */
+    private static ISortProfiler load() {
+        if (NO_PROFILER.equals(System.getProperty(PROFILER_PROPERTY))) {
+            return new DisabledProfiler();
+        }
+
+        final Iterator<ISortProfiler> profilers = ServiceLoader.load(ISortProfiler.class).iterator();
+        while (true) {
+            try {
+                if (!profilers.hasNext()) {
+                    break;
+                }
+                final ISortProfiler profiler = profilers.next();
+                if (profiler.isSupported()) {
+                    return profiler;
+                }
+            } catch (ServiceConfigurationError | LinkageError e) {
+
+                // The profiler is not usable on this JVM, so move on to the next one.
+            }
+        }
+
+        return new DisabledProfiler();
+    }
+
+}
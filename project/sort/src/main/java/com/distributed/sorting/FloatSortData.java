@@ -0,0 +1,248 @@
+package com.distributed.sorting;
+
+/**
+ * Represents an {@link ISortData} implementation that wraps an array of
+ * {@link Float} primitives.
+ * <p>
+ * The elements are ordered in the same way as {@link Float#compare(float, float)},
+ * where {@code -0.0f} is less than {@code 0.0f}, and {@code NaN} is greater than every
+ * other value, including positive infinity. This is done by mapping each element to
+ * an {@link Integer} primitive that has the same ordering, and ordering each pair with
+ * {@link Math#min(int, int)} and {@link Math#max(int, int)}.
+ * </p>
+ * <p>
+ * As with {@link Float#floatToIntBits(float)}, every {@code NaN} element is treated
+ * as the canonical {@link Float#NaN}, and is written back as that value. Only
+ * {@link Polarity#ASCENDING} and {@link Polarity#DESCENDING} are supported.
+ * </p>
+ * <p>
+ * An optional {@link Integer} or {@link Long} payload array can be provided,
+ * such as a row id for each element. Every swap of the data is applied to the
+ * payload as well, so the payload ends up in the same order as the data.
+ * Elements are moved rather than rebuilt from their mapped values when a
+ * payload is present, so {@code NaN} elements keep their exact bits.
+ * </p>
+ */
+public class FloatSortData implements ISortData {
+
+    /**
+     * Create a new {@link FloatSortData} object.
+     *
+     * @param data The array of {@link Float} primitives to operate on.
+     */
+    public FloatSortData(float[] data) {
+        this(data, null, null);
+    }
+
+    /**
+     * Create a new {@link FloatSortData} object, where each element of a payload
+     * array is moved in lockstep with the element at the same index of the data.
+     *
+     * @param data    The array of {@link Float} primitives to operate on.
+     * @param payload The array of {@link Integer} primitives that is moved along
+     *                with the data. Must have the same length as the data.
+     */
+    public FloatSortData(float[] data, int[] payload) {
+        this(data, payload, null);
+    }
+
+    /**
+     * Create a new {@link FloatSortData} object, where each element of a payload
+     * array is moved in lockstep with the element at the same index of the data.
+     *
+     * @param data    The array of {@link Float} primitives to operate on.
+     * @param payload The array of {@link Long} primitives that is moved along
+     *                with the data. Must have the same length as the data.
+     */
+    public FloatSortData(float[] data, long[] payload) {
+        this(data, null, payload);
+    }
+
+    /**
+     * Create a new {@link FloatSortData} object.
+     *
+     * @param data        The array of {@link Float} primitives to operate on.
+     * @param intPayload  The {@link Integer} payload, or {@code null} if there is none.
+     * @param longPayload The {@link Long} payload, or {@code null} if there is none.
+     */
+    private FloatSortData(float[] data, int[] intPayload, long[] longPayload) {
+        assert data != null;
+        assert intPayload == null || intPayload.length == data.length;
+        assert longPayload == null || longPayload.length == data.length;
+        mData = data;
+        mIntPayload = intPayload;
+        mLongPayload = longPayload;
+    }
+
+    private final float[] mData;
+    private final int[] mIntPayload;
+    private final long[] mLongPayload;
+
+    /**
+     * @return The array of {@link Float} primitives being operated on.
+     */
+    public float[] getData() {
+        return mData;
+    }
+
+    @Override
+    public int length() {
+        return mData.length;
+    }
+
+    @Override
+    public int bytesPerElement() {
+        if (mIntPayload != null) {
+            return Float.BYTES + Integer.BYTES;
+        } else if (mLongPayload != null) {
+            return Float.BYTES + Long.BYTES;
+        }
+        return Float.BYTES;
+    }
+
+    @Override
+    public void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+        if (swapDecision != Polarity.ASCENDING && swapDecision != Polarity.DESCENDING) {
+            final String message = "Only a Polarity can be used to sort float values.";
+            throw new UnsupportedOperationException(message);
+        }
+
+        final boolean ascending = swapDecision == Polarity.ASCENDING;
+        if (mIntPayload != null) {
+            executeWithPayload(mData, mIntPayload, start, comparisons, distance, ascending);
+        } else if (mLongPayload != null) {
+            executeWithPayload(mData, mLongPayload, start, comparisons, distance, ascending);
+        } else if (ascending) {
+            executeAscending(mData, start, comparisons, distance);
+        } else {
+            executeDescending(mData, start, comparisons, distance);
+        }
+    }
+
+    /**
+     * Performs a single pass that places the lower element of each pair on the
+     * left, which is equivalent to using {@link Polarity#ASCENDING}. Both
+     * elements are always written so that there is no data-dependent branch.
+     *
+     * @param data        The array of {@link Float} primitives to operate on.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     */
+    private static void executeAscending(float[] data, int start, int comparisons, int distance) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final int left = toOrderedBits(data[i]);
+            final int right = toOrderedBits(data[i + distance]);
+            data[i] = fromOrderedBits(Math.min(left, right));
+            data[i + distance] = fromOrderedBits(Math.max(left, right));
+        }
+    }
+
+    /**
+     * Performs a single pass that places the higher element of each pair on the
+     * left, which is equivalent to using {@link Polarity#DESCENDING}. Both
+     * elements are always written so that there is no data-dependent branch.
+     *
+     * @param data        The array of {@link Float} primitives to operate on.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     */
+    private static void executeDescending(float[] data, int start, int comparisons, int distance) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final int left = toOrderedBits(data[i]);
+            final int right = toOrderedBits(data[i + distance]);
+            data[i] = fromOrderedBits(Math.max(left, right));
+            data[i + distance] = fromOrderedBits(Math.min(left, right));
+        }
+    }
+
+    /**
+     * Performs a single pass that moves each element of the {@link Integer} payload
+     * along with the matching element of the data. The elements are always written,
+     * and the swap is a selection rather than a branch.
+     *
+     * @param data        The array of {@link Float} primitives to operate on.
+     * @param payload     The payload to move along with the data.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void executeWithPayload(float[] data, int[] payload, int start, int comparisons,
+                                           int distance, boolean ascending) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final float left = data[i];
+            final float right = data[i + distance];
+            final int leftKey = toOrderedBits(left);
+            final int rightKey = toOrderedBits(right);
+            final boolean swap = ascending ? leftKey > rightKey : leftKey < rightKey;
+            data[i] = swap ? right : left;
+            data[i + distance] = swap ? left : right;
+
+            final int leftPayload = payload[i];
+            final int rightPayload = payload[i + distance];
+            payload[i] = swap ? rightPayload : leftPayload;
+            payload[i + distance] = swap ? leftPayload : rightPayload;
+        }
+    }
+
+    /**
+     * Performs a single pass that moves each element of the {@link Long} payload
+     * along with the matching element of the data. The elements are always written,
+     * and the swap is a selection rather than a branch.
+     *
+     * @param data        The array of {@link Float} primitives to operate on.
+     * @param payload     The payload to move along with the data.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void executeWithPayload(float[] data, long[] payload, int start, int comparisons,
+                                           int distance, boolean ascending) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final float left = data[i];
+            final float right = data[i + distance];
+            final int leftKey = toOrderedBits(left);
+            final int rightKey = toOrderedBits(right);
+            final boolean swap = ascending ? leftKey > rightKey : leftKey < rightKey;
+            data[i] = swap ? right : left;
+            data[i + distance] = swap ? left : right;
+
+            final long leftPayload = payload[i];
+            final long rightPayload = payload[i + distance];
+            payload[i] = swap ? rightPayload : leftPayload;
+            payload[i + distance] = swap ? leftPayload : rightPayload;
+        }
+    }
+
+    /**
+     * Maps a {@link Float} primitive to an {@link Integer} primitive, such that the
+     * signed ordering of the results matches {@link Float#compare(float, float)}.
+     *
+     * @param value The value to map.
+     * @return The mapped value.
+     */
+    static int toOrderedBits(float value) {
+        final int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reverses the mapping performed by {@link #toOrderedBits(float)}.
+     *
+     * @param bits The mapped value.
+     * @return The original value.
+     */
+    static float fromOrderedBits(int bits) {
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & Integer.MAX_VALUE));
+    }
+
+}
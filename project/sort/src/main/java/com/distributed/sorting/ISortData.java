@@ -0,0 +1,68 @@
+package com.distributed.sorting;
+
+/**
+ * Represents the data that a sort operates on, which allows the same
+ * sorting steps to be used for arrays of any primitive type.
+ * <p>
+ * The sorting steps only ever interact with the data through single
+ * passes of compare-exchange operations, so each implementation can use
+ * a loop that is specialized for its element type, rather than boxing
+ * or converting the elements of the array.
+ * </p>
+ */
+public interface ISortData {
+
+    /**
+     * @return The number of elements in the data.
+     */
+    int length();
+
+    /**
+     * @return The number of bytes that are moved for each element, including
+     * any payload, which determines how many elements fit in a cache. The
+     * default is the size of an {@link Integer}, and implementations with
+     * wider elements or a payload must override it.
+     */
+    default int bytesPerElement() {
+        return Integer.BYTES;
+    }
+
+    /**
+     * Performs a single pass on the data, where each element in a run of
+     * consecutive elements is compared with the element that is a fixed
+     * distance after it, and the pair is swapped if required.
+     *
+     * @param start        The index of the first element of the run.
+     * @param comparisons  The number of elements in the run.
+     * @param distance     The distance between the compared elements.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     * @throws UnsupportedOperationException if the {@link ISwapDecision} is not
+     *                                       supported by the implementation.
+     */
+    void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision);
+
+    /**
+     * Performs a single pass over consecutive blocks of {@code 2 * distance}
+     * elements, where each element in the first half of a block is compared
+     * with the element that is {@code distance} after it, and the pair is
+     * swapped if required. Implementations may override this to handle
+     * distances that are shorter than a single run of their kernel.
+     *
+     * @param start        The inclusive start of the first block.
+     * @param stop         The exclusive end of the last block, which must be a
+     *                     multiple of {@code 2 * distance} after the start.
+     * @param distance     The distance between the compared elements, which must
+     *                     be a power of 2.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     * @throws UnsupportedOperationException if the {@link ISwapDecision} is not
+     *                                       supported by the implementation.
+     */
+    default void compareExchangeBlocks(int start, int stop, int distance, ISwapDecision swapDecision) {
+        for (int blockStart = start; blockStart < stop; blockStart += 2 * distance) {
+            compareExchange(blockStart, distance, distance, swapDecision);
+        }
+    }
+
+}
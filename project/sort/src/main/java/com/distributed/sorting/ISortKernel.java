@@ -0,0 +1,85 @@
+package com.distributed.sorting;
+
+/**
+ * Represents the innermost loops of the sort, which perform compare-exchange
+ * passes on arrays of {@link Integer} and {@link Long} primitives without a
+ * payload.
+ * <p>
+ * Implementations are found at runtime through {@link java.util.ServiceLoader},
+ * so an optional module can provide a kernel that uses instructions that are not
+ * available to the Java 8 baseline. {@link SortKernels#get()} selects the kernel
+ * to use, and falls back to the {@link ScalarSortKernel} when no other kernel is
+ * available.
+ * </p>
+ */
+public interface ISortKernel {
+
+    /**
+     * @return {@code true} if the kernel can be used on the current JVM and
+     * hardware, {@code false} otherwise.
+     */
+    boolean isSupported();
+
+    /**
+     * Performs a single pass, where each element in a run of consecutive elements
+     * is compared with the element that is a fixed distance after it, and the pair
+     * is ordered.
+     *
+     * @param data        The array of {@link Integer} primitives to operate on.
+     * @param start       The index of the first element of the run.
+     * @param comparisons The number of elements in the run, which must be no more
+     *                    than the distance.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    void compareExchange(int[] data, int start, int comparisons, int distance, boolean ascending);
+
+    /**
+     * Performs a single pass, where each element in a run of consecutive elements
+     * is compared with the element that is a fixed distance after it, and the pair
+     * is ordered.
+     *
+     * @param data        The array of {@link Long} primitives to operate on.
+     * @param start       The index of the first element of the run.
+     * @param comparisons The number of elements in the run, which must be no more
+     *                    than the distance.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    void compareExchange(long[] data, int start, int comparisons, int distance, boolean ascending);
+
+    /**
+     * Performs a single pass over consecutive blocks of {@code 2 * distance}
+     * elements, where each element in the first half of a block is compared with
+     * the element that is {@code distance} after it, and the pair is ordered.
+     *
+     * @param data      The array of {@link Integer} primitives to operate on.
+     * @param start     The inclusive start of the first block.
+     * @param stop      The exclusive end of the last block, which must be a
+     *                  multiple of {@code 2 * distance} after the start.
+     * @param distance  The distance between the compared elements, which must be
+     *                  a power of 2.
+     * @param ascending {@code true} to place the lower element of each pair on
+     *                  the left, {@code false} to place it on the right.
+     */
+    void compareExchangeBlocks(int[] data, int start, int stop, int distance, boolean ascending);
+
+    /**
+     * Performs a single pass over consecutive blocks of {@code 2 * distance}
+     * elements, where each element in the first half of a block is compared with
+     * the element that is {@code distance} after it, and the pair is ordered.
+     *
+     * @param data      The array of {@link Long} primitives to operate on.
+     * @param start     The inclusive start of the first block.
+     * @param stop      The exclusive end of the last block, which must be a
+     *                  multiple of {@code 2 * distance} after the start.
+     * @param distance  The distance between the compared elements, which must be
+     *                  a power of 2.
+     * @param ascending {@code true} to place the lower element of each pair on
+     *                  the left, {@code false} to place it on the right.
+     */
+    void compareExchangeBlocks(long[] data, int start, int stop, int distance, boolean ascending);
+
+}
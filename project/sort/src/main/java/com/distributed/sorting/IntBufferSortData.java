@@ -0,0 +1,223 @@
+package com.distributed.sorting;
+
+import com.distributed.common.MathUtils;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Represents an {@link ISortData} implementation that operates on one or more
+ * {@link IntBuffer} regions, such as the regions of a memory-mapped file, rather
+ * than on an array on the heap.
+ * <p>
+ * The regions are treated as one range, where every region but the last holds
+ * the same power of 2 number of elements. As every window of the sort starts at
+ * a multiple of its own size, any window that is no larger than a region lies
+ * entirely within a single region, so each worker only touches the contiguous
+ * pages of the region that it is working on. A pass that compares elements of
+ * different regions is divided at the region boundaries.
+ * </p>
+ * <p>
+ * The elements are read and written with absolute {@link IntBuffer#get(int)}
+ * and {@link IntBuffer#put(int, int)} calls, so the positions and limits of the
+ * regions are never changed, and workers can share them without locking.
+ * </p>
+ */
+public class IntBufferSortData implements ISortData {
+
+    /**
+     * The number of elements in each region of a mapped file, which is 1 GiB of
+     * {@link Integer} primitives, and leaves plenty of room below the 2 GiB limit
+     * of a single mapping.
+     */
+    public static final int DEFAULT_REGION_SIZE = 1 << 28;
+
+    /**
+     * Create a new {@link IntBufferSortData} object, which operates on the
+     * remaining elements of a single buffer.
+     *
+     * @param buffer The {@link IntBuffer} to operate on. Must not be {@code null}.
+     */
+    public IntBufferSortData(IntBuffer buffer) {
+        this(new IntBuffer[]{buffer.slice()}, null);
+    }
+
+    /**
+     * Create a new {@link IntBufferSortData} object.
+     *
+     * @param regions The regions to operate on, in order, where every region
+     *                but the last must hold the same power of 2 number of
+     *                elements. Each region is operated on from index 0 up to
+     *                its limit.
+     */
+    public IntBufferSortData(IntBuffer[] regions) {
+        this(regions, null);
+    }
+
+    /**
+     * Create a new {@link IntBufferSortData} object.
+     *
+     * @param regions The regions to operate on.
+     * @param mapped  The mappings that the regions are views of, or {@code null}
+     *                if they are not mapped.
+     */
+    private IntBufferSortData(IntBuffer[] regions, MappedByteBuffer[] mapped) {
+        assert regions != null && regions.length > 0;
+        mRegions = regions;
+        mMapped = mapped;
+
+        final int regionSize = regions[0].limit();
+        assert regions.length == 1 || MathUtils.isPowerOfTwo(regionSize);
+
+        long length = 0;
+        for (int i = 0; i < regions.length; i++) {
+            assert i == regions.length - 1 || regions[i].limit() == regionSize;
+            length += regions[i].limit();
+        }
+        assert length <= Integer.MAX_VALUE;
+
+        mLength = (int) length;
+        mRegionShift = regions.length == 1 ? Integer.SIZE - 1 : Integer.numberOfTrailingZeros(regionSize);
+        mRegionMask = regions.length == 1 ? -1 >>> 1 : regionSize - 1;
+    }
+
+    private final IntBuffer[] mRegions;
+    private final MappedByteBuffer[] mMapped;
+    private final int mLength;
+    private final int mRegionShift;
+    private final int mRegionMask;
+
+    /**
+     * Maps part of a file into memory, so that it can be sorted in place. The
+     * file is only read and written through the mappings, so none of it is
+     * copied onto the heap.
+     *
+     * @param channel    The {@link FileChannel} of the file, which must be open
+     *                   for both reading and writing.
+     * @param position   The offset in bytes of the first element in the file.
+     * @param length     The number of elements to map.
+     * @param order      The {@link ByteOrder} of the elements in the file.
+     * @param regionSize The number of elements in each mapped region. Must be a
+     *                   power of 2.
+     * @return The {@link IntBufferSortData} that operates on the mapped elements.
+     * @throws IOException if the file could not be mapped.
+     */
+    public static IntBufferSortData map(FileChannel channel, long position, int length,
+                                        ByteOrder order, int regionSize) throws IOException {
+        assert channel != null;
+        assert position >= 0 && length >= 0;
+        assert order != null;
+        assert regionSize > 0 && MathUtils.isPowerOfTwo(regionSize);
+
+        final int count = Math.max(1, MathUtils.ceilingDivide(length, regionSize));
+        final IntBuffer[] regions = new IntBuffer[count];
+        final MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            final long start = (long) i * regionSize;
+            final long size = Math.min(regionSize, length - start);
+            mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE, position + start * Integer.BYTES,
+                    size * Integer.BYTES);
+            mapped[i].order(order);
+            regions[i] = mapped[i].asIntBuffer();
+        }
+        return new IntBufferSortData(regions, mapped);
+    }
+
+    /**
+     * Writes any changes to mapped regions back to the file. Does nothing if the
+     * regions are not mapped.
+     */
+    public void force() {
+        if (mMapped != null) {
+            for (MappedByteBuffer buffer : mMapped) {
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * @param index The index of an element.
+     * @return The element at the index.
+     */
+    public int get(int index) {
+        return mRegions[index >>> mRegionShift].get(index & mRegionMask);
+    }
+
+    @Override
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+        final int end = start + comparisons;
+        int left = start;
+        while (left < end) {
+
+            // Each run stops where either of its elements would cross into another region.
+            final int right = left + distance;
+            final int leftSpan = mRegionMask - (left & mRegionMask);
+            final int rightSpan = mRegionMask - (right & mRegionMask);
+            final int run = Math.min(end - left - 1, Math.min(leftSpan, rightSpan)) + 1;
+
+            final IntBuffer leftRegion = mRegions[left >>> mRegionShift];
+            final IntBuffer rightRegion = mRegions[right >>> mRegionShift];
+            if (swapDecision == Polarity.ASCENDING || swapDecision == Polarity.DESCENDING) {
+                execute(leftRegion, left & mRegionMask, rightRegion, right & mRegionMask, run,
+                        swapDecision == Polarity.ASCENDING);
+            } else {
+                executeGeneric(leftRegion, left & mRegionMask, rightRegion, right & mRegionMask, run, swapDecision);
+            }
+            left += run;
+        }
+    }
+
+    /**
+     * Performs a run of a pass, ordering each pair with a minimum and a maximum.
+     *
+     * @param leftRegion  The region that holds the first element of each pair.
+     * @param leftIndex   The index in its region of the first element of the first pair.
+     * @param rightRegion The region that holds the second element of each pair.
+     * @param rightIndex  The index in its region of the second element of the first pair.
+     * @param run         The number of pairs.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void execute(IntBuffer leftRegion, int leftIndex, IntBuffer rightRegion, int rightIndex,
+                                int run, boolean ascending) {
+        for (int i = 0; i < run; i++) {
+            final int left = leftRegion.get(leftIndex + i);
+            final int right = rightRegion.get(rightIndex + i);
+            leftRegion.put(leftIndex + i, ascending ? Math.min(left, right) : Math.max(left, right));
+            rightRegion.put(rightIndex + i, ascending ? Math.max(left, right) : Math.min(left, right));
+        }
+    }
+
+    /**
+     * Performs a run of a pass that consults the {@link ISwapDecision} for every
+     * pair of elements.
+     *
+     * @param leftRegion   The region that holds the first element of each pair.
+     * @param leftIndex    The index in its region of the first element of the first pair.
+     * @param rightRegion  The region that holds the second element of each pair.
+     * @param rightIndex   The index in its region of the second element of the first pair.
+     * @param run          The number of pairs.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     */
+    private static void executeGeneric(IntBuffer leftRegion, int leftIndex, IntBuffer rightRegion, int rightIndex,
+                                       int run, ISwapDecision swapDecision) {
+        for (int i = 0; i < run; i++) {
+            final int left = leftRegion.get(leftIndex + i);
+            final int right = rightRegion.get(rightIndex + i);
+            if (swapDecision.shouldSwap(left, right)) {
+                leftRegion.put(leftIndex + i, right);
+                rightRegion.put(rightIndex + i, left);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.distributed.sorting;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+/**
+ * Represents an {@link ISortData} implementation that wraps an array of
+ * {@link Integer} primitives.
+ * <p>
+ * When the {@link ISwapDecision} is {@link Polarity#ASCENDING} or
+ * {@link Polarity#DESCENDING}, each pass is performed by the {@link ISortKernel}
+ * selected by {@link SortKernels#get()}, which orders each pair with a minimum and
+ * a maximum rather than calling {@link ISwapDecision#shouldSwap(int, int)}. This
+ * avoids both the interface call and the unpredictable branch on every comparison.
+ * Any other {@link ISwapDecision} uses the generic path.
+ * </p>
+ * <p>
+ * An optional {@link Integer} or {@link Long} payload array can be provided,
+ * such as a row id for each element. Every swap of the data is applied to the
+ * payload as well, so the payload ends up in the same order as the data.
+ * </p>
+ */
+public class IntSortData implements ISortData {
+
+    private static final ISortKernel KERNEL = SortKernels.get();
+
+    /**
+     * Create a new {@link IntSortData} object.
+     *
+     * @param data The array of {@link Integer} primitives to operate on.
+     */
+    public IntSortData(int[] data) {
+        this(data, null, null);
+    }
+
+    /**
+     * Create a new {@link IntSortData} object, where each element of a payload
+     * array is moved in lockstep with the element at the same index of the data.
+     *
+     * @param data    The array of {@link Integer} primitives to operate on.
+     * @param payload The array of {@link Integer} primitives that is moved along
+     *                with the data. Must have the same length as the data.
+     */
+    public IntSortData(int[] data, int[] payload) {
+        this(data, payload, null);
+    }
+
+    /**
+     * Create a new {@link IntSortData} object, where each element of a payload
+     * array is moved in lockstep with the element at the same index of the data.
+     *
+     * @param data    The array of {@link Integer} primitives to operate on.
+     * @param payload The array of {@link Long} primitives that is moved along
+     *                with the data. Must have the same length as the data.
+     */
+    public IntSortData(int[] data, long[] payload) {
+        this(data, null, payload);
+    }
+
+    /**
+     * Create a new {@link IntSortData} object.
+     *
+     * @param data        The array of {@link Integer} primitives to operate on.
+     * @param intPayload  The {@link Integer} payload, or {@code null} if there is none.
+     * @param longPayload The {@link Long} payload, or {@code null} if there is none.
+     */
+    private IntSortData(int[] data, int[] intPayload, long[] longPayload) {
+        assert data != null;
+        assert intPayload == null || intPayload.length == data.length;
+        assert longPayload == null || longPayload.length == data.length;
+        mData = data;
+        mIntPayload = intPayload;
+        mLongPayload = longPayload;
+    }
+
+    private final int[] mData;
+    private final int[] mIntPayload;
+    private final long[] mLongPayload;
+
+    /**
+     * @return The array of {@link Integer} primitives being operated on.
+     */
+    public int[] getData() {
+        return mData;
+    }
+
+    @Override
+    public int length() {
+        return mData.length;
+    }
+
+    @Override
+    public int bytesPerElement() {
+        if (mIntPayload != null) {
+            return Integer.BYTES + Integer.BYTES;
+        } else if (mLongPayload != null) {
+            return Integer.BYTES + Long.BYTES;
+        }
+        return Integer.BYTES;
+    }
+
+    @Override
+    public void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+        if (mIntPayload != null || mLongPayload != null) {
+            executeWithPayload(start, comparisons, distance, swapDecision);
+        } else if (swapDecision == Polarity.ASCENDING || swapDecision == Polarity.DESCENDING) {
+            KERNEL.compareExchange(mData, start, comparisons, distance, swapDecision == Polarity.ASCENDING);
+        } else {
+            executeGeneric(mData, start, comparisons, distance, swapDecision);
+        }
+    }
+
+    @Override
+    public void compareExchangeBlocks(int start, int stop, int distance, ISwapDecision swapDecision) {
+        if (mIntPayload == null && mLongPayload == null
+                && (swapDecision == Polarity.ASCENDING || swapDecision == Polarity.DESCENDING)) {
+            KERNEL.compareExchangeBlocks(mData, start, stop, distance, swapDecision == Polarity.ASCENDING);
+        } else {
+            ISortData.super.compareExchangeBlocks(start, stop, distance, swapDecision);
+        }
+    }
+
+    /**
+     * Performs a single pass that also moves the payload, using a selection
+     * rather than a branch for a {@link Polarity}, and consulting any other
+     * {@link ISwapDecision} for every pair of elements.
+     *
+     * @param start        The inclusive start of the range to be operated on.
+     * @param comparisons  The number of comparisons to perform.
+     * @param distance     The distance between the compared elements.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     */
+    private void executeWithPayload(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+        if (swapDecision == Polarity.ASCENDING || swapDecision == Polarity.DESCENDING) {
+            final boolean ascending = swapDecision == Polarity.ASCENDING;
+            if (mIntPayload != null) {
+                executeWithPayload(mData, mIntPayload, start, comparisons, distance, ascending);
+            } else {
+                executeWithPayload(mData, mLongPayload, start, comparisons, distance, ascending);
+            }
+            return;
+        }
+
+        for (int i = start; i < start + comparisons; i++) {
+            if (swapDecision.shouldSwap(mData[i], mData[i + distance])) {
+                ArrayUtils.swap(mData, i, i + distance);
+                if (mIntPayload != null) {
+                    ArrayUtils.swap(mIntPayload, i, i + distance);
+                } else {
+                    ArrayUtils.swap(mLongPayload, i, i + distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs a single pass that consults the {@link ISwapDecision} for every
+     * pair of elements.
+     *
+     * @param data         The array of {@link Integer} primitives to operate on.
+     * @param start        The inclusive start of the range to be operated on.
+     * @param comparisons  The number of comparisons to perform.
+     * @param distance     The distance between the compared elements.
+     * @param swapDecision The {@link ISwapDecision} implementation that specifies
+     *                     whether or not the compared elements should be swapped.
+     */
+    private static void executeGeneric(int[] data, int start, int comparisons, int distance,
+                                       ISwapDecision swapDecision) {
+
+        for (int i = start; i < start + comparisons; i++) {
+
+            //noinspection UnnecessaryLocalVariable
+            final int index_left = i;
+            final int index_right = i + distance;
+            final int left = data[index_left];
+            final int right = data[index_right];
+
+            if (swapDecision.shouldSwap(left, right)) {
+                ArrayUtils.swap(data, index_left, index_right);
+            }
+        }
+
+    }
+
+    /**
+     * Performs a single pass that moves each element of the {@link Integer} payload
+     * along with the matching element of the data. The elements are always written,
+     * and the swap is a selection rather than a branch.
+     *
+     * @param data        The array of {@link Integer} primitives to operate on.
+     * @param payload     The payload to move along with the data.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void executeWithPayload(int[] data, int[] payload, int start, int comparisons,
+                                           int distance, boolean ascending) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final int left = data[i];
+            final int right = data[i + distance];
+            final boolean swap = ascending ? left > right : left < right;
+            data[i] = swap ? right : left;
+            data[i + distance] = swap ? left : right;
+
+            final int leftPayload = payload[i];
+            final int rightPayload = payload[i + distance];
+            payload[i] = swap ? rightPayload : leftPayload;
+            payload[i + distance] = swap ? leftPayload : rightPayload;
+        }
+    }
+
+    /**
+     * Performs a single pass that moves each element of the {@link Long} payload
+     * along with the matching element of the data. The elements are always written,
+     * and the swap is a selection rather than a branch.
+     *
+     * @param data        The array of {@link Integer} primitives to operate on.
+     * @param payload     The payload to move along with the data.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void executeWithPayload(int[] data, long[] payload, int start, int comparisons,
+                                           int distance, boolean ascending) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final int left = data[i];
+            final int right = data[i + distance];
+            final boolean swap = ascending ? left > right : left < right;
+            data[i] = swap ? right : left;
+            data[i + distance] = swap ? left : right;
+
+            final long leftPayload = payload[i];
+            final long rightPayload = payload[i + distance];
+            payload[i] = swap ? rightPayload : leftPayload;
+            payload[i + distance] = swap ? leftPayload : rightPayload;
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.distributed.sorting;
+
+/**
+ * Represents an {@link ISortData} implementation that wraps an array of
+ * {@link Long} primitives.
+ * <p>
+ * Each pass orders its pairs with a minimum and a maximum, so only
+ * {@link Polarity#ASCENDING} and {@link Polarity#DESCENDING} are supported.
+ * Passes without a payload are performed by the {@link ISortKernel} selected
+ * by {@link SortKernels#get()}.
+ * </p>
+ * <p>
+ * An optional {@link Integer} or {@link Long} payload array can be provided,
+ * such as a row id for each element. Every swap of the data is applied to the
+ * payload as well, so the payload ends up in the same order as the data.
+ * </p>
+ */
+public class LongSortData implements ISortData {
+
+    private static final ISortKernel KERNEL = SortKernels.get();
+
+    /**
+     * Create a new {@link LongSortData} object.
+     *
+     * @param data The array of {@link Long} primitives to operate on.
+     */
+    public LongSortData(long[] data) {
+        this(data, null, null);
+    }
+
+    /**
+     * Create a new {@link LongSortData} object, where each element of a payload
+     * array is moved in lockstep with the element at the same index of the data.
+     *
+     * @param data    The array of {@link Long} primitives to operate on.
+     * @param payload The array of {@link Integer} primitives that is moved along
+     *                with the data. Must have the same length as the data.
+     */
+    public LongSortData(long[] data, int[] payload) {
+        this(data, payload, null);
+    }
+
+    /**
+     * Create a new {@link LongSortData} object, where each element of a payload
+     * array is moved in lockstep with the element at the same index of the data.
+     *
+     * @param data    The array of {@link Long} primitives to operate on.
+     * @param payload The array of {@link Long} primitives that is moved along
+     *                with the data. Must have the same length as the data.
+     */
+    public LongSortData(long[] data, long[] payload) {
+        this(data, null, payload);
+    }
+
+    /**
+     * Create a new {@link LongSortData} object.
+     *
+     * @param data        The array of {@link Long} primitives to operate on.
+     * @param intPayload  The {@link Integer} payload, or {@code null} if there is none.
+     * @param longPayload The {@link Long} payload, or {@code null} if there is none.
+     */
+    private LongSortData(long[] data, int[] intPayload, long[] longPayload) {
+        assert data != null;
+        assert intPayload == null || intPayload.length == data.length;
+        assert longPayload == null || longPayload.length == data.length;
+        mData = data;
+        mIntPayload = intPayload;
+        mLongPayload = longPayload;
+    }
+
+    private final long[] mData;
+    private final int[] mIntPayload;
+    private final long[] mLongPayload;
+
+    /**
+     * @return The array of {@link Long} primitives being operated on.
+     */
+    public long[] getData() {
+        return mData;
+    }
+
+    @Override
+    public int length() {
+        return mData.length;
+    }
+
+    @Override
+    public int bytesPerElement() {
+        if (mIntPayload != null) {
+            return Long.BYTES + Integer.BYTES;
+        } else if (mLongPayload != null) {
+            return Long.BYTES + Long.BYTES;
+        }
+        return Long.BYTES;
+    }
+
+    @Override
+    public void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+        if (swapDecision != Polarity.ASCENDING && swapDecision != Polarity.DESCENDING) {
+            final String message = "Only a Polarity can be used to sort long values.";
+            throw new UnsupportedOperationException(message);
+        }
+
+        final boolean ascending = swapDecision == Polarity.ASCENDING;
+        if (mIntPayload != null) {
+            executeWithPayload(mData, mIntPayload, start, comparisons, distance, ascending);
+        } else if (mLongPayload != null) {
+            executeWithPayload(mData, mLongPayload, start, comparisons, distance, ascending);
+        } else {
+            KERNEL.compareExchange(mData, start, comparisons, distance, ascending);
+        }
+    }
+
+    @Override
+    public void compareExchangeBlocks(int start, int stop, int distance, ISwapDecision swapDecision) {
+        if (mIntPayload == null && mLongPayload == null
+                && (swapDecision == Polarity.ASCENDING || swapDecision == Polarity.DESCENDING)) {
+            KERNEL.compareExchangeBlocks(mData, start, stop, distance, swapDecision == Polarity.ASCENDING);
+        } else {
+            ISortData.super.compareExchangeBlocks(start, stop, distance, swapDecision);
+        }
+    }
+
+    /**
+     * Performs a single pass that moves each element of the {@link Integer} payload
+     * along with the matching element of the data. The elements are always written,
+     * and the swap is a selection rather than a branch.
+     *
+     * @param data        The array of {@link Long} primitives to operate on.
+     * @param payload     The payload to move along with the data.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void executeWithPayload(long[] data, int[] payload, int start, int comparisons,
+                                           int distance, boolean ascending) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final long left = data[i];
+            final long right = data[i + distance];
+            final long leftKey = left;
+            final long rightKey = right;
+            final boolean swap = ascending ? leftKey > rightKey : leftKey < rightKey;
+            data[i] = swap ? right : left;
+            data[i + distance] = swap ? left : right;
+
+            final int leftPayload = payload[i];
+            final int rightPayload = payload[i + distance];
+            payload[i] = swap ? rightPayload : leftPayload;
+            payload[i + distance] = swap ? leftPayload : rightPayload;
+        }
+    }
+
+    /**
+     * Performs a single pass that moves each element of the {@link Long} payload
+     * along with the matching element of the data. The elements are always written,
+     * and the swap is a selection rather than a branch.
+     *
+     * @param data        The array of {@link Long} primitives to operate on.
+     * @param payload     The payload to move along with the data.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     * @param ascending   {@code true} to place the lower element of each pair on
+     *                    the left, {@code false} to place it on the right.
+     */
+    private static void executeWithPayload(long[] data, long[] payload, int start, int comparisons,
+                                           int distance, boolean ascending) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final long left = data[i];
+            final long right = data[i + distance];
+            final long leftKey = left;
+            final long rightKey = right;
+            final boolean swap = ascending ? leftKey > rightKey : leftKey < rightKey;
+            data[i] = swap ? right : left;
+            data[i + distance] = swap ? left : right;
+
+            final long leftPayload = payload[i];
+            final long rightPayload = payload[i + distance];
+            payload[i] = swap ? rightPayload : leftPayload;
+            payload[i + distance] = swap ? leftPayload : rightPayload;
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.distributed.sorting;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Provides methods that apply a permutation, such as the result of an argsort,
+ * to other arrays that are parallel to the sorted keys.
+ * <p>
+ * A gather produces an array where {@code result[i] = source[permutation[i]]}.
+ * The result and the permutation are split into contiguous blocks that are
+ * processed in parallel on the common {@link ForkJoinPool}. Within a block both
+ * of them are walked sequentially, so only the reads from the source are
+ * scattered. Arrays that are no larger than a single block are gathered on the
+ * current thread.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class Permutations {
+
+    /*
+     * A block of this many elements is large enough to amortize the cost of a
+     * task, while keeping the permutation and result slices of a block within
+     * the L1 cache of a typical core.
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    /**
+     * Represents the gathering of a single contiguous block of a result.
+     */
+    @FunctionalInterface
+    private interface IBlockGather {
+
+        /**
+         * @param from The inclusive start of the block.
+         * @param to   The exclusive end of the block.
+         */
+        void gather(int from, int to);
+
+    }
+
+    /**
+     * Represents a {@link RecursiveAction} that splits a range in half until
+     * it is no larger than {@link #BLOCK_SIZE}, and then gathers it.
+     */
+    private static class GatherAction extends RecursiveAction {
+
+        /**
+         * Create a new {@link GatherAction} object.
+         *
+         * @param block The gather to perform on each block.
+         * @param from  The inclusive start of the range.
+         * @param to    The exclusive end of the range.
+         */
+        GatherAction(IBlockGather block, int from, int to) {
+            mBlock = block;
+            mFrom = from;
+            mTo = to;
+        }
+
+        private final IBlockGather mBlock;
+        private final int mFrom;
+        private final int mTo;
+
+        @Override
+        protected void compute() {
+            if (mTo - mFrom <= BLOCK_SIZE) {
+                mBlock.gather(mFrom, mTo);
+                return;
+            }
+
+            final int center = mFrom + (mTo - mFrom) / 2;
+            invokeAll(new GatherAction(mBlock, mFrom, center), new GatherAction(mBlock, center, mTo));
+        }
+
+    }
+
+    /**
+     * Creates the identity permutation, which is the starting point of an argsort.
+     *
+     * @param length The length of the permutation.
+     * @return The array {@code [0, 1, .., length - 1]}.
+     */
+    public static int[] identity(int length) {
+        assert length >= 0;
+
+        final int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array of {@link Integer} primitives.
+     *
+     * @param permutation The indices of the source to take each result element from.
+     * @param source      The array to gather from. Must not be shorter than any index.
+     * @return A new array where {@code result[i] = source[permutation[i]]}.
+     */
+    public static int[] gather(int[] permutation, int[] source) {
+        final int[] result = new int[permutation.length];
+        run(permutation.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = source[permutation[i]];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array of {@link Long} primitives.
+     *
+     * @param permutation The indices of the source to take each result element from.
+     * @param source      The array to gather from. Must not be shorter than any index.
+     * @return A new array where {@code result[i] = source[permutation[i]]}.
+     */
+    public static long[] gather(int[] permutation, long[] source) {
+        final long[] result = new long[permutation.length];
+        run(permutation.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = source[permutation[i]];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array of {@link Double} primitives.
+     *
+     * @param permutation The indices of the source to take each result element from.
+     * @param source      The array to gather from. Must not be shorter than any index.
+     * @return A new array where {@code result[i] = source[permutation[i]]}.
+     */
+    public static double[] gather(int[] permutation, double[] source) {
+        final double[] result = new double[permutation.length];
+        run(permutation.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = source[permutation[i]];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array of {@link Float} primitives.
+     *
+     * @param permutation The indices of the source to take each result element from.
+     * @param source      The array to gather from. Must not be shorter than any index.
+     * @return A new array where {@code result[i] = source[permutation[i]]}.
+     */
+    public static float[] gather(int[] permutation, float[] source) {
+        final float[] result = new float[permutation.length];
+        run(permutation.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = source[permutation[i]];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies a permutation to an array of objects.
+     *
+     * @param permutation The indices of the source to take each result element from.
+     * @param source      The array to gather from. Must not be shorter than any index.
+     * @param result      The array to gather into, which must have the same length as
+     *                    the permutation and must not be the source.
+     * @param <T>         The type of the array elements.
+     * @return The result array.
+     */
+    public static <T> T[] gather(int[] permutation, T[] source, T[] result) {
+        assert result.length == permutation.length;
+        assert result != source;
+
+        run(permutation.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = source[permutation[i]];
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Gathers every block of a range, in parallel when there is more than one block.
+     *
+     * @param length The length of the result.
+     * @param block  The gather to perform on each block.
+     */
+    private static void run(int length, IBlockGather block) {
+        if (length <= BLOCK_SIZE) {
+            block.gather(0, length);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new GatherAction(block, 0, length));
+    }
+
+}
@@ -6,8 +6,8 @@ package com.distributed.sorting;
  */
 public class Polarity implements ISwapDecision {
 
-    public static Polarity ASCENDING = new Polarity(true);
-    public static Polarity DESCENDING = new Polarity(false);
+    public static final Polarity ASCENDING = new Polarity(true);
+    public static final Polarity DESCENDING = new Polarity(false);
 
     /**
      * Create a new {@link Polarity} object.
@@ -23,6 +23,14 @@ public class Polarity implements ISwapDecision {
 
     private final boolean mHigherOnRight;
 
+    /**
+     * @return The {@link Polarity} that sorts data in the opposite order to
+     * this {@link Polarity}.
+     */
+    public Polarity reverse() {
+        return mHigherOnRight ? DESCENDING : ASCENDING;
+    }
+
     @Override
     public boolean shouldSwap(int left, int right) {
         if (left <= right) {
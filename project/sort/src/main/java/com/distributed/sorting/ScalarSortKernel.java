@@ -0,0 +1,120 @@
+package com.distributed.sorting;
+
+/**
+ * Represents the {@link ISortKernel} implementation that is always available,
+ * which orders each pair with {@link Math#min(int, int)} and {@link Math#max(int, int)}
+ * one pair at a time. Both elements are always written so that there is no
+ * data-dependent branch.
+ */
+public class ScalarSortKernel implements ISortKernel {
+
+    @Override
+    public boolean isSupported() {
+        return true;
+    }
+
+    @Override
+    public void compareExchange(int[] data, int start, int comparisons, int distance, boolean ascending) {
+        if (ascending) {
+            executeAscending(data, start, comparisons, distance);
+        } else {
+            executeDescending(data, start, comparisons, distance);
+        }
+    }
+
+    @Override
+    public void compareExchange(long[] data, int start, int comparisons, int distance, boolean ascending) {
+        if (ascending) {
+            executeAscending(data, start, comparisons, distance);
+        } else {
+            executeDescending(data, start, comparisons, distance);
+        }
+    }
+
+    @Override
+    public void compareExchangeBlocks(int[] data, int start, int stop, int distance, boolean ascending) {
+        for (int blockStart = start; blockStart < stop; blockStart += 2 * distance) {
+            compareExchange(data, blockStart, distance, distance, ascending);
+        }
+    }
+
+    @Override
+    public void compareExchangeBlocks(long[] data, int start, int stop, int distance, boolean ascending) {
+        for (int blockStart = start; blockStart < stop; blockStart += 2 * distance) {
+            compareExchange(data, blockStart, distance, distance, ascending);
+        }
+    }
+
+    /**
+     * Performs a single pass that places the lower element of each pair on the left.
+     *
+     * @param data        The array of {@link Integer} primitives to operate on.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     */
+    private static void executeAscending(int[] data, int start, int comparisons, int distance) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final int left = data[i];
+            final int right = data[i + distance];
+            data[i] = Math.min(left, right);
+            data[i + distance] = Math.max(left, right);
+        }
+    }
+
+    /**
+     * Performs a single pass that places the higher element of each pair on the left.
+     *
+     * @param data        The array of {@link Integer} primitives to operate on.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     */
+    private static void executeDescending(int[] data, int start, int comparisons, int distance) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final int left = data[i];
+            final int right = data[i + distance];
+            data[i] = Math.max(left, right);
+            data[i + distance] = Math.min(left, right);
+        }
+    }
+
+    /**
+     * Performs a single pass that places the lower element of each pair on the left.
+     *
+     * @param data        The array of {@link Long} primitives to operate on.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     */
+    private static void executeAscending(long[] data, int start, int comparisons, int distance) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final long left = data[i];
+            final long right = data[i + distance];
+            data[i] = Math.min(left, right);
+            data[i + distance] = Math.max(left, right);
+        }
+    }
+
+    /**
+     * Performs a single pass that places the higher element of each pair on the left.
+     *
+     * @param data        The array of {@link Long} primitives to operate on.
+     * @param start       The inclusive start of the range to be operated on.
+     * @param comparisons The number of comparisons to perform.
+     * @param distance    The distance between the compared elements.
+     */
+    private static void executeDescending(long[] data, int start, int comparisons, int distance) {
+        final int end = start + comparisons;
+        for (int i = start; i < end; i++) {
+            final long left = data[i];
+            final long right = data[i + distance];
+            data[i] = Math.max(left, right);
+            data[i + distance] = Math.min(left, right);
+        }
+    }
+
+}
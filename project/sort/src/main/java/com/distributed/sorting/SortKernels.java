@@ -0,0 +1,64 @@
+package com.distributed.sorting;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Selects the {@link ISortKernel} that performs the innermost loops of the sort.
+ * <p>
+ * The first kernel found through {@link ServiceLoader} that reports itself as
+ * supported is used. A kernel that cannot be loaded, such as one that needs a
+ * module that has not been added to the JVM, is skipped. When no other kernel
+ * is available, or when the {@value #KERNEL_PROPERTY} system property is set to
+ * {@value #SCALAR_KERNEL}, the {@link ScalarSortKernel} is used.
+ * </p>
+ */
+public class SortKernels {
+
+    public static final String KERNEL_PROPERTY = "com.distributed.sorting.kernel";
+    public static final String SCALAR_KERNEL = "scalar";
+
+    /**
+     * Holds the selected kernel, which is only looked up the first time it is needed.
+     */
+    private static class Holder {
+        static final ISortKernel KERNEL = load();
+    }
+
+    /**
+     * @return The {@link ISortKernel} selected for the current JVM.
+     */
+    public static ISortKernel get() {
+        return Holder.KERNEL;
+    }
+
+    /**
+     * @return The first supported {@link ISortKernel} that can be loaded, or
+     * the {@link ScalarSortKernel} if there is none.
+     */
+    private static ISortKernel load() {
+        if (SCALAR_KERNEL.equals(System.getProperty(KERNEL_PROPERTY))) {
+            return new ScalarSortKernel();
+        }
+
+        final Iterator<ISortKernel> kernels = ServiceLoader.load(ISortKernel.class).iterator();
+        while (true) {
+            try {
+                if (!kernels.hasNext()) {
+                    break;
+                }
+                final ISortKernel kernel = kernels.next();
+                if (kernel.isSupported()) {
+                    return kernel;
+                }
+            } catch (ServiceConfigurationError | LinkageError e) {
+
+                // The kernel is not usable on this JVM, so move on to the next one.
+            }
+        }
+
+        return new ScalarSortKernel();
+    }
+
+}
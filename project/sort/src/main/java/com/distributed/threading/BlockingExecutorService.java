@@ -1,10 +1,35 @@
 package com.distributed.threading;
 
+import com.distributed.profiling.IProfilerEvent;
+import com.distributed.profiling.SortProfilers;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Represents an {@link ExecutorService} that blocks callers of
+ * {@link #execute(Runnable)} until a worker is free, rather than queueing an
+ * unbounded number of tasks.
+ * <p>
+ * The service keeps {@link ExecutorMetrics} of the tasks that pass through it,
+ * which can be read with {@link #getMetrics()} or published through JMX with
+ * {@link #registerMBean(String)}. Every counter is striped across threads, so
+ * keeping them costs two reads of the clock for each task and each wait.
+ * </p>
+ */
 public class BlockingExecutorService extends AbstractExecutorService {
 
+    /**
+     * The JMX domain that every {@link BlockingExecutorServiceMXBean} is
+     * registered in.
+     */
+    public static final String MBEAN_DOMAIN = "com.distributed.threading";
+
     /**
      * Represents a {@link Runnable} task that releases the {@link Semaphore}
      * when it has finished running so that other tasks may continue.
@@ -29,15 +54,125 @@ public class BlockingExecutorService extends AbstractExecutorService {
 
         @Override
         public void run() {
+            mParent.mActiveWorkers.increment();
+            final long start = System.nanoTime();
             try {
                 mRunnable.run();
             } finally {
+                mParent.mRunTimes.record(System.nanoTime() - start);
+                mParent.mCompletedTasks.increment();
+                mParent.mActiveWorkers.decrement();
                 mParent.mFreeThreads.release();
             }
         }
 
     }
 
+    /**
+     * Represents the {@link BlockingExecutorServiceMXBean} of a service, which
+     * reads each attribute straight from the counter that backs it, so that a
+     * poll of every attribute does not build a snapshot for each of them.
+     */
+    private static class MXBean implements BlockingExecutorServiceMXBean {
+
+        /**
+         * Create a new {@link MXBean} object.
+         *
+         * @param parent The {@link BlockingExecutorService} to publish.
+         */
+        MXBean(BlockingExecutorService parent) {
+            mParent = parent;
+        }
+
+        private final BlockingExecutorService mParent;
+
+        @Override
+        public int getPoolSize() {
+            return mParent.mPoolSize;
+        }
+
+        @Override
+        public int getActiveWorkers() {
+            return (int) mParent.mActiveWorkers.sum();
+        }
+
+        @Override
+        public int getIdleWorkers() {
+            return mParent.mPoolSize - getActiveWorkers();
+        }
+
+        @Override
+        public long getSubmittedTasks() {
+            return mParent.mSubmittedTasks.sum();
+        }
+
+        @Override
+        public long getCompletedTasks() {
+            return mParent.mCompletedTasks.sum();
+        }
+
+        @Override
+        public long getElapsedNanos() {
+            return mParent.elapsedNanos();
+        }
+
+        @Override
+        public long getAcquireWaitNanos() {
+            return mParent.mAcquireWaits.getTotal();
+        }
+
+        @Override
+        public long getMaxAcquireWaitNanos() {
+            return mParent.mAcquireWaits.getMax();
+        }
+
+        @Override
+        public long getAcquireWaitP50Nanos() {
+            return LatencyHistogram.percentile(mParent.mAcquireWaits.getCounts(), 50);
+        }
+
+        @Override
+        public long getAcquireWaitP99Nanos() {
+            return LatencyHistogram.percentile(mParent.mAcquireWaits.getCounts(), 99);
+        }
+
+        @Override
+        public long[] getAcquireWaitHistogram() {
+            return mParent.mAcquireWaits.getCounts();
+        }
+
+        @Override
+        public long getRunNanos() {
+            return mParent.mRunTimes.getTotal();
+        }
+
+        @Override
+        public long getMaxRunNanos() {
+            return mParent.mRunTimes.getMax();
+        }
+
+        @Override
+        public long getRunP50Nanos() {
+            return LatencyHistogram.percentile(mParent.mRunTimes.getCounts(), 50);
+        }
+
+        @Override
+        public long getRunP99Nanos() {
+            return LatencyHistogram.percentile(mParent.mRunTimes.getCounts(), 99);
+        }
+
+        @Override
+        public long[] getRunHistogram() {
+            return mParent.mRunTimes.getCounts();
+        }
+
+        @Override
+        public double getThrottledFraction() {
+            return ExecutorMetrics.throttledFraction(getAcquireWaitNanos(), getElapsedNanos());
+        }
+
+    }
+
     /**
      * Create a new {@link BlockingExecutorService} object.
      *
@@ -46,19 +181,69 @@ public class BlockingExecutorService extends AbstractExecutorService {
     public BlockingExecutorService(int numThreads) {
         mExecutorService = Executors.newFixedThreadPool(numThreads);
         mFreeThreads = new Semaphore(numThreads, true);
+        mPoolSize = numThreads;
+        mCreatedNanos = System.nanoTime();
     }
 
     private final ExecutorService mExecutorService;
     private final Semaphore mFreeThreads;
+    private final int mPoolSize;
+    private final long mCreatedNanos;
+
+    private final LongAdder mSubmittedTasks = new LongAdder();
+    private final LongAdder mCompletedTasks = new LongAdder();
+    private final LongAdder mActiveWorkers = new LongAdder();
+    private final LatencyHistogram mAcquireWaits = new LatencyHistogram();
+    private final LatencyHistogram mRunTimes = new LatencyHistogram();
+
+    private volatile ObjectName mObjectName = null;
+
+    /**
+     * @return A snapshot of the current {@link ExecutorMetrics} of the service.
+     */
+    public ExecutorMetrics getMetrics() {
+        return new ExecutorMetrics(
+                mPoolSize, (int) mActiveWorkers.sum(), mSubmittedTasks.sum(), mCompletedTasks.sum(), elapsedNanos(),
+                mAcquireWaits.getTotal(), mAcquireWaits.getMax(), mAcquireWaits.getCounts(),
+                mRunTimes.getTotal(), mRunTimes.getMax(), mRunTimes.getCounts()
+        );
+    }
+
+    /**
+     * Publishes the metrics of the service through the platform MBean server,
+     * until the service is shut down.
+     *
+     * @param name The name of the service, which must be unique among the
+     *             services that are registered at the same time.
+     * @return The {@link ObjectName} that the service was registered with.
+     * @throws JMException           if the name is invalid, or already registered.
+     * @throws IllegalStateException if this service is already registered.
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        if (mObjectName != null) {
+            final String message = "Service is already registered as " + mObjectName + ".";
+            throw new IllegalStateException(message);
+        }
+
+        final ObjectName objectName = new ObjectName(
+                MBEAN_DOMAIN + ":type=BlockingExecutorService,name=" + ObjectName.quote(name)
+        );
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(this), objectName);
+        mObjectName = objectName;
+        return objectName;
+    }
 
     @Override
     public void shutdown() {
         mExecutorService.shutdown();
+        unregisterMBean();
     }
 
     @Override
     public List<Runnable> shutdownNow() {
-        return mExecutorService.shutdownNow();
+        final List<Runnable> result = mExecutorService.shutdownNow();
+        unregisterMBean();
+        return result;
     }
 
     @Override
@@ -78,10 +263,75 @@ public class BlockingExecutorService extends AbstractExecutorService {
 
     @Override
     public void execute(Runnable runnable) {
+        mSubmittedTasks.increment();
+
         // Block this method from continuing until the executor is available.
-        mFreeThreads.acquireUninterruptibly();
+        final long start = System.nanoTime();
+        if (!tryAcquire()) {
+
+            // A caller that has to wait for a worker is a stall, which is worth recording.
+            final IProfilerEvent event = SortProfilers.get().beginStall(mPoolSize);
+            mFreeThreads.acquireUninterruptibly();
+            event.commit();
+        }
+        mAcquireWaits.record(System.nanoTime() - start);
+
         final Runnable task = new ExecutorTask(runnable, this);
-        mExecutorService.execute(task);
+        try {
+            mExecutorService.execute(task);
+        } catch (RejectedExecutionException e) {
+
+            // The task will never run, so it will never give its worker back.
+            mFreeThreads.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a free worker without waiting, while still respecting the order of
+     * callers that are already waiting.
+     *
+     * @return {@code true} if a worker was taken, {@code false} otherwise.
+     */
+    private boolean tryAcquire() {
+        try {
+            return mFreeThreads.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+
+            // The interrupt is kept for later, as the caller waits uninterruptibly.
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return The number of nanoseconds of wall-clock time since the service
+     * was created.
+     */
+    private long elapsedNanos() {
+        return System.nanoTime() - mCreatedNanos;
+    }
+
+    /**
+     * Removes the service from the platform MBean server, if it was registered.
+     */
+    private synchronized void unregisterMBean() {
+        if (mObjectName == null) {
+            return;
+        }
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(mObjectName);
+        } catch (JMException e) {
+
+            /*
+             * The bean has no deregistration callbacks that could fail, so the
+             * only possible cause is that something else has already removed
+             * it, which leaves the server in the state that was wanted anyway.
+             */
+        }
+        mObjectName = null;
     }
 
 }
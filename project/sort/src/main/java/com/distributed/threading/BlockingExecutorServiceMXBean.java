@@ -0,0 +1,111 @@
+package com.distributed.threading;
+
+/**
+ * Represents the management interface of a {@link BlockingExecutorService},
+ * which is published through JMX by {@link BlockingExecutorService#registerMBean(String)}.
+ * <p>
+ * Each attribute is read straight from the counter that backs it, so attributes
+ * that are read one after another may be taken at slightly different times.
+ * {@link BlockingExecutorService#getMetrics()} returns a single snapshot of all
+ * of them instead. Percentiles are the upper bound of the histogram bucket that
+ * holds them.
+ * </p>
+ */
+public interface BlockingExecutorServiceMXBean {
+
+    /**
+     * @return The number of workers in the pool.
+     */
+    int getPoolSize();
+
+    /**
+     * @return The number of workers that are running a task.
+     */
+    int getActiveWorkers();
+
+    /**
+     * @return The number of workers that are not running a task.
+     */
+    int getIdleWorkers();
+
+    /**
+     * @return The number of tasks that have been submitted.
+     */
+    long getSubmittedTasks();
+
+    /**
+     * @return The number of tasks that have finished running.
+     */
+    long getCompletedTasks();
+
+    /**
+     * @return The number of nanoseconds of wall-clock time since the service
+     * was created.
+     */
+    long getElapsedNanos();
+
+    /**
+     * @return The total number of nanoseconds that callers spent waiting for a
+     * free worker.
+     */
+    long getAcquireWaitNanos();
+
+    /**
+     * @return The longest number of nanoseconds that a caller spent waiting for
+     * a free worker.
+     */
+    long getMaxAcquireWaitNanos();
+
+    /**
+     * @return The median number of nanoseconds that a caller spent waiting for
+     * a free worker.
+     */
+    long getAcquireWaitP50Nanos();
+
+    /**
+     * @return The 99th percentile of the nanoseconds that a caller spent waiting
+     * for a free worker.
+     */
+    long getAcquireWaitP99Nanos();
+
+    /**
+     * @return The histogram of the times that callers spent waiting for a free
+     * worker, as described by {@link ExecutorMetrics}.
+     */
+    long[] getAcquireWaitHistogram();
+
+    /**
+     * @return The total number of nanoseconds that workers spent running tasks.
+     */
+    long getRunNanos();
+
+    /**
+     * @return The longest number of nanoseconds that a worker spent running a task.
+     */
+    long getMaxRunNanos();
+
+    /**
+     * @return The median number of nanoseconds that a worker spent running a task.
+     */
+    long getRunP50Nanos();
+
+    /**
+     * @return The 99th percentile of the nanoseconds that a worker spent running
+     * a task.
+     */
+    long getRunP99Nanos();
+
+    /**
+     * @return The histogram of the times that workers spent running tasks, as
+     * described by {@link ExecutorMetrics}.
+     */
+    long[] getRunHistogram();
+
+    /**
+     * @return The fraction of the wall-clock time since the service was created
+     * that callers spent waiting for a free worker, as described by
+     * {@link ExecutorMetrics#getThrottledFraction()}.
+     */
+    double getThrottledFraction();
+
+}
@@ -0,0 +1,212 @@
+package com.distributed.threading;
+
+/**
+ * Represents a snapshot of the metrics of a {@link BlockingExecutorService},
+ * which does not change once it has been taken.
+ * <p>
+ * The time that callers spend blocked in
+ * {@link BlockingExecutorService#execute(Runnable)} waiting for a free worker
+ * is the time that the dispatcher is throttled, so comparing it with the
+ * wall-clock time since the service was created shows whether a dispatcher is
+ * held back by the size of the pool.
+ * </p>
+ * <p>
+ * Durations are also kept as histograms, where bucket {@code i} counts the
+ * durations that are at least {@code 2^(i - 1)} and less than {@code 2^i}
+ * nanoseconds, and bucket 0 counts durations of 0.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class ExecutorMetrics {
+
+    /**
+     * Create a new {@link ExecutorMetrics} object.
+     *
+     * @param poolSize          The number of workers in the pool.
+     * @param activeWorkers     The number of workers that are running a task.
+     * @param submittedTasks    The number of tasks that have been submitted.
+     * @param completedTasks    The number of tasks that have finished running.
+     * @param elapsedNanos      The wall-clock time since the service was created.
+     * @param acquireWaitNanos  The total time that callers spent waiting for a
+     *                          free worker.
+     * @param maxAcquireWait    The longest time that a caller spent waiting for
+     *                          a free worker.
+     * @param acquireWaitCounts The histogram of the times that callers spent
+     *                          waiting for a free worker.
+     * @param runNanos          The total time that workers spent running tasks.
+     * @param maxRun            The longest time that a worker spent running a task.
+     * @param runCounts         The histogram of the times that workers spent
+     *                          running tasks.
+     */
+    ExecutorMetrics(int poolSize, int activeWorkers, long submittedTasks, long completedTasks, long elapsedNanos,
+                    long acquireWaitNanos, long maxAcquireWait, long[] acquireWaitCounts,
+                    long runNanos, long maxRun, long[] runCounts) {
+        mPoolSize = poolSize;
+        mActiveWorkers = activeWorkers;
+        mSubmittedTasks = submittedTasks;
+        mCompletedTasks = completedTasks;
+        mElapsedNanos = elapsedNanos;
+        mAcquireWaitNanos = acquireWaitNanos;
+        mMaxAcquireWaitNanos = maxAcquireWait;
+        mAcquireWaitCounts = acquireWaitCounts;
+        mRunNanos = runNanos;
+        mMaxRunNanos = maxRun;
+        mRunCounts = runCounts;
+    }
+
+    private final int mPoolSize;
+    private final int mActiveWorkers;
+    private final long mSubmittedTasks;
+    private final long mCompletedTasks;
+    private final long mElapsedNanos;
+    private final long mAcquireWaitNanos;
+    private final long mMaxAcquireWaitNanos;
+    private final long[] mAcquireWaitCounts;
+    private final long mRunNanos;
+    private final long mMaxRunNanos;
+    private final long[] mRunCounts;
+
+    /**
+     * @return The number of workers in the pool.
+     */
+    public int getPoolSize() {
+        return mPoolSize;
+    }
+
+    /**
+     * @return The number of workers that were running a task.
+     */
+    public int getActiveWorkers() {
+        return mActiveWorkers;
+    }
+
+    /**
+     * @return The number of workers that were not running a task.
+     */
+    public int getIdleWorkers() {
+        return mPoolSize - mActiveWorkers;
+    }
+
+    /**
+     * @return The number of tasks that had been submitted.
+     */
+    public long getSubmittedTasks() {
+        return mSubmittedTasks;
+    }
+
+    /**
+     * @return The number of tasks that had finished running, whether or not
+     * they threw an exception.
+     */
+    public long getCompletedTasks() {
+        return mCompletedTasks;
+    }
+
+    /**
+     * @return The number of nanoseconds of wall-clock time between the creation
+     * of the service and the snapshot.
+     */
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * @return The total number of nanoseconds that callers spent waiting for a
+     * free worker.
+     */
+    public long getAcquireWaitNanos() {
+        return mAcquireWaitNanos;
+    }
+
+    /**
+     * @return The longest number of nanoseconds that a caller spent waiting for
+     * a free worker.
+     */
+    public long getMaxAcquireWaitNanos() {
+        return mMaxAcquireWaitNanos;
+    }
+
+    /**
+     * @return The histogram of the times that callers spent waiting for a free
+     * worker.
+     */
+    public long[] getAcquireWaitHistogram() {
+        return mAcquireWaitCounts.clone();
+    }
+
+    /**
+     * @param percentile The percentile to estimate, from 0 to 100.
+     * @return The upper bound of the bucket of the acquire wait histogram that
+     * holds the percentile, in nanoseconds.
+     */
+    public long acquireWaitPercentileNanos(double percentile) {
+        return LatencyHistogram.percentile(mAcquireWaitCounts, percentile);
+    }
+
+    /**
+     * @return The total number of nanoseconds that workers spent running tasks.
+     */
+    public long getRunNanos() {
+        return mRunNanos;
+    }
+
+    /**
+     * @return The longest number of nanoseconds that a worker spent running a task.
+     */
+    public long getMaxRunNanos() {
+        return mMaxRunNanos;
+    }
+
+    /**
+     * @return The histogram of the times that workers spent running tasks.
+     */
+    public long[] getRunHistogram() {
+        return mRunCounts.clone();
+    }
+
+    /**
+     * @param percentile The percentile to estimate, from 0 to 100.
+     * @return The upper bound of the bucket of the run time histogram that
+     * holds the percentile, in nanoseconds.
+     */
+    public long runPercentileNanos(double percentile) {
+        return LatencyHistogram.percentile(mRunCounts, percentile);
+    }
+
+    /**
+     * @return The fraction of the wall-clock time since the service was created
+     * that callers spent waiting for a free worker. With a single dispatching
+     * thread, this is the fraction of its time that it was throttled rather
+     * than dispatching, from 0 to 1. The waits of several dispatching threads
+     * are added together, so it can exceed 1 when they are all held back.
+     */
+    public double getThrottledFraction() {
+        return throttledFraction(mAcquireWaitNanos, mElapsedNanos);
+    }
+
+    /**
+     * @param acquireWaitNanos The total time that callers spent waiting for a
+     *                         free worker.
+     * @param elapsedNanos     The wall-clock time since the service was created.
+     * @return The throttled fraction, as described by {@link #getThrottledFraction()}.
+     */
+    static double throttledFraction(long acquireWaitNanos, long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : (double) acquireWaitNanos / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorMetrics{poolSize=" + mPoolSize
+                + ", activeWorkers=" + mActiveWorkers
+                + ", submittedTasks=" + mSubmittedTasks
+                + ", completedTasks=" + mCompletedTasks
+                + ", elapsedNanos=" + mElapsedNanos
+                + ", acquireWaitNanos=" + mAcquireWaitNanos
+                + ", maxAcquireWaitNanos=" + mMaxAcquireWaitNanos
+                + ", runNanos=" + mRunNanos
+                + ", maxRunNanos=" + mMaxRunNanos
+                + ", throttledFraction=" + getThrottledFraction()
+                + "}";
+    }
+
+}
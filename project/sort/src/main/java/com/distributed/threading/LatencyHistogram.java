@@ -0,0 +1,105 @@
+package com.distributed.threading;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a thread-safe histogram of durations in nanoseconds, where each
+ * bucket covers a power of 2, so bucket {@code i} counts the durations that are
+ * at least {@code 2^(i - 1)} and less than {@code 2^i} nanoseconds, and bucket 0
+ * counts durations of 0.
+ * <p>
+ * Every bucket is a {@link LongAdder}, so threads that record durations at the
+ * same time do not contend with each other. Percentiles are only accurate to
+ * within a factor of 2, which is enough to tell nanoseconds from microseconds
+ * from milliseconds.
+ * </p>
+ */
+class LatencyHistogram {
+
+    /**
+     * The number of buckets, which covers every non-negative {@link Long}.
+     */
+    static final int BUCKET_COUNT = Long.SIZE;
+
+    /**
+     * Create a new {@link LatencyHistogram} object, which is empty.
+     */
+    LatencyHistogram() {
+        mBuckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < mBuckets.length; i++) {
+            mBuckets[i] = new LongAdder();
+        }
+    }
+
+    private final LongAdder[] mBuckets;
+    private final LongAdder mTotal = new LongAdder();
+    private final LongAccumulator mMax = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos The duration to record. Negative durations, which can only
+     *              come from a clock that is not monotonic, are recorded as 0.
+     */
+    void record(long nanos) {
+        final long duration = Math.max(0, nanos);
+        mBuckets[Long.SIZE - Long.numberOfLeadingZeros(duration)].increment();
+        mTotal.add(duration);
+        mMax.accumulate(duration);
+    }
+
+    /**
+     * @return The number of durations in each bucket.
+     */
+    long[] getCounts() {
+        final long[] counts = new long[mBuckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = mBuckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * @return The sum of every recorded duration.
+     */
+    long getTotal() {
+        return mTotal.sum();
+    }
+
+    /**
+     * @return The longest recorded duration, or 0 if nothing has been recorded.
+     */
+    long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * Estimates a percentile of a histogram.
+     *
+     * @param counts     The number of durations in each bucket.
+     * @param percentile The percentile to estimate, from 0 to 100.
+     * @return The exclusive upper bound of the bucket that holds the percentile,
+     * or 0 if the histogram is empty.
+     */
+    static long percentile(long[] counts, double percentile) {
+        assert 0 <= percentile && percentile <= 100;
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == Long.SIZE - 1 ? Long.MAX_VALUE : i == 0 ? 0 : 1L << i;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+}
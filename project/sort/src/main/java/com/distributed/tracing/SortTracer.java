@@ -0,0 +1,361 @@
+package com.distributed.tracing;
+
+import com.distributed.bitonic.GrainSize;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntBufferSortData;
+import com.distributed.sorting.IntSortData;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a tracer that records snapshots of an array while it is being
+ * sorted, so that the progress of a sort can be drawn frame by frame.
+ * <p>
+ * Every snapshot is copied into one of a fixed number of slots that are
+ * allocated up front, and a background thread writes the filled slots to a
+ * channel and hands them back. Taking a snapshot therefore never allocates or
+ * waits for I/O. When every slot is waiting to be written, the snapshot is
+ * dropped and counted rather than holding up the sort.
+ * </p>
+ * <p>
+ * A snapshot of a range that is longer than the maximum number of samples only
+ * keeps every {@code n}th element, where {@code n} is the smallest stride that
+ * fits the range into the samples, so the size of a trace does not grow with
+ * the size of the data.
+ * </p>
+ * <p>
+ * The trace starts with a header of {@value #MAGIC} and {@value #VERSION},
+ * followed by a record for each snapshot. Each record holds its label, the
+ * length of the range, the stride and the number of samples, followed by the
+ * samples, and every value is a 32-bit {@link Integer} in {@link #ORDER}.
+ * {@link TraceConverter} turns a trace into the text that the graphing script
+ * reads.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class SortTracer implements Closeable {
+
+    public static final int MAGIC = 0x42545243;
+    public static final int VERSION = 1;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final int DEFAULT_MAX_SAMPLES = 4096;
+
+    /**
+     * The grain size to sort with while tracing. Snapshots are only taken
+     * between rounds, and a range that is no longer than the grain size is
+     * sorted in a single round, so a small grain gives even a short range a
+     * frame for every round.
+     */
+    public static final int GRAIN_SIZE = GrainSize.CACHE_LINE_INTS;
+
+    // The number of values that come before the samples of each record.
+    static final int RECORD_HEADER_INTS = 4;
+
+    /**
+     * Represents a preallocated slot that holds a single snapshot.
+     */
+    private static class Snapshot {
+
+        /**
+         * Create a new {@link Snapshot} object.
+         *
+         * @param maxSamples The number of samples that the slot can hold.
+         */
+        Snapshot(int maxSamples) {
+            mSamples = new int[maxSamples];
+        }
+
+        private final int[] mSamples;
+
+        private int mLabel;
+        private int mLength;
+        private int mStride;
+        private int mCount;
+
+    }
+
+    // Tells the writer that no more snapshots will arrive.
+    private static final Snapshot END = new Snapshot(0);
+
+    /**
+     * Create a new {@link SortTracer} object with {@value #DEFAULT_CAPACITY}
+     * slots of {@value #DEFAULT_MAX_SAMPLES} samples.
+     *
+     * @param channel The channel to write the trace to, which is closed when
+     *                the tracer is closed. Must not be {@code null}.
+     */
+    public SortTracer(WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Create a new {@link SortTracer} object.
+     *
+     * @param channel    The channel to write the trace to, which is closed when
+     *                   the tracer is closed. Must not be {@code null}.
+     * @param capacity   The number of snapshots that can wait to be written
+     *                   before further snapshots are dropped. Must be positive.
+     * @param maxSamples The greatest number of elements to keep from each
+     *                   snapshot. Must be positive.
+     */
+    public SortTracer(WritableByteChannel channel, int capacity, int maxSamples) {
+        assert channel != null;
+        assert capacity > 0;
+        assert maxSamples > 0;
+
+        mChannel = channel;
+        mMaxSamples = maxSamples;
+        mBuffer = ByteBuffer.allocateDirect((RECORD_HEADER_INTS + maxSamples) * Integer.BYTES).order(ORDER);
+
+        // The filled queue has room for every slot and the end marker, so adding to it never fails.
+        mFree = new ArrayBlockingQueue<>(capacity);
+        mFilled = new ArrayBlockingQueue<>(capacity + 1);
+        for (int i = 0; i < capacity; i++) {
+            mFree.add(new Snapshot(maxSamples));
+        }
+
+        mWriter = new Thread(this::write, "sort-tracer");
+        mWriter.setDaemon(true);
+        mWriter.start();
+    }
+
+    private final WritableByteChannel mChannel;
+    private final int mMaxSamples;
+    private final ByteBuffer mBuffer;
+    private final BlockingQueue<Snapshot> mFree;
+    private final BlockingQueue<Snapshot> mFilled;
+    private final Thread mWriter;
+    private final LongAdder mSnapshots = new LongAdder();
+    private final LongAdder mDropped = new LongAdder();
+
+    private volatile boolean mClosed = false;
+    private volatile IOException mError = null;
+
+    /**
+     * @param data The {@link ISortData} to check.
+     * @return {@code true} if snapshots can be taken of the {@link ISortData},
+     * {@code false} otherwise.
+     */
+    public static boolean canTrace(ISortData data) {
+        return data instanceof IntSortData || data instanceof IntBufferSortData;
+    }
+
+    /**
+     * Takes a snapshot of a range of an array.
+     *
+     * @param label     A label for the snapshot, such as the round of the sort
+     *                  that has just finished.
+     * @param data      The array to take a snapshot of.
+     * @param fromIndex The inclusive start of the range.
+     * @param toIndex   The exclusive end of the range.
+     * @return {@code true} if the snapshot was taken, {@code false} if it was
+     * dropped because every slot was full or the tracer was closed.
+     */
+    public boolean snapshot(int label, int[] data, int fromIndex, int toIndex) {
+        assert data != null;
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length;
+
+        final Snapshot snapshot = claim(label, fromIndex, toIndex);
+        if (snapshot == null) {
+            return false;
+        }
+
+        final int[] samples = snapshot.mSamples;
+        for (int i = 0, index = fromIndex; i < snapshot.mCount; i++, index += snapshot.mStride) {
+            samples[i] = data[index];
+        }
+        return publish(snapshot);
+    }
+
+    /**
+     * Takes a snapshot of a range of an {@link ISortData}.
+     *
+     * @param label     A label for the snapshot, such as the round of the sort
+     *                  that has just finished.
+     * @param data      The {@link ISortData} to take a snapshot of. Must be
+     *                  supported according to {@link #canTrace(ISortData)}.
+     * @param fromIndex The inclusive start of the range.
+     * @param toIndex   The exclusive end of the range.
+     * @return {@code true} if the snapshot was taken, {@code false} if it was
+     * dropped because every slot was full or the tracer was closed.
+     */
+    public boolean snapshot(int label, ISortData data, int fromIndex, int toIndex) {
+        assert canTrace(data);
+        if (data instanceof IntSortData) {
+            return snapshot(label, ((IntSortData) data).getData(), fromIndex, toIndex);
+        }
+
+        assert 0 <= fromIndex && fromIndex <= toIndex && toIndex <= data.length();
+        final Snapshot snapshot = claim(label, fromIndex, toIndex);
+        if (snapshot == null) {
+            return false;
+        }
+
+        final IntBufferSortData buffer = (IntBufferSortData) data;
+        final int[] samples = snapshot.mSamples;
+        for (int i = 0, index = fromIndex; i < snapshot.mCount; i++, index += snapshot.mStride) {
+            samples[i] = buffer.get(index);
+        }
+        return publish(snapshot);
+    }
+
+    /**
+     * @return The number of snapshots that have been taken.
+     */
+    public long getSnapshotCount() {
+        return mSnapshots.sum();
+    }
+
+    /**
+     * @return The number of snapshots that were dropped because every slot
+     * was waiting to be written, or the tracer was closed.
+     */
+    public long getDroppedCount() {
+        return mDropped.sum();
+    }
+
+    /**
+     * Waits for every snapshot that has been taken to be written, and closes
+     * the channel. Snapshots that are taken after this method is called are
+     * dropped.
+     *
+     * @throws IOException if the trace could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+        mFilled.add(END);
+
+        try {
+            mWriter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final String message = "Interrupted while writing the trace.";
+            throw new InterruptedIOException(message);
+        } finally {
+            mChannel.close();
+        }
+
+        if (mError != null) {
+            throw mError;
+        }
+    }
+
+    /**
+     * Takes a free slot, and fills in everything but the samples.
+     *
+     * @param label     The label of the snapshot.
+     * @param fromIndex The inclusive start of the range.
+     * @param toIndex   The exclusive end of the range.
+     * @return The {@link Snapshot} slot, or {@code null} if the snapshot should
+     * be dropped.
+     */
+    private Snapshot claim(int label, int fromIndex, int toIndex) {
+        final Snapshot snapshot = mClosed ? null : mFree.poll();
+        if (snapshot == null) {
+            mDropped.increment();
+            return null;
+        }
+
+        final int length = toIndex - fromIndex;
+        snapshot.mLabel = label;
+        snapshot.mLength = length;
+        snapshot.mStride = Math.max(1, (int) ((length + (long) mMaxSamples - 1) / mMaxSamples));
+        snapshot.mCount = (int) ((length + (long) snapshot.mStride - 1) / snapshot.mStride);
+        return snapshot;
+    }
+
+    /**
+     * Hands a filled slot to the writer, or drops it if the tracer was closed
+     * while it was being filled.
+     *
+     * @param snapshot The {@link Snapshot} slot.
+     * @return {@code true} if the snapshot will be written, {@code false} if
+     * it was dropped.
+     */
+    private boolean publish(Snapshot snapshot) {
+
+        // Closing happens under the same lock, so every snapshot that is handed over comes before the end marker.
+        synchronized (this) {
+            if (!mClosed) {
+                mSnapshots.increment();
+                mFilled.add(snapshot);
+                return true;
+            }
+        }
+
+        mDropped.increment();
+        mFree.add(snapshot);
+        return false;
+    }
+
+    /**
+     * Writes snapshots until the end marker arrives, which is run by the
+     * writer thread. After a write fails, the remaining snapshots are still
+     * taken off the queue, but are not written.
+     */
+    private void write() {
+        try {
+            mBuffer.clear();
+            mBuffer.putInt(MAGIC).putInt(VERSION);
+            drain();
+        } catch (IOException e) {
+            mError = e;
+        }
+
+        while (true) {
+            final Snapshot snapshot;
+            try {
+                snapshot = mFilled.take();
+            } catch (InterruptedException e) {
+
+                // Nothing interrupts the writer, but if something does the trace is given up on.
+                mError = new InterruptedIOException("Interrupted while writing the trace.");
+                return;
+            }
+            if (snapshot == END) {
+                return;
+            }
+
+            if (mError == null) {
+                try {
+                    mBuffer.clear();
+                    mBuffer.putInt(snapshot.mLabel).putInt(snapshot.mLength)
+                            .putInt(snapshot.mStride).putInt(snapshot.mCount);
+                    mBuffer.asIntBuffer().put(snapshot.mSamples, 0, snapshot.mCount);
+                    mBuffer.position(mBuffer.position() + snapshot.mCount * Integer.BYTES);
+                    drain();
+                } catch (IOException e) {
+                    mError = e;
+                }
+            }
+            mFree.add(snapshot);
+        }
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel.
+     *
+     * @throws IOException if the channel could not be written.
+     */
+    private void drain() throws IOException {
+        mBuffer.flip();
+        while (mBuffer.hasRemaining()) {
+            mChannel.write(mBuffer);
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.distributed.tracing;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Converts a trace written by a {@link SortTracer} into the text that
+ * {@code graphing/create-gif-frames.py} reads, which has the samples of each
+ * snapshot on a line of its own in the format of {@link Arrays#toString(int[])}.
+ * <p>
+ * Run {@code java -cp bitonic-sort.jar com.distributed.tracing.TraceConverter
+ * <trace> <source>}, where the source is the {@code out#/source} file of the
+ * script.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class TraceConverter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: java -cp bitonic-sort.jar " + TraceConverter.class.getName()
+                    + " <trace> <source>");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            final int count = convert(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println("Converted " + count + " snapshots.");
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a trace file into a text file.
+     *
+     * @param trace  The trace file to read.
+     * @param source The text file to write, which is replaced if it exists.
+     * @return The number of snapshots that were converted.
+     * @throws IOException if either file could not be accessed, or the trace
+     *                     is not valid.
+     */
+    public static int convert(Path trace, Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(trace);
+             Writer writer = Files.newBufferedWriter(source, StandardCharsets.US_ASCII)) {
+            return convert(channel, writer);
+        }
+    }
+
+    /**
+     * Converts a trace into text, with a line for each snapshot.
+     *
+     * @param trace  The channel to read the trace from, which is not closed.
+     * @param source The {@link Writer} to write the text to, which should be
+     *               buffered. It is flushed but not closed.
+     * @return The number of snapshots that were converted.
+     * @throws IOException if the trace could not be read or is not valid, or the
+     *                     text could not be written.
+     */
+    public static int convert(ReadableByteChannel trace, Writer source) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(SortTracer.ORDER);
+        buffer.flip();
+
+        if (!fill(trace, buffer, 2 * Integer.BYTES)) {
+            final String message = "The trace is empty.";
+            throw new EOFException(message);
+        }
+        final int magic = buffer.getInt();
+        final int version = buffer.getInt();
+        if (magic != SortTracer.MAGIC || version != SortTracer.VERSION) {
+            final String message = "Not a version " + SortTracer.VERSION + " sort trace.";
+            throw new IOException(message);
+        }
+
+        int count = 0;
+        while (fill(trace, buffer, SortTracer.RECORD_HEADER_INTS * Integer.BYTES)) {
+
+            // Only the samples are drawn, so the label, length and stride are skipped.
+            buffer.getInt();
+            buffer.getInt();
+            buffer.getInt();
+            final int samples = buffer.getInt();
+            if (samples < 0) {
+                final String message = "Invalid number of samples in snapshot " + count + ": " + samples;
+                throw new IOException(message);
+            }
+
+            source.write('[');
+            for (int i = 0; i < samples; i++) {
+                if (!fill(trace, buffer, Integer.BYTES)) {
+                    final String message = "The trace ends in the middle of snapshot " + count + ".";
+                    throw new EOFException(message);
+                }
+                if (i > 0) {
+                    source.write(", ");
+                }
+                source.write(Integer.toString(buffer.getInt()));
+            }
+            source.write(']');
+            source.write('\n');
+            count++;
+        }
+
+        source.flush();
+        return count;
+    }
+
+    /**
+     * Reads from a channel until a buffer holds at least a number of bytes.
+     *
+     * @param channel The channel to read from.
+     * @param buffer  The buffer, which is ready to be read from.
+     * @param bytes   The number of bytes that are needed, which must be no more
+     *                than the capacity of the buffer.
+     * @return {@code true} if the bytes are available, {@code false} if the
+     * channel ended before any of them could be read.
+     * @throws IOException if the channel could not be read, or it ended partway
+     *                     through the bytes.
+     */
+    private static boolean fill(ReadableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                final int read = buffer.position();
+                buffer.flip();
+                if (read == 0) {
+                    return false;
+                }
+                final String message = "The trace ends partway through a value.";
+                throw new EOFException(message);
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+}
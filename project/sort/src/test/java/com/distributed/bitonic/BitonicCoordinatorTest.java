@@ -1,6 +1,5 @@
 package com.distributed.bitonic;
 
-import com.distributed.common.MathUtils;
 import com.distributed.common.PrimitiveUtils;
 import com.distributed.common.testing.TestUtils;
 import com.distributed.events.EventQueue;
@@ -24,17 +23,30 @@ public class BitonicCoordinatorTest {
      * Sorts an array using the provided {@link Polarity} and a
      * {@link BitonicCoordinator} object.
      *
-     * @param data     The data to sort. Must have a length that is a
-     *                 power of 2, and must not be {@code null}.
+     * @param data     The data to sort. Must not be {@code null}.
      * @param polarity The {@link Polarity} that dictates how the data will be sorted.
      *                 Must not be {@code null.}
      */
     private static void sortArray(int[] data, Polarity polarity) {
+
+        // The default grain would sort arrays of the test size in a single round.
+        sortArray(data, polarity, GrainSize.CACHE_LINE_INTS);
+    }
+
+    /**
+     * Sorts an array using the provided {@link Polarity} and a
+     * {@link BitonicCoordinator} object.
+     *
+     * @param data      The data to sort. Must not be {@code null}.
+     * @param polarity  The {@link Polarity} that dictates how the data will be sorted.
+     *                  Must not be {@code null.}
+     * @param grainSize The grain size to provide to the {@link BitonicCoordinator}.
+     */
+    private static void sortArray(int[] data, Polarity polarity, int grainSize) {
         assert data != null;
-        assert MathUtils.isPowerOfTwo(data.length);
         assert polarity != null;
 
-        final Iterator<Collection<RecursiveElementSwapper>> coordinator = new BitonicCoordinator(data, polarity);
+        final Iterator<Collection<RecursiveElementSwapper>> coordinator = new BitonicCoordinator(data, polarity, grainSize);
         while (coordinator.hasNext()) {
 
             // Represents the initial round of swappers for the recursive step.
@@ -71,4 +83,17 @@ public class BitonicCoordinatorTest {
         }
     }
 
+    @Test
+    public void testArbitraryLengths() {
+        for (int size = 0; size <= ARRAY_SIZE; size++) {
+            final int[] ascending = PrimitiveUtils.randomArray(mRandom, size);
+            sortArray(ascending, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS);
+            Assertions.assertAscending(ascending);
+
+            final int[] descending = PrimitiveUtils.randomArray(mRandom, size);
+            sortArray(descending, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS);
+            Assertions.assertDescending(descending);
+        }
+    }
+
 }
\ No newline at end of file
@@ -3,9 +3,13 @@ package com.distributed.bitonic;
 import com.distributed.common.PrimitiveUtils;
 import com.distributed.common.testing.TestUtils;
 import com.distributed.sorting.Assertions;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.LongSortData;
 import com.distributed.sorting.Polarity;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -15,29 +19,186 @@ public class BitonicExecutorTest {
     private static final int ARRAY_SIZE = 512;
     private static final int ROUNDS = 30;
     private static final int MAX_THREADS = 20;
+    private static final int MAX_GRAIN_THREADS = 4;
+    private static final int MAX_ARBITRARY_SIZE = 1000;
 
     private final Random mRandom = TestUtils.newRandom();
 
     @Test
     public void testSorting() {
+
+        // The smallest grain keeps arrays of this size spread over many rounds and tasks.
         for (int numThreads = 1; numThreads <= MAX_THREADS; numThreads++) {
 
             for (int i = 0; i < ROUNDS; i++) {
                 final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
-                final BitonicExecutor executor = new BitonicExecutor(numThreads, data, Polarity.ASCENDING);
+                final BitonicExecutor executor =
+                        new BitonicExecutor(numThreads, data, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS);
                 executor.run();
                 Assertions.assertAscending(data);
             }
 
             for (int i = 0; i < ROUNDS; i++) {
                 final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
-                final BitonicExecutor executor = new BitonicExecutor(numThreads, data, Polarity.DESCENDING);
+                final BitonicExecutor executor =
+                        new BitonicExecutor(numThreads, data, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS);
                 executor.run();
                 Assertions.assertDescending(data);
             }
         }
     }
 
+    @Test
+    public void testSortingWithGrainSize() {
+        for (int grainSize = GrainSize.CACHE_LINE_INTS; grainSize <= ARRAY_SIZE * 2; grainSize *= 2) {
+            for (int numThreads = 1; numThreads <= MAX_GRAIN_THREADS; numThreads++) {
+
+                for (int i = 0; i < ROUNDS; i++) {
+                    final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                    final BitonicExecutor executor = new BitonicExecutor(numThreads, data, Polarity.ASCENDING, grainSize);
+                    executor.run();
+                    Assertions.assertAscending(data);
+                }
+
+                for (int i = 0; i < ROUNDS; i++) {
+                    final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                    final BitonicExecutor executor = new BitonicExecutor(numThreads, data, Polarity.DESCENDING, grainSize);
+                    executor.run();
+                    Assertions.assertDescending(data);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testArbitraryLengths() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_ARBITRARY_SIZE + 1);
+            final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+
+            final int[] ascending = PrimitiveUtils.randomArray(mRandom, size);
+            new BitonicExecutor(numThreads, ascending, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS).run();
+            Assertions.assertAscending(ascending);
+
+            final int[] descending = PrimitiveUtils.randomArray(mRandom, size);
+            new BitonicExecutor(numThreads, descending, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS).run();
+            Assertions.assertDescending(descending);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+            final int fromIndex = mRandom.nextInt(ARRAY_SIZE + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(ARRAY_SIZE - fromIndex + 1);
+            final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+
+            final int[] data = Arrays.copyOf(source, ARRAY_SIZE);
+            new BitonicExecutor(numThreads, data, fromIndex, toIndex, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS).run();
+
+            // The range must be sorted, and the rest of the data must be untouched.
+            final int[] expected = Arrays.copyOf(source, ARRAY_SIZE);
+            Arrays.sort(expected, fromIndex, toIndex);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testLongRanges() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final long[] source = new long[ARRAY_SIZE];
+            for (int j = 0; j < ARRAY_SIZE; j++) {
+                source[j] = mRandom.nextLong();
+            }
+            final int fromIndex = mRandom.nextInt(ARRAY_SIZE + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(ARRAY_SIZE - fromIndex + 1);
+            final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+
+            final long[] data = Arrays.copyOf(source, ARRAY_SIZE);
+            final ISortData sortData = new LongSortData(data);
+            new BitonicExecutor(numThreads, sortData, fromIndex, toIndex, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS).run();
+
+            final long[] expected = Arrays.copyOf(source, ARRAY_SIZE);
+            Arrays.sort(expected, fromIndex, toIndex);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testStats() {
+        final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+        final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+        final SortStats stats = new SortStats();
+        new BitonicExecutor(numThreads, new IntSortData(data), 0, ARRAY_SIZE, Polarity.ASCENDING,
+                GrainSize.CACHE_LINE_INTS, stats).run();
+        Assertions.assertAscending(data);
+
+        // Each of the log(n) rounds compares every pair of halves once for each of its passes.
+        final int passes = Integer.numberOfTrailingZeros(ARRAY_SIZE);
+        assertEquals((long) ARRAY_SIZE / 2 * passes * (passes + 1) / 2, stats.getComparisons());
+        assertTrue(0 < stats.getSwaps() && stats.getSwaps() <= stats.getComparisons());
+
+        long previousGroup = 0;
+        for (StageStats stage : stats.getStages()) {
+            assertTrue(stage.getGroupSize() >= previousGroup);
+            assertTrue(stage.getWindowSize() <= stage.getGroupSize());
+            assertEquals(ARRAY_SIZE / stage.getWindowSize(), stage.getTaskCount());
+            assertTrue(stage.getWallTimeNanos() > 0);
+            assertTrue(stage.getBusyTimeNanos() > 0);
+            assertTrue(stage.getQueueWaitNanos() >= 0 && stage.getFutureWaitNanos() >= 0);
+            previousGroup = stage.getGroupSize();
+        }
+        assertEquals(stats.getTaskCount(), stats.getStages().stream().mapToLong(StageStats::getTaskCount).sum());
+    }
+
+    @Test
+    public void testStatsThreadCounts() {
+        final int[] source = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+
+        // The network does not depend on the threads, so every stage swaps the same pairs.
+        final SortStats single = new SortStats();
+        new BitonicExecutor(1, new IntSortData(source.clone()), 0, ARRAY_SIZE, Polarity.ASCENDING,
+                GrainSize.CACHE_LINE_INTS, single).run();
+        final SortStats multiple = new SortStats();
+        new BitonicExecutor(MAX_GRAIN_THREADS, new IntSortData(source.clone()), 0, ARRAY_SIZE, Polarity.ASCENDING,
+                GrainSize.CACHE_LINE_INTS, multiple).run();
+
+        assertEquals(single.getStages().size(), multiple.getStages().size());
+        for (int i = 0; i < single.getStages().size(); i++) {
+            final StageStats expected = single.getStages().get(i);
+            final StageStats actual = multiple.getStages().get(i);
+            assertEquals(expected.getGroupSize(), actual.getGroupSize());
+            assertEquals(expected.getWindowSize(), actual.getWindowSize());
+            assertEquals(expected.getTaskCount(), actual.getTaskCount());
+            assertEquals(expected.getComparisons(), actual.getComparisons());
+            assertEquals(expected.getSwaps(), actual.getSwaps());
+        }
+    }
+
+    @Test
+    public void testStatsArbitraryLengths() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_ARBITRARY_SIZE + 1);
+            final long[] data = new long[size];
+            for (int j = 0; j < size; j++) {
+                data[j] = mRandom.nextLong();
+            }
+
+            // Swaps are only counted for int data, but every other statistic is still recorded.
+            final SortStats stats = new SortStats();
+            new BitonicExecutor(2, new LongSortData(data), 0, size, Polarity.DESCENDING,
+                    GrainSize.CACHE_LINE_INTS, stats).run();
+            final long[] expected = data.clone();
+            Arrays.sort(expected);
+            for (int j = 0; j < size; j++) {
+                assertEquals(expected[size - 1 - j], data[j]);
+            }
+            assertEquals(0, stats.getSwaps());
+            assertEquals(size > 1, stats.getComparisons() > 0);
+        }
+    }
+
     @Test
     public void testInvalidConstructor() {
 
@@ -59,10 +220,19 @@ public class BitonicExecutorTest {
         }
         assertTrue(exceptionThrow);
 
-        // Data that has a length that is not a power of 2 is invalid.
+        // A range that ends past the end of the data is invalid.
         exceptionThrow = false;
         try {
-            new BitonicExecutor(1, new int[3], Polarity.ASCENDING);
+            new BitonicExecutor(1, new int[3], 1, 4, Polarity.ASCENDING);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // A range that ends before it starts is invalid.
+        exceptionThrow = false;
+        try {
+            new BitonicExecutor(1, new int[3], 2, 1, Polarity.ASCENDING);
         } catch (AssertionError e) {
             exceptionThrow = true;
         }
@@ -76,6 +246,24 @@ public class BitonicExecutorTest {
             exceptionThrow = true;
         }
         assertTrue(exceptionThrow);
+
+        // A grain size that is smaller than a cache line is invalid.
+        exceptionThrow = false;
+        try {
+            new BitonicExecutor(1, new int[2], Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS / 2);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // A grain size that is not a power of 2 is invalid.
+        exceptionThrow = false;
+        try {
+            new BitonicExecutor(1, new int[2], Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS + 1);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
     }
 
 }
\ No newline at end of file
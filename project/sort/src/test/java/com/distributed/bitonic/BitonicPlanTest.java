@@ -0,0 +1,129 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BitonicPlanTest {
+
+    private static final int MAX_SIZE = 20000;
+    private static final int ROUNDS = 30;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testWindowPolarities() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int length = mRandom.nextInt(MAX_SIZE + 1);
+            final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+            final BitonicPlan plan = new BitonicPlan(length, polarity, GrainSize.CACHE_LINE_INTS);
+
+            // Every window must have the same polarity as when walking the tree of windows.
+            for (int round = 0; round < plan.getRoundCount(); round++) {
+                final long groupSize = plan.getGroupSize(round);
+                for (int window = 0; window < plan.getWindowCount(round); window++) {
+                    final Polarity expected = BitonicCoordinator.polarityOf(
+                            0, length, polarity, (int) (window * groupSize), groupSize
+                    );
+                    assertSame(expected, plan.getWindowPolarity(round, window));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStages() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int length = mRandom.nextInt(MAX_SIZE + 1);
+            final int fromIndex = mRandom.nextInt(100);
+            final int[] data = PrimitiveUtils.randomArray(mRandom, fromIndex + length);
+            final IntSortData sortData = new IntSortData(data);
+
+            // Performing the work items of every stage in any split must sort the range.
+            final BitonicPlan plan = new BitonicPlan(length, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS);
+            for (int stage = 0; stage < plan.getStageCount(); stage++) {
+                final long size = plan.getStageSize(stage);
+                final long split = size == 0 ? 0 : (long) (mRandom.nextDouble() * size);
+                plan.execute(stage, sortData, fromIndex, split, size);
+                plan.execute(stage, sortData, fromIndex, 0, split);
+            }
+
+            final int[] range = new int[length];
+            System.arraycopy(data, fromIndex, range, 0, length);
+            Assertions.assertDescending(range);
+        }
+    }
+
+    @Test
+    public void testBlockSizes() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int length = mRandom.nextInt(MAX_SIZE + 1);
+            final int blockSize = GrainSize.CACHE_LINE_INTS << mRandom.nextInt(8);
+            final int[] data = PrimitiveUtils.randomArray(mRandom, length);
+            final IntSortData sortData = new IntSortData(data);
+
+            // A larger block must still sort the range, in fewer stages than the grain alone.
+            final BitonicPlan plan = new BitonicPlan(length, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, blockSize);
+            final BitonicPlan grained = new BitonicPlan(length, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS);
+            assertTrue(plan.getStageCount() <= grained.getStageCount());
+
+            for (int stage = 0; stage < plan.getStageCount(); stage++) {
+                plan.execute(stage, sortData, 0, 0, plan.getStageSize(stage));
+            }
+            Assertions.assertAscending(data);
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testBlockSmallerThanGrain() {
+        new BitonicPlan(100, Polarity.ASCENDING, GrainSize.DEFAULT, GrainSize.CACHE_LINE_INTS);
+    }
+
+    @Test
+    public void testEmptyPlans() {
+        assertEquals(0, new BitonicPlan(0, Polarity.ASCENDING, GrainSize.DEFAULT).getStageCount());
+        assertEquals(0, new BitonicPlan(1, Polarity.ASCENDING, GrainSize.DEFAULT).getStageCount());
+        assertEquals(1, new BitonicPlan(2, Polarity.ASCENDING, GrainSize.DEFAULT).getStageCount());
+    }
+
+    @Test
+    public void testCache() {
+        final PlanCache cache = new PlanCache(4);
+
+        // A cached plan must be reused for the same sort.
+        final BitonicPlan plan = cache.get(1000, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.CACHE_LINE_INTS);
+        assertTrue(plan.matches(1000, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.CACHE_LINE_INTS));
+        assertSame(plan, cache.get(1000, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.CACHE_LINE_INTS));
+
+        final BitonicPlan descending =
+                cache.get(1000, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.CACHE_LINE_INTS);
+        assertTrue(descending.matches(1000, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.CACHE_LINE_INTS));
+
+        final BitonicPlan grain = cache.get(1000, Polarity.ASCENDING, GrainSize.DEFAULT, GrainSize.DEFAULT);
+        assertTrue(grain.matches(1000, Polarity.ASCENDING, GrainSize.DEFAULT, GrainSize.DEFAULT));
+
+        final BitonicPlan block = cache.get(1000, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.DEFAULT);
+        assertTrue(block.matches(1000, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.DEFAULT));
+        assertFalse(block.matches(1000, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS, GrainSize.CACHE_LINE_INTS));
+
+        // Any number of sorts must still produce the right plan, even once plans are evicted.
+        for (int i = 0; i < ROUNDS; i++) {
+            final int length = mRandom.nextInt(MAX_SIZE + 1);
+            assertTrue(cache.get(length, Polarity.ASCENDING, GrainSize.DEFAULT, GrainSize.DEFAULT)
+                    .matches(length, Polarity.ASCENDING, GrainSize.DEFAULT, GrainSize.DEFAULT));
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testInvalidCapacity() {
+        new PlanCache(3);
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.LongSortData;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BitonicSortServiceTest {
+
+    private static final int MAX_SIZE = 5000;
+    private static final int ROUNDS = 30;
+    private static final int NUM_THREADS = 4;
+    private static final int NUM_CALLERS = 8;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSorting() throws InterruptedException {
+        final BitonicSortService service = new BitonicSortService(NUM_THREADS);
+
+        // The same service must be able to sort any number of arrays.
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] ascending = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            service.sort(ascending);
+            Assertions.assertAscending(ascending);
+
+            final int[] descending = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            service.sort(descending, Polarity.DESCENDING);
+            Assertions.assertDescending(descending);
+        }
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testAsyncSorting() throws InterruptedException, ExecutionException {
+        final BitonicSortService service = new BitonicSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+
+        final List<int[]> expected = new ArrayList<>();
+        final List<Future<int[]>> results = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] data = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            final int[] sorted = Arrays.copyOf(data, data.length);
+            Arrays.sort(sorted);
+            expected.add(sorted);
+            results.add(service.sortAsync(data));
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertArrayEquals(expected.get(i), results.get(i).get());
+        }
+
+        final long[] longs = new long[MAX_SIZE];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = mRandom.nextLong();
+        }
+        final LongSortData data = new LongSortData(longs);
+        assertSame(data, service.sortAsync(data, 0, longs.length, Polarity.ASCENDING).get());
+        for (int i = 1; i < longs.length; i++) {
+            assertTrue(longs[i - 1] <= longs[i]);
+        }
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testConcurrentCallers() throws InterruptedException {
+        final BitonicSortService service = new BitonicSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+
+        final Collection<Thread> callers = new ArrayList<>();
+        final Collection<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < NUM_CALLERS; i++) {
+            final long seed = mRandom.nextLong();
+            final Thread caller = new Thread(() -> {
+                final Random random = new Random(seed);
+                try {
+                    for (int j = 0; j < ROUNDS; j++) {
+                        final int[] data = PrimitiveUtils.randomArray(random, random.nextInt(MAX_SIZE + 1));
+                        service.sort(data);
+                        Assertions.assertAscending(data);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        assertTrue(failures.isEmpty());
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testRanges() {
+        final BitonicSortService service = new BitonicSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+            final int fromIndex = mRandom.nextInt(size + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(size - fromIndex + 1);
+
+            final int[] data = PrimitiveUtils.randomArray(mRandom, size);
+            final int[] expected = Arrays.copyOf(data, data.length);
+            Arrays.sort(expected, fromIndex, toIndex);
+
+            service.sort(data, fromIndex, toIndex, Polarity.ASCENDING);
+            assertArrayEquals(expected, data);
+        }
+
+        service.shutdown();
+    }
+
+    @Test
+    public void testBatchSorting() throws InterruptedException {
+        final BitonicSortService service = new BitonicSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+
+        // Batches of many small arrays as well as a few large arrays must be sorted.
+        for (int i = 0; i < ROUNDS; i++) {
+            final int length = mRandom.nextInt(i % 2 == 0 ? 64 : MAX_SIZE + 1);
+            final int[][] batch = new int[mRandom.nextInt(100) + 1][];
+            final int[][] expected = new int[batch.length][];
+            for (int j = 0; j < batch.length; j++) {
+                batch[j] = PrimitiveUtils.randomArray(mRandom, length);
+                expected[j] = Arrays.copyOf(batch[j], length);
+                Arrays.sort(expected[j]);
+            }
+
+            final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+            if (mRandom.nextBoolean()) {
+                service.sortBatch(batch, polarity);
+            } else {
+                service.sortBatch(Arrays.asList(batch), polarity);
+            }
+
+            for (int j = 0; j < batch.length; j++) {
+                for (int k = 0; k < length; k++) {
+                    final int index = polarity == Polarity.ASCENDING ? k : length - 1 - k;
+                    assertEquals(expected[j][index], batch[j][k]);
+                }
+            }
+        }
+
+        // An empty batch has nothing to sort.
+        service.sortBatch(new int[0][]);
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLengthMismatch() {
+        final BitonicSortService service = new BitonicSortService(1);
+        try {
+            service.sortBatch(new int[][]{new int[4], new int[5]});
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testSortAfterShutdown() {
+        final BitonicSortService service = new BitonicSortService(1);
+        service.shutdown();
+        service.sort(new int[4]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReversedRange() {
+        final BitonicSortService service = new BitonicSortService(1);
+        try {
+            service.sort(new int[4], 3, 2, Polarity.ASCENDING);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.Permutations;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BitonicSortTest {
+
+    private static final int MAX_SIZE = 5000;
+    private static final int ROUNDS = 30;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSorting() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] data = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            final int[] expected = Arrays.copyOf(data, data.length);
+            Arrays.sort(expected);
+
+            BitonicSort.sort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+            final int fromIndex = mRandom.nextInt(size + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(size - fromIndex + 1);
+
+            final int[] data = PrimitiveUtils.randomArray(mRandom, size);
+            final int[] expected = Arrays.copyOf(data, data.length);
+            Arrays.sort(expected, fromIndex, toIndex);
+
+            BitonicSort.sort(data, fromIndex, toIndex);
+            assertArrayEquals(expected, data);
+
+            BitonicSort.sort(data, fromIndex, toIndex, Polarity.DESCENDING);
+            Assertions.assertDescending(Arrays.copyOfRange(data, fromIndex, toIndex));
+        }
+    }
+
+    @Test
+    public void testLongSorting() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final long[] data = new long[mRandom.nextInt(MAX_SIZE + 1)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = mRandom.nextLong();
+            }
+
+            final long[] expected = Arrays.copyOf(data, data.length);
+            Arrays.sort(expected);
+
+            BitonicSort.sort(data);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testDoubleSorting() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final double[] data = new double[mRandom.nextInt(MAX_SIZE + 1)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = randomDouble();
+            }
+
+            final double[] expected = Arrays.copyOf(data, data.length);
+            Arrays.sort(expected);
+
+            BitonicSort.sort(data);
+            assertArrayEquals(toBits(expected), toBits(data));
+
+            // Sorting in descending order must produce the ascending result in reverse.
+            BitonicSort.sort(data, 0, data.length, Polarity.DESCENDING);
+            for (int j = 0; j < data.length; j++) {
+                final double reversed = expected[expected.length - 1 - j];
+                assertEquals(Double.doubleToLongBits(reversed), Double.doubleToLongBits(data[j]));
+            }
+        }
+    }
+
+    @Test
+    public void testFloatSorting() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final float[] data = new float[mRandom.nextInt(MAX_SIZE + 1)];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = (float) randomDouble();
+            }
+
+            final float[] expected = Arrays.copyOf(data, data.length);
+            Arrays.sort(expected);
+
+            BitonicSort.sort(data);
+            for (int j = 0; j < data.length; j++) {
+                assertEquals(Float.floatToIntBits(expected[j]), Float.floatToIntBits(data[j]));
+            }
+        }
+    }
+
+    @Test
+    public void testPayloadSorting() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+            final int[] source = PrimitiveUtils.randomArray(mRandom, size);
+
+            final int[] keys = Arrays.copyOf(source, size);
+            final int[] payload = Permutations.identity(size);
+            BitonicSort.sort(keys, payload);
+
+            // Each payload element must still identify the key that it started with.
+            Assertions.assertAscending(keys);
+            for (int j = 0; j < size; j++) {
+                assertEquals(source[payload[j]], keys[j]);
+            }
+
+            final double[] doubleKeys = new double[size];
+            final long[] longPayload = new long[size];
+            for (int j = 0; j < size; j++) {
+                doubleKeys[j] = randomDouble();
+                longPayload[j] = Double.doubleToRawLongBits(doubleKeys[j]);
+            }
+            BitonicSort.sort(doubleKeys, longPayload);
+            for (int j = 0; j < size; j++) {
+                assertEquals(longPayload[j], Double.doubleToRawLongBits(doubleKeys[j]));
+                assertTrue(j == 0 || Double.compare(doubleKeys[j - 1], doubleKeys[j]) <= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testArgsort() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+
+            final int[] intKeys = PrimitiveUtils.randomArray(mRandom, size);
+            final long[] longKeys = new long[size];
+            final double[] doubleKeys = new double[size];
+            final float[] floatKeys = new float[size];
+            for (int j = 0; j < size; j++) {
+                longKeys[j] = mRandom.nextLong();
+                doubleKeys[j] = randomDouble();
+                floatKeys[j] = (float) randomDouble();
+            }
+
+            final int[] intCopy = Arrays.copyOf(intKeys, size);
+            final int[] intSorted = Permutations.gather(BitonicSort.argsort(intKeys), intKeys);
+            assertArrayEquals(intCopy, intKeys);
+            Arrays.sort(intCopy);
+            assertArrayEquals(intCopy, intSorted);
+
+            final long[] longSorted = Permutations.gather(BitonicSort.argsort(longKeys, Polarity.DESCENDING), longKeys);
+            final long[] longExpected = Arrays.copyOf(longKeys, size);
+            Arrays.sort(longExpected);
+            for (int j = 0; j < size; j++) {
+                assertEquals(longExpected[size - 1 - j], longSorted[j]);
+            }
+
+            final double[] doubleSorted = Permutations.gather(BitonicSort.argsort(doubleKeys), doubleKeys);
+            final double[] doubleExpected = Arrays.copyOf(doubleKeys, size);
+            Arrays.sort(doubleExpected);
+            assertArrayEquals(toBits(doubleExpected), toBits(doubleSorted));
+
+            final float[] floatSorted = Permutations.gather(BitonicSort.argsort(floatKeys), floatKeys);
+            final float[] floatExpected = Arrays.copyOf(floatKeys, size);
+            Arrays.sort(floatExpected);
+            for (int j = 0; j < size; j++) {
+                assertEquals(Float.floatToIntBits(floatExpected[j]), Float.floatToIntBits(floatSorted[j]));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPayloadLengthMismatch() {
+        BitonicSort.sort(new long[4], new int[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReversedRange() {
+        BitonicSort.sort(new int[4], 3, 2);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testNegativeRange() {
+        BitonicSort.sort(new int[4], -1, 2);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testRangePastEnd() {
+        BitonicSort.sort(new int[4], 0, 5);
+    }
+
+    /**
+     * @return A random value, which is frequently one of the values that
+     * {@link Double#compare(double, double)} orders specially.
+     */
+    private double randomDouble() {
+        switch (mRandom.nextInt(8)) {
+            case 0:
+                return Double.NaN;
+            case 1:
+                return mRandom.nextBoolean() ? 0.0 : -0.0;
+            case 2:
+                return mRandom.nextBoolean() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            default:
+                return mRandom.nextGaussian();
+        }
+    }
+
+    /**
+     * @param data The values to convert.
+     * @return The result of {@link Double#doubleToLongBits(double)} for each value.
+     */
+    private static long[] toBits(double[] data) {
+        final long[] result = new long[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = Double.doubleToLongBits(data[i]);
+        }
+        return result;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BlockBitonicExecutorTest {
+
+    private static final int ARRAY_SIZE = 512;
+    private static final int ROUNDS = 30;
+    private static final int MAX_THREADS = 8;
+    private static final int MAX_BLOCKS = 40;
+    private static final int MAX_ARBITRARY_SIZE = 2000;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSorting() {
+        for (int numThreads = 1; numThreads <= MAX_THREADS; numThreads++) {
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                new BlockBitonicExecutor(numThreads, data, Polarity.ASCENDING).run();
+                Assertions.assertAscending(data);
+            }
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                new BlockBitonicExecutor(numThreads, data, Polarity.DESCENDING).run();
+                Assertions.assertDescending(data);
+            }
+        }
+    }
+
+    @Test
+    public void testArbitraryBlocks() {
+        for (int numBlocks = 1; numBlocks <= MAX_BLOCKS; numBlocks++) {
+            for (int i = 0; i < ROUNDS; i++) {
+
+                // The final block is usually shorter than the others, and there may be more blocks than elements.
+                final int size = mRandom.nextInt(MAX_ARBITRARY_SIZE + 1);
+                final int numThreads = 1 + mRandom.nextInt(MAX_THREADS);
+                final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+
+                final int[] data = PrimitiveUtils.randomArray(mRandom, size);
+                new BlockBitonicExecutor(numThreads, data, 0, size, polarity, numBlocks).run();
+                if (polarity == Polarity.ASCENDING) {
+                    Assertions.assertAscending(data);
+                } else {
+                    Assertions.assertDescending(data);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicates() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] data = new int[ARRAY_SIZE];
+            for (int j = 0; j < ARRAY_SIZE; j++) {
+                data[j] = mRandom.nextInt(4);
+            }
+            final int[] expected = Arrays.copyOf(data, ARRAY_SIZE);
+            Arrays.sort(expected);
+
+            new BlockBitonicExecutor(1 + mRandom.nextInt(MAX_THREADS), data, 0, ARRAY_SIZE,
+                    Polarity.ASCENDING, 1 + mRandom.nextInt(MAX_BLOCKS)).run();
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+            final int fromIndex = mRandom.nextInt(ARRAY_SIZE + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(ARRAY_SIZE - fromIndex + 1);
+
+            final int[] data = Arrays.copyOf(source, ARRAY_SIZE);
+            new BlockBitonicExecutor(1 + mRandom.nextInt(MAX_THREADS), data, fromIndex, toIndex,
+                    Polarity.ASCENDING, 1 + mRandom.nextInt(MAX_BLOCKS)).run();
+
+            // The range must be sorted, and the rest of the data must be untouched.
+            final int[] expected = Arrays.copyOf(source, ARRAY_SIZE);
+            Arrays.sort(expected, fromIndex, toIndex);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testMergeSplit() {
+        final int[] source = {1, 4, 6, 9, 2, 3, 7};
+        final int[] lower = new int[4];
+        final int[] upper = new int[3];
+
+        // Both halves of a merge-split must together hold every element, in order.
+        BlockBitonicExecutor.mergeFirst(source, 0, 4, 4, 3, lower, 0, 4, true);
+        BlockBitonicExecutor.mergeLast(source, 0, 4, 4, 3, upper, 0, 3, true);
+        assertArrayEquals(new int[]{1, 2, 3, 4}, lower);
+        assertArrayEquals(new int[]{6, 7, 9}, upper);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testInvalidBlocks() {
+        new BlockBitonicExecutor(1, new int[4], 0, 4, Polarity.ASCENDING, 0);
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.ISortData;
+import com.distributed.sorting.LongSortData;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ForkJoinBitonicExecutorTest {
+
+    private static final int ARRAY_SIZE = 512;
+    private static final int ROUNDS = 30;
+    private static final int MAX_THREADS = 20;
+    private static final int MAX_GRAIN_THREADS = 4;
+    private static final int MAX_ARBITRARY_SIZE = 1000;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSorting() {
+
+        // The smallest grain keeps arrays of this size spread over many rounds and tasks.
+        for (int numThreads = 1; numThreads <= MAX_THREADS; numThreads++) {
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                final ForkJoinBitonicExecutor executor =
+                        new ForkJoinBitonicExecutor(numThreads, data, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS);
+                executor.run();
+                Assertions.assertAscending(data);
+            }
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                final ForkJoinBitonicExecutor executor =
+                        new ForkJoinBitonicExecutor(numThreads, data, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS);
+                executor.run();
+                Assertions.assertDescending(data);
+            }
+        }
+    }
+
+    @Test
+    public void testSortingWithGrainSize() {
+        for (int grainSize = GrainSize.CACHE_LINE_INTS; grainSize <= ARRAY_SIZE * 2; grainSize *= 2) {
+            for (int numThreads = 1; numThreads <= MAX_GRAIN_THREADS; numThreads++) {
+
+                for (int i = 0; i < ROUNDS; i++) {
+                    final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                    final ForkJoinBitonicExecutor executor = new ForkJoinBitonicExecutor(numThreads, data, Polarity.ASCENDING, grainSize);
+                    executor.run();
+                    Assertions.assertAscending(data);
+                }
+
+                for (int i = 0; i < ROUNDS; i++) {
+                    final int[] data = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+                    final ForkJoinBitonicExecutor executor = new ForkJoinBitonicExecutor(numThreads, data, Polarity.DESCENDING, grainSize);
+                    executor.run();
+                    Assertions.assertDescending(data);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testArbitraryLengths() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_ARBITRARY_SIZE + 1);
+            final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+
+            final int[] ascending = PrimitiveUtils.randomArray(mRandom, size);
+            new ForkJoinBitonicExecutor(numThreads, ascending, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS).run();
+            Assertions.assertAscending(ascending);
+
+            final int[] descending = PrimitiveUtils.randomArray(mRandom, size);
+            new ForkJoinBitonicExecutor(numThreads, descending, Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS).run();
+            Assertions.assertDescending(descending);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, ARRAY_SIZE);
+            final int fromIndex = mRandom.nextInt(ARRAY_SIZE + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(ARRAY_SIZE - fromIndex + 1);
+            final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+
+            final int[] data = Arrays.copyOf(source, ARRAY_SIZE);
+            new ForkJoinBitonicExecutor(numThreads, data, fromIndex, toIndex, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS).run();
+
+            // The range must be sorted, and the rest of the data must be untouched.
+            final int[] expected = Arrays.copyOf(source, ARRAY_SIZE);
+            Arrays.sort(expected, fromIndex, toIndex);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testLongRanges() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final long[] source = new long[ARRAY_SIZE];
+            for (int j = 0; j < ARRAY_SIZE; j++) {
+                source[j] = mRandom.nextLong();
+            }
+            final int fromIndex = mRandom.nextInt(ARRAY_SIZE + 1);
+            final int toIndex = fromIndex + mRandom.nextInt(ARRAY_SIZE - fromIndex + 1);
+            final int numThreads = 1 + mRandom.nextInt(MAX_GRAIN_THREADS);
+
+            final long[] data = Arrays.copyOf(source, ARRAY_SIZE);
+            final ISortData sortData = new LongSortData(data);
+            new ForkJoinBitonicExecutor(numThreads, sortData, fromIndex, toIndex, Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS).run();
+
+            final long[] expected = Arrays.copyOf(source, ARRAY_SIZE);
+            Arrays.sort(expected, fromIndex, toIndex);
+            assertArrayEquals(expected, data);
+        }
+    }
+
+    @Test
+    public void testInvalidConstructor() {
+
+        // 0 threads is invalid.
+        boolean exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(0, new int[2], Polarity.ASCENDING);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // Null data is invalid.
+        exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(1, null, Polarity.ASCENDING);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // A range that ends past the end of the data is invalid.
+        exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(1, new int[3], 1, 4, Polarity.ASCENDING);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // A range that ends before it starts is invalid.
+        exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(1, new int[3], 2, 1, Polarity.ASCENDING);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // Null polarity is invalid.
+        exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(1, new int[2], null);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // A grain size that is smaller than a cache line is invalid.
+        exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(1, new int[2], Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS / 2);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+
+        // A grain size that is not a power of 2 is invalid.
+        exceptionThrow = false;
+        try {
+            new ForkJoinBitonicExecutor(1, new int[2], Polarity.ASCENDING, GrainSize.CACHE_LINE_INTS + 1);
+        } catch (AssertionError e) {
+            exceptionThrow = true;
+        }
+        assertTrue(exceptionThrow);
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.IntBufferSortData;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedFileSorterTest {
+
+    private static final int MAX_SIZE = 5000;
+    private static final int ROUNDS = 10;
+    private static final int MAX_THREADS = 4;
+    private static final int REGION_SIZE = 64;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSortFile() throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            final ByteOrder order = mRandom.nextBoolean() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            final Path file = write(source, order);
+            try {
+                MappedFileSorter.sort(file, 1 + mRandom.nextInt(MAX_THREADS), Polarity.ASCENDING,
+                        order, GrainSize.CACHE_LINE_INTS);
+
+                final int[] expected = source.clone();
+                Arrays.sort(expected);
+                assertArrayEquals(expected, read(file, order));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testSortRegions() throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            final Path file = write(source, MappedFileSorter.DEFAULT_ORDER);
+
+            // Mapping the file in many small regions must give the same result as a single region.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final IntBufferSortData data = IntBufferSortData.map(
+                        channel, 0, source.length, MappedFileSorter.DEFAULT_ORDER, REGION_SIZE
+                );
+                new PhaserBitonicExecutor(1 + mRandom.nextInt(MAX_THREADS), data, 0, source.length,
+                        Polarity.DESCENDING, GrainSize.CACHE_LINE_INTS).run();
+                data.force();
+            }
+
+            try {
+                final int[] expected = source.clone();
+                Arrays.sort(expected);
+                final int[] actual = read(file, MappedFileSorter.DEFAULT_ORDER);
+                for (int j = 0; j < expected.length; j++) {
+                    assertEquals(expected[expected.length - 1 - j], actual[j]);
+                }
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartialElement() throws IOException {
+        final Path file = Files.createTempFile("sort", ".bin");
+        try {
+            Files.write(file, new byte[Integer.BYTES + 1]);
+            MappedFileSorter.sort(file, 1, Polarity.ASCENDING);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * @param data  The elements to write.
+     * @param order The {@link ByteOrder} to write the elements in.
+     * @return The {@link Path} of a new temporary file holding the elements.
+     * @throws IOException if the file could not be written.
+     */
+    private static Path write(int[] data, ByteOrder order) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(data.length * Integer.BYTES).order(order);
+        buffer.asIntBuffer().put(data);
+
+        final Path file = Files.createTempFile("sort", ".bin");
+        Files.write(file, buffer.array());
+        return file;
+    }
+
+    /**
+     * @param file  The {@link Path} of a file of elements.
+     * @param order The {@link ByteOrder} of the elements.
+     * @return The elements in the file.
+     * @throws IOException if the file could not be read.
+     */
+    private static int[] read(Path file, ByteOrder order) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(order);
+        final int[] data = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(data);
+        return data;
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class NetworkSortTest {
+
+    private static final int MAX_SIZE = 5000;
+    private static final int ROUNDS = 10;
+    private static final int MAX_WORKERS = 7;
+    private static final int NUM_PROCESSES = 4;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testMergeSplit() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final boolean ascending = mRandom.nextBoolean();
+            final int[] first = sortedRun(1 + mRandom.nextInt(MAX_SIZE), ascending);
+            final int[] second = sortedRun(1 + mRandom.nextInt(MAX_SIZE), ascending);
+            final int[] source = new int[first.length + second.length];
+            System.arraycopy(first, 0, source, 0, first.length);
+            System.arraycopy(second, 0, source, first.length, second.length);
+
+            // The merge-split over buffers must match the one of the block engine over arrays.
+            final int[] expectedFirst = new int[first.length];
+            final int[] expectedLast = new int[second.length];
+            BlockBitonicExecutor.mergeFirst(source, 0, first.length, first.length, second.length,
+                    expectedFirst, 0, expectedFirst.length, ascending);
+            BlockBitonicExecutor.mergeLast(source, 0, first.length, first.length, second.length,
+                    expectedLast, 0, expectedLast.length, ascending);
+
+            final int[] actualFirst = new int[first.length];
+            final int[] actualLast = new int[second.length];
+            NetworkSortWorker.mergeFirst(IntBuffer.wrap(first), IntBuffer.wrap(second),
+                    IntBuffer.wrap(actualFirst), ascending);
+            NetworkSortWorker.mergeLast(IntBuffer.wrap(first), IntBuffer.wrap(second),
+                    IntBuffer.wrap(actualLast), ascending);
+            assertArrayEquals(expectedFirst, actualFirst);
+            assertArrayEquals(expectedLast, actualLast);
+        }
+    }
+
+    @Test
+    public void testWorkerThreads() throws Exception {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int numWorkers = 1 + mRandom.nextInt(MAX_WORKERS);
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+            final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+
+            final int[] source = PrimitiveUtils.randomArray(mRandom, size);
+            final int[] data = source.clone();
+            final ExecutorService threads = Executors.newFixedThreadPool(numWorkers);
+            try (NetworkSortCoordinator coordinator = new NetworkSortCoordinator(numWorkers)) {
+
+                // Every worker runs on its own thread, but only talks to the others through sockets.
+                final InetSocketAddress address = coordinator.getAddress();
+                final List<Future<?>> workers = new ArrayList<>();
+                for (int worker = 0; worker < numWorkers; worker++) {
+                    workers.add(threads.submit(() -> {
+                        new NetworkSortWorker(address).run();
+                        return null;
+                    }));
+                }
+
+                coordinator.sort(data, polarity);
+                for (Future<?> worker : workers) {
+                    worker.get(1, TimeUnit.MINUTES);
+                }
+            } finally {
+                threads.shutdown();
+            }
+
+            assertSorted(source, data, polarity);
+        }
+    }
+
+    @Test
+    public void testWorkerProcesses() throws Exception {
+        final int[] source = PrimitiveUtils.randomArray(mRandom, MAX_SIZE);
+        final int[] data = source.clone();
+
+        try (NetworkSortCoordinator coordinator = new NetworkSortCoordinator(NUM_PROCESSES)) {
+            final InetSocketAddress address = coordinator.getAddress();
+            final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+            // Each worker is a separate JVM on the loopback interface.
+            final List<Process> processes = new ArrayList<>();
+            for (int worker = 0; worker < NUM_PROCESSES; worker++) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        NetworkSortWorker.class.getName(), address.getHostString(), String.valueOf(address.getPort()))
+                        .inheritIO()
+                        .start());
+            }
+
+            try {
+                coordinator.sort(data, Polarity.ASCENDING);
+                for (Process process : processes) {
+                    assertTrue(process.waitFor(1, TimeUnit.MINUTES));
+                    assertEquals(0, process.exitValue());
+                }
+            } finally {
+                for (Process process : processes) {
+                    process.destroy();
+                }
+            }
+        }
+
+        assertSorted(source, data, Polarity.ASCENDING);
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        final int[] source = PrimitiveUtils.randomArray(mRandom, MAX_SIZE);
+        final int[] data = source.clone();
+        final int fromIndex = mRandom.nextInt(MAX_SIZE / 2);
+        final int toIndex = MAX_SIZE / 2 + mRandom.nextInt(MAX_SIZE / 2);
+
+        final ExecutorService threads = Executors.newCachedThreadPool();
+        try (NetworkSortCoordinator coordinator = new NetworkSortCoordinator(3)) {
+            final InetSocketAddress address = coordinator.getAddress();
+            for (int worker = 0; worker < 3; worker++) {
+                threads.submit(() -> {
+                    new NetworkSortWorker(address).run();
+                    return null;
+                });
+            }
+            coordinator.sort(data, fromIndex, toIndex, Polarity.ASCENDING);
+        } finally {
+            threads.shutdown();
+        }
+
+        // The range must be sorted, and the rest of the data must be untouched.
+        final int[] expected = source.clone();
+        Arrays.sort(expected, fromIndex, toIndex);
+        assertArrayEquals(expected, data);
+    }
+
+    /**
+     * @param source   The data before it was sorted.
+     * @param data     The data after it was sorted.
+     * @param polarity The {@link Polarity} that the data was sorted in.
+     */
+    private static void assertSorted(int[] source, int[] data, Polarity polarity) {
+        final int[] expected = source.clone();
+        Arrays.sort(expected);
+        for (int j = 0; j < expected.length; j++) {
+            final int index = polarity == Polarity.ASCENDING ? j : expected.length - 1 - j;
+            assertEquals(expected[index], data[j]);
+        }
+    }
+
+    /**
+     * @param length    The length of the run.
+     * @param ascending {@code true} for an ascending run, {@code false} for a
+     *                  descending one.
+     * @return A new run of random elements in the requested order.
+     */
+    private int[] sortedRun(int length, boolean ascending) {
+        final int[] run = PrimitiveUtils.randomArray(mRandom, length);
+        Arrays.sort(run);
+        if (!ascending) {
+            for (int i = 0, j = run.length - 1; i < j; i++, j--) {
+                final int temp = run[i];
+                run[i] = run[j];
+                run[j] = temp;
+            }
+        }
+        return run;
+    }
+
+}
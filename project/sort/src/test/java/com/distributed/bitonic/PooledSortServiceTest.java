@@ -0,0 +1,223 @@
+package com.distributed.bitonic;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.ISwapDecision;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class PooledSortServiceTest {
+
+    private static final int MAX_SIZE = 5000;
+    private static final int ROUNDS = 30;
+    private static final int NUM_THREADS = 4;
+    private static final int BARRIER_TIMEOUT_SECONDS = 10;
+
+    private static final int ALLOCATION_SIZE = 1 << 16;
+    private static final int WARMUP_SORTS = 20;
+    private static final int MEASURED_SORTS = 10;
+
+    // The bytes that may be allocated by all threads across every measured sort.
+    private static final long ALLOCATION_BUDGET = 64 * 1024;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSorting() throws InterruptedException {
+        final PooledSortService service = new PooledSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+
+        // The same service must be able to sort any number of arrays.
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] ascending = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            service.sort(ascending);
+            Assertions.assertAscending(ascending);
+
+            final int[] descending = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            service.sort(descending, Polarity.DESCENDING);
+            Assertions.assertDescending(descending);
+        }
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testRanges() throws InterruptedException {
+        final PooledSortService service = new PooledSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int size = mRandom.nextInt(MAX_SIZE + 1);
+                final int fromIndex = mRandom.nextInt(size + 1);
+                final int toIndex = fromIndex + mRandom.nextInt(size - fromIndex + 1);
+
+                final int[] data = PrimitiveUtils.randomArray(mRandom, size);
+                final int[] expected = Arrays.copyOf(data, data.length);
+                Arrays.sort(expected, fromIndex, toIndex);
+
+                service.sort(new IntSortData(data), fromIndex, toIndex, Polarity.ASCENDING);
+                assertArrayEquals(expected, data);
+            }
+        } finally {
+            service.shutdown();
+        }
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testEveryWorkerTakesSteps() throws InterruptedException {
+        final int grainSize = GrainSize.CACHE_LINE_INTS;
+        final PooledSortService service = new PooledSortService(NUM_THREADS, grainSize);
+
+        /*
+         * Every round has a single sequential step for each worker, and each of
+         * them is held up until every worker is inside one, so a step that is
+         * left in the queue without waking an idle worker stalls the sort.
+         */
+        final int size = NUM_THREADS * grainSize;
+        final CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS);
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = PrimitiveUtils.randomArray(mRandom, size);
+                service.sort(new SlowSortData(data, grainSize / 2, barrier), 0, size, Polarity.ASCENDING);
+                Assertions.assertAscending(data);
+            }
+        } finally {
+            service.shutdown();
+        }
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testSteadyStateAllocation() throws InterruptedException {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        final PooledSortService service = new PooledSortService(NUM_THREADS, GrainSize.CACHE_LINE_INTS);
+        final int[] source = PrimitiveUtils.randomArray(mRandom, ALLOCATION_SIZE);
+        final int[] data = new int[ALLOCATION_SIZE];
+        final IntSortData sortData = new IntSortData(data);
+
+        try {
+
+            // Warming up builds the plan, grows the queue and compiles the hot path.
+            for (int i = 0; i < WARMUP_SORTS; i++) {
+                System.arraycopy(source, 0, data, 0, ALLOCATION_SIZE);
+                service.sort(sortData, 0, ALLOCATION_SIZE, Polarity.ASCENDING);
+            }
+
+            // The workers are already running, so every thread that can allocate is included.
+            final long[] ids = threads.getAllThreadIds();
+            final long before = sum(threads.getThreadAllocatedBytes(ids));
+
+            for (int i = 0; i < MEASURED_SORTS; i++) {
+                System.arraycopy(source, 0, data, 0, ALLOCATION_SIZE);
+                service.sort(sortData, 0, ALLOCATION_SIZE, Polarity.ASCENDING);
+            }
+
+            final long allocated = sum(threads.getThreadAllocatedBytes(ids)) - before;
+            Assertions.assertAscending(data);
+            assertTrue("Allocated " + allocated + " bytes", allocated < ALLOCATION_BUDGET);
+        } finally {
+            service.shutdown();
+        }
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSortAfterShutdown() {
+        final PooledSortService service = new PooledSortService(1);
+        service.shutdown();
+        service.sort(new int[4]);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testInvalidGrainSize() {
+        new PooledSortService(1, 3);
+    }
+
+    /**
+     * Represents an {@link IntSortData} that holds up the first pass of every
+     * sequential step at a barrier, which is the only pass of a step with a
+     * compare distance of half of the grain size.
+     */
+    private static class SlowSortData extends IntSortData {
+
+        /**
+         * Create a new {@link SlowSortData} object.
+         *
+         * @param data     The array to sort.
+         * @param distance The compare distance of the passes to hold up.
+         * @param barrier  The {@link CyclicBarrier} to wait at.
+         */
+        SlowSortData(int[] data, int distance, CyclicBarrier barrier) {
+            super(data);
+            mDistance = distance;
+            mBarrier = barrier;
+        }
+
+        private final int mDistance;
+        private final CyclicBarrier mBarrier;
+
+        @Override
+        public void compareExchange(int start, int comparisons, int distance, ISwapDecision swapDecision) {
+            awaitWorkers(distance);
+            super.compareExchange(start, comparisons, distance, swapDecision);
+        }
+
+        @Override
+        public void compareExchangeBlocks(int start, int stop, int distance, ISwapDecision swapDecision) {
+            awaitWorkers(distance);
+            super.compareExchangeBlocks(start, stop, distance, swapDecision);
+        }
+
+        /**
+         * Waits for every worker to reach a held up pass.
+         *
+         * @param distance The compare distance of the pass.
+         */
+        private void awaitWorkers(int distance) {
+            if (distance != mDistance) {
+                return;
+            }
+            try {
+                mBarrier.await(BARRIER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                final String message = "A queued step was not taken by an idle worker.";
+                throw new IllegalStateException(message, e);
+            }
+        }
+
+    }
+
+    /**
+     * @param values The allocated bytes of each thread, where {@code -1} marks a
+     *               thread that is no longer alive.
+     * @return The total of the values, ignoring threads that are no longer alive.
+     */
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += Math.max(0, value);
+        }
+        return total;
+    }
+
+}
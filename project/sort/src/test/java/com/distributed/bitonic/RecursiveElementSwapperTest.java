@@ -47,11 +47,25 @@ public class RecursiveElementSwapperTest {
      *                 polarity of the output.
      */
     private static void sortBitonic(int[] data, ISwapDecision decision) {
+        sortBitonic(data, decision, 2);
+    }
+
+    /**
+     * Sorts a bitonic sequence using a recursive sweep of the
+     * {@link RecursiveElementSwapper}.
+     *
+     * @param data      The bitonic sequence to sort.
+     * @param decision  The {@link ISwapDecision} representing the desired
+     *                  polarity of the output.
+     * @param grainSize The window size at or below which the swappers run
+     *                  sequentially.
+     */
+    private static void sortBitonic(int[] data, ISwapDecision decision, int grainSize) {
 
         final EventQueue<RecursiveElementSwapper> queue = new EventQueue<>();
 
         // Initial swapper dictates the recursion steps for the rest of the algorithm.
-        final RecursiveElementSwapper initial = new RecursiveElementSwapper(data, decision);
+        final RecursiveElementSwapper initial = new RecursiveElementSwapper(data, 0, data.length, decision, grainSize);
         queue.registerNotifier(initial.getEventNotifier());
         initial.execute();
 
@@ -77,4 +91,22 @@ public class RecursiveElementSwapperTest {
         }
     }
 
+    @Test
+    public void testSortingWithGrainSize() {
+        for (int grainSize = 2; grainSize <= ARRAY_SIZE * 2; grainSize *= 2) {
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = createBitonicSequence(mRandom, ARRAY_SIZE);
+                sortBitonic(data, Polarity.ASCENDING, grainSize);
+                Assertions.assertAscending(data);
+            }
+
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = createBitonicSequence(mRandom, ARRAY_SIZE);
+                sortBitonic(data, Polarity.DESCENDING, grainSize);
+                Assertions.assertDescending(data);
+            }
+        }
+    }
+
 }
\ No newline at end of file
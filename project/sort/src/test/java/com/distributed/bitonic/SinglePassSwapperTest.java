@@ -2,9 +2,11 @@ package com.distributed.bitonic;
 
 import com.distributed.common.MathUtils;
 import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
 import com.distributed.sorting.Assertions;
 import com.distributed.sorting.ISortCondition;
 import com.distributed.sorting.IElementSwapper;
+import com.distributed.sorting.ISwapDecision;
 import com.distributed.sorting.Polarity;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Test;
@@ -12,6 +14,9 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
 
 
 public class SinglePassSwapperTest {
@@ -22,6 +27,9 @@ public class SinglePassSwapperTest {
      * array sizes that are powers of 2.
      */
     private static final int MAX_POWER_OF_TWO = 10;
+    private static final int ROUNDS = 30;
+
+    private final Random mRandom = TestUtils.newRandom();
 
     /**
      * Represents the relationship between two halves of an array of
@@ -274,4 +282,45 @@ public class SinglePassSwapperTest {
 
     }
 
+    /**
+     * Performs a single pass on a copy of the source data, once using the
+     * provided {@link Polarity}, and once using an {@link ISwapDecision} that
+     * delegates to the {@link Polarity}. Only the former is able to use the
+     * specialized kernels, so the results must be identical.
+     *
+     * @param source   The data to operate on, which is not modified.
+     * @param polarity The {@link Polarity} to use.
+     */
+    private static void assertMatchesGenericPath(int[] source, Polarity polarity) {
+        final int[] specialized = Arrays.copyOf(source, source.length);
+        new SinglePassElementSwapper(specialized, polarity).execute();
+
+        final ISwapDecision delegate = polarity::shouldSwap;
+        final int[] generic = Arrays.copyOf(source, source.length);
+        new SinglePassElementSwapper(generic, delegate).execute();
+
+        assertArrayEquals(generic, specialized);
+    }
+
+    @Test
+    public void testSpecializedKernels() {
+        for (int i = 1; i <= MAX_POWER_OF_TWO; i++) {
+            // This cast is safe as 2^n cannot be fractional.
+            final int size = (int) Math.pow(2, i);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                final int[] source = PrimitiveUtils.randomArray(mRandom, size);
+                assertMatchesGenericPath(source, Polarity.ASCENDING);
+                assertMatchesGenericPath(source, Polarity.DESCENDING);
+
+                // Duplicate values must not be reordered differently.
+                for (int j = 0; j < size; j++) {
+                    source[j] %= 4;
+                }
+                assertMatchesGenericPath(source, Polarity.ASCENDING);
+                assertMatchesGenericPath(source, Polarity.DESCENDING);
+            }
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.distributed.events;
+
+import com.distributed.common.testing.TestUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class LockFreeEventQueueTest {
+
+    private static final int NUM_EVENTS = 100_000;
+    private static final int MAX_THREADS = 8;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSynchronousUsage() {
+
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        final EventNotifier<Integer> notifier = new EventNotifier<>(NUM_EVENTS);
+        queue.registerNotifier(notifier);
+
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            assertTrue(queue.hasRemaining());
+            final Integer randNum = mRandom.nextInt();
+            notifier.signal(randNum);
+            assertEquals(randNum, queue.get());
+        }
+
+        assertFalse(queue.hasRemaining());
+
+        // All events should have been received already.
+        try {
+            notifier.signal(2);
+            fail("Exception should have been thrown.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        // There should be no events left to receive.
+        try {
+            queue.get();
+            fail("Exception should have been thrown.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testOrderAcrossThreads() throws Exception {
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        final EventNotifier<Integer> notifier = new EventNotifier<>(NUM_EVENTS);
+        queue.registerNotifier(notifier);
+
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        final Future<?> registrar = service.submit(() -> {
+            for (int i = 0; i < NUM_EVENTS; i++) {
+                notifier.signal(i);
+            }
+        });
+        service.shutdown();
+
+        // A single producer is read back in the order that it signalled.
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            assertTrue(queue.hasRemaining());
+            assertEquals(i, (int) queue.get());
+        }
+        assertFalse(queue.hasRemaining());
+        registrar.get();
+    }
+
+    @Test
+    public void testManyProducers() throws Exception {
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+            final int perThread = NUM_EVENTS / threads;
+
+            final List<EventNotifier<Integer>> notifiers = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final EventNotifier<Integer> notifier = new EventNotifier<>(perThread);
+                queue.registerNotifier(notifier);
+                notifiers.add(notifier);
+            }
+
+            final ExecutorService service = Executors.newFixedThreadPool(threads);
+            final List<Future<?>> producers = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final EventNotifier<Integer> notifier = notifiers.get(thread);
+                final int first = thread * perThread;
+                producers.add(service.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        notifier.signal(first + i);
+                    }
+                }));
+            }
+            service.shutdown();
+
+            final int[] received = new int[threads * perThread];
+            for (int i = 0; i < received.length; i++) {
+                received[i] = queue.get();
+            }
+            assertFalse(queue.hasRemaining());
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+
+            // Every event arrives exactly once.
+            Arrays.sort(received);
+            for (int i = 0; i < received.length; i++) {
+                assertEquals(i, received[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testManyGetters() throws Exception {
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        final EventNotifier<Integer> notifier = new EventNotifier<>(NUM_EVENTS);
+        queue.registerNotifier(notifier);
+
+        // Each getter reads a share of the events, while they are still being signalled.
+        final ExecutorService service = Executors.newFixedThreadPool(MAX_THREADS);
+        final List<Future<int[]>> getters = new ArrayList<>();
+        for (int thread = 0; thread < MAX_THREADS; thread++) {
+            final int count = NUM_EVENTS / MAX_THREADS + (thread < NUM_EVENTS % MAX_THREADS ? 1 : 0);
+            getters.add(service.submit(() -> {
+                final int[] result = new int[count];
+                for (int i = 0; i < count; i++) {
+                    result[i] = queue.get();
+                }
+                return result;
+            }));
+        }
+        service.shutdown();
+
+        for (int i = 0; i < NUM_EVENTS; i++) {
+            notifier.signal(i);
+        }
+
+        final int[] received = new int[NUM_EVENTS];
+        int offset = 0;
+        for (Future<int[]> getter : getters) {
+            final int[] result = getter.get();
+            System.arraycopy(result, 0, received, offset, result.length);
+            offset += result.length;
+        }
+        assertEquals(NUM_EVENTS, offset);
+        assertFalse(queue.hasRemaining());
+
+        Arrays.sort(received);
+        for (int i = 0; i < received.length; i++) {
+            assertEquals(i, received[i]);
+        }
+    }
+
+    @Test
+    public void testExcessGettersRejected() throws Exception {
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        final EventNotifier<Integer> notifier = new EventNotifier<>(1);
+        queue.registerNotifier(notifier);
+
+        final BlockingQueue<Integer> results = new LinkedBlockingQueue<>();
+        final Thread getter = new Thread(() -> results.add(queue.get()));
+        getter.start();
+
+        // Once the first getter is parked, it has been promised the only event.
+        while (getter.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        try {
+            queue.get();
+            fail("Exception should have been thrown.");
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+
+        notifier.signal(7);
+        assertEquals(7, (int) results.take());
+        getter.join();
+        assertFalse(queue.hasRemaining());
+    }
+
+    @Test
+    public void testInterruptedGetter() throws Exception {
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        final EventNotifier<Integer> notifier = new EventNotifier<>(1);
+        queue.registerNotifier(notifier);
+
+        final BlockingQueue<Boolean> interrupted = new LinkedBlockingQueue<>();
+        final Thread getter = new Thread(() -> {
+            assertEquals(3, (int) queue.get());
+            interrupted.add(Thread.currentThread().isInterrupted());
+        });
+        getter.start();
+
+        // The getter keeps waiting through the interrupt, and keeps the interrupt for later.
+        getter.interrupt();
+        Thread.sleep(10);
+        notifier.signal(3);
+        getter.join();
+        assertTrue(interrupted.take());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullEvent() {
+        final LockFreeEventQueue<Integer> queue = new LockFreeEventQueue<>();
+        final EventNotifier<Integer> notifier = new EventNotifier<>(1);
+        queue.registerNotifier(notifier);
+        notifier.signal(null);
+    }
+
+}
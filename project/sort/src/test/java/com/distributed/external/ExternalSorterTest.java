@@ -0,0 +1,206 @@
+package com.distributed.external;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Polarity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ExternalSorterTest {
+
+    private static final int MAX_SIZE = 50000;
+    private static final int ROUNDS = 5;
+    private static final int NUM_THREADS = 2;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    private Path mDirectory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        mDirectory = Files.createTempDirectory("external");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(mDirectory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(mDirectory);
+    }
+
+    @Test
+    public void testManyRuns() throws IOException {
+        final ExternalSorter sorter = new ExternalSorter(NUM_THREADS, ExternalSorter.MIN_MEMORY_BUDGET, mDirectory);
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, MAX_SIZE / 2 + mRandom.nextInt(MAX_SIZE / 2));
+            final Path input = write(source);
+            final Path output = mDirectory.resolve("output.bin");
+
+            final ExternalSortStats stats = sorter.sort(input, output, Polarity.ASCENDING);
+
+            final int[] expected = source.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, read(output));
+
+            // The smallest budget needs several runs, and more than one pass to merge them.
+            assertTrue(stats.getRunCount() > 1);
+            assertTrue(stats.getMergePassCount() > 1);
+            assertTrue(stats.getBytesRead() >= 2L * source.length * Integer.BYTES);
+            assertTrue(stats.getBytesWritten() >= 2L * source.length * Integer.BYTES);
+
+            // Every temporary run must be deleted once the sort is done.
+            Files.delete(input);
+            Files.delete(output);
+            try (Stream<Path> files = Files.list(mDirectory)) {
+                assertFalse(files.findAny().isPresent());
+            }
+        }
+    }
+
+    @Test
+    public void testDescendingInPlace() throws IOException {
+        final ExternalSorter sorter = new ExternalSorter(NUM_THREADS, 64 * 1024, mDirectory);
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            final Path file = write(source);
+
+            sorter.sort(file, file, Polarity.DESCENDING);
+
+            final int[] expected = source.clone();
+            Arrays.sort(expected);
+            final int[] actual = read(file);
+            assertEquals(expected.length, actual.length);
+            for (int j = 0; j < expected.length; j++) {
+                assertEquals(expected[expected.length - 1 - j], actual[j]);
+            }
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSingleRun() throws IOException {
+        final int[] source = PrimitiveUtils.randomArray(mRandom, 1000);
+        final Path input = write(source);
+        final Path output = mDirectory.resolve("output.bin");
+
+        // Input that fits in memory is only read and written once.
+        final ExternalSortStats stats = new ExternalSorter(NUM_THREADS, ExternalSorter.DEFAULT_MEMORY_BUDGET, mDirectory)
+                .sort(input, output, Polarity.ASCENDING);
+        assertEquals(1, stats.getRunCount());
+        assertEquals(0, stats.getMergePassCount());
+        assertEquals(source.length * Integer.BYTES, stats.getBytesRead());
+        assertEquals(source.length * Integer.BYTES, stats.getBytesWritten());
+
+        final int[] expected = source.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, read(output));
+    }
+
+    @Test
+    public void testSmallInputLargeBudget() throws IOException {
+        final int[] source = {3, 1, 2};
+        final Path input = write(source);
+        final Path output = mDirectory.resolve("output.bin");
+
+        // The run is only as long as the input, rather than the whole budget.
+        new ExternalSorter(NUM_THREADS, 16L << 30, mDirectory).sort(input, output, Polarity.ASCENDING);
+        assertArrayEquals(new int[]{1, 2, 3}, read(output));
+    }
+
+    @Test
+    public void testPipe() throws Exception {
+        final Path pipe = mDirectory.resolve("input.pipe");
+        assumeTrue(createPipe(pipe));
+
+        final int[] source = PrimitiveUtils.randomArray(mRandom, MAX_SIZE);
+        final ByteBuffer buffer = ByteBuffer.allocate(source.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(source);
+
+        // The size of a pipe is reported as 0, but every element must still be sorted.
+        final ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> written = writer.submit(() -> Files.write(pipe, buffer.array()));
+            final Path output = mDirectory.resolve("output.bin");
+            new ExternalSorter(NUM_THREADS, ExternalSorter.DEFAULT_MEMORY_BUDGET, mDirectory)
+                    .sort(pipe, output, Polarity.ASCENDING);
+            written.get();
+
+            final int[] expected = source.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, read(output));
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testPartialElement() throws IOException {
+        final Path input = mDirectory.resolve("input.bin");
+        Files.write(input, new byte[Integer.BYTES + 1]);
+        new ExternalSorter(1).sort(input, mDirectory.resolve("output.bin"), Polarity.ASCENDING);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testInvalidBudget() {
+        new ExternalSorter(1, ExternalSorter.MIN_MEMORY_BUDGET - 1, mDirectory);
+    }
+
+    /**
+     * @param pipe The {@link Path} of the named pipe to create.
+     * @return {@code true} if the pipe was created, {@code false} if named pipes
+     * are not supported on this platform.
+     * @throws InterruptedException if the current thread was interrupted.
+     */
+    private static boolean createPipe(Path pipe) throws InterruptedException {
+        try {
+            return new ProcessBuilder("mkfifo", pipe.toString()).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param data The elements to write.
+     * @return The {@link Path} of a new file in the test directory holding the
+     * elements in little-endian order.
+     * @throws IOException if the file could not be written.
+     */
+    private Path write(int[] data) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(data.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(data);
+        return Files.write(mDirectory.resolve("input.bin"), buffer.array());
+    }
+
+    /**
+     * @param file The {@link Path} of a file of little-endian elements.
+     * @return The elements in the file.
+     * @throws IOException if the file could not be read.
+     */
+    private static int[] read(Path file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        final int[] data = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(data);
+        return data;
+    }
+
+}
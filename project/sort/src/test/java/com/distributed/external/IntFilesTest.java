@@ -0,0 +1,122 @@
+package com.distributed.external;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntFilesTest {
+
+    private static final int MAX_SIZE = 200000;
+    private static final int ROUNDS = 5;
+    private static final int MAX_THREADS = 4;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    private Path mDirectory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        mDirectory = Files.createTempDirectory("files");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(mDirectory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(mDirectory);
+    }
+
+    @Test
+    public void testText() throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            if (source.length >= 2) {
+                source[0] = Integer.MIN_VALUE;
+                source[1] = Integer.MAX_VALUE;
+            }
+            final Path file = mDirectory.resolve("data.txt");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                IntFiles.writeText(source, channel);
+            }
+
+            // Every chunk of the file is parsed by a separate task.
+            assertArrayEquals(source, IntFiles.readText(file, 1 + mRandom.nextInt(MAX_THREADS)));
+        }
+    }
+
+    @Test
+    public void testTextWhitespace() throws IOException {
+        final Path file = write("  12\r\n-7 +3\t0\n\n\n2147483647\n-2147483648");
+        assertArrayEquals(new int[]{12, -7, 3, 0, Integer.MAX_VALUE, Integer.MIN_VALUE}, IntFiles.readText(file, 2));
+    }
+
+    @Test
+    public void testTextEmpty() throws IOException {
+        assertEquals(0, IntFiles.readText(write(""), MAX_THREADS).length);
+        assertEquals(0, IntFiles.readText(write("\n \n"), MAX_THREADS).length);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testTextInvalidCharacter() throws IOException {
+        IntFiles.readText(write("1\n2x\n3\n"), MAX_THREADS);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testTextOutOfRange() throws IOException {
+        IntFiles.readText(write("2147483648\n"), MAX_THREADS);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testTextSignOnly() throws IOException {
+        IntFiles.readText(write("1\n-\n"), MAX_THREADS);
+    }
+
+    @Test
+    public void testBinary() throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] source = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+            final ByteOrder order = mRandom.nextBoolean() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            final Path file = mDirectory.resolve("data.bin");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                IntFiles.writeBinary(source, channel, order);
+            }
+
+            assertEquals(source.length * (long) Integer.BYTES, Files.size(file));
+            assertArrayEquals(source, IntFiles.readBinary(file, order));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryPartialElement() throws IOException {
+        IntFiles.readBinary(write("abcde"), ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @param text The text to write.
+     * @return The {@link Path} of a new file holding the text.
+     * @throws IOException if the file could not be written.
+     */
+    private Path write(String text) throws IOException {
+        return Files.write(Files.createTempFile(mDirectory, "data", ".txt"), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.distributed.external;
+
+import com.distributed.bitonic.BitonicSortService;
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Polarity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StreamingSorterTest {
+
+    private static final int MAX_SIZE = 20000;
+    private static final int ROUNDS = 10;
+    private static final int NUM_THREADS = 2;
+    private static final int MAX_CHUNK_POWER = 12;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    private BitonicSortService mService;
+
+    @Before
+    public void createService() {
+        mService = new BitonicSortService(NUM_THREADS);
+    }
+
+    @After
+    public void shutdownService() {
+        mService.shutdown();
+    }
+
+    @Test
+    public void testSort() throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+            final int chunkSize = 1 << mRandom.nextInt(MAX_CHUNK_POWER + 1);
+            final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+            final ByteOrder order = mRandom.nextBoolean() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+            final int[] source = PrimitiveUtils.randomArray(mRandom, size);
+            final StreamingSorter sorter = new StreamingSorter(mService, chunkSize, order);
+            final int[] result = sorter.sort(new ByteArrayInputStream(toBytes(source, order)), polarity);
+
+            assertSorted(source, result, polarity);
+        }
+    }
+
+    @Test
+    public void testExactChunks() throws IOException {
+        final int chunkSize = 256;
+        final int[] source = PrimitiveUtils.randomArray(mRandom, 4 * chunkSize);
+        final StreamingSorter sorter = new StreamingSorter(mService, chunkSize, ByteOrder.LITTLE_ENDIAN);
+        final int[] result = sorter.sort(new ByteArrayInputStream(toBytes(source, ByteOrder.LITTLE_ENDIAN)),
+                Polarity.ASCENDING);
+
+        assertSorted(source, result, Polarity.ASCENDING);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final StreamingSorter sorter = new StreamingSorter(mService);
+        assertEquals(0, sorter.sort(new ByteArrayInputStream(new byte[0]), Polarity.ASCENDING).length);
+    }
+
+    @Test
+    public void testSlowStream() throws Exception {
+        final int[] source = PrimitiveUtils.randomArray(mRandom, MAX_SIZE);
+        final byte[] bytes = toBytes(source, ByteOrder.LITTLE_ENDIAN);
+
+        // The data arrives in small pieces from another thread, so chunks are sorted while the rest is written.
+        final PipedInputStream input = new PipedInputStream();
+        final OutputStream output = new PipedOutputStream(input);
+        final Thread writer = new Thread(() -> {
+            try (OutputStream stream = output) {
+                for (int offset = 0; offset < bytes.length; offset += 1000) {
+                    stream.write(bytes, offset, Math.min(1000, bytes.length - offset));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        writer.start();
+
+        try (InputStream stream = input) {
+            final int[] result = new StreamingSorter(mService, 1024, ByteOrder.LITTLE_ENDIAN)
+                    .sort(stream, Polarity.DESCENDING);
+            assertSorted(source, result, Polarity.DESCENDING);
+        }
+        writer.join();
+    }
+
+    @Test(expected = IOException.class)
+    public void testPartialElement() throws IOException {
+        new StreamingSorter(mService).sort(new ByteArrayInputStream(new byte[7]), Polarity.ASCENDING);
+    }
+
+    /**
+     * @param data  The elements to write.
+     * @param order The {@link ByteOrder} to write the elements in.
+     * @return The bytes of the elements.
+     */
+    private static byte[] toBytes(int[] data, ByteOrder order) {
+        final ByteBuffer buffer = ByteBuffer.allocate(data.length * Integer.BYTES).order(order);
+        buffer.asIntBuffer().put(data);
+        return buffer.array();
+    }
+
+    /**
+     * @param source   The data before it was sorted.
+     * @param data     The data after it was sorted.
+     * @param polarity The {@link Polarity} that the data was sorted in.
+     */
+    private static void assertSorted(int[] source, int[] data, Polarity polarity) {
+        final int[] expected = source.clone();
+        Arrays.sort(expected);
+        assertEquals(expected.length, data.length);
+        for (int j = 0; j < expected.length; j++) {
+            final int index = polarity == Polarity.ASCENDING ? j : expected.length - 1 - j;
+            assertEquals(expected[index], data[j]);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.distributed.sorting;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PermutationsTest {
+
+    private static final int ROUNDS = 10;
+    private static final int MAX_SIZE = 4 * Permutations.BLOCK_SIZE;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    /**
+     * @param size The length of the permutation.
+     * @return A random permutation of the indices {@code [0, size)}.
+     */
+    private int[] randomPermutation(int size) {
+        final int[] permutation = Permutations.identity(size);
+        for (int i = size - 1; i > 0; i--) {
+            final int j = mRandom.nextInt(i + 1);
+            final int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+
+    @Test
+    public void testIdentity() {
+        final int[] identity = Permutations.identity(5);
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, identity);
+        assertEquals(0, Permutations.identity(0).length);
+    }
+
+    @Test
+    public void testGather() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int size = mRandom.nextInt(MAX_SIZE + 1);
+            final int[] permutation = randomPermutation(size);
+
+            final int[] ints = PrimitiveUtils.randomArray(mRandom, size);
+            final long[] longs = new long[size];
+            final double[] doubles = new double[size];
+            final float[] floats = new float[size];
+            final String[] strings = new String[size];
+            for (int j = 0; j < size; j++) {
+                longs[j] = mRandom.nextLong();
+                doubles[j] = mRandom.nextDouble();
+                floats[j] = mRandom.nextFloat();
+                strings[j] = Integer.toString(ints[j]);
+            }
+
+            final int[] gatheredInts = Permutations.gather(permutation, ints);
+            final long[] gatheredLongs = Permutations.gather(permutation, longs);
+            final double[] gatheredDoubles = Permutations.gather(permutation, doubles);
+            final float[] gatheredFloats = Permutations.gather(permutation, floats);
+            final String[] gatheredStrings = Permutations.gather(permutation, strings, new String[size]);
+
+            for (int j = 0; j < size; j++) {
+                final int index = permutation[j];
+                assertEquals(ints[index], gatheredInts[j]);
+                assertEquals(longs[index], gatheredLongs[j]);
+                assertEquals(doubles[index], gatheredDoubles[j], 0.0);
+                assertEquals(floats[index], gatheredFloats[j], 0.0f);
+                assertSame(strings[index], gatheredStrings[j]);
+            }
+        }
+    }
+
+}
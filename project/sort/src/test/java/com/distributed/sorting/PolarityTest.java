@@ -53,4 +53,10 @@ public class PolarityTest {
         }
     }
 
+    @Test
+    public void testReverse() {
+        assertSame(Polarity.DESCENDING, Polarity.ASCENDING.reverse());
+        assertSame(Polarity.ASCENDING, Polarity.DESCENDING.reverse());
+    }
+
 }
\ No newline at end of file
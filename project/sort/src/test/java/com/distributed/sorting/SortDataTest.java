@@ -0,0 +1,189 @@
+package com.distributed.sorting;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SortDataTest {
+
+    private static final int ROUNDS = 200;
+
+    private static final double[] SPECIAL_DOUBLES = {
+            Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1.0, -Double.MIN_VALUE, -0.0,
+            0.0, Double.MIN_VALUE, 1.0, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN
+    };
+
+    private static final float[] SPECIAL_FLOATS = {
+            Float.NEGATIVE_INFINITY, -Float.MAX_VALUE, -1.0f, -Float.MIN_VALUE, -0.0f,
+            0.0f, Float.MIN_VALUE, 1.0f, Float.MAX_VALUE, Float.POSITIVE_INFINITY, Float.NaN
+    };
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testLongPairs() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final long left = mRandom.nextLong();
+            final long right = mRandom.nextLong();
+
+            final long[] ascending = {left, right};
+            new LongSortData(ascending).compareExchange(0, 1, 1, Polarity.ASCENDING);
+            assertArrayEquals(new long[]{Math.min(left, right), Math.max(left, right)}, ascending);
+
+            final long[] descending = {left, right};
+            new LongSortData(descending).compareExchange(0, 1, 1, Polarity.DESCENDING);
+            assertArrayEquals(new long[]{Math.max(left, right), Math.min(left, right)}, descending);
+        }
+    }
+
+    @Test
+    public void testBlocks() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int distance = 1 << mRandom.nextInt(8);
+            final int start = mRandom.nextInt(10);
+            final int stop = start + 2 * distance * mRandom.nextInt(5);
+            final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+
+            // The kernel must perform the same pass as a run of comparisons for each block.
+            final int[] ints = PrimitiveUtils.randomArray(mRandom, stop + 10);
+            final int[] expectedInts = ints.clone();
+            for (int block = start; block < stop; block += 2 * distance) {
+                new IntSortData(expectedInts).compareExchange(block, distance, distance, polarity);
+            }
+            new IntSortData(ints).compareExchangeBlocks(start, stop, distance, polarity);
+            assertArrayEquals(expectedInts, ints);
+
+            final long[] longs = new long[stop + 10];
+            for (int j = 0; j < longs.length; j++) {
+                longs[j] = mRandom.nextLong();
+            }
+            final long[] expectedLongs = longs.clone();
+            for (int block = start; block < stop; block += 2 * distance) {
+                new LongSortData(expectedLongs).compareExchange(block, distance, distance, polarity);
+            }
+            new LongSortData(longs).compareExchangeBlocks(start, stop, distance, polarity);
+            assertArrayEquals(expectedLongs, longs);
+        }
+    }
+
+    @Test
+    public void testBufferRegions() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int regionSize = 1 << (1 + mRandom.nextInt(5));
+            final int length = 1 + mRandom.nextInt(200);
+            final int[] ints = PrimitiveUtils.randomArray(mRandom, length);
+            final int[] expected = ints.clone();
+
+            // The elements are held in regions that are views of the array.
+            final IntBuffer[] regions = new IntBuffer[(length + regionSize - 1) / regionSize];
+            for (int region = 0; region < regions.length; region++) {
+                final int start = region * regionSize;
+                regions[region] = IntBuffer.wrap(ints, start, Math.min(regionSize, length - start)).slice();
+            }
+            final IntBufferSortData data = new IntBufferSortData(regions);
+            assertEquals(length, data.length());
+
+            // A pass that crosses any number of regions must match the same pass on an array.
+            final int distance = 1 + mRandom.nextInt(length);
+            final int start = mRandom.nextInt(length - distance + 1);
+            final int comparisons = mRandom.nextInt(length - distance - start + 1);
+            final Polarity polarity = mRandom.nextBoolean() ? Polarity.ASCENDING : Polarity.DESCENDING;
+            new IntSortData(expected).compareExchange(start, comparisons, distance, polarity);
+            data.compareExchange(start, comparisons, distance, polarity);
+            assertArrayEquals(expected, ints);
+            assertEquals(expected[length - 1], data.get(length - 1));
+        }
+    }
+
+    @Test
+    public void testKernelSelection() {
+        final ISortKernel kernel = SortKernels.get();
+        assertNotNull(kernel);
+        assertTrue(kernel.isSupported());
+        assertSame(kernel, SortKernels.get());
+    }
+
+    @Test
+    public void testDoubleOrdering() {
+        for (double left : SPECIAL_DOUBLES) {
+            for (double right : SPECIAL_DOUBLES) {
+                final int expected = Double.compare(left, right);
+                final long leftBits = DoubleSortData.toOrderedBits(left);
+                final long rightBits = DoubleSortData.toOrderedBits(right);
+                assertEquals(Integer.signum(expected), Long.signum(Long.compare(leftBits, rightBits)));
+
+                final double[] ascending = {left, right};
+                new DoubleSortData(ascending).compareExchange(0, 1, 1, Polarity.ASCENDING);
+                assertTrue(Double.compare(ascending[0], ascending[1]) <= 0);
+
+                final double[] descending = {left, right};
+                new DoubleSortData(descending).compareExchange(0, 1, 1, Polarity.DESCENDING);
+                assertTrue(Double.compare(descending[0], descending[1]) >= 0);
+            }
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            final double value = Double.longBitsToDouble(mRandom.nextLong());
+            final double expected = Double.isNaN(value) ? Double.NaN : value;
+            final double actual = DoubleSortData.fromOrderedBits(DoubleSortData.toOrderedBits(value));
+            assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+        }
+    }
+
+    @Test
+    public void testFloatOrdering() {
+        for (float left : SPECIAL_FLOATS) {
+            for (float right : SPECIAL_FLOATS) {
+                final int expected = Float.compare(left, right);
+                final int leftBits = FloatSortData.toOrderedBits(left);
+                final int rightBits = FloatSortData.toOrderedBits(right);
+                assertEquals(Integer.signum(expected), Integer.signum(Integer.compare(leftBits, rightBits)));
+
+                final float[] ascending = {left, right};
+                new FloatSortData(ascending).compareExchange(0, 1, 1, Polarity.ASCENDING);
+                assertTrue(Float.compare(ascending[0], ascending[1]) <= 0);
+
+                final float[] descending = {left, right};
+                new FloatSortData(descending).compareExchange(0, 1, 1, Polarity.DESCENDING);
+                assertTrue(Float.compare(descending[0], descending[1]) >= 0);
+            }
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            final float value = Float.intBitsToFloat(mRandom.nextInt());
+            final float expected = Float.isNaN(value) ? Float.NaN : value;
+            final float actual = FloatSortData.fromOrderedBits(FloatSortData.toOrderedBits(value));
+            assertEquals(Float.floatToRawIntBits(expected), Float.floatToRawIntBits(actual));
+        }
+    }
+
+    @Test
+    public void testGenericDecisionWithPayload() {
+        for (int i = 0; i < ROUNDS; i++) {
+            final int left = mRandom.nextInt();
+            final int right = mRandom.nextInt();
+
+            // Orders the pair by absolute value, which no Polarity can do.
+            final ISwapDecision decision = (first, second) -> Math.abs((long) first) > Math.abs((long) second);
+            final int[] data = {left, right};
+            final long[] payload = {left, right};
+            new IntSortData(data, payload).compareExchange(0, 1, 1, decision);
+
+            assertEquals(data[0], payload[0]);
+            assertEquals(data[1], payload[1]);
+            assertFalse(decision.shouldSwap(data[0], data[1]));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnsupportedDecision() {
+        final ISwapDecision decision = (left, right) -> false;
+        new DoubleSortData(new double[2]).compareExchange(0, 1, 1, decision);
+    }
+
+}
@@ -4,12 +4,17 @@ import com.distributed.common.PrimitiveUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -17,6 +22,8 @@ public class BlockingExecutorServiceTest {
 
     private static final int NUM_VALUES = 50_000;
     private static final int NUM_THREADS = 5;
+    private static final int NUM_SLOW_TASKS = 20;
+    private static final long SLOW_TASK_MILLIS = 2;
 
     @Test
     public void test() {
@@ -52,4 +59,119 @@ public class BlockingExecutorServiceTest {
         assertTrue(result.containsAll(source));
     }
 
+    @Test
+    public void testMetrics() throws InterruptedException {
+        final BlockingExecutorService service = new BlockingExecutorService(2);
+        for (int i = 0; i < NUM_SLOW_TASKS; i++) {
+            service.execute(() -> sleep(SLOW_TASK_MILLIS));
+        }
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+
+        final ExecutorMetrics metrics = service.getMetrics();
+        assertEquals(2, metrics.getPoolSize());
+        assertEquals(NUM_SLOW_TASKS, metrics.getSubmittedTasks());
+        assertEquals(NUM_SLOW_TASKS, metrics.getCompletedTasks());
+        assertEquals(0, metrics.getActiveWorkers());
+        assertEquals(2, metrics.getIdleWorkers());
+
+        // Every task is longer than the sleep, and the caller must have waited for a worker.
+        assertTrue(metrics.getRunNanos() >= NUM_SLOW_TASKS * TimeUnit.MILLISECONDS.toNanos(SLOW_TASK_MILLIS));
+        assertTrue(metrics.getMaxRunNanos() >= TimeUnit.MILLISECONDS.toNanos(SLOW_TASK_MILLIS));
+        assertTrue(metrics.runPercentileNanos(50) >= TimeUnit.MILLISECONDS.toNanos(SLOW_TASK_MILLIS));
+        assertTrue(metrics.getAcquireWaitNanos() > 0);
+        assertTrue(metrics.getElapsedNanos() > 0);
+        assertTrue(metrics.getThrottledFraction() > 0);
+        assertEquals((double) metrics.getAcquireWaitNanos() / metrics.getElapsedNanos(),
+                metrics.getThrottledFraction(), 0);
+        assertEquals(NUM_SLOW_TASKS, Arrays.stream(metrics.getRunHistogram()).sum());
+        assertEquals(NUM_SLOW_TASKS, Arrays.stream(metrics.getAcquireWaitHistogram()).sum());
+    }
+
+    @Test
+    public void testActiveWorkers() throws InterruptedException {
+        final BlockingExecutorService service = new BlockingExecutorService(NUM_THREADS);
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+            service.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+
+        started.await();
+        final ExecutorMetrics metrics = service.getMetrics();
+        assertEquals(2, metrics.getActiveWorkers());
+        assertEquals(NUM_THREADS - 2, metrics.getIdleWorkers());
+        assertEquals(0, metrics.getCompletedTasks());
+
+        release.countDown();
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        final BlockingExecutorService service = new BlockingExecutorService(NUM_THREADS);
+        final ObjectName name = service.registerMBean("test");
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+
+        for (int i = 0; i < NUM_THREADS; i++) {
+            service.submit(() -> sleep(1));
+        }
+        assertEquals(NUM_THREADS, server.getAttribute(name, "PoolSize"));
+        assertEquals((long) NUM_THREADS, server.getAttribute(name, "SubmittedTasks"));
+        assertTrue(server.getAttribute(name, "RunHistogram") instanceof long[]);
+        assertTrue((long) server.getAttribute(name, "ElapsedNanos") > 0);
+        assertEquals(NUM_THREADS, (int) server.getAttribute(name, "IdleWorkers")
+                + (int) server.getAttribute(name, "ActiveWorkers"));
+
+        // Shutting the service down removes it, so the name can be used again.
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(1_000_000);
+
+        // Each percentile is the upper bound of the power of 2 that holds it.
+        final long[] counts = histogram.getCounts();
+        assertEquals(128, LatencyHistogram.percentile(counts, 50));
+        assertEquals(128, LatencyHistogram.percentile(counts, 99));
+        assertEquals(1L << 20, LatencyHistogram.percentile(counts, 100));
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(99 * 100 + 1_000_000, histogram.getTotal());
+        assertEquals(0, LatencyHistogram.percentile(new long[LatencyHistogram.BUCKET_COUNT], 50));
+    }
+
+    /**
+     * @param millis The number of milliseconds to sleep for.
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param latch The {@link CountDownLatch} to wait for.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.distributed.tracing;
+
+import com.distributed.bitonic.BitonicExecutor;
+import com.distributed.bitonic.GrainSize;
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.Assertions;
+import com.distributed.sorting.IntBufferSortData;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class SortTracerTest {
+
+    private static final int MAX_SIZE = 5000;
+    private static final int ROUNDS = 10;
+    private static final int NUM_THREADS = 4;
+
+    private final Random mRandom = TestUtils.newRandom();
+
+    @Test
+    public void testSnapshots() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final int[][] expected = new int[ROUNDS][];
+        try (SortTracer tracer = new SortTracer(Channels.newChannel(output), ROUNDS, MAX_SIZE)) {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int[] data = PrimitiveUtils.randomArray(mRandom, mRandom.nextInt(MAX_SIZE + 1));
+                final int fromIndex = mRandom.nextInt(data.length + 1);
+                final int toIndex = fromIndex + mRandom.nextInt(data.length - fromIndex + 1);
+                assertTrue(tracer.snapshot(i, data, fromIndex, toIndex));
+                expected[i] = Arrays.copyOfRange(data, fromIndex, toIndex);
+            }
+        }
+
+        final String[] lines = convert(output.toByteArray());
+        assertEquals(ROUNDS, lines.length);
+        for (int i = 0; i < ROUNDS; i++) {
+            assertEquals(Arrays.toString(expected[i]), lines[i]);
+        }
+    }
+
+    @Test
+    public void testSampling() throws IOException {
+        final int maxSamples = 100;
+        final int[] data = PrimitiveUtils.randomArray(mRandom, MAX_SIZE + 1);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (SortTracer tracer = new SortTracer(Channels.newChannel(output), 1, maxSamples)) {
+            assertTrue(tracer.snapshot(0, new IntBufferSortData(IntBuffer.wrap(data)), 0, data.length));
+        }
+
+        // The smallest stride that fits the range is 51, which leaves 99 samples.
+        final int stride = (data.length + maxSamples - 1) / maxSamples;
+        final int[] expected = new int[(data.length + stride - 1) / stride];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = data[i * stride];
+        }
+        assertTrue(expected.length <= maxSamples);
+        assertArrayEquals(new String[]{Arrays.toString(expected)}, convert(output.toByteArray()));
+    }
+
+    @Test
+    public void testDropped() throws IOException, InterruptedException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CountDownLatch release = new CountDownLatch(1);
+        final WritableByteChannel slow = new WritableByteChannel() {
+
+            private final WritableByteChannel mChannel = Channels.newChannel(output);
+
+            @Override
+            public int write(ByteBuffer buffer) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return mChannel.write(buffer);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return mChannel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                mChannel.close();
+            }
+
+        };
+
+        final int[] data = PrimitiveUtils.randomArray(mRandom, MAX_SIZE);
+        final SortTracer tracer = new SortTracer(slow, 1, MAX_SIZE);
+
+        // The writer is held up, so the only slot is still full when the second snapshot is taken.
+        assertTrue(tracer.snapshot(0, data, 0, data.length));
+        assertFalse(tracer.snapshot(1, data, 0, data.length));
+        release.countDown();
+        tracer.close();
+
+        assertEquals(1, tracer.getSnapshotCount());
+        assertEquals(1, tracer.getDroppedCount());
+        assertFalse(tracer.snapshot(2, data, 0, data.length));
+        assertArrayEquals(new String[]{Arrays.toString(data)}, convert(output.toByteArray()));
+    }
+
+    @Test
+    public void testExecutor() throws IOException {
+
+        // The array fits into a snapshot, so nothing is left out by sampling.
+        final int[] data = PrimitiveUtils.randomArray(mRandom, SortTracer.DEFAULT_MAX_SAMPLES);
+        final int[] original = data.clone();
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (SortTracer tracer = new SortTracer(Channels.newChannel(output))) {
+            new BitonicExecutor(NUM_THREADS, new IntSortData(data), 0, data.length, Polarity.ASCENDING,
+                    GrainSize.DEFAULT, null, tracer).run();
+        }
+
+        // The first snapshot is taken before the sort and the last after it, which are both exact.
+        final String[] lines = convert(output.toByteArray());
+        assertTrue(lines.length > 2);
+        assertEquals(Arrays.toString(original), lines[0]);
+        Arrays.sort(original);
+        assertArrayEquals(original, data);
+        assertEquals(Arrays.toString(data), lines[lines.length - 1]);
+    }
+
+    @Test
+    public void testSmallInputFrames() throws IOException {
+
+        // A range that is no longer than the default grain would otherwise be sorted in a single round.
+        final int[] data = PrimitiveUtils.randomArray(mRandom, GrainSize.DEFAULT / 4);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (SortTracer tracer = new SortTracer(Channels.newChannel(output))) {
+            new BitonicExecutor(NUM_THREADS, new IntSortData(data), 0, data.length, Polarity.ASCENDING,
+                    SortTracer.GRAIN_SIZE, null, tracer).run();
+            assertEquals(0, tracer.getDroppedCount());
+        }
+
+        Assertions.assertAscending(data);
+        assertTrue(convert(output.toByteArray()).length > 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidTrace() throws IOException {
+        convert(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedTrace() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (SortTracer tracer = new SortTracer(Channels.newChannel(output))) {
+            tracer.snapshot(0, PrimitiveUtils.randomArray(mRandom, MAX_SIZE), 0, MAX_SIZE);
+        }
+
+        final byte[] trace = output.toByteArray();
+        convert(Arrays.copyOf(trace, trace.length - Integer.BYTES));
+    }
+
+    /**
+     * @param trace The bytes of a trace.
+     * @return The lines of text that the trace converts to.
+     * @throws IOException if the trace is not valid.
+     */
+    private static String[] convert(byte[] trace) throws IOException {
+        final StringWriter writer = new StringWriter();
+        final int count = TraceConverter.convert(Channels.newChannel(new ByteArrayInputStream(trace)), writer);
+
+        // Every line ends with a line feed, which is what the graphing script expects.
+        final String text = writer.toString();
+        assertTrue(count == 0 || text.endsWith("\n"));
+        final String[] lines = text.isEmpty() ? new String[0] : text.split("\n");
+        assertEquals(count, lines.length);
+        return lines;
+    }
+
+}
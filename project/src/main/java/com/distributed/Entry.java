@@ -1,32 +1,383 @@
 package com.distributed;
 
 import com.distributed.bitonic.BitonicExecutor;
-import com.distributed.common.MathUtils;
+import com.distributed.bitonic.BitonicSortService;
+import com.distributed.bitonic.BlockBitonicExecutor;
+import com.distributed.bitonic.CacheBudget;
+import com.distributed.bitonic.ForkJoinBitonicExecutor;
+import com.distributed.bitonic.GrainSize;
+import com.distributed.bitonic.MappedFileSorter;
+import com.distributed.bitonic.NetworkSortCoordinator;
+import com.distributed.bitonic.NetworkSortWorker;
+import com.distributed.bitonic.PhaserBitonicExecutor;
+import com.distributed.external.ExternalSorter;
+import com.distributed.external.IntFiles;
+import com.distributed.sorting.IntSortData;
+import com.distributed.sorting.Polarity;
+import com.distributed.tracing.SortTracer;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Entry {
 
-    private static final int NUM_THREADS = 5;
+    private static final String EVENT_ENGINE = "event";
+    private static final String FORK_JOIN_ENGINE = "forkjoin";
+    private static final String PHASER_ENGINE = "phaser";
+    private static final String PHASER_L1_ENGINE = "phaser-l1";
+    private static final String BLOCK_ENGINE = "block";
+    private static final String SERVICE_ENGINE = "service";
+    private static final String NETWORK_ENGINE = "network";
+    private static final String MAPPED_ENGINE = "mapped";
+    private static final String EXTERNAL_ENGINE = "external";
+
+    private static final String TEXT_FORMAT = "text";
+    private static final String BINARY_FORMAT = "binary";
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar bitonic-sort.jar [options] [values...]",
+            "  -i, --input <file>      Read the data from a file instead of the values.",
+            "  -o, --output <file>     Write the result to a file instead of standard output.",
+            "  -f, --format <format>   The format of the files: text (one value on each line,",
+            "                          the default) or binary (little-endian 32-bit values).",
+            "  -t, --threads <n>       The number of threads (default: one for each processor).",
+            "  -p, --polarity <order>  ascending (the default) or descending.",
+            "  -e, --engine <engine>   event (the default), forkjoin, phaser, phaser-l1, block,",
+            "                          service or network sort in memory. mapped sorts a binary",
+            "                          output file in place, and external sorts a binary input",
+            "                          file that may be larger than memory into the output file.",
+            "  --trace <file>          Write snapshots of the data before and after every round",
+            "                          of the event engine to a file, which TraceConverter turns",
+            "                          into the input of graphing/create-gif-frames.py. A",
+            "                          traced sort uses a small grain, so that even a short",
+            "                          input takes several rounds.",
+            "  -h, --help              Print this message.");
 
     public static void main(String args[]) {
+        final Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
 
-        final int length = args.length;
-        if (!MathUtils.isPowerOfTwo(length)) {
-            final String message = "Input must have a length that is a power of 2.";
-            throw new IllegalArgumentException(message);
+        if (options.mHelp) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        try {
+            run(options);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sorts the data described by the options.
+     *
+     * @param options The parsed command line.
+     * @throws IOException if a file could not be read or written.
+     */
+    private static void run(Options options) throws IOException {
+        final boolean binary = BINARY_FORMAT.equals(options.mFormat);
+
+        // These engines sort files rather than arrays, so the data is never loaded onto the heap.
+        if (MAPPED_ENGINE.equals(options.mEngine) || EXTERNAL_ENGINE.equals(options.mEngine)) {
+            if (!binary || options.mInput == null || options.mOutput == null) {
+                final String message = "The " + options.mEngine + " engine needs binary --input and --output files.";
+                throw new IOException(message);
+            }
+
+            if (EXTERNAL_ENGINE.equals(options.mEngine)) {
+                new ExternalSorter(options.mThreads).sort(options.mInput, options.mOutput, options.mPolarity);
+            } else {
+                if (!Files.exists(options.mOutput) || !Files.isSameFile(options.mInput, options.mOutput)) {
+                    Files.copy(options.mInput, options.mOutput, StandardCopyOption.REPLACE_EXISTING);
+                }
+                MappedFileSorter.sort(options.mOutput, options.mThreads, options.mPolarity);
+            }
+            return;
+        }
+
+        final int[] data;
+        if (options.mInput == null) {
+            data = new int[options.mValues.size()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = Integer.parseInt(options.mValues.get(i));
+            }
+        } else if (binary) {
+            data = IntFiles.readBinary(options.mInput, MappedFileSorter.DEFAULT_ORDER);
+        } else {
+            data = IntFiles.readText(options.mInput, options.mThreads);
+        }
+
+        if (options.mTrace == null) {
+            sort(options.mEngine, options.mThreads, data, options.mPolarity, null);
+        } else {
+            if (!EVENT_ENGINE.equals(options.mEngine)) {
+                final String message = "Only the " + EVENT_ENGINE + " engine can be traced.";
+                throw new IOException(message);
+            }
+
+            // Closing the tracer waits for every snapshot to be written.
+            final FileChannel trace = FileChannel.open(options.mTrace, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try (SortTracer tracer = new SortTracer(trace)) {
+                sort(options.mEngine, options.mThreads, data, options.mPolarity, tracer);
+            }
+        }
+
+        // Values from the command line are printed in the same way as they always have been.
+        if (options.mInput == null && options.mOutput == null) {
+            System.out.println(Arrays.toString(data));
+            return;
+        }
+
+        final FileChannel channel = options.mOutput == null
+                ? new FileOutputStream(FileDescriptor.out).getChannel()
+                : FileChannel.open(options.mOutput, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            if (binary) {
+                IntFiles.writeBinary(data, channel, MappedFileSorter.DEFAULT_ORDER);
+            } else {
+                IntFiles.writeText(data, channel);
+            }
+        } finally {
+            if (options.mOutput != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Sorts an array with the engine that has the provided name.
+     *
+     * @param engine     The name of an in-memory engine.
+     * @param numThreads The number of threads that the engine should use.
+     * @param data       The data to sort.
+     * @param polarity   The desired {@link Polarity} of the result.
+     * @param tracer     The {@link SortTracer} to take snapshots of the event
+     *                   engine with, or {@code null} to not take any.
+     * @throws IOException if the workers of the network engine could not reach
+     *                     each other.
+     */
+    private static void sort(String engine, int numThreads, int[] data, Polarity polarity, SortTracer tracer)
+            throws IOException {
+        switch (engine) {
+            case EVENT_ENGINE:
+                new BitonicExecutor(numThreads, new IntSortData(data), 0, data.length, polarity,
+                        tracer == null ? GrainSize.DEFAULT : SortTracer.GRAIN_SIZE, null, tracer).run();
+                break;
+            case FORK_JOIN_ENGINE:
+                new ForkJoinBitonicExecutor(numThreads, data, polarity).run();
+                break;
+            case PHASER_ENGINE:
+                new PhaserBitonicExecutor(numThreads, data, polarity).run();
+                break;
+            case PHASER_L1_ENGINE:
+                new PhaserBitonicExecutor(numThreads, new IntSortData(data), 0, data.length, polarity,
+                        GrainSize.CACHE_LINE_INTS, CacheBudget.L1).run();
+                break;
+            case BLOCK_ENGINE:
+                new BlockBitonicExecutor(numThreads, data, polarity).run();
+                break;
+            case SERVICE_ENGINE:
+                final BitonicSortService service = new BitonicSortService(numThreads);
+                try {
+                    service.sort(data, polarity);
+                } finally {
+                    service.shutdown();
+                }
+                break;
+            case NETWORK_ENGINE:
+                sortOnNetwork(numThreads, data, polarity);
+                break;
+            default:
+                final String message = "Unknown engine: " + engine;
+                throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Sorts an array with a {@link NetworkSortCoordinator}, running each of its
+     * workers on a thread of this process that talks to the others over the
+     * loopback interface.
+     *
+     * @param numWorkers The number of workers.
+     * @param data       The data to sort.
+     * @param polarity   The desired {@link Polarity} of the result.
+     * @throws IOException if the workers could not reach each other.
+     */
+    private static void sortOnNetwork(int numWorkers, int[] data, Polarity polarity) throws IOException {
+        final ExecutorService threads = Executors.newFixedThreadPool(numWorkers);
+        try (NetworkSortCoordinator coordinator = new NetworkSortCoordinator(numWorkers)) {
+            final InetSocketAddress address = coordinator.getAddress();
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < numWorkers; worker++) {
+                workers.add(threads.submit(() -> {
+                    new NetworkSortWorker(address).run();
+                    return null;
+                }));
+            }
+
+            coordinator.sort(data, polarity);
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException(e);
+        } finally {
+            threads.shutdownNow();
         }
+    }
+
+    /**
+     * Represents the options that were provided on the command line.
+     */
+    private static class Options {
 
-        final int[] data = new int[args.length];
-        for (int i = 0; i < data.length; i++) {
-            data[i] = Integer.parseInt(args[i]);
+        /**
+         * Parses the command line.
+         *
+         * @param args The arguments that were passed to {@link #main(String[])}.
+         * @return The parsed {@link Options}.
+         * @throws IllegalArgumentException if any of the arguments is invalid.
+         */
+        static Options parse(String[] args) {
+            final Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-i":
+                    case "--input":
+                        options.mInput = Paths.get(valueOf(args, ++i));
+                        break;
+                    case "-o":
+                    case "--output":
+                        options.mOutput = Paths.get(valueOf(args, ++i));
+                        break;
+                    case "-f":
+                    case "--format":
+                        options.mFormat = choiceOf(valueOf(args, ++i), TEXT_FORMAT, BINARY_FORMAT);
+                        break;
+                    case "-t":
+                    case "--threads":
+                        options.mThreads = threadsOf(valueOf(args, ++i));
+                        break;
+                    case "-p":
+                    case "--polarity":
+                        options.mPolarity = "ascending".equals(choiceOf(valueOf(args, ++i), "ascending", "descending"))
+                                ? Polarity.ASCENDING : Polarity.DESCENDING;
+                        break;
+                    case "-e":
+                    case "--engine":
+                        options.mEngine = choiceOf(valueOf(args, ++i), EVENT_ENGINE, FORK_JOIN_ENGINE, PHASER_ENGINE,
+                                PHASER_L1_ENGINE, BLOCK_ENGINE, SERVICE_ENGINE, NETWORK_ENGINE, MAPPED_ENGINE,
+                                EXTERNAL_ENGINE);
+                        break;
+                    case "--trace":
+                        options.mTrace = Paths.get(valueOf(args, ++i));
+                        break;
+                    case "-h":
+                    case "--help":
+                        options.mHelp = true;
+                        break;
+                    default:
+
+                        // Negative values look like options, but are still values.
+                        if (args[i].startsWith("-") && !args[i].matches("-\\d+")) {
+                            final String message = "Unknown option: " + args[i];
+                            throw new IllegalArgumentException(message);
+                        }
+                        options.mValues.add(args[i]);
+                }
+            }
+
+            if (options.mInput != null && !options.mValues.isEmpty()) {
+                final String message = "Values cannot be provided along with an --input file.";
+                throw new IllegalArgumentException(message);
+            }
+            return options;
+        }
+
+        /**
+         * @param args  The arguments that were passed to {@link #main(String[])}.
+         * @param index The index of the value of an option.
+         * @return The value of the option.
+         * @throws IllegalArgumentException if the option is the last argument.
+         */
+        private static String valueOf(String[] args, int index) {
+            if (index >= args.length) {
+                final String message = "Missing value for " + args[index - 1];
+                throw new IllegalArgumentException(message);
+            }
+            return args[index];
+        }
+
+        /**
+         * @param value   The value of an option.
+         * @param choices The values that the option accepts.
+         * @return The value, in lower case.
+         * @throws IllegalArgumentException if the value is not one of the choices.
+         */
+        private static String choiceOf(String value, String... choices) {
+            final String lower = value.toLowerCase(Locale.ROOT);
+            if (!Arrays.asList(choices).contains(lower)) {
+                final String message = "Invalid value " + value + ", expected one of " + Arrays.toString(choices);
+                throw new IllegalArgumentException(message);
+            }
+            return lower;
+        }
+
+        /**
+         * @param value The value of the threads option.
+         * @return The number of threads.
+         * @throws IllegalArgumentException if the value is not a positive number.
+         */
+        private static int threadsOf(String value) {
+            try {
+                final int threads = Integer.parseInt(value);
+                if (threads > 0) {
+                    return threads;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below.
+            }
+            final String message = "Invalid number of threads: " + value;
+            throw new IllegalArgumentException(message);
         }
 
-        final BitonicExecutor executor = new BitonicExecutor(NUM_THREADS, data);
-        executor.run();
+        private final List<String> mValues = new ArrayList<>();
 
-        final String output = Arrays.toString(data);
-        System.out.println(output);
+        private Path mInput = null;
+        private Path mOutput = null;
+        private Path mTrace = null;
+        private String mFormat = TEXT_FORMAT;
+        private int mThreads = Runtime.getRuntime().availableProcessors();
+        private Polarity mPolarity = Polarity.ASCENDING;
+        private String mEngine = EVENT_ENGINE;
+        private boolean mHelp = false;
 
     }
 
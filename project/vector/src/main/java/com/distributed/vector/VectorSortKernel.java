@@ -0,0 +1,175 @@
+package com.distributed.vector;
+
+import com.distributed.sorting.ISortKernel;
+import com.distributed.sorting.ScalarSortKernel;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Represents an {@link ISortKernel} implementation that uses the Vector API to
+ * order a full vector of pairs at a time.
+ * <p>
+ * When the compare distance is at least the number of lanes, the left and right
+ * elements of the pairs are loaded as 2 separate vectors, and are ordered with a
+ * lane-wise minimum and maximum. When the distance is shorter than the number of
+ * lanes, both elements of each pair are in the same vector, so the vector is
+ * ordered against a copy of itself where each lane has been swapped with the lane
+ * that is {@code distance} away, and each lane then keeps either the minimum or
+ * the maximum depending on which half of its block it is in.
+ * </p>
+ * <p>
+ * Runs that are shorter than a vector, and the tail of a run, are performed by
+ * the {@link ScalarSortKernel}. The kernel is only used when the preferred vector
+ * of {@link Integer} primitives has at least {@value #MINIMUM_LANES} lanes, and
+ * the JVM must be started with {@code --add-modules jdk.incubator.vector} for
+ * it to be loaded at all.
+ * </p>
+ */
+public class VectorSortKernel implements ISortKernel {
+
+    // The number of lanes below which vectors are not worth using.
+    private static final int MINIMUM_LANES = 4;
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    // Indexed by the base 2 logarithm of each distance that is shorter than a vector.
+    private static final VectorShuffle<Integer>[] INT_PARTNERS = partners(INTS);
+    private static final VectorMask<Integer>[] INT_UPPER_HALVES = upperHalves(INTS);
+    private static final VectorShuffle<Long>[] LONG_PARTNERS = partners(LONGS);
+    private static final VectorMask<Long>[] LONG_UPPER_HALVES = upperHalves(LONGS);
+
+    private static final ScalarSortKernel SCALAR = new ScalarSortKernel();
+
+    @Override
+    public boolean isSupported() {
+        return INTS.length() >= MINIMUM_LANES;
+    }
+
+    @Override
+    public void compareExchange(int[] data, int start, int comparisons, int distance, boolean ascending) {
+
+        // A run is never longer than its distance, so the left and right vectors cannot overlap.
+        final int end = start + INTS.loopBound(comparisons);
+        int i = start;
+        for (; i < end; i += INTS.length()) {
+            final IntVector left = IntVector.fromArray(INTS, data, i);
+            final IntVector right = IntVector.fromArray(INTS, data, i + distance);
+            final IntVector lower = left.min(right);
+            final IntVector higher = left.max(right);
+            (ascending ? lower : higher).intoArray(data, i);
+            (ascending ? higher : lower).intoArray(data, i + distance);
+        }
+        SCALAR.compareExchange(data, i, start + comparisons - i, distance, ascending);
+    }
+
+    @Override
+    public void compareExchange(long[] data, int start, int comparisons, int distance, boolean ascending) {
+
+        // A run is never longer than its distance, so the left and right vectors cannot overlap.
+        final int end = start + LONGS.loopBound(comparisons);
+        int i = start;
+        for (; i < end; i += LONGS.length()) {
+            final LongVector left = LongVector.fromArray(LONGS, data, i);
+            final LongVector right = LongVector.fromArray(LONGS, data, i + distance);
+            final LongVector lower = left.min(right);
+            final LongVector higher = left.max(right);
+            (ascending ? lower : higher).intoArray(data, i);
+            (ascending ? higher : lower).intoArray(data, i + distance);
+        }
+        SCALAR.compareExchange(data, i, start + comparisons - i, distance, ascending);
+    }
+
+    @Override
+    public void compareExchangeBlocks(int[] data, int start, int stop, int distance, boolean ascending) {
+        if (distance >= INTS.length()) {
+            for (int blockStart = start; blockStart < stop; blockStart += 2 * distance) {
+                compareExchange(data, blockStart, distance, distance, ascending);
+            }
+            return;
+        }
+
+        /*
+         * Each vector holds whole blocks, as the number of lanes is a multiple of the
+         * block size, so every pair is within a single vector.
+         */
+        final VectorShuffle<Integer> partners = INT_PARTNERS[Integer.numberOfTrailingZeros(distance)];
+        final VectorMask<Integer> upperHalves = INT_UPPER_HALVES[Integer.numberOfTrailingZeros(distance)];
+        final int end = start + INTS.loopBound(stop - start);
+        int i = start;
+        for (; i < end; i += INTS.length()) {
+            final IntVector vector = IntVector.fromArray(INTS, data, i);
+            final IntVector partner = vector.rearrange(partners);
+            final IntVector lower = vector.min(partner);
+            final IntVector higher = vector.max(partner);
+            (ascending ? lower.blend(higher, upperHalves) : higher.blend(lower, upperHalves)).intoArray(data, i);
+        }
+        SCALAR.compareExchangeBlocks(data, i, stop, distance, ascending);
+    }
+
+    @Override
+    public void compareExchangeBlocks(long[] data, int start, int stop, int distance, boolean ascending) {
+        if (distance >= LONGS.length()) {
+            for (int blockStart = start; blockStart < stop; blockStart += 2 * distance) {
+                compareExchange(data, blockStart, distance, distance, ascending);
+            }
+            return;
+        }
+
+        /*
+         * Each vector holds whole blocks, as the number of lanes is a multiple of the
+         * block size, so every pair is within a single vector.
+         */
+        final VectorShuffle<Long> partners = LONG_PARTNERS[Integer.numberOfTrailingZeros(distance)];
+        final VectorMask<Long> upperHalves = LONG_UPPER_HALVES[Integer.numberOfTrailingZeros(distance)];
+        final int end = start + LONGS.loopBound(stop - start);
+        int i = start;
+        for (; i < end; i += LONGS.length()) {
+            final LongVector vector = LongVector.fromArray(LONGS, data, i);
+            final LongVector partner = vector.rearrange(partners);
+            final LongVector lower = vector.min(partner);
+            final LongVector higher = vector.max(partner);
+            (ascending ? lower.blend(higher, upperHalves) : higher.blend(lower, upperHalves)).intoArray(data, i);
+        }
+        SCALAR.compareExchangeBlocks(data, i, stop, distance, ascending);
+    }
+
+    /**
+     * @param species The {@link VectorSpecies} of the vectors.
+     * @param <E>     The type of the lanes.
+     * @return For each distance that is shorter than a vector, the shuffle that
+     * swaps each lane with the lane that is the distance away within its block.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> VectorShuffle<E>[] partners(VectorSpecies<E> species) {
+        final VectorShuffle<E>[] result = new VectorShuffle[Integer.numberOfTrailingZeros(species.length())];
+        for (int log = 0; log < result.length; log++) {
+            final int distance = 1 << log;
+            result[log] = VectorShuffle.fromOp(species, lane -> lane ^ distance);
+        }
+        return result;
+    }
+
+    /**
+     * @param species The {@link VectorSpecies} of the vectors.
+     * @param <E>     The type of the lanes.
+     * @return For each distance that is shorter than a vector, the mask of the
+     * lanes that are in the second half of their block.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> VectorMask<E>[] upperHalves(VectorSpecies<E> species) {
+        final VectorMask<E>[] result = new VectorMask[Integer.numberOfTrailingZeros(species.length())];
+        for (int log = 0; log < result.length; log++) {
+            final boolean[] lanes = new boolean[species.length()];
+            for (int lane = 0; lane < lanes.length; lane++) {
+                lanes[lane] = (lane & (1 << log)) != 0;
+            }
+            result[log] = VectorMask.fromArray(species, lanes, 0);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.distributed.vector;
+
+import com.distributed.common.PrimitiveUtils;
+import com.distributed.common.testing.TestUtils;
+import com.distributed.sorting.ISortKernel;
+import com.distributed.sorting.ScalarSortKernel;
+import com.distributed.sorting.SortKernels;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class VectorSortKernelTest {
+
+    private static final int MAX_DISTANCE = 512;
+    private static final int ROUNDS = 20;
+
+    private final Random mRandom = TestUtils.newRandom();
+    private final ISortKernel mScalar = new ScalarSortKernel();
+    private final ISortKernel mVector = new VectorSortKernel();
+
+    @Test
+    public void testSelected() {
+        assumeTrue(mVector.isSupported());
+        assertTrue(SortKernels.get() instanceof VectorSortKernel);
+    }
+
+    @Test
+    public void testIntRuns() {
+        for (int distance = 1; distance <= MAX_DISTANCE; distance *= 2) {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int start = mRandom.nextInt(distance);
+                final int comparisons = mRandom.nextInt(distance + 1);
+                final boolean ascending = mRandom.nextBoolean();
+                final int[] expected = PrimitiveUtils.randomArray(mRandom, start + 2 * distance);
+                final int[] actual = Arrays.copyOf(expected, expected.length);
+
+                mScalar.compareExchange(expected, start, comparisons, distance, ascending);
+                mVector.compareExchange(actual, start, comparisons, distance, ascending);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testLongRuns() {
+        for (int distance = 1; distance <= MAX_DISTANCE; distance *= 2) {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int start = mRandom.nextInt(distance);
+                final int comparisons = mRandom.nextInt(distance + 1);
+                final boolean ascending = mRandom.nextBoolean();
+                final long[] expected = randomLongs(start + 2 * distance);
+                final long[] actual = Arrays.copyOf(expected, expected.length);
+
+                mScalar.compareExchange(expected, start, comparisons, distance, ascending);
+                mVector.compareExchange(actual, start, comparisons, distance, ascending);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testIntBlocks() {
+        for (int distance = 1; distance <= MAX_DISTANCE; distance *= 2) {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int start = mRandom.nextInt(100);
+                final int stop = start + 2 * distance * mRandom.nextInt(10);
+                final boolean ascending = mRandom.nextBoolean();
+                final int[] expected = PrimitiveUtils.randomArray(mRandom, stop + mRandom.nextInt(100));
+                final int[] actual = Arrays.copyOf(expected, expected.length);
+
+                mScalar.compareExchangeBlocks(expected, start, stop, distance, ascending);
+                mVector.compareExchangeBlocks(actual, start, stop, distance, ascending);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testLongBlocks() {
+        for (int distance = 1; distance <= MAX_DISTANCE; distance *= 2) {
+            for (int i = 0; i < ROUNDS; i++) {
+                final int start = mRandom.nextInt(100);
+                final int stop = start + 2 * distance * mRandom.nextInt(10);
+                final boolean ascending = mRandom.nextBoolean();
+                final long[] expected = randomLongs(stop + mRandom.nextInt(100));
+                final long[] actual = Arrays.copyOf(expected, expected.length);
+
+                mScalar.compareExchangeBlocks(expected, start, stop, distance, ascending);
+                mVector.compareExchangeBlocks(actual, start, stop, distance, ascending);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * @param size The number of elements to generate.
+     * @return An array of random {@link Long} primitives.
+     */
+    private long[] randomLongs(int size) {
+        final long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = mRandom.nextLong();
+        }
+        return result;
+    }
+
+}